@@ -32,6 +32,7 @@ import com.avairebot.audio.GuildMusicManager;
 import com.avairebot.audio.LavalinkManager;
 import com.avairebot.audio.cache.AudioState;
 import com.avairebot.blacklist.Blacklist;
+import com.avairebot.cache.AssetCache;
 import com.avairebot.cache.CacheManager;
 import com.avairebot.cache.CacheType;
 import com.avairebot.chat.ConsoleColor;
@@ -44,10 +45,12 @@ import com.avairebot.commands.utility.StatsCommand;
 import com.avairebot.commands.utility.UptimeCommand;
 import com.avairebot.config.*;
 import com.avairebot.contracts.commands.Command;
+import com.avairebot.contracts.commands.InteractionCommand;
 import com.avairebot.contracts.database.migrations.Migration;
 import com.avairebot.contracts.database.seeder.Seeder;
 import com.avairebot.contracts.scheduler.Job;
 import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.controllers.GuildPreloader;
 import com.avairebot.database.serializer.PlaylistSongSerializer;
 import com.avairebot.database.transformers.PlaylistTransformer;
 import com.avairebot.exceptions.InvalidApplicationEnvironmentException;
@@ -65,7 +68,9 @@ import com.avairebot.middleware.*;
 import com.avairebot.mute.MuteManager;
 import com.avairebot.plugin.PluginLoader;
 import com.avairebot.plugin.PluginManager;
+import com.avairebot.scheduler.ReminderScheduler;
 import com.avairebot.scheduler.ScheduleHandler;
+import com.avairebot.scheduler.tasks.SyncGuildMetadataWithDatabaseTask;
 import com.avairebot.servlet.WebServlet;
 import com.avairebot.servlet.routes.*;
 import com.avairebot.shard.ShardEntityCounter;
@@ -100,11 +105,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import javax.security.auth.login.LoginException;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
 
 public class AvaIre {
 
@@ -126,6 +133,7 @@ public class AvaIre {
     private final Configuration config;
     private final ConstantsConfiguration constants;
     private final CacheManager cache;
+    private final AssetCache assetCache;
     private final Blacklist blacklist;
     private final DatabaseManager database;
     private final LevelManager levelManager;
@@ -133,6 +141,8 @@ public class AvaIre {
     private final PluginManager pluginManager;
     private final VoteManager voteManager;
     private final MuteManager muteManger;
+    private final ReminderScheduler reminderScheduler;
+    private final GuildPreloader guildPreloader;
     private final ShardEntityCounter shardEntityCounter;
     private final EventEmitter eventEmitter;
     private final BotAdmin botAdmins;
@@ -402,6 +412,16 @@ public class AvaIre {
         log.info("Preparing mute manager");
         muteManger = new MuteManager(this);
 
+        log.info("Preparing reminder scheduler");
+        reminderScheduler = new ReminderScheduler(this);
+
+        log.info("Preparing guild preloader");
+        guildPreloader = new GuildPreloader(this,
+            getConfig().getInt("guild-preload.chunk-size", 250),
+            getConfig().getInt("guild-preload.maximum-guilds-per-shard", 1000),
+            getConfig().getInt("guild-preload.threads", 2)
+        );
+
         log.info("Preparing Lavalink");
         AudioHandler.setAvaire(this);
         LavalinkManager.LavalinkManagerHolder.lavalink.start(this);
@@ -417,6 +437,20 @@ public class AvaIre {
             config.set("audio-quality.resampling", "medium");
         }
 
+        log.info("Preparing asset cache");
+        assetCache = new AssetCache(new File(Constants.STORAGE_PATH, "assets"),
+            getConfig().getLong("asset-cache.maximum-disk-size", 512L) * 1024L * 1024L,
+            getConfig().getLong("asset-cache.maximum-memory-size", 32L) * 1024L * 1024L
+        );
+
+        if (getConfig().getBoolean("asset-cache.prefetch-interactions", true)) {
+            assetCache.prefetch(CommandHandler.getCommands().stream()
+                .filter(container -> container.getCommand() instanceof InteractionCommand)
+                .flatMap(container -> ((InteractionCommand) container.getCommand()).getInteractionImages().stream())
+                .collect(Collectors.toSet())
+            );
+        }
+
         log.info("Creating bot instance and connecting to Discord network");
 
         shardEntityCounter = new ShardEntityCounter(this);
@@ -511,6 +545,10 @@ public class AvaIre {
         return cache;
     }
 
+    public AssetCache getAssetCache() {
+        return assetCache;
+    }
+
     public Blacklist getBlacklist() {
         return blacklist;
     }
@@ -535,6 +573,14 @@ public class AvaIre {
         return muteManger;
     }
 
+    public ReminderScheduler getReminderScheduler() {
+        return reminderScheduler;
+    }
+
+    public GuildPreloader getGuildPreloader() {
+        return guildPreloader;
+    }
+
     public WebServlet getServlet() {
         return servlet;
     }
@@ -619,6 +665,10 @@ public class AvaIre {
         // can resume the music once the bot boots back up.
         cache.getAdapter(CacheType.FILE).put("audio.state", gson.toJson(audioStates), 60 * 60 * 3);
 
+        // Stores the guilds that are currently active, so their guild
+        // cache can be warmed up first once the bot boots back up.
+        guildPreloader.saveRecentlyActiveGuilds();
+
         try {
             if (shutdownDelay > 5000L) {
                 // If the shutdown delay is anymore than 5 seconds, we just set it to a
@@ -634,6 +684,10 @@ public class AvaIre {
             e.printStackTrace();
         }
 
+        // Flushes any pending guild metadata writes before the shards are shutdown,
+        // since the metadata is built from the guilds cached by the shards.
+        new SyncGuildMetadataWithDatabaseTask().flush(this, true);
+
         if (getShardManager() != null) {
             for (JDA shard : getShardManager().getShards()) {
                 shard.shutdown();
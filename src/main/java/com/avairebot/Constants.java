@@ -34,6 +34,7 @@ public class Constants {
     public static final String STATISTICS_TABLE_NAME = "statistics";
     public static final String BLACKLIST_TABLE_NAME = "blacklists";
     public static final String PLAYER_EXPERIENCE_TABLE_NAME = "experiences";
+    public static final String GLOBAL_EXPERIENCE_TABLE_NAME = "global_experiences";
     public static final String VOTES_TABLE_NAME = "votes";
     public static final String FEEDBACK_TABLE_NAME = "feedback";
     public static final String MUSIC_PLAYLIST_TABLE_NAME = "playlists";
@@ -46,6 +47,7 @@ public class Constants {
     public static final String MUSIC_SEARCH_PROVIDERS_TABLE_NAME = "music_search_providers";
     public static final String MUSIC_SEARCH_CACHE_TABLE_NAME = "music_search_cache";
     public static final String INSTALLED_PLUGINS_TABLE_NAME = "installed_plugins";
+    public static final String REMINDERS_TABLE_NAME = "reminders";
 
     // Package Specific Information
     public static final String PACKAGE_MIGRATION_PATH = "com.avairebot.database.migrate";
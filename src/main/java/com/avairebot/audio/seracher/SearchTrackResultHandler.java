@@ -41,7 +41,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -50,6 +56,7 @@ public class SearchTrackResultHandler implements AudioLoadResultHandler {
     private static final Logger log = LoggerFactory.getLogger(SearchTrackResultHandler.class);
     private static final long defaultYouTubeCooldown = TimeUnit.MINUTES.toMillis(10);
     private static final long defaultTimeout = 3000L;
+    private static final Map<String, CompletableFuture<AudioPlaylist>> inFlightSearches = new ConcurrentHashMap<>();
     private static long youtubeCooldownUntil = 0;
 
     private final TrackRequestContext trackContext;
@@ -124,6 +131,12 @@ public class SearchTrackResultHandler implements AudioLoadResultHandler {
         }
 
         if (!skipCache) {
+            if (SearchController.isNoMatchResult(trackContext)) {
+                Metrics.searchHits.labels("cache-empty").inc();
+
+                return new BasicAudioPlaylist("No matches", Collections.emptyList(), null, true);
+            }
+
             AudioPlaylist playlist = loadContextFromCache();
             if (playlist != null) {
                 Metrics.searchHits.labels("cache").inc();
@@ -132,6 +145,57 @@ public class SearchTrackResultHandler implements AudioLoadResultHandler {
             }
         }
 
+        // Identical searches made while the search is still in-flight will wait for
+        // the in-flight search to finish and reuse its result, instead of sending
+        // their own requests to the search provider.
+        String searchKey = trackContext.getFullQueryString();
+        CompletableFuture<AudioPlaylist> search = new CompletableFuture<>();
+        CompletableFuture<AudioPlaylist> inFlightSearch = inFlightSearches.putIfAbsent(searchKey, search);
+        if (inFlightSearch != null) {
+            Metrics.searchLoads.labels("coalesced").inc();
+
+            return awaitInFlightSearch(inFlightSearch, timeoutMillis);
+        }
+
+        Metrics.searchLoads.labels("executed").inc();
+
+        try {
+            AudioPlaylist playlist = loadPlaylist(timeoutMillis);
+            search.complete(playlist);
+
+            return playlist;
+        } catch (SearchingException | RuntimeException e) {
+            search.completeExceptionally(e);
+
+            throw e;
+        } finally {
+            inFlightSearches.remove(searchKey, search);
+        }
+    }
+
+    /**
+     * Sets whether the cache should be used in the request or not.
+     *
+     * @param skipCache The value that should determine if the cache is used or not.
+     * @return An instance of the current search result handler.
+     */
+    public SearchTrackResultHandler skipCache(boolean skipCache) {
+        this.skipCache = skipCache;
+
+        return this;
+    }
+
+    /**
+     * Loads the audio playlist for the track context using the search provider, and
+     * stores the result in the cache, unless the cache should be skipped.
+     *
+     * @param timeoutMillis The amount of time to wait before the search request times
+     *                      out in milliseconds.
+     * @return The playlist returned from the search provider.
+     * @throws SearchingException If the search provider fails to load the playlist, or the search times out.
+     */
+    @Nonnull
+    private AudioPlaylist loadPlaylist(long timeoutMillis) throws SearchingException {
         try {
             AudioHandler.getDefaultAudioHandler()
                 .getPlayerManager()
@@ -201,15 +265,75 @@ public class SearchTrackResultHandler implements AudioLoadResultHandler {
     }
 
     /**
-     * Sets whether the cache should be used in the request or not.
+     * Waits for the given in-flight search to finish, and returns a copy of its
+     * playlist, since the same audio track instances can't be played by
+     * multiple guilds at the same time.
      *
-     * @param skipCache The value that should determine if the cache is used or not.
-     * @return An instance of the current search result handler.
+     * @param inFlightSearch The in-flight search that should be waited for.
+     * @param timeoutMillis  The amount of time to wait before the search request times
+     *                       out in milliseconds.
+     * @return A copy of the playlist returned by the in-flight search.
+     * @throws SearchingException If the in-flight search failed, or it didn't finish before the timeout.
      */
-    public SearchTrackResultHandler skipCache(boolean skipCache) {
-        this.skipCache = skipCache;
+    @Nonnull
+    private AudioPlaylist awaitInFlightSearch(CompletableFuture<AudioPlaylist> inFlightSearch, long timeoutMillis) throws SearchingException {
+        try {
+            AudioPlaylist playlist = inFlightSearch.get(timeoutMillis, TimeUnit.MILLISECONDS);
 
-        return this;
+            Metrics.searchHits.labels(playlist.getTracks().isEmpty()
+                ? "empty" : "coalesced-" + trackContext.getProvider().name().toLowerCase()
+            ).inc();
+
+            return copyPlaylist(playlist);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new SearchingException(String.format(
+                "Searching provider %s for \"%s\" was interrupted",
+                trackContext.getProvider().name(), trackContext.getQuery()
+            ));
+        } catch (TimeoutException e) {
+            Metrics.searchHits.labels("exception").inc();
+
+            throw new SearchingException(String.format(
+                "Searching provider %s for \"%s\" timed out after %sms",
+                trackContext.getProvider().name(), trackContext.getQuery(), timeoutMillis
+            ));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SearchingException) {
+                throw (SearchingException) e.getCause();
+            }
+
+            throw new SearchingException(String.format(
+                "The %s search provider failed to query for %s with exception %s",
+                trackContext.getProvider(), trackContext.getQuery(), e.getCause().getMessage()
+            ), e.getCause());
+        }
+    }
+
+    /**
+     * Creates a copy of the given playlist, where all the tracks are cloned.
+     *
+     * @param playlist The playlist that should be copied.
+     * @return The copy of the given playlist.
+     */
+    private AudioPlaylist copyPlaylist(AudioPlaylist playlist) {
+        AudioTrack selectedTrack = null;
+
+        List<AudioTrack> tracks = new ArrayList<>(playlist.getTracks().size());
+        for (AudioTrack track : playlist.getTracks()) {
+            AudioTrack clone = track.makeClone();
+            if (track == playlist.getSelectedTrack()) {
+                selectedTrack = clone;
+            }
+            tracks.add(clone);
+        }
+
+        if (selectedTrack == null && playlist.getSelectedTrack() != null) {
+            selectedTrack = playlist.getSelectedTrack().makeClone();
+        }
+
+        return new BasicAudioPlaylist(playlist.getName(), tracks, selectedTrack, playlist.isSearchResult());
     }
 
     /**
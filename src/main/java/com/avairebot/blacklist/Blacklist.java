@@ -34,16 +34,31 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
-@SuppressWarnings("SuspiciousMethodCalls")
 public class Blacklist {
 
     private final AvaIre avaire;
-    private final List<BlacklistEntity> blacklist;
     private final Ratelimit ratelimit;
 
+    /**
+     * The current blacklist snapshot, the index is never modified, instead any
+     * changes to the blacklist will swap in a new snapshot, so the blacklist
+     * can be read from the message threads without any locking.
+     */
+    private volatile BlacklistIndex blacklist = BlacklistIndex.EMPTY;
+
+    /**
+     * The blacklist entities that have an expire time, ordered by when they expire,
+     * allowing expired entities to be removed without scanning the entire
+     * blacklist, the queue is guarded by the blacklist instance lock.
+     */
+    private final PriorityQueue<BlacklistEntity> expiryQueue = new PriorityQueue<>(
+        Comparator.comparingLong(entity -> entity.getExpiresIn().getTimestamp())
+    );
+
     /**
      * Creates a new blacklist instance.
      *
@@ -52,7 +67,6 @@ public class Blacklist {
     public Blacklist(AvaIre avaire) {
         this.avaire = avaire;
 
-        this.blacklist = new BlacklistList();
         this.ratelimit = new Ratelimit(this);
     }
 
@@ -72,7 +86,7 @@ public class Blacklist {
      * @return <code>True</code> if the ID is on the blacklist, <code>False</code> otherwise.
      */
     public boolean isBlacklisted(long id) {
-        return blacklist.contains(id);
+        return blacklist.get(id) != null;
     }
 
     /**
@@ -96,12 +110,11 @@ public class Blacklist {
      * @return <code>True</code> if the user is on the blacklist, <code>False</code> otherwise.
      */
     public boolean isBlacklisted(@Nonnull User user) {
-        if (avaire.getBotAdmins().getUserById(user.getIdLong(), true).isAdmin()) {
+        BlacklistEntity entity = getEntity(user.getIdLong(), Scope.USER);
+        if (entity == null || !entity.isBlacklisted()) {
             return false;
         }
-
-        BlacklistEntity entity = getEntity(user.getIdLong(), Scope.USER);
-        return entity != null && entity.isBlacklisted();
+        return !avaire.getBotAdmins().getUserById(user.getIdLong(), true).isAdmin();
     }
 
     /**
@@ -143,18 +156,12 @@ public class Blacklist {
      * @param id The ID to remove from teh blacklist.
      */
     public void remove(long id) {
-        if (!blacklist.contains(id)) {
-            return;
-        }
-
-        Iterator<BlacklistEntity> iterator = blacklist.iterator();
-        while (iterator.hasNext()) {
-            BlacklistEntity next = iterator.next();
-
-            if (next.getId() == id) {
-                iterator.remove();
-                break;
+        synchronized (this) {
+            BlacklistIndex index = blacklist.without(entity -> entity.getId() == id);
+            if (index == blacklist) {
+                return;
             }
+            blacklist = index;
         }
 
         try {
@@ -174,7 +181,7 @@ public class Blacklist {
      */
     @Nullable
     public BlacklistEntity getEntity(long id) {
-        return getEntity(id, null);
+        return blacklist.get(id);
     }
 
     /**
@@ -186,15 +193,7 @@ public class Blacklist {
      */
     @Nullable
     public BlacklistEntity getEntity(long id, @Nullable Scope scope) {
-        for (BlacklistEntity entity : blacklist) {
-            if (entity.getId() == id) {
-                if (scope != null && scope != entity.getScope()) {
-                    continue;
-                }
-                return entity;
-            }
-        }
-        return null;
+        return scope == null ? blacklist.get(id) : blacklist.get(id, scope);
     }
 
     /**
@@ -217,13 +216,14 @@ public class Blacklist {
      * @param expiresIn The carbon time instance for when the entity should expire.
      */
     public void addIdToBlacklist(Scope scope, final long id, final @Nullable String reason, @Nullable Carbon expiresIn) {
-        BlacklistEntity entity = getEntity(id, scope);
-        if (entity != null) {
-            blacklist.remove(entity);
+        BlacklistEntity entity = new BlacklistEntity(scope, id, reason, expiresIn);
+        synchronized (this) {
+            blacklist = blacklist.with(entity);
+            if (entity.getExpiresIn() != null) {
+                expiryQueue.add(entity);
+            }
         }
 
-        blacklist.add(new BlacklistEntity(scope, id, reason, expiresIn));
-
         try {
             avaire.getDatabase().newQueryBuilder(Constants.BLACKLIST_TABLE_NAME)
                 .where("id", id).andWhere("type", scope.getId())
@@ -257,14 +257,38 @@ public class Blacklist {
      * @return The entities currently on the blacklist.
      */
     public List<BlacklistEntity> getBlacklistEntities() {
-        return blacklist;
+        return blacklist.values();
     }
 
     /**
-     * Syncs the blacklist with the database.
+     * Removes all the expired entities from the blacklist, the entities are
+     * taken from the front of the expiry queue until an entity that is
+     * still blacklisted is found, so only expired entities are visited.
+     */
+    public synchronized void removeExpiredEntities() {
+        List<BlacklistEntity> expired = new ArrayList<>();
+        while (!expiryQueue.isEmpty() && !expiryQueue.peek().isBlacklisted()) {
+            BlacklistEntity entity = expiryQueue.poll();
+
+            // Entities that have been replaced or removed since they were queued are
+            // left in the queue, so we only remove them if they're still in use.
+            if (blacklist.contains(entity)) {
+                expired.add(entity);
+            }
+        }
+
+        if (!expired.isEmpty()) {
+            blacklist = blacklist.without(expired::contains);
+        }
+    }
+
+    /**
+     * Syncs the blacklist with the database, the new blacklist is loaded in
+     * full before it replaces the current one, if the blacklist fails to
+     * load, the current blacklist will be kept as-is.
      */
     public synchronized void syncBlacklistWithDatabase() {
-        blacklist.clear();
+        List<BlacklistEntity> entities = new ArrayList<>();
         try {
             Collection collection = avaire.getDatabase().newQueryBuilder(Constants.BLACKLIST_TABLE_NAME)
                 .where("expires_in", ">", Carbon.now())
@@ -279,8 +303,11 @@ public class Blacklist {
                 try {
                     long longId = Long.parseLong(id);
                     Scope scope = Scope.fromId(row.getInt("type", 0));
+                    if (scope == null) {
+                        return;
+                    }
 
-                    blacklist.add(new BlacklistEntity(
+                    entities.add(new BlacklistEntity(
                         scope, longId,
                         row.getString("reason"),
                         row.getTimestamp("expires_in")
@@ -291,24 +318,18 @@ public class Blacklist {
             });
         } catch (SQLException e) {
             AvaIre.getLogger().error("Failed to sync blacklist with the database: " + e.getMessage(), e);
+            return;
         }
-    }
 
-    private class BlacklistList extends ArrayList<BlacklistEntity> {
+        BlacklistIndex index = new BlacklistIndex(entities);
 
-        @Override
-        public boolean contains(Object o) {
-            if (o instanceof Long) {
-                long id = (long) o;
-                for (BlacklistEntity entity : this) {
-                    if (entity.getId() == id) {
-                        return true;
-                    }
-                }
-                return false;
+        expiryQueue.clear();
+        for (BlacklistEntity entity : index.values()) {
+            if (entity.getExpiresIn() != null) {
+                expiryQueue.add(entity);
             }
-
-            return super.contains(o);
         }
+
+        blacklist = index;
     }
 }
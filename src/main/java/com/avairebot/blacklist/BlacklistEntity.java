@@ -89,6 +89,17 @@ public class BlacklistEntity extends Evalable {
         return expiresIn == null || expiresIn.isFuture();
     }
 
+    /**
+     * Gets the carbon time instance for when the blacklist entity expires, or
+     * {@code NULL} if the blacklist entity should last forever.
+     *
+     * @return Possibly-null, the time the blacklist entity expires.
+     */
+    @Nullable
+    public Carbon getExpiresIn() {
+        return expiresIn;
+    }
+
     /**
      * Gets the reason the entity was blacklist form, or null.
      *
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.blacklist;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * An immutable snapshot of the blacklist, the entities are split up by their scope
+ * and sorted by their IDs, so looking up an entity is a binary search through
+ * a primitive long array, which doesn't require any locking or allocations.
+ * <p>
+ * Changes to the blacklist creates a new snapshot which can then be swapped in
+ * atomically, so readers will always see either the old or the new index.
+ */
+final class BlacklistIndex {
+
+    /**
+     * An empty blacklist index, with no entities for any scope.
+     */
+    static final BlacklistIndex EMPTY = new BlacklistIndex(Collections.emptyList());
+
+    private final long[][] ids = new long[Scope.values().length][];
+    private final BlacklistEntity[][] entities = new BlacklistEntity[Scope.values().length][];
+    private final List<BlacklistEntity> values;
+
+    /**
+     * Creates a new blacklist index for the given entities, if multiple entities
+     * share the same ID and scope, the last entity will be used.
+     *
+     * @param entities The entities that should be indexed.
+     */
+    BlacklistIndex(@Nonnull Collection<BlacklistEntity> entities) {
+        List<BlacklistEntity> values = new ArrayList<>(entities.size());
+
+        for (Scope scope : Scope.values()) {
+            TreeMap<Long, BlacklistEntity> scoped = new TreeMap<>();
+            for (BlacklistEntity entity : entities) {
+                if (entity.getScope() == scope) {
+                    scoped.put(entity.getId(), entity);
+                }
+            }
+
+            long[] scopedIds = new long[scoped.size()];
+            BlacklistEntity[] scopedEntities = new BlacklistEntity[scoped.size()];
+
+            int index = 0;
+            for (BlacklistEntity entity : scoped.values()) {
+                scopedIds[index] = entity.getId();
+                scopedEntities[index++] = entity;
+            }
+
+            this.ids[scope.ordinal()] = scopedIds;
+            this.entities[scope.ordinal()] = scopedEntities;
+
+            values.addAll(scoped.values());
+        }
+
+        this.values = Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Gets the blacklist entity matching the given ID and scope.
+     *
+     * @param id    The ID of the entity that should be returned.
+     * @param scope The scope the entity should belong to.
+     * @return Possibly-null, the entity matching the given ID and scope.
+     */
+    @Nullable
+    BlacklistEntity get(long id, @Nonnull Scope scope) {
+        int index = Arrays.binarySearch(ids[scope.ordinal()], id);
+
+        return index < 0 ? null : entities[scope.ordinal()][index];
+    }
+
+    /**
+     * Gets the first blacklist entity matching the given ID in any scope.
+     *
+     * @param id The ID of the entity that should be returned.
+     * @return Possibly-null, the entity matching the given ID.
+     */
+    @Nullable
+    BlacklistEntity get(long id) {
+        for (Scope scope : Scope.values()) {
+            BlacklistEntity entity = get(id, scope);
+            if (entity != null) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the index contains the given entity instance.
+     *
+     * @param entity The entity that should be checked.
+     * @return {@code True} if the exact entity instance is in the index, {@code False} otherwise.
+     */
+    boolean contains(@Nonnull BlacklistEntity entity) {
+        return get(entity.getId(), entity.getScope()) == entity;
+    }
+
+    /**
+     * Gets all the entities in the index as an unmodifiable list.
+     *
+     * @return All the entities in the index.
+     */
+    List<BlacklistEntity> values() {
+        return values;
+    }
+
+    /**
+     * Creates a new index with the given entity added to it, replacing any
+     * existing entity with the same ID and scope as the given entity.
+     *
+     * @param entity The entity that should be added to the index.
+     * @return The new blacklist index.
+     */
+    BlacklistIndex with(@Nonnull BlacklistEntity entity) {
+        List<BlacklistEntity> entities = new ArrayList<>(values.size() + 1);
+        entities.addAll(values);
+        entities.add(entity);
+
+        return new BlacklistIndex(entities);
+    }
+
+    /**
+     * Creates a new index without any of the entities matching the given filter,
+     * if no entities matches the filter the current index will be returned.
+     *
+     * @param filter The filter used to determine what entities should be removed.
+     * @return The new blacklist index.
+     */
+    BlacklistIndex without(@Nonnull Predicate<BlacklistEntity> filter) {
+        List<BlacklistEntity> entities = new ArrayList<>(values.size());
+        for (BlacklistEntity entity : values) {
+            if (!filter.test(entity)) {
+                entities.add(entity);
+            }
+        }
+
+        return entities.size() == values.size() ? this : new BlacklistIndex(entities);
+    }
+}
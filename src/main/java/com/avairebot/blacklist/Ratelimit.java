@@ -24,12 +24,10 @@ package com.avairebot.blacklist;
 import com.avairebot.contracts.blacklist.PunishmentLevel;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.middleware.ThrottleMiddleware;
+import com.avairebot.throttle.ThrottleBuckets;
+import com.avairebot.throttle.TokenBucket;
 import com.avairebot.time.Carbon;
-import com.avairebot.utilities.CacheUtil;
 import com.avairebot.utilities.RestActionUtil;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import net.dv8tion.jda.core.entities.MessageChannel;
 import net.dv8tion.jda.core.entities.User;
 import org.slf4j.Logger;
@@ -38,10 +36,9 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import java.awt.*;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Ratelimit {
 
@@ -62,12 +59,12 @@ public class Ratelimit {
     static final long hitTime = 30 * 1000;
 
     /**
-     * The cache loader for holding all the ratelimiter rates.
+     * The ratelimit token buckets, keyed by the ID of the user or guild, and
+     * whether the ID belongs to a user or a guild, each bucket holds one
+     * token less than the hit limit, so the hit that empties the
+     * bucket is the one that triggers the blacklist.
      */
-    public static final LoadingCache<Long, Rate> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(hitTime, TimeUnit.MILLISECONDS)
-        .build(CacheLoader.from(Rate::new));
+    public static final ThrottleBuckets buckets = new ThrottleBuckets();
 
     /**
      * The slf4j logger instance.
@@ -79,7 +76,7 @@ public class Ratelimit {
      * punishment level, with each offence, the punishment level(value) will go
      * up, increasing the time the user get auto-blacklisted for.
      */
-    private static final Map<Long, Integer> punishments = new HashMap<>();
+    private static final Map<Long, Integer> punishments = new ConcurrentHashMap<>();
 
     /**
      * The punishment levels, each index of the levels list should be an
@@ -196,30 +193,21 @@ public class Ratelimit {
      */
     @Nullable
     public Carbon hit(ThrottleMiddleware.ThrottleType type, long id) {
-        Rate rate = CacheUtil.getUncheckedUnwrapped(cache, id);
-        if (rate == null) {
-            // This should never happen, if it does we'll just return
-            // null to not block any commands by a valid user.
-            return null;
-        }
-
-        //noinspection SynchronizationOnLocalVariableOrMethodParameter
-        synchronized (rate) {
-            rate.hit();
+        TokenBucket bucket = buckets.get(
+            id, 0L, type.equals(ThrottleMiddleware.ThrottleType.USER) ? 0 : 1, hitLimit - 1, hitTime
+        );
 
-            if (rate.getHits() < hitLimit) {
-                return null;
-            }
+        long now = System.currentTimeMillis();
+        long arrivalTime = bucket.getArrivalTime();
+        if (bucket.tryAcquire(now)) {
+            return null;
         }
 
-        Long last = rate.getLast();
-
-        // Checks if the user was blacklisted within the last two and half seconds,
-        // the command handling process uses its own thread pool, because of that
-        // it's possible to have two commands come in from the same user in a
-        // very quick succession, instead of punishing the user twice, we
-        // just cancel the blacklist hit here instead.
-        if (last != null && last < System.currentTimeMillis() - 2500) {
+        // The command handling process uses its own thread pool, because of that it's
+        // possible to have multiple commands come in from the same user in a very
+        // quick succession, to prevent punishing the user multiple times, only
+        // the thread that manages to refill the bucket applies the blacklist.
+        if (!bucket.reset(arrivalTime, now)) {
             return null;
         }
 
@@ -246,11 +234,7 @@ public class Ratelimit {
      * @return The Carbon instance with the punishment expire time.
      */
     private Carbon getPunishment(long userId) {
-        int level = punishments.getOrDefault(userId, -1) + 1;
-
-        punishments.put(userId, level);
-
-        return getPunishment(level);
+        return getPunishment(punishments.merge(userId, 0, (level, ignored) -> level + 1));
     }
 
     /**
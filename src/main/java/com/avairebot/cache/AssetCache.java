@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache;
+
+import com.avairebot.metrics.Metrics;
+import com.avairebot.requests.HttpClient;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A content-addressed cache for remote assets, like the images and GIFs used by the
+ * interaction and image commands, assets are stored on disk by the hash of their
+ * URL, and the most used assets are also kept in memory.
+ * <p>
+ * Assets are kept for as long as the upstream allows through its Cache-Control
+ * header, once an asset is stale it's revalidated using its ETag or last
+ * modified time, so unchanged assets are never downloaded twice, if the
+ * upstream can't be reached the stale asset is served instead.
+ * <p>
+ * Both the disk and memory storage are bounded by their total size in bytes,
+ * once the limit is reached the least recently used assets are evicted.
+ */
+public class AssetCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AssetCache.class);
+
+    /**
+     * The amount of time assets are considered fresh for if
+     * the upstream doesn't send any Cache-Control header.
+     */
+    private static final long defaultMaxAge = TimeUnit.DAYS.toMillis(1);
+
+    private final File directory;
+    private final long maximumDiskSize;
+    private final OkHttpClient client;
+    private final Cache<String, byte[]> memory;
+
+    private final Map<String, Asset> assets = new ConcurrentHashMap<>();
+    private final Striped<Lock> locks = Striped.lock(64);
+    private final AtomicLong diskSize = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    private final ExecutorService prefetchService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("avaire-asset-prefetch-%d")
+        .setDaemon(true)
+        .build()
+    );
+
+    /**
+     * Creates a new asset cache, storing the assets in the given directory, any assets
+     * already stored in the directory from earlier runs will be loaded in as well.
+     *
+     * @param directory         The directory the assets should be stored in.
+     * @param maximumDiskSize   The max total size of the assets on disk in bytes.
+     * @param maximumMemorySize The max total size of the assets kept in memory in bytes.
+     */
+    public AssetCache(@Nonnull File directory, long maximumDiskSize, long maximumMemorySize) {
+        this.directory = directory;
+        this.maximumDiskSize = maximumDiskSize;
+
+        // The assets are cached by this class, so we're using a copy of the shared
+        // HTTP client without the response cache, sharing the connection pool
+        // and dispatcher, but not storing every asset on disk twice.
+        this.client = HttpClient.getClient().newBuilder()
+            .cache(null)
+            .build();
+
+        this.memory = CacheBuilder.newBuilder()
+            .recordStats()
+            .maximumWeight(maximumMemorySize)
+            .weigher((String key, byte[] bytes) -> bytes.length)
+            .build();
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            log.error("Failed to create the asset cache directory at {}", directory.getAbsolutePath());
+        }
+
+        loadIndex();
+    }
+
+    /**
+     * Gets the file the asset for the given URL is stored in, downloading or revalidating
+     * the asset first if it's not cached yet, or is stale, the file can be sent
+     * directly as an attachment without being loaded into memory.
+     *
+     * @param url The URL of the asset.
+     * @return The file the asset is stored in.
+     * @throws IOException If the asset is not cached, and can't be downloaded.
+     */
+    @Nonnull
+    public File getFile(@Nonnull String url) throws IOException {
+        return load(url).file;
+    }
+
+    /**
+     * Gets the contents of the asset for the given URL, downloading or revalidating
+     * the asset first if it's not cached yet, or is stale.
+     *
+     * @param url The URL of the asset.
+     * @return The contents of the asset.
+     * @throws IOException If the asset is not cached, and can't be downloaded.
+     */
+    @Nonnull
+    public byte[] getBytes(@Nonnull String url) throws IOException {
+        Asset asset = load(url);
+
+        try {
+            return memory.get(asset.key, () -> Files.readAllBytes(asset.file.toPath()));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to read the asset for " + url, e.getCause());
+        }
+    }
+
+    /**
+     * Downloads all the given assets in the background, skipping
+     * the assets that are already cached, or fails to download.
+     *
+     * @param urls The URLs of the assets that should be prefetched.
+     */
+    public void prefetch(@Nonnull Collection<String> urls) {
+        List<String> copy = new ArrayList<>(urls);
+
+        prefetchService.submit(() -> {
+            int failed = 0;
+            for (String url : copy) {
+                try {
+                    load(url);
+                } catch (IOException e) {
+                    log.debug("Failed to prefetch the asset for {}: {}", url, e.getMessage());
+                    failed++;
+                }
+            }
+
+            log.info("Prefetched {} asset(s) with {} failure(s), the asset cache is using {} bytes",
+                copy.size() - failed, failed, diskSize.get()
+            );
+        });
+    }
+
+    /**
+     * Gets the amount of assets currently stored on disk.
+     *
+     * @return The amount of assets stored on disk.
+     */
+    public int size() {
+        return assets.size();
+    }
+
+    /**
+     * Gets the total size of the assets currently stored on disk.
+     *
+     * @return The total size of the assets in bytes.
+     */
+    public long getDiskSize() {
+        return diskSize.get();
+    }
+
+    private Asset load(String url) throws IOException {
+        String key = hash(url);
+
+        Asset asset = assets.get(key);
+        if (asset != null && asset.isFresh()) {
+            asset.lastAccess = System.currentTimeMillis();
+            Metrics.assetCacheResults.labels("hit").inc();
+            return asset;
+        }
+
+        // Only a single thread is allowed to download or revalidate the same asset at
+        // a time, other threads requesting the asset will wait for the result,
+        // and then use the asset that was just stored by the first thread.
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            asset = assets.get(key);
+            if (asset != null && asset.isFresh()) {
+                asset.lastAccess = System.currentTimeMillis();
+                Metrics.assetCacheResults.labels("hit").inc();
+                return asset;
+            }
+            return fetch(url, key, asset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Asset fetch(String url, String key, @Nullable Asset cached) throws IOException {
+        Request.Builder builder = new Request.Builder()
+            .url(url)
+            .header("User-Agent", "AvaIre-Discord-Bot");
+
+        if (cached != null) {
+            if (cached.etag != null) {
+                builder.header("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                builder.header("If-Modified-Since", cached.lastModified);
+            }
+        }
+
+        try (Response response = client.newCall(builder.build()).execute()) {
+            if (cached != null && response.code() == 304) {
+                Asset asset = new Asset(
+                    key, url, cached.file, cached.size,
+                    firstNonNull(response.header("ETag"), cached.etag),
+                    firstNonNull(response.header("Last-Modified"), cached.lastModified),
+                    getExpiresAt(response)
+                );
+
+                writeMetadata(asset);
+                assets.put(key, asset);
+                Metrics.assetCacheResults.labels("revalidated").inc();
+
+                return asset;
+            }
+
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException("Failed to download asset from " + url + ", the server responded with " + response.code());
+            }
+
+            File file = new File(directory, key + ".asset");
+            File temporary = new File(directory, key + ".tmp");
+
+            try (InputStream stream = body.byteStream()) {
+                Files.copy(stream, temporary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            Asset asset = new Asset(
+                key, url, file, file.length(),
+                response.header("ETag"),
+                response.header("Last-Modified"),
+                getExpiresAt(response)
+            );
+
+            writeMetadata(asset);
+            memory.invalidate(key);
+
+            Asset previous = assets.put(key, asset);
+            diskSize.addAndGet(asset.size - (previous == null ? 0L : previous.size));
+            Metrics.assetCacheResults.labels("download").inc();
+
+            evictIfNeeded();
+
+            return asset;
+        } catch (IOException e) {
+            if (cached != null && cached.file.exists()) {
+                log.warn("Failed to revalidate the asset for {}, serving the stale asset instead: {}", url, e.getMessage());
+                Metrics.assetCacheResults.labels("stale").inc();
+
+                cached.lastAccess = System.currentTimeMillis();
+                return cached;
+            }
+            throw e;
+        } finally {
+            Metrics.assetCacheBytes.set(diskSize.get());
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (diskSize.get() <= maximumDiskSize) {
+            return;
+        }
+
+        synchronized (evictionLock) {
+            // The access times are copied before sorting, since they can
+            // be changed by other threads while the assets are sorted.
+            List<Object[]> candidates = new ArrayList<>(assets.size());
+            for (Asset asset : assets.values()) {
+                candidates.add(new Object[]{asset, asset.lastAccess});
+            }
+            candidates.sort(Comparator.comparingLong(candidate -> (long) candidate[1]));
+
+            // Evicts assets until we're at 90% of the max size, so we're not
+            // having to evict assets again for every new asset downloaded.
+            long target = maximumDiskSize / 10 * 9;
+            for (Object[] candidate : candidates) {
+                if (diskSize.get() <= target) {
+                    break;
+                }
+
+                Asset asset = (Asset) candidate[0];
+                if (!assets.remove(asset.key, asset)) {
+                    continue;
+                }
+
+                diskSize.addAndGet(-asset.size);
+                memory.invalidate(asset.key);
+                Metrics.assetCacheResults.labels("evicted").inc();
+
+                if (!asset.file.delete() || !new File(directory, asset.key + ".meta").delete()) {
+                    log.debug("Failed to delete some of the files for the evicted asset {}", asset.url);
+                }
+            }
+        }
+    }
+
+    private void loadIndex() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".meta"));
+        if (files == null) {
+            return;
+        }
+
+        for (File metadata : files) {
+            String key = metadata.getName().substring(0, metadata.getName().length() - 5);
+            File file = new File(directory, key + ".asset");
+            if (!file.exists()) {
+                continue;
+            }
+
+            Properties properties = new Properties();
+            try (Reader reader = new InputStreamReader(new FileInputStream(metadata), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+
+                Asset asset = new Asset(
+                    key, properties.getProperty("url"), file, file.length(),
+                    properties.getProperty("etag"),
+                    properties.getProperty("last-modified"),
+                    Long.parseLong(properties.getProperty("expires-at", "0"))
+                );
+                asset.lastAccess = file.lastModified();
+
+                assets.put(key, asset);
+                diskSize.addAndGet(asset.size);
+            } catch (IOException | NumberFormatException e) {
+                log.debug("Failed to load the asset metadata from {}: {}", metadata.getName(), e.getMessage());
+            }
+        }
+
+        Metrics.assetCacheBytes.set(diskSize.get());
+        log.info("Loaded {} cached asset(s) using {} bytes", assets.size(), diskSize.get());
+
+        evictIfNeeded();
+    }
+
+    private void writeMetadata(Asset asset) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("url", asset.url);
+        properties.setProperty("expires-at", String.valueOf(asset.expiresAt));
+        if (asset.etag != null) {
+            properties.setProperty("etag", asset.etag);
+        }
+        if (asset.lastModified != null) {
+            properties.setProperty("last-modified", asset.lastModified);
+        }
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(directory, asset.key + ".meta")), StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+    }
+
+    private long getExpiresAt(Response response) {
+        int maxAge = response.cacheControl().maxAgeSeconds();
+        if (response.cacheControl().noCache() || response.cacheControl().noStore()) {
+            return 0L;
+        }
+        return System.currentTimeMillis() + (maxAge < 0 ? defaultMaxAge : TimeUnit.SECONDS.toMillis(maxAge));
+    }
+
+    private static String firstNonNull(@Nullable String first, @Nullable String second) {
+        return first != null ? first : second;
+    }
+
+    private static String hash(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java implementation is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Asset {
+
+        private final String key;
+        private final String url;
+        private final File file;
+        private final long size;
+        private final String etag;
+        private final String lastModified;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        Asset(String key, String url, File file, long size, @Nullable String etag, @Nullable String lastModified, long expiresAt) {
+            this.key = key;
+            this.url = url;
+            this.file = file;
+            this.size = size;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        boolean isFresh() {
+            return expiresAt > System.currentTimeMillis() && file.exists();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache;
+
+import javax.annotation.Nonnull;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timer wheel used to keep track of when items expires, items are placed
+ * in the slot matching the tick they expire on, so advancing the wheel only has
+ * to look at the slots for the ticks that have passed since the last advance,
+ * instead of having to go through every single item being tracked.
+ * <p>
+ * Items that expire further in the future than a single rotation of the
+ * wheel are left in their slot until the rotation they expire in.
+ *
+ * @param <T> The type of item being tracked by the wheel.
+ */
+public class TimerWheel<T> {
+
+    private final long tickDuration;
+    private final int mask;
+    private final Map<T, Long>[] slots;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile long currentTick;
+
+    /**
+     * Creates a new timer wheel with the given amount of slots, and tick duration.
+     *
+     * @param slots        The amount of slots in the wheel, this will be rounded up to a power of two.
+     * @param tickDuration The duration of a single tick in milliseconds.
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(int slots, long tickDuration) {
+        if (slots < 1 || tickDuration < 1) {
+            throw new IllegalArgumentException("The timer wheel must have at least one slot, and a positive tick duration");
+        }
+
+        int size = Integer.highestOneBit(slots);
+        if (size < slots) {
+            size <<= 1;
+        }
+
+        this.tickDuration = tickDuration;
+        this.mask = size - 1;
+        this.slots = new Map[size];
+        for (int i = 0; i < size; i++) {
+            this.slots[i] = new ConcurrentHashMap<>();
+        }
+
+        this.currentTick = System.currentTimeMillis() / tickDuration;
+    }
+
+    /**
+     * Schedules the given item to expire at the given time, items are tracked by identity
+     * using their {@code hashCode} and {@code equals} methods, so scheduling the same
+     * item twice with different expire times will track the item twice.
+     *
+     * @param item      The item that should be scheduled.
+     * @param expiresAt The unix timestamp in milliseconds for when the item expires.
+     */
+    public void schedule(@Nonnull T item, long expiresAt) {
+        slots[slotFor(expiresAt)].put(item, expiresAt);
+    }
+
+    /**
+     * Cancels the given item, so it won't be expired by the wheel.
+     *
+     * @param item      The item that should be cancelled.
+     * @param expiresAt The unix timestamp in milliseconds the item was scheduled to expire at.
+     */
+    public void cancel(@Nonnull T item, long expiresAt) {
+        slots[slotFor(expiresAt)].remove(item, expiresAt);
+    }
+
+    /**
+     * Gets the amount of items currently being tracked by the wheel.
+     *
+     * @return The amount of items currently being tracked.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<T, Long> slot : slots) {
+            size += slot.size();
+        }
+        return size;
+    }
+
+    /**
+     * Advances the wheel to the given time, passing every item that has expired
+     * to the given consumer, if the wheel is already being advanced by
+     * another thread, this method will return straight away.
+     *
+     * @param now    The current unix timestamp in milliseconds.
+     * @param expire The consumer that should be called for every expired item.
+     */
+    public void advance(long now, @Nonnull Consumer<T> expire) {
+        long targetTick = now / tickDuration;
+        if (targetTick <= currentTick || !lock.tryLock()) {
+            return;
+        }
+
+        try {
+            // If a full rotation of the wheel, or more, has passed since the
+            // last advance, every slot only needs to be checked once.
+            long ticks = Math.min(targetTick - currentTick, slots.length);
+            for (long tick = targetTick - ticks + 1; tick <= targetTick; tick++) {
+                Iterator<Map.Entry<T, Long>> iterator = slots[(int) (tick & mask)].entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<T, Long> entry = iterator.next();
+                    if (entry.getValue() <= now) {
+                        iterator.remove();
+                        expire.accept(entry.getKey());
+                    }
+                }
+            }
+
+            currentTick = targetTick;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int slotFor(long expiresAt) {
+        // Items are placed in the slot of the first tick on or after their expire
+        // time, so the item has always expired once its slot is processed.
+        return (int) (((expiresAt + tickDuration - 1) / tickDuration) & mask);
+    }
+}
@@ -23,53 +23,95 @@ package com.avairebot.cache.adapters;
 
 import com.avairebot.AvaIre;
 import com.avairebot.cache.CacheItem;
+import com.avairebot.cache.TimerWheel;
 import com.avairebot.contracts.cache.CacheAdapter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Supplier;
 
 public class MemoryAdapter extends CacheAdapter {
 
-    private final Map<String, CacheItem> cache = new WeakHashMap<>();
+    /**
+     * The max total weight of all the items in the memory cache, once the
+     * weight is exceeded the least recently used items will be evicted.
+     */
+    private static final long maximumWeight = 100000L;
+
+    /**
+     * The timer wheel used to expire items once their time is up, the wheel
+     * has one slot per second, and completes a full rotation every hour.
+     */
+    private final TimerWheel<CacheItem> expirations = new TimerWheel<>(4096, 1000L);
+
+    private final Cache<String, CacheItem> cache = CacheBuilder.newBuilder()
+        .recordStats()
+        .maximumWeight(maximumWeight)
+        .weigher((String key, CacheItem item) -> weigh(item.getValue()))
+        .removalListener(this::onRemoval)
+        .build();
 
     @Override
     public boolean put(String token, Object value, int seconds) {
-        cache.put(token, new CacheItem(token, value, System.currentTimeMillis() + (seconds * 1000)));
+        if (seconds <= 0) {
+            cache.invalidate(token);
+            return true;
+        }
+
+        store(new CacheItem(token, value, System.currentTimeMillis() + (seconds * 1000L)));
         return true;
     }
 
     @Override
     public Object remember(String token, int seconds, Supplier<Object> closure) {
-        if (has(token)) {
-            return get(token);
+        CacheItem item = getRaw(token);
+        if (item != null) {
+            return item.getValue();
         }
 
         try {
-            CacheItem item = new CacheItem(token, closure.get(), System.currentTimeMillis() + (seconds * 1000));
-            cache.put(token, item);
-
-            return item.getValue();
-        } catch (Exception e) {
-            AvaIre.getLogger().error(e.getMessage(), e);
+            // Guava only allows a single thread to load the value for a key at a time, any other
+            // threads requesting the same key while it's loading will wait for the result
+            // instead, so the closure is only called once no matter how many threads
+            // misses the cache at the same time.
+            while (true) {
+                item = cache.get(token, () -> {
+                    CacheItem loaded = new CacheItem(token, closure.get(), System.currentTimeMillis() + (seconds * 1000L));
+                    if (!loaded.lastForever()) {
+                        expirations.schedule(loaded, loaded.getTime());
+                    }
+                    return loaded;
+                });
+
+                if (!item.isExpired()) {
+                    return item.getValue();
+                }
+
+                cache.asMap().remove(token, item);
+            }
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            AvaIre.getLogger().error(e.getCause().getMessage(), e.getCause());
             return null;
+        } finally {
+            expire();
         }
     }
 
     @Override
     public boolean forever(String token, Object value) {
-        cache.put(token, new CacheItem(token, value, -1));
+        store(new CacheItem(token, value, -1));
 
         return true;
     }
 
     @Override
     public Object get(String token) {
-        if (!has(token)) {
-            return null;
-        }
-
         CacheItem item = getRaw(token);
         if (item == null) {
             return null;
@@ -79,25 +121,31 @@ public class MemoryAdapter extends CacheAdapter {
 
     @Override
     public CacheItem getRaw(String token) {
-        if (!has(token)) {
+        CacheItem item = cache.getIfPresent(token);
+        if (item == null) {
+            return null;
+        }
+
+        if (item.isExpired()) {
+            cache.asMap().remove(token, item);
             return null;
         }
-        return cache.getOrDefault(token, null);
+        return item;
     }
 
     @Override
     public boolean has(String token) {
-        return cache.containsKey(token) && cache.get(token).isExpired();
+        return getRaw(token) != null;
     }
 
     @Override
     public CacheItem forget(String token) {
-        return cache.remove(token);
+        return cache.asMap().remove(token);
     }
 
     @Override
     public boolean flush() {
-        cache.clear();
+        cache.invalidateAll();
         return true;
     }
 
@@ -107,6 +155,71 @@ public class MemoryAdapter extends CacheAdapter {
      * @return The cache keys currently in the memory cache.
      */
     public Set<String> getCacheKeys() {
-        return cache.keySet();
+        return cache.asMap().keySet();
+    }
+
+    /**
+     * Gets the underlying cache used to store the memory cache items.
+     *
+     * @return The underlying cache.
+     */
+    public Cache<String, CacheItem> getCache() {
+        return cache;
+    }
+
+    /**
+     * Removes all the items that have expired from the memory
+     * cache, and runs any pending cache maintenance.
+     */
+    public void cleanUp() {
+        expire();
+        cache.cleanUp();
+    }
+
+    private void store(CacheItem item) {
+        if (!item.lastForever()) {
+            expirations.schedule(item, item.getTime());
+        }
+        cache.put(item.getKey(), item);
+
+        expire();
+    }
+
+    private void expire() {
+        expirations.advance(System.currentTimeMillis(), item -> cache.asMap().remove(item.getKey(), item));
+    }
+
+    private void onRemoval(RemovalNotification<String, CacheItem> notification) {
+        CacheItem item = notification.getValue();
+        if (item != null && !item.lastForever()) {
+            expirations.cancel(item, item.getTime());
+        }
+    }
+
+    /**
+     * Estimates the weight of the given value, most values only weigh one, while
+     * strings, arrays, and collections are weighted by their size, so a single
+     * huge value can't fill up the cache without being counted as such.
+     *
+     * @param value The value that should be weighed.
+     * @return The estimated weight of the value.
+     */
+    private static int weigh(Object value) {
+        if (value instanceof CharSequence) {
+            return 1 + ((CharSequence) value).length() / 256;
+        }
+
+        if (value instanceof byte[]) {
+            return 1 + ((byte[]) value).length / 256;
+        }
+
+        if (value instanceof Collection) {
+            return 1 + ((Collection<?>) value).size();
+        }
+
+        if (value instanceof Map) {
+            return 1 + ((Map<?, ?>) value).size();
+        }
+        return 1;
     }
 }
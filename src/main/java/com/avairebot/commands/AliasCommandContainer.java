@@ -26,7 +26,7 @@ public class AliasCommandContainer extends CommandContainer {
     private final String[] aliasArguments;
 
     public AliasCommandContainer(CommandContainer container, String[] aliasArguments) {
-        super(container.getCommand(), container.getCategory(), container.getSourceUri());
+        super(container);
 
         this.aliasArguments = aliasArguments;
     }
@@ -30,6 +30,7 @@ import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.core.entities.Message;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.concurrent.TimeUnit;
 
 public class Category {
@@ -42,6 +43,7 @@ public class Category {
     private final AvaIre avaire;
     private final String name;
     private final String prefix;
+    private final String lowercaseName;
 
     private boolean isGlobal = false;
 
@@ -49,6 +51,7 @@ public class Category {
         this.avaire = avaire;
         this.name = name;
         this.prefix = prefix;
+        this.lowercaseName = name.toLowerCase();
     }
 
     public String getName() {
@@ -71,12 +74,25 @@ public class Category {
         return (String) CacheUtil.getUncheckedUnwrapped(cache, asKey(message), () -> {
             GuildTransformer transformer = GuildController.fetchGuild(avaire, message);
 
-            return transformer == null ? getPrefix() : transformer.getPrefixes().getOrDefault(
-                getName().toLowerCase(), getPrefix()
-            );
+            return getPrefix(transformer);
         });
     }
 
+    /**
+     * Gets the prefix for the category using the given guild transformer, if the
+     * category is global, or the transformer is {@code NULL}, the default
+     * category prefix will be returned instead.
+     *
+     * @param transformer The guild transformer for the guild the prefix should be resolved for.
+     * @return The prefix for the category in the given guild.
+     */
+    public String getPrefix(@Nullable GuildTransformer transformer) {
+        if (isGlobal || transformer == null) {
+            return getPrefix();
+        }
+        return transformer.getPrefixes().getOrDefault(lowercaseName, getPrefix());
+    }
+
     public boolean hasCommands() {
         return CommandHandler.getCommands().stream().
             filter(container -> container.getCategory().equals(this))
@@ -23,6 +23,7 @@ package com.avairebot.commands;
 
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.middleware.Middleware;
+import com.avairebot.middleware.MiddlewareChain;
 import com.avairebot.middleware.MiddlewareHandler;
 import com.avairebot.middleware.ThrottleMiddleware;
 
@@ -43,6 +44,7 @@ public class CommandContainer {
     private final String sourceUri;
     private final Set<String> triggers;
     private final List<String> middlewares;
+    private final MiddlewareChain middlewareChain;
 
     /**
      * Creates a new {@link Command command} container instance.
@@ -60,6 +62,23 @@ public class CommandContainer {
         this.middlewares = new ArrayList<>(command.getMiddleware());
 
         this.registerThrottleMiddlewares();
+
+        this.middlewareChain = MiddlewareChain.compile(middlewares);
+    }
+
+    /**
+     * Creates a new {@link Command command} container instance from the given container,
+     * sharing the triggers and the compiled middleware chain with the given container.
+     *
+     * @param container The container that should be copied.
+     */
+    protected CommandContainer(@Nonnull CommandContainer container) {
+        this.command = container.command;
+        this.category = container.category;
+        this.sourceUri = container.sourceUri;
+        this.triggers = container.triggers;
+        this.middlewares = container.middlewares;
+        this.middlewareChain = container.middlewareChain;
     }
 
     /**
@@ -110,6 +129,16 @@ public class CommandContainer {
         return middlewares;
     }
 
+    /**
+     * Gets the compiled middleware chain used by the command, the chain is compiled
+     * from the {@link #getMiddleware() middlewares} when the container is created.
+     *
+     * @return The compiled middleware chain used by the command.
+     */
+    public MiddlewareChain getMiddlewareChain() {
+        return middlewareChain;
+    }
+
     /**
      * Gets the command triggers used to run the command.
      *
@@ -147,7 +176,7 @@ public class CommandContainer {
             String[] parts = middlewareName.split(":");
 
             Middleware middleware = MiddlewareHandler.getMiddleware(parts[0]);
-            if (middleware == null || !(middleware instanceof ThrottleMiddleware)) {
+            if (parts.length < 2 || !(middleware instanceof ThrottleMiddleware)) {
                 continue;
             }
 
@@ -31,7 +31,6 @@ import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.exceptions.InvalidCommandPrefixException;
 import com.avairebot.exceptions.MissingCommandDescriptionException;
 import com.avairebot.metrics.Metrics;
-import com.avairebot.middleware.MiddlewareHandler;
 import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.utils.Checks;
 
@@ -45,6 +44,19 @@ public class CommandHandler {
 
     private static final Set<CommandContainer> COMMANDS = new HashSet<>();
 
+    /**
+     * The dispatch index for all the registered commands, where the key is the
+     * lowercase command trigger, and the value is every command container
+     * using the trigger, the index is rebuilt every time a command is
+     * registered or unregistered, so it's always safe to read from.
+     */
+    private static volatile Map<String, List<CommandContainer>> TRIGGER_INDEX = Collections.emptyMap();
+
+    /**
+     * The distinct default prefixes used by the categories of the registered commands.
+     */
+    private static volatile Set<String> DEFAULT_PREFIXES = Collections.emptySet();
+
     /**
      * Get command container from the given command instance.
      *
@@ -90,7 +102,10 @@ public class CommandHandler {
      * @return Possibly-null, The command matching the given command with the highest priority.
      */
     public static CommandContainer getCommand(Message message) {
-        return getCommand(message, message.getContentRaw().split(" ")[0].toLowerCase());
+        String contentRaw = message.getContentRaw();
+        int spaceIndex = contentRaw.indexOf(' ');
+
+        return getCommand(message, spaceIndex == -1 ? contentRaw : contentRaw.substring(0, spaceIndex));
     }
 
     /**
@@ -131,13 +146,18 @@ public class CommandHandler {
      * @return Possibly-null, The command matching the given command with the highest priority.
      */
     public static CommandContainer getCommand(Message message, @Nonnull String command) {
+        GuildTransformer transformer = message.getGuild() == null ? null
+            : GuildController.fetchGuild(AvaIre.getInstance(), message);
+
+        command = command.toLowerCase();
         List<CommandContainer> commands = new ArrayList<>();
-        for (CommandContainer container : COMMANDS) {
-            String commandPrefix = container.getCommand().generateCommandPrefix(message);
-            for (String trigger : container.getTriggers()) {
-                if (command.equalsIgnoreCase(commandPrefix + trigger)) {
-                    commands.add(container);
-                }
+        for (String prefix : DEFAULT_PREFIXES) {
+            addMatchingCommands(commands, command, prefix, transformer);
+        }
+
+        if (transformer != null) {
+            for (String prefix : transformer.getPrefixes().values()) {
+                addMatchingCommands(commands, command, prefix, transformer);
             }
         }
 
@@ -157,19 +177,58 @@ public class CommandHandler {
      * @return Possibly-null, The command matching the given command with the highest priority.
      */
     public static CommandContainer getRawCommand(@Nonnull String command) {
+        command = command.toLowerCase();
         List<CommandContainer> commands = new ArrayList<>();
-        for (CommandContainer container : COMMANDS) {
-            String commandPrefix = container.getDefaultPrefix();
-            for (String trigger : container.getTriggers()) {
-                if (command.equalsIgnoreCase(commandPrefix + trigger)) {
-                    commands.add(container);
-                }
-            }
+        for (String prefix : DEFAULT_PREFIXES) {
+            addMatchingCommands(commands, command, prefix, null);
         }
 
         return getHighPriorityCommandFromCommands(commands);
     }
 
+    /**
+     * Checks if the given message content could possibly be a command, this is true
+     * if the message starts with one of the default category prefixes, one of
+     * the custom prefixes set by the guild, a mention, or a guild alias.
+     * <p>
+     * This is a cheap pre-check that doesn't allocate anything, a positive result
+     * doesn't guarantee that the message will match a command, however a
+     * negative result guarantees that it won't.
+     *
+     * @param content     The raw contents of the message that should be checked.
+     * @param transformer The guild transformer for the guild the message was sent in, or {@code NULL}.
+     * @return {@code True} if the message could be a command, {@code False} otherwise.
+     */
+    public static boolean isPossibleCommand(@Nonnull String content, @Nullable GuildTransformer transformer) {
+        if (content.startsWith("<@")) {
+            return true;
+        }
+
+        for (String prefix : DEFAULT_PREFIXES) {
+            if (content.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+
+        if (transformer == null) {
+            return false;
+        }
+
+        for (String prefix : transformer.getPrefixes().values()) {
+            if (content.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+
+        for (String alias : transformer.getAliases().keySet()) {
+            if (content.regionMatches(true, 0, alias, 0, alias.length())
+                && (content.length() == alias.length() || content.charAt(alias.length()) == ' ')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Gets the command matching the given command alias for the current message if
      * the message was sent in a guild and the guild has at least one alias set.
@@ -221,16 +280,15 @@ public class CommandHandler {
      * @return Possibly-null, The command matching the given command trigger with the highest priority.
      */
     public static CommandContainer getLazyCommand(@Nonnull String commandTrigger) {
-        List<CommandContainer> commands = new ArrayList<>();
-        for (CommandContainer container : COMMANDS) {
-            if (container.getPriority().equals(CommandPriority.IGNORED)) {
-                continue;
-            }
+        List<CommandContainer> containers = TRIGGER_INDEX.get(commandTrigger.toLowerCase());
+        if (containers == null) {
+            return null;
+        }
 
-            for (String trigger : container.getTriggers()) {
-                if (commandTrigger.equalsIgnoreCase(trigger)) {
-                    commands.add(container);
-                }
+        List<CommandContainer> commands = new ArrayList<>();
+        for (CommandContainer container : containers) {
+            if (!container.getPriority().equals(CommandPriority.IGNORED)) {
+                commands.add(container);
             }
         }
 
@@ -283,6 +341,54 @@ public class CommandHandler {
         return map;
     }
 
+    /**
+     * Strips the given prefix from the lowercase command string and looks up the
+     * remaining trigger in the dispatch index, adding every command that has
+     * the given prefix for the guild the transformer belongs to.
+     *
+     * @param commands    The list of commands the matching commands should be added to.
+     * @param command     The lowercase command string that should be matched.
+     * @param prefix      The prefix that should be stripped from the command string.
+     * @param transformer The guild transformer used to resolve category prefixes, or {@code NULL} to use the defaults.
+     */
+    private static void addMatchingCommands(List<CommandContainer> commands, String command, String prefix, @Nullable GuildTransformer transformer) {
+        if (command.length() <= prefix.length() || !command.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            return;
+        }
+
+        List<CommandContainer> containers = TRIGGER_INDEX.get(command.substring(prefix.length()));
+        if (containers == null) {
+            return;
+        }
+
+        for (CommandContainer container : containers) {
+            if (!commands.contains(container) && prefix.equalsIgnoreCase(container.getCategory().getPrefix(transformer))) {
+                commands.add(container);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the command dispatch index and the set of default prefixes
+     * from the registered commands, this must be called while holding
+     * the lock for the {@link #COMMANDS commands} collection.
+     */
+    private static void rebuildIndex() {
+        Map<String, List<CommandContainer>> index = new HashMap<>();
+        Set<String> prefixes = new HashSet<>();
+
+        for (CommandContainer container : COMMANDS) {
+            prefixes.add(container.getDefaultPrefix());
+
+            for (String trigger : container.getTriggers()) {
+                index.computeIfAbsent(trigger.toLowerCase(), key -> new ArrayList<>(1)).add(container);
+            }
+        }
+
+        TRIGGER_INDEX = index;
+        DEFAULT_PREFIXES = prefixes;
+    }
+
     /**
      * Gets the highest priority command from the given command
      * list, if the list is empty null is returned instead.
@@ -337,14 +443,6 @@ public class CommandHandler {
             }
         }
 
-        for (String middleware : command.getMiddleware()) {
-            String[] parts = middleware.split(":");
-
-            if (MiddlewareHandler.getMiddleware(parts[0]) == null) {
-                throw new IllegalArgumentException("Middleware reference may not be null, " + parts[0] + " is not a valid middleware!");
-            }
-        }
-
         String commandUri = null;
 
         CommandSource annotation = command.getClass().getAnnotation(CommandSource.class);
@@ -356,9 +454,16 @@ public class CommandHandler {
             commandUri = String.format(Constants.SOURCE_URI, split[split.length - 2], split[split.length - 1]);
         }
 
+        // Creating the container compiles the middleware chain for the command, which
+        // throws an illegal argument exception if any of the middlewares are invalid.
+        CommandContainer container = new CommandContainer(command, category, commandUri);
+
         Metrics.commandsExecuted.labels(command.getClass().getSimpleName()).inc(0D);
 
-        COMMANDS.add(new CommandContainer(command, category, commandUri));
+        synchronized (COMMANDS) {
+            COMMANDS.add(container);
+            rebuildIndex();
+        }
     }
 
     /**
@@ -376,6 +481,7 @@ public class CommandHandler {
                 CommandContainer container = iterator.next();
                 if (container.getCommand().getClass().getTypeName().equals(commandClass.getTypeName())) {
                     iterator.remove();
+                    rebuildIndex();
 
                     return true;
                 }
@@ -30,6 +30,7 @@ import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
 import com.avairebot.database.collection.Collection;
+import com.avairebot.database.controllers.GlobalExperienceController;
 import com.avairebot.database.controllers.PlayerController;
 import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.database.transformers.PlayerTransformer;
@@ -348,6 +349,7 @@ public class AdministrateExperienceCommand extends Command {
                 });
 
             PlayerController.forgetCacheForGuild(context.getGuild().getIdLong());
+            avaire.getLevelManager().getRankIndex().forgetGuild(context.getGuild().getIdLong());
 
             context.makeSuccess(context.i18n("success.syncEveryone"))
                 .queue();
@@ -394,7 +396,9 @@ public class AdministrateExperienceCommand extends Command {
                     statement.set("active", 0);
                 });
 
+            GlobalExperienceController.recalculateGuild(avaire, context.getGuild().getIdLong());
             PlayerController.forgetCacheForGuild(context.getGuild().getIdLong());
+            avaire.getLevelManager().getRankIndex().forgetGuild(context.getGuild().getIdLong());
 
             context.makeSuccess(context.i18n("success.everything"))
                 .queue();
@@ -413,6 +417,10 @@ public class AdministrateExperienceCommand extends Command {
                 .where("user_id", player.getUserId())
                 .where("guild_id", player.getGuildId())
                 .update(statement -> statement.set("experience", player.getExperience()));
+
+            avaire.getLevelManager().getRankIndex().setGuildExperience(
+                player.getGuildId(), player.getUserId(), player.getExperience()
+            );
         } catch (SQLException e) {
             log.error("Failed to update player transformer for {} in {} server, error: {}",
                 player.getUserId(), player.getGuildId(), e.getMessage(), e
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.commands.executor;
+
+import com.avairebot.metrics.Metrics;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pool of worker threads with its own bounded task queue, isolating the
+ * commands executed in the pool from the commands executed in other pools, so
+ * a burst of slow commands can only exhaust the threads of its own pool.
+ * <p>
+ * Tasks are queued per guild, and the workers take tasks from the guilds in
+ * a round-robin order, so a single guild spamming commands can't starve
+ * other guilds, once the queue for the pool, or the queue for a single
+ * guild is full, new tasks are rejected instead of being queued.
+ */
+public class CommandBulkhead {
+
+    private static final Logger log = LoggerFactory.getLogger(CommandBulkhead.class);
+
+    private final String name;
+    private final int queueSize;
+    private final int guildQueueSize;
+    private final Thread[] workers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<Long, ArrayDeque<QueuedTask>> queues = new HashMap<>();
+    private final ArrayDeque<Long> ready = new ArrayDeque<>();
+    private int size = 0;
+    private boolean shutdown = false;
+
+    private final Gauge.Child queueDepth;
+    private final Histogram.Child waitTime;
+    private final Histogram.Child runTime;
+    private final Counter.Child rejected;
+
+    /**
+     * Creates and starts a new command bulkhead.
+     *
+     * @param name           The name of the bulkhead, used for metrics and thread names.
+     * @param threads        The amount of worker threads the bulkhead should have.
+     * @param queueSize      The max amount of tasks that can be queued in the bulkhead.
+     * @param guildQueueSize The max amount of tasks that can be queued for a single guild.
+     */
+    CommandBulkhead(String name, int threads, int queueSize, int guildQueueSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The command pool \"" + name + "\" must have at least 1 thread");
+        }
+
+        this.name = name;
+        this.queueSize = Math.max(1, queueSize);
+        this.guildQueueSize = Math.max(1, Math.min(guildQueueSize, this.queueSize));
+
+        this.queueDepth = Metrics.commandExecutorQueueDepth.labels(name);
+        this.waitTime = Metrics.commandExecutorWaitTime.labels(name);
+        this.runTime = Metrics.commandExecutorRunTime.labels(name);
+        this.rejected = Metrics.commandExecutorRejected.labels(name);
+
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "avaire-command-" + name + "-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Gets the name of the bulkhead.
+     *
+     * @return The name of the bulkhead.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the amount of worker threads the bulkhead has.
+     *
+     * @return The amount of worker threads.
+     */
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Gets the amount of tasks currently waiting to be executed.
+     *
+     * @return The amount of queued tasks.
+     */
+    public int getQueuedTasks() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues the given task for execution, if the bulkhead queue, or the queue
+     * for the given guild is full, the task will be rejected instead.
+     *
+     * @param guildId The ID of the guild the task belongs to, or the ID of the user for direct messages.
+     * @param task    The task that should be executed.
+     * @return {@code True} if the task was queued, {@code False} if it was rejected.
+     */
+    public boolean submit(long guildId, Runnable task) {
+        lock.lock();
+        try {
+            if (shutdown || size >= queueSize) {
+                rejected.inc();
+                return false;
+            }
+
+            ArrayDeque<QueuedTask> queue = queues.get(guildId);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(guildId, queue);
+                ready.addLast(guildId);
+            } else if (queue.size() >= guildQueueSize) {
+                rejected.inc();
+                return false;
+            }
+
+            queue.addLast(new QueuedTask(task));
+            queueDepth.set(++size);
+            notEmpty.signal();
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Shuts down the bulkhead, rejecting any new tasks and dropping
+     * tasks that are still waiting in the queue, tasks that are
+     * already running will be allowed to finish.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            queues.clear();
+            ready.clear();
+
+            size = 0;
+            queueDepth.set(0);
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private QueuedTask take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (size == 0) {
+                if (shutdown) {
+                    return null;
+                }
+                notEmpty.await();
+            }
+
+            // Takes the next task from the guild at the front of the ready queue, if the guild
+            // has more tasks queued, it's moved to the back, giving every other guild with
+            // queued tasks a turn before the guild gets to run another task.
+            Long guildId = ready.pollFirst();
+            ArrayDeque<QueuedTask> queue = queues.get(guildId);
+            QueuedTask task = queue.pollFirst();
+
+            if (queue.isEmpty()) {
+                queues.remove(guildId);
+            } else {
+                ready.addLast(guildId);
+            }
+
+            queueDepth.set(--size);
+
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            QueuedTask task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (task == null) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            waitTime.observe((start - task.queuedAt) / (double) TimeUnit.SECONDS.toNanos(1));
+
+            try {
+                task.runnable.run();
+            } catch (Exception e) {
+                log.error("An exception was thrown while running a task in the \"{}\" command pool: {}",
+                    name, e.getMessage(), e
+                );
+            } finally {
+                runTime.observe((System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private static final class QueuedTask {
+
+        private final Runnable runnable;
+        private final long queuedAt;
+
+        QueuedTask(Runnable runnable) {
+            this.runnable = runnable;
+            this.queuedAt = System.nanoTime();
+        }
+    }
+}
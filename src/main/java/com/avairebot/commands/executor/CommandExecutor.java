@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.commands.executor;
+
+import com.avairebot.commands.CommandContainer;
+import com.avairebot.config.Configuration;
+import com.avairebot.contracts.commands.ExecutionPool;
+import com.avairebot.contracts.config.ConfigurationSection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The command executor splits command execution up between a set of named bulkheads,
+ * commands are executed in the pool set by their {@link ExecutionPool execution pool}
+ * annotation, or the pool mapped to their category, commands that doesn't belong
+ * to any specific pool will be executed in the {@link #DEFAULT_POOL default pool}.
+ * <p>
+ * The pools, and the category mappings can be changed through the
+ * "command-executor" section of the config.
+ */
+public class CommandExecutor {
+
+    /**
+     * The name of the pool used for all commands that doesn't belong to any other pool.
+     */
+    public static final String DEFAULT_POOL = "default";
+
+    /**
+     * The name of the pool used to load the guild and player data for
+     * messages, before the message is handed off to the command pools.
+     */
+    public static final String EVENTS_POOL = "events";
+
+    private static final Logger log = LoggerFactory.getLogger(CommandExecutor.class);
+
+    /**
+     * The default pools, mapped by their name, to the amount of threads and the queue size.
+     */
+    private static final Map<String, int[]> defaultPools = new LinkedHashMap<>();
+
+    /**
+     * The default pools for the categories, mapped by their lowercase category name.
+     */
+    private static final Map<String, String> defaultCategories = new HashMap<>();
+
+    static {
+        defaultPools.put(DEFAULT_POOL, new int[]{8, 500});
+        defaultPools.put(EVENTS_POOL, new int[]{8, 1000});
+        defaultPools.put("music", new int[]{4, 200});
+        defaultPools.put("image", new int[]{2, 100});
+        defaultPools.put("database", new int[]{4, 200});
+        defaultPools.put("fun", new int[]{4, 200});
+
+        defaultCategories.put("music", "music");
+        defaultCategories.put("fun", "fun");
+        defaultCategories.put("interaction", "fun");
+    }
+
+    private final Map<String, CommandBulkhead> bulkheads;
+    private final Map<String, String> categories;
+    private final Map<Class<?>, CommandBulkhead> commandBulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new command executor, creating and starting all
+     * the pools from the "command-executor" config section.
+     *
+     * @param config The configuration that the pool settings should be loaded from.
+     */
+    public CommandExecutor(@Nonnull Configuration config) {
+        int guildQueueSize = config.getInt("command-executor.guild-queue-size", 25);
+
+        Map<String, int[]> pools = new LinkedHashMap<>(defaultPools);
+        ConfigurationSection poolSection = config.getConfigurationSection("command-executor.pools");
+        if (poolSection != null) {
+            for (String name : poolSection.getKeys(false)) {
+                int[] defaults = pools.getOrDefault(name.toLowerCase(), defaultPools.get(DEFAULT_POOL));
+
+                pools.put(name.toLowerCase(), new int[]{
+                    config.getInt("command-executor.pools." + name + ".threads", defaults[0]),
+                    config.getInt("command-executor.pools." + name + ".queue-size", defaults[1])
+                });
+            }
+        }
+
+        Map<String, CommandBulkhead> bulkheads = new LinkedHashMap<>();
+        for (Map.Entry<String, int[]> pool : pools.entrySet()) {
+            bulkheads.put(pool.getKey(), new CommandBulkhead(
+                pool.getKey(), pool.getValue()[0], pool.getValue()[1], guildQueueSize
+            ));
+        }
+        this.bulkheads = Collections.unmodifiableMap(bulkheads);
+
+        Map<String, String> categories = new HashMap<>(defaultCategories);
+        ConfigurationSection categorySection = config.getConfigurationSection("command-executor.categories");
+        if (categorySection != null) {
+            for (String category : categorySection.getKeys(false)) {
+                categories.put(category.toLowerCase(), config.getString(
+                    "command-executor.categories." + category, DEFAULT_POOL
+                ).toLowerCase());
+            }
+        }
+        this.categories = categories;
+
+        log.info("Started {} command pools with a total of {} threads",
+            bulkheads.size(), bulkheads.values().stream().mapToInt(CommandBulkhead::getThreads).sum()
+        );
+    }
+
+    /**
+     * Gets all the command pools, mapped by their name.
+     *
+     * @return All the command pools.
+     */
+    public Map<String, CommandBulkhead> getBulkheads() {
+        return bulkheads;
+    }
+
+    /**
+     * Gets the command pool with the given name, if no pool
+     * exists with the given name, the default pool is returned.
+     *
+     * @param name The name of the pool.
+     * @return The command pool with the given name, or the default pool.
+     */
+    @Nonnull
+    public CommandBulkhead getBulkhead(@Nonnull String name) {
+        CommandBulkhead bulkhead = bulkheads.get(name.toLowerCase());
+
+        return bulkhead == null ? bulkheads.get(DEFAULT_POOL) : bulkhead;
+    }
+
+    /**
+     * Gets the command pool the given command should be executed in, the
+     * pool is resolved once for every command class and then cached.
+     *
+     * @param container The command container the pool should be returned for.
+     * @return The command pool the command should be executed in.
+     */
+    @Nonnull
+    public CommandBulkhead getBulkhead(@Nonnull CommandContainer container) {
+        return commandBulkheads.computeIfAbsent(container.getCommand().getClass(), clazz -> {
+            ExecutionPool annotation = clazz.getAnnotation(ExecutionPool.class);
+            if (annotation != null) {
+                return getBulkhead(annotation.value());
+            }
+
+            return getBulkhead(categories.getOrDefault(
+                container.getCategory().getName().toLowerCase(), DEFAULT_POOL
+            ));
+        });
+    }
+
+    /**
+     * Queues the given task in the pool the given command should be executed in.
+     *
+     * @param container The command container the task belongs to.
+     * @param guildId   The ID of the guild the task belongs to, or the ID of the user for direct messages.
+     * @param task      The task that should be executed.
+     * @return {@code True} if the task was queued, {@code False} if the pool rejected the task.
+     */
+    public boolean execute(@Nonnull CommandContainer container, long guildId, @Nonnull Runnable task) {
+        return getBulkhead(container).submit(guildId, task);
+    }
+
+    /**
+     * Queues the given task in the pool with the given name.
+     *
+     * @param pool    The name of the pool the task should be executed in.
+     * @param guildId The ID of the guild the task belongs to, or the ID of the user for direct messages.
+     * @param task    The task that should be executed.
+     * @return {@code True} if the task was queued, {@code False} if the pool rejected the task.
+     */
+    public boolean execute(@Nonnull String pool, long guildId, @Nonnull Runnable task) {
+        return getBulkhead(pool).submit(guildId, task);
+    }
+
+    /**
+     * Shuts down all the command pools.
+     */
+    public void shutdown() {
+        for (CommandBulkhead bulkhead : bulkheads.values()) {
+            bulkhead.shutdown();
+        }
+    }
+}
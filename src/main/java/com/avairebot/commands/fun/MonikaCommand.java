@@ -31,6 +31,7 @@ import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.MessageBuilder;
 import okhttp3.ResponseBody;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -82,7 +83,17 @@ public class MonikaCommand extends Command {
                     return;
                 }
 
-                context.getChannel().sendFile(body.byteStream(),
+                // The response is closed once the consumer returns, so the image
+                // is read into memory before the file upload is queued.
+                byte[] image;
+                try {
+                    image = body.bytes();
+                } catch (IOException e) {
+                    context.makeError("Failed to load the image: " + e.getMessage()).queue();
+                    return;
+                }
+
+                context.getChannel().sendFile(image,
                     "just-monika.jpg",
                     new MessageBuilder().setEmbed(
                         new EmbedBuilder()
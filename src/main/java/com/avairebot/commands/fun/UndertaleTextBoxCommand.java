@@ -30,10 +30,9 @@ import com.avairebot.utilities.NumberUtil;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.MessageBuilder;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
-import java.net.URL;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -115,8 +114,8 @@ public class UndertaleTextBoxCommand extends Command {
 
             messageBuilder.setEmbed(embedBuilder.build());
 
-            InputStream stream = getImageInputStream(args);
-            context.getMessageChannel().sendFile(stream, getClass().getSimpleName() + "-" + args[0] + ".png", messageBuilder.build()).queue();
+            File image = avaire.getAssetCache().getFile(getImageUrl(args));
+            context.getMessageChannel().sendFile(image, getClass().getSimpleName() + "-" + args[0] + ".png", messageBuilder.build()).queue();
 
             return true;
         } catch (IOException e) {
@@ -124,14 +123,14 @@ public class UndertaleTextBoxCommand extends Command {
         }
     }
 
-    private InputStream getImageInputStream(String[] args) throws IOException {
+    private String getImageUrl(String[] args) throws UnsupportedEncodingException {
         boolean isValidImageUrl = imageRegex.matcher(args[0]).find();
 
-        return new URL(I18n.format(
+        return I18n.format(
             templateUrl + (isValidImageUrl ? urlQueryString : characterQueryString),
             encode(String.join(" ", Arrays.copyOfRange(args, 1, args.length))),
             encode(args[0])
-        ) + (isValidImageUrl ? "&character=custom" : "")).openStream();
+        ) + (isValidImageUrl ? "&character=custom" : "");
     }
 
     private String encode(String string) throws UnsupportedEncodingException {
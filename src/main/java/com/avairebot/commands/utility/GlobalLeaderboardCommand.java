@@ -30,6 +30,7 @@ import com.avairebot.contracts.commands.CacheFingerprint;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
+import com.avairebot.contracts.commands.ExecutionPool;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.utilities.CacheUtil;
@@ -52,6 +53,7 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @CacheFingerprint(name = "leaderboard-command")
+@ExecutionPool("database")
 public class GlobalLeaderboardCommand extends Command {
 
     public static final Cache<String, Collection> cache = CacheBuilder.newBuilder()
@@ -160,23 +162,17 @@ public class GlobalLeaderboardCommand extends Command {
             .setTitle("\uD83C\uDFC6 " + context.i18n("title"))
             .requestedBy(context.getMember());
 
-        Collection userRank = loadUserRank(context);
-        if (userRank != null && !userRank.isEmpty()) {
-            int rank = userRank.first().getInt("rank", -1);
-            if (++rank > 0) {
-                Collection userXp = loadUserXp(context);
-                if (userXp != null && !userXp.isEmpty()) {
-                    long experience = userXp.first().getLong("total");
-                    message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
-                            .replace(":num", NumberUtil.formatNicely(rank))
-                            .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
-                            .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(experience)))
-                            .replace(":experience", NumberUtil.formatNicely(experience - 100))
-                            + "\n\n" + paginator.generateFooter(context.getGuild(), generateCommandTrigger(context.getMessage())),
-                        false
-                    );
-                }
-            }
+        long rank = avaire.getLevelManager().getRankIndex().getGlobalRank(context.getAuthor().getIdLong());
+        if (rank > 0) {
+            long experience = avaire.getLevelManager().getRankIndex().getGlobalExperience(context.getAuthor().getIdLong());
+            message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
+                    .replace(":num", NumberUtil.formatNicely(rank))
+                    .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
+                    .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(experience)))
+                    .replace(":experience", NumberUtil.formatNicely(experience - 100))
+                    + "\n\n" + paginator.generateFooter(context.getGuild(), generateCommandTrigger(context.getMessage())),
+                false
+            );
         }
 
         if (message.build().getFields().isEmpty()) {
@@ -196,51 +192,19 @@ public class GlobalLeaderboardCommand extends Command {
     private Collection loadTop100From() {
         return (Collection) CacheUtil.getUncheckedUnwrapped(cache, "leaderboard", () -> {
             try {
-                return avaire.getDatabase().query("SELECT " +
-                    "`user_id`, `username`, `discriminator`, (sum(`global_experience`) - (count(`user_id`) * 100)) + 100 as `total` " +
-                    "FROM `experiences` " +
-                    "WHERE `active` = 1 " +
-                    "GROUP BY `user_id` " +
-                    "ORDER BY `total` DESC " +
-                    "LIMIT 100;"
-                );
-            } catch (SQLException e) {
-                log.error("Failed to fetch global leaderboard data", e);
-
-                return Collection.EMPTY_COLLECTION;
-            }
-        });
-    }
-
-    private Collection loadUserRank(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, "user.rank." + context.getAuthor().getId(), () -> {
-            try {
-                return avaire.getDatabase().query(String.format(
-                    "SELECT COUNT(*) AS rank FROM (" +
-                        "    SELECT `user_id` FROM `experiences` WHERE `active` = 1 GROUP BY `user_id` HAVING SUM(`global_experience`) > (" +
-                        "        SELECT SUM(`global_experience`) FROM `experiences` WHERE `user_id` = '%s' AND `active` = 1" +
-                        "    )" +
-                        ") t;",
-                    context.getAuthor().getId()
+                return avaire.getDatabase().query(String.format("SELECT " +
+                        "`user_id`, `experience` as `total`, " +
+                        "(SELECT `username` FROM `%s` WHERE `%s`.`user_id` = `%s`.`user_id` LIMIT 1) as `username`, " +
+                        "(SELECT `discriminator` FROM `%s` WHERE `%s`.`user_id` = `%s`.`user_id` LIMIT 1) as `discriminator` " +
+                        "FROM `%s` " +
+                        "ORDER BY `experience` DESC " +
+                        "LIMIT 100;",
+                    Constants.PLAYER_EXPERIENCE_TABLE_NAME, Constants.PLAYER_EXPERIENCE_TABLE_NAME, Constants.GLOBAL_EXPERIENCE_TABLE_NAME,
+                    Constants.PLAYER_EXPERIENCE_TABLE_NAME, Constants.PLAYER_EXPERIENCE_TABLE_NAME, Constants.GLOBAL_EXPERIENCE_TABLE_NAME,
+                    Constants.GLOBAL_EXPERIENCE_TABLE_NAME
                 ));
             } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for user: " + context.getGuild().getId(), e);
-
-                return Collection.EMPTY_COLLECTION;
-            }
-        });
-    }
-
-    private Collection loadUserXp(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, "user.xp." + context.getAuthor().getId(), () -> {
-            try {
-                return avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                    .selectRaw("(sum(`global_experience`) - (count(`user_id`) * 100)) + 100 as `total`")
-                    .where("user_id", context.getAuthor().getIdLong())
-                    .where("active", 1)
-                    .get();
-            } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for user: " + context.getGuild().getId(), e);
+                log.error("Failed to fetch global leaderboard data", e);
 
                 return Collection.EMPTY_COLLECTION;
             }
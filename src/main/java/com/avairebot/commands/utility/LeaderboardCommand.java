@@ -32,6 +32,7 @@ import com.avairebot.contracts.commands.CacheFingerprint;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
+import com.avairebot.contracts.commands.ExecutionPool;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.transformers.GuildTransformer;
@@ -52,6 +53,7 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @CacheFingerprint(name = "leaderboard-command")
+@ExecutionPool("database")
 public class LeaderboardCommand extends Command {
 
     public static final Cache<String, Collection> cache = CacheBuilder.newBuilder()
@@ -162,21 +164,21 @@ public class LeaderboardCommand extends Command {
             )
             .requestedBy(context.getMember());
 
-        Collection userRank = loadUserRank(context);
-        if (userRank != null && !userRank.isEmpty()) {
-            int rank = userRank.first().getInt("rank", -1);
-            if (++rank > 0) {
-                message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
-                        .replace(":num", NumberUtil.formatNicely(rank))
-                        .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
-                        .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(
-                            context.getGuildTransformer(), context.getPlayerTransformer().getExperience() + zeroExperience
-                        )))
-                        .replace(":experience", NumberUtil.formatNicely(context.getPlayerTransformer().getExperience() - 100))
-                        + "\n\n" + paginator.generateFooter(context.getGuild(), generateCommandTrigger(context.getMessage())),
-                    false
-                );
-            }
+        long rank = avaire.getLevelManager().getRankIndex().getGuildRank(
+            context.getGuild().getIdLong(), context.getAuthor().getIdLong()
+        );
+
+        if (rank > 0) {
+            message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
+                    .replace(":num", NumberUtil.formatNicely(rank))
+                    .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
+                    .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(
+                        context.getGuildTransformer(), context.getPlayerTransformer().getExperience() + zeroExperience
+                    )))
+                    .replace(":experience", NumberUtil.formatNicely(context.getPlayerTransformer().getExperience() - 100))
+                    + "\n\n" + paginator.generateFooter(context.getGuild(), generateCommandTrigger(context.getMessage())),
+                false
+            );
         }
 
         if (message.build().getFields().isEmpty()) {
@@ -206,25 +208,6 @@ public class LeaderboardCommand extends Command {
         });
     }
 
-    private Collection loadUserRank(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, asKey(context, true), () -> {
-            try {
-                return avaire.getDatabase().query(String.format(
-                    "SELECT COUNT(*) AS rank FROM (" +
-                        "    SELECT `user_id` FROM `experiences` WHERE `guild_id` = '%s' AND `active` = 1 GROUP BY `user_id` HAVING SUM(`experience`) > (" +
-                        "        SELECT SUM(`experience`) FROM `experiences` WHERE `user_id` = '%s' AND `guild_id` = '%s' AND `active` = 1" +
-                        "    )" +
-                        ") t;",
-                    context.getGuild().getId(), context.getAuthor().getId(), context.getGuild().getId()
-                ));
-            } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for user: " + context.getGuild().getId(), e);
-
-                return Collection.EMPTY_COLLECTION;
-            }
-        });
-    }
-
     private String asKey(CommandMessage context, boolean isUser) {
         return context.getGuild().getId() + (isUser ? "." + context.getAuthor().getId() : "");
     }
@@ -29,6 +29,7 @@ import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.CommandContext;
 import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
+import com.avairebot.contracts.commands.ExecutionPool;
 import com.avairebot.database.controllers.PurchaseController;
 import com.avairebot.database.transformers.PlayerTransformer;
 import com.avairebot.imagegen.RankBackground;
@@ -54,6 +55,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+@ExecutionPool("image")
 public class RankBackgroundCommand extends Command {
 
     private static final Logger log = LoggerFactory.getLogger(RankBackgroundCommand.class);
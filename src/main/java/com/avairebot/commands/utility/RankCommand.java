@@ -30,7 +30,7 @@ import com.avairebot.commands.administration.LevelCommand;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
-import com.avairebot.database.collection.Collection;
+import com.avairebot.contracts.commands.ExecutionPool;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.controllers.PlayerController;
 import com.avairebot.database.transformers.GuildTransformer;
@@ -40,11 +40,8 @@ import com.avairebot.imagegen.RankBackground;
 import com.avairebot.imagegen.RankBackgroundHandler;
 import com.avairebot.imagegen.renders.RankBackgroundRender;
 import com.avairebot.language.I18n;
-import com.avairebot.utilities.CacheUtil;
 import com.avairebot.utilities.MentionableUtil;
 import com.avairebot.utilities.NumberUtil;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.MessageBuilder;
 import net.dv8tion.jda.core.entities.Guild;
@@ -60,17 +57,11 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
+@ExecutionPool("image")
 public class RankCommand extends Command {
 
-    public static final Cache<Long, Collection> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(120, TimeUnit.SECONDS)
-        .build();
-
     private static final Logger log = LoggerFactory.getLogger(RankCommand.class);
 
     public RankCommand(AvaIre avaire) {
@@ -316,15 +307,14 @@ public class RankCommand extends Command {
                 PlayerTransformer player = context.getAuthor().getIdLong() == author.getIdLong()
                     ? context.getPlayerTransformer() : PlayerController.fetchPlayer(avaire, context.getMessage(), author);
 
-                DataRow data = avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                    .selectRaw("sum(`global_experience`) - (count(`user_id`) * 100) as `total`")
-                    .where("user_id", author.getId())
-                    .where("active", 1)
+                DataRow data = avaire.getDatabase().newQueryBuilder(Constants.GLOBAL_EXPERIENCE_TABLE_NAME)
+                    .select("experience")
+                    .where("user_id", author.getIdLong())
                     .get().first();
 
-                long total = data == null ? (player == null ? 0 : player.getExperience()) : data.getLong("total");
+                long total = data == null ? (player == null ? 0 : player.getExperience()) : data.getLong("experience") - 100;
 
-                return new DatabaseProperties(player, total, getScore(context, author.getId()));
+                return new DatabaseProperties(player, total, getScore(context, author.getIdLong()));
             } catch (SQLException e) {
                 log.error("Error getting player experience : {}", e.getMessage(), e);
                 return null;
@@ -332,23 +322,10 @@ public class RankCommand extends Command {
         });
     }
 
-    private String getScore(CommandMessage context, String userId) throws SQLException {
-        Collection users = (Collection) CacheUtil.getUncheckedUnwrapped(cache, context.getGuild().getIdLong(), () ->
-            avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                .select("user_id as id")
-                .orderBy("experience", "desc")
-                .where("guild_id", context.getGuild().getId())
-                .where("active", 1)
-                .get()
-        );
-
-        for (int i = 0; i < users.size(); i++) {
-            if (Objects.equals(users.get(i).getString("id"), userId)) {
-                return "" + (i + 1);
-            }
-        }
+    private String getScore(CommandMessage context, long userId) {
+        long rank = avaire.getLevelManager().getRankIndex().getGuildRank(context.getGuild().getIdLong(), userId);
 
-        return context.i18n("unranked");
+        return rank > 0 ? "" + rank : context.i18n("unranked");
     }
 
     private long getUsersInGuild(Guild guild) {
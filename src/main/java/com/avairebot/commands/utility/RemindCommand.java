@@ -26,18 +26,18 @@ import com.avairebot.commands.CommandMessage;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.time.Carbon;
 import com.avairebot.utilities.NumberUtil;
-import com.avairebot.utilities.RestActionUtil;
-import net.dv8tion.jda.core.EmbedBuilder;
-import net.dv8tion.jda.core.MessageBuilder;
-import net.dv8tion.jda.core.entities.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 public class RemindCommand extends Command {
 
+    private static final Logger log = LoggerFactory.getLogger(RemindCommand.class);
+
     public RemindCommand(AvaIre avaire) {
         super(avaire);
     }
@@ -108,44 +108,30 @@ public class RemindCommand extends Command {
             return sendErrorMessage(context, "errors.missingArgument", "message");
         }
 
-        handleReminderMessage(
-            context,
-            new MessageBuilder()
-                .setContent(String.format("%s, %s you asked to be reminded about:",
-                    context.getAuthor().getAsMention(),
-                    Carbon.now().subSeconds(time).diffForHumans()
-                ))
-                .setEmbed(new EmbedBuilder()
-                    .setDescription(String.join(" ", Arrays.copyOfRange(args, 2, args.length)))
-                    .build()
-                ).build(),
-            time,
-            respondInDM);
+        String message = String.join(" ", Arrays.copyOfRange(args, 2, args.length));
+
+        try {
+            avaire.getReminderScheduler().createReminder(
+                context.getAuthor().getIdLong(),
+                context.getMessageChannel().getIdLong(),
+                respondInDM,
+                message,
+                time
+            );
+        } catch (SQLException e) {
+            log.error("Failed to store reminder for {}: {}", context.getAuthor().getId(), e.getMessage(), e);
+
+            return sendErrorMessage(context, "Failed to store the reminder, please try again later.");
+        }
 
         context.makeInfo("Alright :user, in :time I'll remind you about :message")
             .set("time", Carbon.now().subSeconds(time).diffForHumans(true))
-            .set("message", String.join(" ", Arrays.copyOfRange(args, 2, args.length)))
+            .set("message", message)
             .queue();
 
         return true;
     }
 
-    private void handleReminderMessage(CommandMessage context, Message message, int time, boolean respondInDM) {
-        if (respondInDM) {
-            context.getAuthor().openPrivateChannel().queue(privateChannel -> {
-                privateChannel.sendMessage(message).queueAfter(time, TimeUnit.SECONDS, null, RestActionUtil.ignore);
-            }, throwable -> {
-                context.getMessageChannel().sendMessage(message).queueAfter(time, TimeUnit.SECONDS, null, RestActionUtil.ignore);
-            });
-        } else {
-            context.getMessageChannel().sendMessage(message).queueAfter(time, TimeUnit.SECONDS, null, throwable -> {
-                context.getAuthor().openPrivateChannel().queue(privateChannel -> {
-                    privateChannel.sendMessage(message).queueAfter(time, TimeUnit.SECONDS, null, RestActionUtil.ignore);
-                });
-            });
-        }
-    }
-
     public int parse(String input) {
         int result = 0;
         String number = "";
@@ -78,11 +78,23 @@ public abstract class Future {
      * @param failure The consumer that should be invoked on failure.
      */
     public void send(final Consumer success, final Consumer<Throwable> failure) {
-        service.submit(() -> handle(
+        submit(
             success == null ? defaultSuccess : success,
             failure == null ? defaultFailure : failure
+        );
+    }
 
-        ));
+    /**
+     * Submits the future request to be handled asynchronously, by default the
+     * request is {@link #handle(Consumer, Consumer) handled} on the future
+     * thread pool, requests that are able to run without blocking a
+     * thread can override this to dispatch the request themselves.
+     *
+     * @param success Never-null success consumer.
+     * @param failure Never-null failure consumer.
+     */
+    protected void submit(Consumer success, Consumer<Throwable> failure) {
+        service.submit(() -> handle(success, failure));
     }
 
     /**
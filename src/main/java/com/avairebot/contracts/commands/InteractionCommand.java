@@ -41,9 +41,8 @@ import net.dv8tion.jda.core.entities.User;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.awt.*;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -171,9 +170,9 @@ public abstract class InteractionCommand extends Command {
         messageBuilder.setEmbed(embedBuilder.build());
 
         try {
-            InputStream stream = new URL(interactionImages.get(imageIndex)).openStream();
+            File image = avaire.getAssetCache().getFile(interactionImages.get(imageIndex));
 
-            context.getChannel().sendFile(stream, getClass().getSimpleName() + "-" + imageIndex + ".gif", messageBuilder.build()).queue();
+            context.getChannel().sendFile(image, getClass().getSimpleName() + "-" + imageIndex + ".gif", messageBuilder.build()).queue();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -25,6 +25,10 @@ import com.avairebot.contracts.database.grammar.AlterGrammar;
 import com.avairebot.contracts.database.grammar.Grammarable;
 import com.avairebot.contracts.database.grammar.TableGrammar;
 import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.pool.ConnectionPool;
+import com.avairebot.database.pool.ConnectionPoolConfig;
+import com.avairebot.database.pool.ResourceReleasingProxy;
+import com.avairebot.database.query.PreparedQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
 import com.avairebot.metrics.Metrics;
@@ -37,15 +41,17 @@ import javax.annotation.WillClose;
 import javax.annotation.WillCloseWhenClosed;
 import javax.annotation.WillNotClose;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 public abstract class Database implements DatabaseConnection, Grammarable {
 
     private static final Logger log = LoggerFactory.getLogger(Database.class);
 
+    /**
+     * The grammar options used to generate parameterized queries.
+     */
+    private static final Map<String, Boolean> parameterizedOptions = Collections.singletonMap("parameterized", true);
+
     /**
      * The main database manage instance, used to communicate
      * with the rest of the application.
@@ -54,30 +60,18 @@ public abstract class Database implements DatabaseConnection, Grammarable {
 
     /**
      * Represents our prepared query statements and their statement
-     * type, allowing us to quickly render and compile statements.
-     */
-    protected Map<PreparedStatement, StatementInterface> preparedStatements = new HashMap<>();
-
-    /**
-     * Represents our current database connection, this is
-     * used to send queries to the database, as well as
-     * fetch, and persist data.
-     */
-    protected Connection connection;
-
-    /**
-     * Represents the last connection state the
-     * last time the connection was checked.
+     * type, allowing us to quickly render and compile statements,
+     * statements are weakly referenced so statements that are
+     * closed without being executed doesn't stay in memory.
      */
-    private boolean lastState;
+    protected Map<PreparedStatement, StatementInterface> preparedStatements = Collections.synchronizedMap(new WeakHashMap<>());
 
     /**
-     * Represents the last time in milliseconds the state of the connection
-     * was checked, if the connection was checked less then a few seconds
-     * before, the last state will be returned instead, preventing
-     * checking the actually database by querying it every time.
+     * Represents our database connection pool, this is used to borrow
+     * connections that are used to send queries to the database,
+     * as well as fetch, and persist data.
      */
-    private long lastChecked;
+    protected volatile ConnectionPool pool;
 
     /**
      * Sets the Database Manager instance to the database.
@@ -86,9 +80,6 @@ public abstract class Database implements DatabaseConnection, Grammarable {
      */
     public Database(DatabaseManager dbm) {
         this.dbm = dbm;
-
-        lastState = false;
-        lastChecked = 0L;
     }
 
     /**
@@ -114,96 +105,112 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     protected abstract void queryValidation(StatementInterface paramStatement) throws SQLException;
 
     /**
-     * Attempts to close the database connection.
+     * Creates a new table grammar instance for the given query type.
      *
-     * @return either (1) <code>TRUE</code> if the database connection was closed successfully
-     *         or (2) <code>FALSE</code> if the connection is already close, or an exception was thrown
-     * @throws SQLException if a database access error occurs,
-     *                      this method is called on a closed <code>Statement</code>, the given
-     *                      SQL statement produces anything other than a single
-     *                      <code>ResultSet</code> object, the method is called on a
-     *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
+     * @param type The query type the grammar should be created for.
+     * @return The grammar instance for the given query type.
      */
-    public final boolean close() throws SQLException {
-        if (connection == null) {
-            log.warn("Could not close connection, it is null.");
-            return false;
+    protected abstract TableGrammar createGrammar(QueryType type);
+
+    /**
+     * Opens the connection pool for the database if it isn't open already, the given
+     * factory will be used by the pool to open new physical connections whenever
+     * the pool has to grow, or a broken connection has to be replaced.
+     *
+     * @param factory The factory used to open new physical connections.
+     * @param config  The connection pool configuration.
+     * @return <code>TRUE</code> if the pool is open.
+     * @throws SQLException if the pool failed to open a connection to the database.
+     */
+    protected final synchronized boolean openPool(SupplierWithSQL<Connection> factory, ConnectionPoolConfig config) throws SQLException {
+        if (isOpen()) {
+            return true;
         }
 
+        ConnectionPool connectionPool = new ConnectionPool(getClass().getSimpleName(), factory, config);
         try {
-            connection.close();
-            lastState = false;
-            lastChecked = 0L;
-
-            return true;
+            connectionPool.start();
         } catch (SQLException e) {
-            log.warn("Could not close connection, SQLException: " + e.getMessage(), e);
+            connectionPool.close();
+            throw e;
         }
-        return false;
+
+        pool = connectionPool;
+
+        return true;
     }
 
     /**
-     * Returns the current database connection, if the connection is not open/active, it
-     * will attempt to open the connection for you.
+     * Attempts to close the database connection pool, connections that are currently
+     * borrowed from the pool will be closed once they're returned to the pool.
      *
-     * @return the database connection
+     * @return either (1) <code>TRUE</code> if the database connection pool was closed successfully
+     *         or (2) <code>FALSE</code> if the connection pool was never opened
      * @throws SQLException if a database access error occurs,
      *                      this method is called on a closed <code>Statement</code>, the given
      *                      SQL statement produces anything other than a single
      *                      <code>ResultSet</code> object, the method is called on a
      *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
      */
-    public synchronized Connection getConnection() throws SQLException {
-        if (!isOpen()) {
-            open();
-            lastState = true;
+    public final boolean close() throws SQLException {
+        if (pool == null) {
+            log.warn("Could not close connection pool, it is null.");
+            return false;
         }
 
-        return connection;
+        pool.close();
+
+        return true;
     }
 
     /**
-     * Checks to see if the database connection is still valid.
+     * Borrows a connection from the database connection pool, if the pool is not open it will
+     * attempt to open the pool for you, the returned connection <strong>must</strong> be
+     * closed when it is no longer needed, closing the connection will return it to the
+     * pool so it can be reused by other threads, preferably using try-with-resources.
      *
-     * @return either (1) <code>TRUE</code> if the database connection is open and valid
-     *         or (2) <code>FALSE</code> if the database connection is closed
+     * @return the database connection borrowed from the pool
+     * @throws SQLException if a database access error occurs, the pool could not
+     *                      be opened, or no connection became available in time
      */
-    public final boolean isOpen() {
-        return isOpen(2);
+    public Connection getConnection() throws SQLException {
+        if (!isOpen()) {
+            synchronized (this) {
+                if (!isOpen()) {
+                    open();
+                }
+            }
+        }
+
+        ConnectionPool connectionPool = pool;
+        if (connectionPool == null) {
+            throw new SQLException("The database connection pool has not been opened.");
+        }
+
+        return connectionPool.borrow();
     }
 
     /**
-     * Checks to see if the database connection is still valid.
+     * Checks to see if the database connection pool is open, the connections
+     * in the pool are validated by the pool itself before they're used.
      *
-     * @param seconds The amount of time to wait for the connection for.
-     * @return either (1) <code>TRUE</code> if the database connection is open and valid
-     *         or (2) <code>FALSE</code> if the database connection is closed
+     * @return either (1) <code>TRUE</code> if the database connection pool is open
+     *         or (2) <code>FALSE</code> if the database connection pool is closed
      */
-    public final synchronized boolean isOpen(int seconds) {
-        if (connection != null) {
-            // Returns the last state if the connection was checked less than three seconds ago.
-            if (System.currentTimeMillis() - 5000 < lastChecked) {
-                return lastState;
-            }
-
-            try {
-                if (connection.isClosed()) {
-                    return false;
-                }
-
-                lastState = connection.isValid(seconds);
-                lastChecked = System.currentTimeMillis() - (lastState ? 0L : 250L);
+    public final boolean isOpen() {
+        ConnectionPool connectionPool = pool;
 
-                return lastState;
-            } catch (SQLException e) {
-                if (e instanceof MySQLNonTransientConnectionException) {
-                    log.warn("Failed to check if the database connection is open due to a non transient connection exception!", e);
-                }
-                // If the exception type is anything else, we just ignore it.
-            }
-        }
+        return connectionPool != null && !connectionPool.isClosed();
+    }
 
-        return false;
+    /**
+     * Gets the database connection pool, or <code>NULL</code> if the pool hasn't been opened yet.
+     *
+     * @return The database connection pool.
+     */
+    @Nullable
+    public final ConnectionPool getPool() {
+        return pool;
     }
 
     /**
@@ -222,13 +229,28 @@ public abstract class Database implements DatabaseConnection, Grammarable {
         return handleQuery(() -> {
             queryValidation(getStatement(query));
 
-            Statement statement = createPreparedStatement(query);
-            statement.closeOnCompletion();
+            Connection connection = getConnection();
+            Statement statement = null;
 
-            if (statement.execute(query)) {
-                return statement.getResultSet();
+            try {
+                Metrics.databaseQueries.labels(getStatementType(query)).inc();
+
+                statement = connection.createStatement();
+                configureStatement(statement);
+
+                if (statement.execute(query)) {
+                    // The connection is returned to the pool once the result set is closed.
+                    return ResourceReleasingProxy.wrap(statement.getResultSet(), ResultSet.class, statement, connection);
+                }
+                throw new SQLException("The query failed to execute successfully: " + query);
+            } catch (SQLException | RuntimeException e) {
+                if (statement != null) {
+                    statement.close();
+                }
+                connection.close();
+
+                throw e;
             }
-            throw new SQLException("The query failed to execute successfully: " + query);
         });
     }
 
@@ -245,7 +267,80 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     @Nullable
     @WillCloseWhenClosed
     public final ResultSet query(QueryBuilder query) throws SQLException {
-        return query(query.toSQL());
+        return query(query.toPreparedQuery());
+    }
+
+    /**
+     * Queries the database with the given prepared query, the query
+     * should be a <code>SELECT</code> query, the values of the query
+     * will be bound to the placeholders before it is executed.
+     *
+     * @param query The prepared query to run.
+     * @return the current result as a <code>ResultSet</code> object or
+     *         <code>null</code> if the result is an update count or there are no more results
+     * @throws SQLException if a database access error occurs or this method is called on a
+     *                      closed <code>Statement</code>
+     */
+    @Nullable
+    @WillCloseWhenClosed
+    public final ResultSet query(PreparedQuery query) throws SQLException {
+        return handleQuery(() -> {
+            queryValidation(getStatement(query.getQuery()));
+
+            Connection connection = getConnection();
+            PreparedStatement statement = null;
+
+            try {
+                statement = createPreparedStatement(connection, query, Statement.NO_GENERATED_KEYS);
+
+                // The connection is returned to the pool once the result set is closed.
+                return ResourceReleasingProxy.wrap(statement.executeQuery(), ResultSet.class, statement, connection);
+            } catch (SQLException | RuntimeException e) {
+                if (statement != null) {
+                    statement.close();
+                }
+                connection.close();
+
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Executes the given prepared query, which must be an SQL Data Manipulation Language (DML)
+     * statement, such as <code>INSERT</code>, <code>UPDATE</code> or <code>DELETE</code>,
+     * the values of the query will be bound to the placeholders before it is executed.
+     *
+     * @param query The prepared query to run.
+     * @return the row count for the SQL Data Manipulation Language (DML) statement
+     * @throws SQLException if a database access error occurs or this method is called on a
+     *                      closed <code>Statement</code>
+     */
+    @WillClose
+    public final int queryUpdate(PreparedQuery query) throws SQLException {
+        queryValidation(getStatement(query.getQuery()));
+
+        try (Connection connection = getConnection();
+             PreparedStatement statement = createPreparedStatement(connection, query, Statement.NO_GENERATED_KEYS)) {
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Builds a parameterized query from the given query builder, the query will use question
+     * marks(?) as placeholders for all the values, and the values will be returned as a
+     * list of typed bindings, which are bound to the statement once it is executed.
+     *
+     * @param manager The database manager instance.
+     * @param builder The query builder that the query should be generated from.
+     * @param type    The type of query that should be generated.
+     * @return The prepared query generated from the query builder.
+     */
+    public final PreparedQuery buildPreparedQuery(DatabaseManager manager, QueryBuilder builder, QueryType type) {
+        TableGrammar grammar = createGrammar(type);
+        String query = setupAndRun(grammar, builder, manager, parameterizedOptions);
+
+        return new PreparedQuery(query, new ArrayList<>(grammar.getBindings()));
     }
 
     /**
@@ -301,13 +396,27 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     @WillNotClose
     public final Statement prepare(String query) throws SQLException {
         StatementInterface statement = getStatement(query);
-        Statement ps = createPreparedStatement(query);
+        Connection connection = getConnection();
+
+        Statement ps;
+        try {
+            ps = createPreparedStatement(connection, query);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
 
+        // The connection is returned to the pool once the statement is closed.
         if (ps instanceof PreparedStatement) {
-            preparedStatements.put((PreparedStatement) ps, statement);
+            PreparedStatement preparedStatement = ResourceReleasingProxy.wrap(
+                (PreparedStatement) ps, PreparedStatement.class, connection
+            );
+            preparedStatements.put(preparedStatement, statement);
+
+            return preparedStatement;
         }
 
-        return ps;
+        return ResourceReleasingProxy.wrap(ps, Statement.class, connection);
     }
 
     /**
@@ -334,7 +443,8 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     public final List<Long> insert(String query) throws SQLException {
         List<Long> keys = new ArrayList<>();
 
-        try (PreparedStatement pstmt = createPreparedStatement(query, 1)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = createPreparedStatement(connection, query, 1)) {
             ResultSet key = pstmt.getGeneratedKeys();
             if (key.next()) {
                 keys.add(key.getLong(1));
@@ -383,27 +493,70 @@ public abstract class Database implements DatabaseConnection, Grammarable {
             return callback.get();
         } catch (MySQLNonTransientConnectionException e) {
             if (e.getMessage().contains("connection closed")) {
-                log.error("Attempted to run a query after the connection was closed, closing and re-opening the connection.", e);
-
-                // The connection should already be closed, we're just forcefully close the
-                // connection here so that the database manage can see that connection is
-                // closed, and so the connection can be reopened on the next request.
-                close();
+                // The connection is already closed at this point, so the pool will discard it
+                // when it is returned instead of handing it out again, and open a new
+                // connection on the next request if there are no idle connections.
+                log.error("Attempted to run a query after the connection was closed, the connection will be discarded by the pool.", e);
             }
             return null;
         }
     }
 
-    protected Statement createPreparedStatement(String query) throws SQLException {
-        Metrics.databaseQueries.labels(query.split(" ")[0].toUpperCase()).inc();
+    protected Statement createPreparedStatement(Connection connection, String query) throws SQLException {
+        Metrics.databaseQueries.labels(getStatementType(query)).inc();
+
+        return connection.prepareStatement(query);
+    }
+
+    private PreparedStatement createPreparedStatement(Connection connection, String query, int autoGeneratedKeys) throws SQLException {
+        Metrics.databaseQueries.labels(getStatementType(query)).inc();
+
+        return connection.prepareStatement(query, autoGeneratedKeys);
+    }
+
+    /**
+     * Creates a prepared statement for the given prepared query, and binds
+     * the values of the query to the placeholders in the statement.
+     *
+     * @param connection        The connection the statement should be created on.
+     * @param query             The prepared query the statement should be created for.
+     * @param autoGeneratedKeys A flag indicating whether auto-generated keys should be returned.
+     * @return The prepared statement with all the values bound to it.
+     * @throws SQLException if a database access error occurs or this method is called on a
+     *                      closed connection
+     */
+    public PreparedStatement createPreparedStatement(Connection connection, PreparedQuery query, int autoGeneratedKeys) throws SQLException {
+        Metrics.databaseQueries.labels(getStatementType(query.getQuery())).inc();
+
+        PreparedStatement statement = connection.prepareStatement(query.getQuery(), autoGeneratedKeys);
+        try {
+            configureStatement(statement);
+            query.bind(statement);
+        } catch (SQLException | RuntimeException e) {
+            statement.close();
+            throw e;
+        }
 
-        return getConnection().prepareStatement(query);
+        return statement;
+    }
+
+    /**
+     * Configures the given statement before it is executed, this can be used
+     * by database implementations to set things like query timeouts.
+     *
+     * @param statement The statement that should be configured.
+     * @throws SQLException if a database access error occurs or this method is called on a
+     *                      closed <code>Statement</code>
+     */
+    protected void configureStatement(Statement statement) throws SQLException {
+        // This does nothing by default
     }
 
-    private PreparedStatement createPreparedStatement(String query, int autoGeneratedKeys) throws SQLException {
-        Metrics.databaseQueries.labels(query.split(" ")[0].toUpperCase()).inc();
+    private String getStatementType(String query) {
+        String trimmed = query.trim();
+        int index = trimmed.indexOf(' ');
 
-        return getConnection().prepareStatement(query, autoGeneratedKeys);
+        return (index == -1 ? trimmed : trimmed.substring(0, index)).toUpperCase();
     }
 
     protected String setupAndRun(TableGrammar grammar, QueryBuilder builder, DatabaseManager manager, Map<String, Boolean> options) {
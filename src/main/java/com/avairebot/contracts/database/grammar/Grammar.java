@@ -23,6 +23,8 @@ package com.avairebot.contracts.database.grammar;
 
 import com.avairebot.database.DatabaseManager;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -56,6 +58,13 @@ public abstract class Grammar {
      */
     protected String query;
 
+    /**
+     * The list of values that should be bound to the query placeholders, values
+     * are only added to the list if the grammar is parameterized, otherwise
+     * the values will be rendered directly into the query string.
+     */
+    protected final List<Object> bindings = new ArrayList<>();
+
     public void setDBM(DatabaseManager dbm) {
         this.dbm = dbm;
     }
@@ -69,15 +78,94 @@ public abstract class Grammar {
     }
 
     /**
-     * Checks to see if a string is numeric, this will help
-     * determine how to format values into the query.
+     * Gets the list of values that should be bound to the query placeholders,
+     * in the same order as the placeholders appear in the query.
+     *
+     * @return The list of values bound to the query.
+     */
+    public List<Object> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Checks if the grammar should generate a parameterized query, using question
+     * marks(?) as placeholders for values instead of adding them to the query.
+     *
+     * @return <code>TRUE</code> if the grammar is parameterized, <code>FALSE</code> otherwise.
+     */
+    protected boolean isParameterized() {
+        return options != null && options.getOrDefault("parameterized", false);
+    }
+
+    /**
+     * Adds the given value to the list of bindings for the query.
+     *
+     * @param value The value that should be bound to the query.
+     * @return the placeholder that should be used in the query for the value.
+     */
+    protected String addBinding(Object value) {
+        bindings.add(value);
+
+        return "?";
+    }
+
+    /**
+     * Converts numeric strings to numbers so they're compared as numbers by the
+     * database, comparing a number column against a string makes the database
+     * compare them as floating point values, which looses the precision
+     * needed for comparing things like Discord snowflake IDs.
+     *
+     * @param value The value that should be converted.
+     * @return The converted value.
+     */
+    protected Object toComparableBinding(Object value) {
+        if (!(value instanceof String) || !isNumeric((String) value)) {
+            return value;
+        }
+
+        String string = (String) value;
+        if (string.indexOf('.') == -1 && string.length() < 19) {
+            return Long.parseLong(string);
+        }
+        return new BigDecimal(string);
+    }
+
+    /**
+     * Checks to see if a string is numeric, this will help determine how to format
+     * values into the query, a string is numeric if it matches the following
+     * pattern: <code>[-+]?\d*\.?\d+</code>
      *
      * @param string The string to check.
      * @return either (1) <code>TRUE</code> if the provided string is numeric
      *         or (2) <code>FALSE</code> if the provided string isn't numeric
      */
     protected boolean isNumeric(String string) {
-        return string.matches("[-+]?\\d*\\.?\\d+");
+        int length = string.length();
+        int index = 0;
+
+        if (length > 0 && (string.charAt(0) == '-' || string.charAt(0) == '+')) {
+            index++;
+        }
+
+        if (index == length || string.charAt(length - 1) == '.') {
+            return false;
+        }
+
+        boolean hasDecimalPoint = false;
+        for (; index < length; index++) {
+            char character = string.charAt(index);
+
+            if (character == '.') {
+                if (hasDecimalPoint) {
+                    return false;
+                }
+                hasDecimalPoint = true;
+            } else if (character < '0' || character > '9') {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     /**
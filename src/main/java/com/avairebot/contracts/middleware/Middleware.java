@@ -24,6 +24,7 @@ package com.avairebot.contracts.middleware;
 import com.avairebot.AvaIre;
 import com.avairebot.commands.CommandMessage;
 import com.avairebot.metrics.Metrics;
+import com.avairebot.middleware.CompiledMiddleware;
 import com.avairebot.middleware.MiddlewareStack;
 import com.avairebot.plugin.JavaPlugin;
 import com.avairebot.utilities.CacheUtil;
@@ -100,6 +101,38 @@ public abstract class Middleware {
      */
     public abstract boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args);
 
+    /**
+     * Invoked by the middleware stack with the compiled middleware for the current
+     * command, middlewares that {@link #compile(String[]) compile} their
+     * arguments should override this method to use the pre-parsed
+     * arguments, by default this calls the string based
+     * {@link #handle(Message, MiddlewareStack, String...) handle} method.
+     *
+     * @param message    The JDA message object.
+     * @param stack      The middleware stack for the current command.
+     * @param middleware The compiled middleware for the current command.
+     * @return Invoke {@link MiddlewareStack#next()} on success, false on failure.
+     */
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, @Nonnull CompiledMiddleware middleware) {
+        return handle(message, stack, middleware.getArguments());
+    }
+
+    /**
+     * Compiles the arguments given to the middleware, this is called once for every
+     * command using the middleware when the command is registered, allowing the
+     * middleware to validate and parse its arguments ahead of time, the
+     * returned object can be retrieved again through the
+     * {@link CompiledMiddleware#getCompiled(Class)} method.
+     *
+     * @param arguments The arguments that was given to the middleware for the command.
+     * @return Possibly-null, the compiled arguments for the middleware.
+     * @throws IllegalArgumentException If the given arguments are invalid for the middleware.
+     */
+    @Nullable
+    public Object compile(@Nonnull String[] arguments) {
+        return null;
+    }
+
     /**
      * Checks the message cache to see if the user has received an error message in
      * the last 2½ seconds, if they did the callback will be ignored and the
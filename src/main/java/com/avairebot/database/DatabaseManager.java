@@ -29,6 +29,7 @@ import com.avairebot.database.connections.MySQL;
 import com.avairebot.database.connections.SQLite;
 import com.avairebot.database.exceptions.DatabaseException;
 import com.avairebot.database.migrate.Migrations;
+import com.avairebot.database.query.PreparedQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Schema;
 import com.avairebot.database.seeder.SeederManager;
@@ -41,8 +42,8 @@ import org.slf4j.MDC;
 import javax.annotation.WillClose;
 import java.sql.*;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class DatabaseManager {
@@ -58,7 +59,7 @@ public class DatabaseManager {
     private final Set<Integer> runningBatchRequests;
 
     private int queryRetries = 5;
-    private Database connection = null;
+    private volatile Database connection = null;
 
     public DatabaseManager(AvaIre avaire) {
         this.avaire = avaire;
@@ -67,7 +68,7 @@ public class DatabaseManager {
         this.seeder = new SeederManager();
 
         this.batchIncrementer = new AtomicInteger(0);
-        this.runningBatchRequests = new HashSet<>();
+        this.runningBatchRequests = ConcurrentHashMap.newKeySet();
     }
 
     public AvaIre getAvaire() {
@@ -87,30 +88,38 @@ public class DatabaseManager {
     }
 
     public Database getConnection() throws SQLException, DatabaseException {
-        if (connection == null) {
-            switch (avaire.getConfig().getString("database.type", "invalid").toLowerCase()) {
-                case "mysql":
-                    connection = new MySQL(this);
-                    break;
-
-                case "sqlite":
-                    connection = new SQLite(this);
-                    break;
-
-                default:
-                    throw new DatabaseException("Invalid database type given, failed to create a new database connection.");
+        Database database = connection;
+        if (database == null) {
+            synchronized (this) {
+                if (connection == null) {
+                    connection = createDatabase();
+                }
+                database = connection;
             }
         }
 
-        if (connection.isOpen()) {
-            return connection;
+        if (database.isOpen()) {
+            return database;
         }
 
-        if (!connection.open()) {
+        if (!database.open()) {
             throw new DatabaseException("Failed to connect to the database.");
         }
 
-        return connection;
+        return database;
+    }
+
+    private Database createDatabase() {
+        switch (avaire.getConfig().getString("database.type", "invalid").toLowerCase()) {
+            case "mysql":
+                return new MySQL(this);
+
+            case "sqlite":
+                return new SQLite(this);
+
+            default:
+                throw new DatabaseException("Invalid database type given, failed to create a new database connection.");
+        }
     }
 
     public void setRetries(int retries) {
@@ -167,7 +176,32 @@ public class DatabaseManager {
      */
     @WillClose
     public Collection query(QueryBuilder query) throws SQLException {
-        return query(query.toSQL());
+        return query(toPreparedQuery(query));
+    }
+
+    /**
+     * Executes the given prepared query, binding the values of the query to the
+     * placeholders, which returns a single <code>Collection</code> object.
+     *
+     * @param query a prepared query that should be sent to the database, typically a
+     *              static SQL <code>SELECT</code> statement
+     * @return a <code>Collection</code> object that contains the data produced
+     *         by the given query; never <code>null</code>
+     * @throws SQLException        if a database access error occurs,
+     *                             this method is called on a closed <code>Statement</code>, the given
+     *                             SQL statement produces anything other than a single
+     *                             <code>ResultSet</code> object
+     * @throws SQLTimeoutException when the driver has determined that the
+     *                             timeout value that was specified by the {@code setQueryTimeout}
+     *                             method has been exceeded and has at least attempted to cancel
+     *                             the currently running {@code Statement}
+     */
+    @WillClose
+    public Collection query(PreparedQuery query) throws SQLException {
+        log.debug("query(PreparedQuery query) was called with the following SQL query.\nSQL: {}", query);
+        MDC.put("query", query.getQuery());
+
+        return runQuery(query, queryRetries);
     }
 
     /**
@@ -213,7 +247,31 @@ public class DatabaseManager {
      */
     @WillClose
     public int queryUpdate(QueryBuilder query) throws SQLException {
-        return queryUpdate(query.toSQL());
+        return queryUpdate(toPreparedQuery(query));
+    }
+
+    /**
+     * Executes the given prepared query, binding the values of the query to the placeholders,
+     * the query must be an SQL Data Manipulation Language (DML) statement, such as
+     * <code>INSERT</code>, <code>UPDATE</code> or <code>DELETE</code>.
+     *
+     * @param query a prepared query that should be sent to the database, typically a
+     *              static SQL DML statement
+     * @return the row count for SQL Data Manipulation Language (DML) statements
+     * @throws SQLException        if a database access error occurs;
+     *                             this method is called on a closed  <code>PreparedStatement</code>
+     *                             or the SQL statement returns a <code>ResultSet</code> object
+     * @throws SQLTimeoutException when the driver has determined that the
+     *                             timeout value that was specified by the {@code setQueryTimeout}
+     *                             method has been exceeded and has at least attempted to cancel
+     *                             the currently running {@code Statement}
+     */
+    @WillClose
+    public int queryUpdate(PreparedQuery query) throws SQLException {
+        log.debug("queryUpdate(PreparedQuery query) was called with the following SQL query.\nSQL: {}", query);
+        MDC.put("query", query.getQuery());
+
+        return runQueryUpdate(query, queryRetries);
     }
 
     /**
@@ -262,20 +320,15 @@ public class DatabaseManager {
      */
     @WillClose
     public Set<Integer> queryInsert(QueryBuilder queryBuilder) throws SQLException {
-        String query = queryBuilder.toSQL();
-        log.debug("queryInsert(QueryBuilder queryBuilder) was called with the following SQL query.\nSQL: " + query);
-        Metrics.databaseQueries.labels("INSERT").inc();
-        MDC.put("query", query);
+        PreparedQuery query = toPreparedQuery(queryBuilder);
+        log.debug("queryInsert(QueryBuilder queryBuilder) was called with the following SQL query.\nSQL: {}", query);
+        MDC.put("query", query.getQuery());
 
-        if (query == null) {
-            throw new SQLException("null query was generated, null can not be used as a valid query");
-        }
-
-        if (!query.toUpperCase().startsWith("INSERT INTO")) {
+        if (!query.getQuery().regionMatches(true, 0, "INSERT INTO", 0, 11)) {
             throw new DatabaseException("queryInsert was called with a query without an INSERT statement!");
         }
 
-        return runQueryInsert(queryBuilder, queryRetries);
+        return runQueryInsert(query, queryRetries);
     }
 
     /**
@@ -325,6 +378,42 @@ public class DatabaseManager {
         return !runningBatchRequests.isEmpty();
     }
 
+    private PreparedQuery toPreparedQuery(QueryBuilder queryBuilder) throws SQLException {
+        PreparedQuery query = queryBuilder.toPreparedQuery();
+        if (query == null) {
+            throw new SQLException("null query was generated, null can not be used as a valid query");
+        }
+        return query;
+    }
+
+    @WillClose
+    private Collection runQuery(PreparedQuery query, int retriesLeft) throws SQLException {
+        try (ResultSet resultSet = getConnection().query(query)) {
+            return new Collection(resultSet);
+        } catch (MySQLTransactionRollbackException e) {
+            if (--retriesLeft > 0) {
+                return runQuery(query, retriesLeft);
+            }
+            throw new MySQLTransactionRollbackException(
+                e.getMessage(), e.getSQLState(), e.getErrorCode()
+            );
+        }
+    }
+
+    @WillClose
+    private int runQueryUpdate(PreparedQuery query, int retriesLeft) throws SQLException {
+        try {
+            return getConnection().queryUpdate(query);
+        } catch (MySQLTransactionRollbackException e) {
+            if (--retriesLeft > 0) {
+                return runQueryUpdate(query, retriesLeft);
+            }
+            throw new MySQLTransactionRollbackException(
+                e.getMessage(), e.getSQLState(), e.getErrorCode()
+            );
+        }
+    }
+
     @WillClose
     private Collection runQuery(String query, int retriesLeft) throws SQLException {
         try (ResultSet resultSet = getConnection().query(query)) {
@@ -359,7 +448,8 @@ public class DatabaseManager {
 
     @WillClose
     private Set<Integer> runQueryInsert(String query, int retriesLeft) throws SQLException {
-        try (PreparedStatement stmt = getConnection().getConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = getConnection().getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             stmt.executeUpdate();
 
             Set<Integer> ids = new HashSet<>();
@@ -381,37 +471,19 @@ public class DatabaseManager {
     }
 
     @WillClose
-    private Set<Integer> runQueryInsert(QueryBuilder queryBuilder, int retriesLeft) throws SQLException {
-        String query = queryBuilder.toSQL();
-
-        try (PreparedStatement stmt = getConnection().getConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            int preparedIndex = 1;
-            for (Map<String, Object> row : queryBuilder.getItems()) {
-                for (Map.Entry<String, Object> item : row.entrySet()) {
-                    if (item.getValue() == null) {
-                        continue;
-                    }
-
-                    String value = item.getValue().toString();
-
-                    if (value.startsWith("RAW:") ||
-                        value.equalsIgnoreCase("true") ||
-                        value.equalsIgnoreCase("false") ||
-                        value.matches("[-+]?\\d*\\.?\\d+")) {
-                        continue;
-                    }
-
-                    stmt.setString(preparedIndex++, value);
-                }
-            }
+    private Set<Integer> runQueryInsert(PreparedQuery query, int retriesLeft) throws SQLException {
+        Database database = getConnection();
 
+        try (Connection connection = database.getConnection();
+             PreparedStatement stmt = database.createPreparedStatement(connection, query, Statement.RETURN_GENERATED_KEYS)) {
             stmt.executeUpdate();
 
             Set<Integer> ids = new HashSet<>();
 
-            ResultSet keys = stmt.getGeneratedKeys();
-            while (keys.next()) {
-                ids.add(keys.getInt(1));
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ids.add(keys.getInt(1));
+                }
             }
 
             return ids;
@@ -430,41 +502,49 @@ public class DatabaseManager {
             query, batchId, retriesLeft
         );
 
-        Connection connection = getConnection().getConnection();
+        runningBatchRequests.add(batchId);
 
-        if (!runningBatchRequests.contains(batchId)) {
-            runningBatchRequests.add(batchId);
-        }
+        boolean shouldRetry = false;
 
-        try {
+        // The batch query borrows its own connection from the pool, so disabling auto commits
+        // for the transaction doesn't affect any other queries running at the same time,
+        // the pool restores auto commits once the connection is returned to the pool.
+        try (Connection connection = getConnection().getConnection()) {
             connection.setAutoCommit(false);
 
-            try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-                queryFunction.run(preparedStatement);
+            try {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+                    queryFunction.run(preparedStatement);
 
-                preparedStatement.executeBatch();
-            }
-        } catch (SQLException e) {
-            log.error("An SQL exception was thrown while running a batch query: {}", query, e);
+                    preparedStatement.executeBatch();
+                }
 
-            try {
-                connection.rollback();
-            } catch (SQLException e1) {
-                log.error("An SQL exception was thrown while attempting to rollback a batch query: {}", query, e);
-            }
-        } finally {
-            try {
                 connection.commit();
+            } catch (MySQLTransactionRollbackException e) {
+                rollback(connection, query);
 
+                shouldRetry = --retriesLeft > 0;
+            } catch (SQLException e) {
+                log.error("An SQL exception was thrown while running a batch query: {}", query, e);
+
+                rollback(connection, query);
+            }
+        } finally {
+            if (!shouldRetry) {
                 runningBatchRequests.remove(batchId);
-                if (runningBatchRequests.isEmpty()) {
-                    connection.setAutoCommit(true);
-                }
-            } catch (MySQLTransactionRollbackException e) {
-                if (--retriesLeft > 0) {
-                    runQueryBatch(query, queryFunction, batchId, retriesLeft);
-                }
             }
         }
+
+        if (shouldRetry) {
+            runQueryBatch(query, queryFunction, batchId, retriesLeft);
+        }
+    }
+
+    private void rollback(Connection connection, String query) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.error("An SQL exception was thrown while attempting to rollback a batch query: {}", query, e);
+        }
     }
 }
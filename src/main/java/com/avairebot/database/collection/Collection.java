@@ -34,6 +34,7 @@ import java.security.SecureRandom;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.*;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
@@ -121,23 +122,54 @@ public class Collection implements Cloneable, Iterable<DataRow> {
             return;
         }
 
-        ResultSetMetaData meta = result.getMetaData();
-        for (int i = 1; i <= meta.getColumnCount(); i++) {
-            keys.put(meta.getColumnLabel(i), meta.getColumnClassName(i));
-        }
+        try {
+            Set<String> binaryKeys = new HashSet<>();
 
-        while (result.next()) {
-            Map<String, Object> array = new HashMap<>();
+            ResultSetMetaData meta = result.getMetaData();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                keys.put(meta.getColumnLabel(i), meta.getColumnClassName(i));
 
-            for (String key : keys.keySet()) {
-                array.put(key, result.getString(key));
+                if (isBinaryColumn(meta, i)) {
+                    binaryKeys.add(meta.getColumnLabel(i));
+                }
             }
 
-            items.add(new DataRow(array));
+            while (result.next()) {
+                Map<String, Object> array = new HashMap<>();
+
+                for (String key : keys.keySet()) {
+                    // Binary columns are kept as raw bytes, since converting
+                    // them to strings would corrupt any non-text data.
+                    array.put(key, binaryKeys.contains(key)
+                        ? result.getBytes(key)
+                        : result.getString(key)
+                    );
+                }
+
+                items.add(new DataRow(array));
+            }
+        } finally {
+            // Closing the result set also returns the pooled
+            // connection the result was created from.
+            if (!result.isClosed()) {
+                result.close();
+            }
         }
+    }
+
+    private static boolean isBinaryColumn(ResultSetMetaData meta, int column) throws SQLException {
+        switch (meta.getColumnType(column)) {
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return true;
 
-        if (!result.isClosed()) {
-            result.close();
+            default:
+                // SQLite reports the type of the value in the first row, so the
+                // declared column type is used as a fallback for null values.
+                String typeName = meta.getColumnTypeName(column);
+                return typeName != null && typeName.toUpperCase().contains("BLOB");
         }
     }
 
@@ -28,6 +28,8 @@ import com.avairebot.utilities.NumberUtil;
 import com.google.gson.Gson;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Map;
 import java.util.Set;
@@ -396,6 +398,29 @@ public class DataRow {
         }
     }
 
+    /**
+     * Gets a byte array from the data rows item list, binary columns are
+     * loaded as byte arrays, while any other value will be converted
+     * to the bytes of its string representation.
+     *
+     * @param name The index(name) to get.
+     * @return either (1) The value of the index given,
+     *         or (2) <code>NULL</code> if the index doesn't exists.
+     */
+    @Nullable
+    public byte[] getBytes(String name) {
+        Object value = get(name);
+
+        if (isNull(value)) {
+            return null;
+        }
+
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
     /**
      * Gets a carbon timestamp object from the data rows item list.
      *
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+package com.avairebot.database.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map keyed by primitive integers, the keys are stored in a single sorted int array
+ * with the values stored at the same index in a parallel array, so looking up a
+ * value is a binary search that doesn't box the key, and entries are always
+ * iterated in ascending order of their keys.
+ * <p>
+ * Adding and removing entries shifts the entries after them in the arrays, so
+ * the map is best suited for small maps that are read far more than they
+ * are changed, like the level roles stored for a guild.
+ *
+ * @param <V> The type of values stored in the map.
+ */
+public class IntArrayMap<V> extends AbstractMap<Integer, V> {
+
+    private static final int[] EMPTY_KEYS = new int[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    private int[] keys = EMPTY_KEYS;
+    private Object[] values = EMPTY_VALUES;
+    private int size = 0;
+    private int modCount = 0;
+
+    /**
+     * Gets the value mapped to the given key.
+     *
+     * @param key The key the value should be returned for.
+     * @return The value mapped to the key, or {@code NULL} if the key isn't in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+
+        return index < 0 ? null : (V) values[index];
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    /**
+     * Checks if the map contains the given key.
+     *
+     * @param key The key that should be checked.
+     * @return {@code True} if the map contains the key, {@code False} otherwise.
+     */
+    public boolean containsKey(int key) {
+        return Arrays.binarySearch(keys, 0, size, key) >= 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    /**
+     * Maps the given value to the given key, replacing any existing value for the key.
+     *
+     * @param key   The key the value should be mapped to.
+     * @param value The value that should be mapped to the key.
+     * @return The value previously mapped to the key, or {@code NULL}.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            V previous = (V) values[index];
+            values[index] = value;
+
+            return previous;
+        }
+
+        index = -index - 1;
+        if (size == keys.length) {
+            int capacity = Math.max(4, size + (size >> 1));
+
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        modCount++;
+
+        return null;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put((int) key, value);
+    }
+
+    /**
+     * Removes the value mapped to the given key.
+     *
+     * @param key The key that should be removed.
+     * @return The value that was mapped to the key, or {@code NULL}.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            return null;
+        }
+
+        V previous = (V) values[index];
+        removeAt(index);
+
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        keys = EMPTY_KEYS;
+        values = EMPTY_VALUES;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Entry<Integer, V>>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        values[--size] = null;
+        modCount++;
+    }
+
+    private class EntryIterator implements Iterator<Entry<Integer, V>> {
+
+        private int index = 0;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public Entry<Integer, V> next() {
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+
+            last = index;
+            return new IntArrayEntry(keys[index++]);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            removeAt(last);
+
+            index = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private class IntArrayEntry implements Map.Entry<Integer, V> {
+
+        private final int key;
+
+        IntArrayEntry(int key) {
+            this.key = key;
+        }
+
+        @Override
+        public Integer getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return IntArrayMap.this.get(key);
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (!containsKey(key)) {
+                throw new IllegalStateException("The entry has been removed from the map");
+            }
+            return IntArrayMap.this.put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            V value = getValue();
+
+            return getKey().equals(entry.getKey())
+                && (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            V value = getValue();
+
+            return Integer.hashCode(key) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+package com.avairebot.database.collection;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of primitive longs, the values are stored in a single sorted long array,
+ * so looking up a value is a binary search that doesn't box the value, and
+ * the set only uses 8 bytes per value, instead of the boxed value and
+ * hash table entry used by a {@link java.util.HashSet HashSet}.
+ * <p>
+ * Adding and removing values shifts the values after them in the array, so
+ * the set is best suited for small sets that are read far more than they
+ * are changed, like the IDs of channels or roles stored for a guild.
+ */
+public class LongArraySet extends AbstractSet<Long> {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] values;
+    private int size;
+    private int modCount;
+
+    /**
+     * Creates a new empty long set.
+     */
+    public LongArraySet() {
+        this.values = EMPTY;
+        this.size = 0;
+    }
+
+    /**
+     * Creates a new long set with the given values, duplicate values are only added once.
+     *
+     * @param values The values that should be added to the set.
+     */
+    public LongArraySet(@Nonnull long[] values) {
+        long[] sorted = Arrays.copyOf(values, values.length);
+        Arrays.sort(sorted);
+
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+
+        this.values = size == 0 ? EMPTY : sorted;
+        this.size = size;
+    }
+
+    /**
+     * Checks if the set contains the given value.
+     *
+     * @param value The value that should be checked.
+     * @return {@code True} if the set contains the value, {@code False} otherwise.
+     */
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Long && contains((long) (Long) value);
+    }
+
+    /**
+     * Adds the given value to the set.
+     *
+     * @param value The value that should be added.
+     * @return {@code True} if the value was added, {@code False} if the set already contained the value.
+     */
+    public boolean add(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+
+        index = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+        }
+
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        modCount++;
+
+        return true;
+    }
+
+    @Override
+    public boolean add(Long value) {
+        return add((long) value);
+    }
+
+    /**
+     * Removes the given value from the set.
+     *
+     * @param value The value that should be removed.
+     * @return {@code True} if the value was removed, {@code False} if the set didn't contain the value.
+     */
+    public boolean remove(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+
+        removeAt(index);
+
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Long && remove((long) (Long) value);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        values = EMPTY;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Gets a copy of the values in the set, sorted in ascending order.
+     *
+     * @return The values in the set.
+     */
+    public long[] toLongArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<Long>() {
+            private int index = 0;
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Long next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+
+                last = index;
+                return values[index++];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+
+                removeAt(last);
+
+                index = last;
+                last = -1;
+                expectedModCount = modCount;
+            }
+        };
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        modCount++;
+    }
+}
@@ -24,18 +24,29 @@ package com.avairebot.database.connections;
 import com.avairebot.AvaIre;
 import com.avairebot.contracts.database.StatementInterface;
 import com.avairebot.contracts.database.connections.HostnameDatabase;
+import com.avairebot.contracts.database.grammar.TableGrammar;
 import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.exceptions.DatabaseException;
 import com.avairebot.database.grammar.mysql.*;
+import com.avairebot.database.pool.ConnectionPoolConfig;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
 
 import javax.annotation.Nonnull;
 import java.sql.*;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class MySQL extends HostnameDatabase {
 
+    /**
+     * The executor used by the MySQL driver to abort connections that
+     * exceeds the network timeout, shared between all the pooled
+     * connections so each connection doesn't get its own pool.
+     */
+    private static final ExecutorService networkTimeoutExecutor = Executors.newCachedThreadPool();
+
     /**
      * Creates a MySQL database connection instance with the parsed information,
      * the port used will default to <code>3306</code>.
@@ -83,20 +94,27 @@ public class MySQL extends HostnameDatabase {
     @Override
     public boolean open() throws SQLException {
         try {
-            String url = String.format("jdbc:mysql://%s:%d/%s?autoReconnect=true&verifyServerCertificate=%s&useSSL=true",
+            // Server side prepared statements are cached per connection by the driver, keyed by the
+            // SQL query, since the query builder generates queries with placeholders, the same
+            // query shape is reused for all values, allowing MySQL to reuse the query plans.
+            String url = String.format("jdbc:mysql://%s:%d/%s?autoReconnect=true&verifyServerCertificate=%s&useSSL=true"
+                    + "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=%d&prepStmtCacheSqlLimit=2048",
                 getHostname(), getPort(), getDatabase(),
-                dbm.getAvaire().getConfig().getBoolean("database.verifyServerCertificate", true) ? "true" : "false"
+                dbm.getAvaire().getConfig().getBoolean("database.verifyServerCertificate", true) ? "true" : "false",
+                dbm.getAvaire().getConfig().getInt("database.statement-cache-size", 250)
             );
 
             if (initialize()) {
-                connection = DriverManager.getConnection(url, getUsername(), getPassword());
+                return openPool(() -> {
+                    Connection connection = DriverManager.getConnection(url, getUsername(), getPassword());
 
-                // Sets a timeout of 20 seconds(This is an extremely long time, however the default
-                // is around 10 minutes so this should give some improvements with the threads
-                // not being blocked for ages due to hanging database queries.
-                connection.setNetworkTimeout(Executors.newCachedThreadPool(), 1000 * 20);
+                    // Sets a timeout of 20 seconds(This is an extremely long time, however the default
+                    // is around 10 minutes so this should give some improvements with the threads
+                    // not being blocked for ages due to hanging database queries.
+                    connection.setNetworkTimeout(networkTimeoutExecutor, 1000 * 20);
 
-                return true;
+                    return connection;
+                }, ConnectionPoolConfig.fromConfig(dbm.getAvaire().getConfig(), 2, 10));
             }
         } catch (SQLException ex) {
             String reason = "Could not establish a MySQL connection, SQLException: " + ex.getMessage();
@@ -144,13 +162,11 @@ public class MySQL extends HostnameDatabase {
 
     @Override
     public boolean hasTable(String table) {
-        try {
-            DatabaseMetaData md = getConnection().getMetaData();
+        try (Connection connection = getConnection()) {
+            DatabaseMetaData md = connection.getMetaData();
 
             try (ResultSet tables = md.getTables(null, null, table, new String[]{"TABLE"})) {
                 if (tables.next()) {
-                    tables.close();
-
                     return true;
                 }
             }
@@ -168,7 +184,8 @@ public class MySQL extends HostnameDatabase {
                 return false;
             }
 
-            try (Statement statement = getConnection().createStatement()) {
+            try (Connection connection = getConnection();
+                 Statement statement = connection.createStatement()) {
                 statement.executeUpdate(String.format("DELETE FROM `%s`;", table));
             }
 
@@ -180,6 +197,21 @@ public class MySQL extends HostnameDatabase {
         return false;
     }
 
+    @Override
+    protected TableGrammar createGrammar(QueryType type) {
+        switch (type) {
+            case SELECT:
+                return new Select();
+            case INSERT:
+                return new Insert();
+            case UPDATE:
+                return new Update();
+            case DELETE:
+                return new Delete();
+        }
+        throw new DatabaseException("Unsupported query type given, failed to create a grammar for " + type);
+    }
+
     @Override
     public String select(DatabaseManager manager, QueryBuilder query, Map<String, Boolean> options) {
         return setupAndRun(new Select(), query, manager, options);
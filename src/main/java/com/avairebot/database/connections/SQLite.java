@@ -24,9 +24,11 @@ package com.avairebot.database.connections;
 import com.avairebot.AvaIre;
 import com.avairebot.contracts.database.StatementInterface;
 import com.avairebot.contracts.database.connections.FilenameDatabase;
+import com.avairebot.contracts.database.grammar.TableGrammar;
 import com.avairebot.database.DatabaseManager;
 import com.avairebot.database.exceptions.DatabaseException;
 import com.avairebot.database.grammar.sqlite.*;
+import com.avairebot.database.pool.ConnectionPoolConfig;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
 import com.avairebot.metrics.Metrics;
@@ -84,9 +86,17 @@ public class SQLite extends FilenameDatabase {
     public boolean open() throws SQLException {
         if (initialize()) {
             try {
-                connection = DriverManager.getConnection("jdbc:sqlite:" + (getFile() == null ? ":memory:" : getFile().getAbsolutePath()));
+                String url = "jdbc:sqlite:" + (getFile() == null ? ":memory:" : getFile().getAbsolutePath());
+
+                // SQLite only allows a single writer at a time, so the pool defaults to a single
+                // connection, in-memory databases only exists for the connection that created
+                // them, so they're always limited to one connection that is never closed.
+                ConnectionPoolConfig config = ConnectionPoolConfig.fromConfig(dbm.getAvaire().getConfig(), 1, 1);
+                if (getFile() == null) {
+                    config = config.withSize(1, 1);
+                }
 
-                return true;
+                return openPool(() -> DriverManager.getConnection(url), config);
             } catch (SQLException ex) {
                 String reason = "DBM - Could not establish an SQLite connection, SQLException: " + ex.getMessage();
 
@@ -103,13 +113,6 @@ public class SQLite extends FilenameDatabase {
         // This does nothing for SQLite
     }
 
-    @Override
-    public Connection getConnection() throws SQLException {
-        open();
-
-        return connection;
-    }
-
     @Override
     public StatementInterface getStatement(String query) throws SQLException {
         String[] statement = query.trim().split(" ", 2);
@@ -123,13 +126,11 @@ public class SQLite extends FilenameDatabase {
 
     @Override
     public boolean hasTable(String table) {
-        try {
-            DatabaseMetaData md = getConnection().getMetaData();
+        try (Connection connection = getConnection()) {
+            DatabaseMetaData md = connection.getMetaData();
 
             try (ResultSet tables = md.getTables(null, null, table, null)) {
                 if (tables.next()) {
-                    tables.close();
-
                     return true;
                 }
             }
@@ -147,7 +148,8 @@ public class SQLite extends FilenameDatabase {
                 return false;
             }
 
-            try (Statement statement = connection.createStatement()) {
+            try (Connection connection = getConnection();
+                 Statement statement = connection.createStatement()) {
                 statement.executeQuery(String.format("DELETE FROM `%s`;", table));
             }
 
@@ -162,15 +164,34 @@ public class SQLite extends FilenameDatabase {
     }
 
     @Override
-    protected Statement createPreparedStatement(String query) throws SQLException {
+    protected Statement createPreparedStatement(Connection connection, String query) throws SQLException {
         Metrics.databaseQueries.labels(query.split(" ")[0].toUpperCase()).inc();
 
-        Statement statement = getConnection().createStatement();
+        Statement statement = connection.createStatement();
+        configureStatement(statement);
 
+        return statement;
+    }
+
+    @Override
+    protected void configureStatement(Statement statement) throws SQLException {
         statement.setQueryTimeout(5);
         statement.setMaxRows(25000);
+    }
 
-        return statement;
+    @Override
+    protected TableGrammar createGrammar(QueryType type) {
+        switch (type) {
+            case SELECT:
+                return new Select();
+            case INSERT:
+                return new Insert();
+            case UPDATE:
+                return new Update();
+            case DELETE:
+                return new Delete();
+        }
+        throw new DatabaseException("Unsupported query type given, failed to create a grammar for " + type);
     }
 
     @Override
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.controllers;
+
+import com.avairebot.AvaIre;
+import com.avairebot.Constants;
+import com.avairebot.database.connections.MySQL;
+import com.avairebot.database.query.PreparedQuery;
+import com.avairebot.level.ExperienceEntity;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Maintains the global experience totals table, the table holds the total global
+ * experience for every user across all the guilds they're active in, so the
+ * global leaderboard and rank lookups can read a single row per user,
+ * instead of aggregating every experience record for the user.
+ * <p>
+ * The totals are calculated the same way as the old aggregate queries, the sum of
+ * the users global experience, minus the 100 experience every user starts with
+ * in each guild, plus 100 for the first guild.
+ */
+public class GlobalExperienceController {
+
+    /**
+     * The expression used to calculate the global experience total for a
+     * user from their active experience records, the expression expects
+     * the totals table to be the table that is being updated.
+     */
+    private static final String totalExpression = String.format(
+        "COALESCE((SELECT (sum(`global_experience`) - (count(`user_id`) * 100)) + 100 FROM `%s` " +
+            "WHERE `%s`.`user_id` = `%s`.`user_id` AND `active` = 1), 100)",
+        Constants.PLAYER_EXPERIENCE_TABLE_NAME, Constants.PLAYER_EXPERIENCE_TABLE_NAME, Constants.GLOBAL_EXPERIENCE_TABLE_NAME
+    );
+
+    /**
+     * Increments the global experience totals by the global experience in the given
+     * experience entities, users who doesn't have a total yet will be created
+     * with the default 100 experience before they're incremented.
+     *
+     * @param avaire   The AvaIre application instance.
+     * @param entities The experience entities that were synced with the database.
+     * @throws SQLException If the totals fails to update.
+     */
+    public static void incrementExperience(AvaIre avaire, List<ExperienceEntity> entities) throws SQLException {
+        Map<Long, Long> totals = new LinkedHashMap<>();
+        for (ExperienceEntity entity : entities) {
+            totals.merge(entity.getUserId(), (long) entity.getExperience(), Long::sum);
+        }
+
+        if (totals.isEmpty()) {
+            return;
+        }
+
+        List<Object> insertBindings = new ArrayList<>(totals.size());
+        StringJoiner values = new StringJoiner(", ");
+        for (Long userId : totals.keySet()) {
+            values.add("(?, 100)");
+            insertBindings.add(userId);
+        }
+
+        avaire.getDatabase().queryUpdate(new PreparedQuery(String.format(
+            "%s INTO `%s` (`user_id`, `experience`) VALUES %s",
+            insertIgnore(avaire), Constants.GLOBAL_EXPERIENCE_TABLE_NAME, values
+        ), insertBindings));
+
+        List<Object> updateBindings = new ArrayList<>(totals.size() * 3);
+        StringBuilder experience = new StringBuilder("CASE");
+        for (Map.Entry<Long, Long> total : totals.entrySet()) {
+            experience.append(" WHEN `user_id` = ? THEN ?");
+            updateBindings.add(total.getKey());
+            updateBindings.add(total.getValue());
+        }
+
+        updateBindings.addAll(totals.keySet());
+
+        avaire.getDatabase().queryUpdate(new PreparedQuery(String.format(
+            "UPDATE `%s` SET `experience` = `experience` + %s ELSE 0 END WHERE `user_id` IN (%s)",
+            Constants.GLOBAL_EXPERIENCE_TABLE_NAME, experience, placeholders(totals.size())
+        ), updateBindings));
+    }
+
+    /**
+     * Recalculates the global experience totals for the given users from their active
+     * experience records, this should be called when experience records are
+     * changed outside of the experience sync, like when they're deactivated.
+     *
+     * @param avaire  The AvaIre application instance.
+     * @param userIds The IDs of the users the totals should be recalculated for.
+     * @throws SQLException If the totals fails to update.
+     */
+    public static void recalculate(AvaIre avaire, Collection<Long> userIds) throws SQLException {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        avaire.getDatabase().queryUpdate(new PreparedQuery(String.format(
+            "UPDATE `%s` SET `experience` = %s WHERE `user_id` IN (%s)",
+            Constants.GLOBAL_EXPERIENCE_TABLE_NAME, totalExpression, placeholders(userIds.size())
+        ), new ArrayList<Object>(userIds)));
+    }
+
+    /**
+     * Recalculates the global experience totals for all the users with experience
+     * records in the given guild, from their active experience records.
+     *
+     * @param avaire  The AvaIre application instance.
+     * @param guildId The ID of the guild the user totals should be recalculated for.
+     * @throws SQLException If the totals fails to update.
+     */
+    public static void recalculateGuild(AvaIre avaire, long guildId) throws SQLException {
+        avaire.getDatabase().queryUpdate(new PreparedQuery(String.format(
+            "UPDATE `%s` SET `experience` = %s WHERE `user_id` IN (SELECT `user_id` FROM `%s` WHERE `guild_id` = ?)",
+            Constants.GLOBAL_EXPERIENCE_TABLE_NAME, totalExpression, Constants.PLAYER_EXPERIENCE_TABLE_NAME
+        ), guildId));
+    }
+
+    private static String insertIgnore(AvaIre avaire) throws SQLException {
+        return avaire.getDatabase().getConnection() instanceof MySQL
+            ? "INSERT IGNORE" : "INSERT OR IGNORE";
+    }
+
+    private static String placeholders(int amount) {
+        return String.join(", ", Collections.nCopies(amount, "?"));
+    }
+}
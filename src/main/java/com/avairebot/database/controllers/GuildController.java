@@ -23,7 +23,9 @@ package com.avairebot.database.controllers;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.transformers.GuildTransformer;
+import com.avairebot.metrics.Metrics;
 import com.avairebot.utilities.CacheUtil;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -35,10 +37,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.CheckReturnValue;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class GuildController {
@@ -50,6 +52,19 @@ public class GuildController {
 
     private static final Logger log = LoggerFactory.getLogger(GuildController.class);
 
+    /**
+     * The pending guild metadata writes, mapped by the metadata column they should
+     * be written to, and then by the ID of the guild they belong to, changes to
+     * a guild that already has a pending write are merged into that write.
+     */
+    private static final Map<MetadataColumn, Map<Long, PendingMetadataWrite>> metadataQueue = new EnumMap<>(MetadataColumn.class);
+
+    static {
+        for (MetadataColumn column : MetadataColumn.values()) {
+            metadataQueue.put(column, new ConcurrentHashMap<>());
+        }
+    }
+
     private static final String[] requiredGuildColumns = new String[]{
         "guild_types.name as type_name", "guild_types.limits as type_limits", "guilds.id", "guilds.partner", "guilds.name", "guilds.icon",
         "guilds.local", "guilds.channels", "guilds.modules", "guilds.level_roles", "guilds.level_modifier", "guilds.claimable_roles",
@@ -59,6 +74,18 @@ public class GuildController {
         "guilds.default_volume", "guilds.dj_level", "guilds.dj_role"
     };
 
+    /**
+     * Gets the guild transformer for the given guild if it has already been
+     * loaded into the cache, this will never hit the database.
+     *
+     * @param guild The JDA guild instance for the guild that should be retrieved.
+     * @return Possibly null, the cached guild transformer instance for the given guild, or null.
+     */
+    @Nullable
+    public static GuildTransformer getCachedGuild(Guild guild) {
+        return cache.getIfPresent(guild.getIdLong());
+    }
+
     /**
      * Fetches the guild transformer from the cache, if it doesn't exist in the
      * cache it will be loaded into the cache and then returned afterwords.
@@ -129,6 +156,109 @@ public class GuildController {
         cache.invalidate(guildId);
     }
 
+    /**
+     * Queues a write of the given metadata column for the given guild, the value
+     * written is built from the state of the guild at the time the write is
+     * flushed, so any changes made to the guild while the write is pending
+     * are merged into the same write.
+     *
+     * @param guild  The guild the metadata should be written for.
+     * @param column The metadata column that should be written.
+     */
+    public static void queueMetadataWrite(Guild guild, MetadataColumn column) {
+        long now = System.currentTimeMillis();
+
+        metadataQueue.get(column).compute(guild.getIdLong(), (guildId, pending) -> {
+            if (pending == null) {
+                return new PendingMetadataWrite(now, now);
+            }
+
+            Metrics.guildMetadataCoalesced.labels(column.getName()).inc();
+
+            return new PendingMetadataWrite(pending.getFirstQueuedAt(), now);
+        });
+    }
+
+    /**
+     * Removes the pending metadata writes for the given column that are ready to be
+     * flushed, a write is ready once no changes have been queued for the write
+     * for the debounce time, or once it has been pending for the max delay.
+     *
+     * @param column The metadata column the writes should be drained for.
+     * @param force  Determines if all the pending writes should be drained, regardless of their age.
+     * @return The IDs of the guilds that should have the metadata column written.
+     */
+    public static List<Long> drainMetadataWrites(MetadataColumn column, boolean force) {
+        long now = System.currentTimeMillis();
+        Map<Long, PendingMetadataWrite> queue = metadataQueue.get(column);
+
+        List<Long> guildIds = new ArrayList<>();
+        for (Map.Entry<Long, PendingMetadataWrite> entry : queue.entrySet()) {
+            if (!force && !entry.getValue().isReady(now)) {
+                continue;
+            }
+
+            // Only removes the entry if it hasn't been replaced since we read it, if a
+            // new change was queued in the meantime, the write is debounced again.
+            if (queue.remove(entry.getKey(), entry.getValue())) {
+                guildIds.add(entry.getKey());
+            }
+        }
+
+        Metrics.guildMetadataPendingWrites.labels(column.getName()).set(queue.size());
+
+        return guildIds;
+    }
+
+    /**
+     * Loads the guild transformers for all the given guilds using a single query, and
+     * stores them in the cache, guilds that are already cached are skipped, and so
+     * are guilds that doesn't have a database record yet, since their record is
+     * created the first time they're fetched through {@link #fetchGuild(AvaIre, Guild)}.
+     *
+     * @param avaire The avaire instance, used to talking to the database.
+     * @param guilds The guilds that should be loaded into the cache.
+     * @return The amount of guilds that was loaded into the cache.
+     * @throws SQLException If the guilds fails to be loaded from the database.
+     */
+    static int preloadGuildsFromDatabase(AvaIre avaire, List<Guild> guilds) throws SQLException {
+        Map<Long, Guild> pending = new HashMap<>();
+        for (Guild guild : guilds) {
+            if (!cache.asMap().containsKey(guild.getIdLong())) {
+                pending.put(guild.getIdLong(), guild);
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        StringJoiner guildIds = new StringJoiner(", ");
+        for (Long guildId : pending.keySet()) {
+            guildIds.add(String.valueOf(guildId));
+        }
+
+        String query = String.format("SELECT %s FROM `%s` LEFT JOIN `guild_types` ON `guilds`.`type` = `guild_types`.`id` WHERE `guilds`.`id` IN (%s);",
+            String.join(", ", requiredGuildColumns), Constants.GUILD_TABLE_NAME, guildIds.toString()
+        );
+
+        int loaded = 0;
+        for (DataRow row : avaire.getDatabase().query(query)) {
+            Guild guild = pending.get(row.getLong("id"));
+            if (guild == null) {
+                continue;
+            }
+
+            // The guild may have been loaded by a message while the query was running,
+            // in which case that transformer is kept, so we never replace a cached
+            // transformer that might already have been modified.
+            if (cache.asMap().putIfAbsent(guild.getIdLong(), new GuildTransformer(guild, row)) == null) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
     private static GuildTransformer loadGuildFromDatabase(AvaIre avaire, Guild guild) {
         log.debug("Guild cache for " + guild.getId() + " was refreshed");
 
@@ -167,4 +297,74 @@ public class GuildController {
             return null;
         }
     }
+
+    public enum MetadataColumn {
+
+        CHANNELS("channels_data") {
+            @Override
+            public String build(Guild guild) {
+                return buildChannelData(guild.getTextChannels());
+            }
+        },
+        ROLES("roles_data") {
+            @Override
+            public String build(Guild guild) {
+                return buildRoleData(guild.getRoles());
+            }
+        };
+
+        private final String name;
+
+        MetadataColumn(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the name of the guilds table column the metadata is stored in.
+         *
+         * @return The name of the column the metadata is stored in.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Builds the metadata value from the current state of the given guild.
+         *
+         * @param guild The guild the metadata should be built for.
+         * @return The JSON metadata value for the given guild.
+         */
+        public abstract String build(Guild guild);
+    }
+
+    private static class PendingMetadataWrite {
+
+        /**
+         * The amount of time in milliseconds a write must go without any
+         * new changes before it's flushed to the database.
+         */
+        private static final long debounceTime = 5000L;
+
+        /**
+         * The max amount of time in milliseconds a write can be pending for
+         * before it's flushed, even if changes are still being queued.
+         */
+        private static final long maxDelay = 30000L;
+
+        private final long firstQueuedAt;
+        private final long lastQueuedAt;
+
+        PendingMetadataWrite(long firstQueuedAt, long lastQueuedAt) {
+            this.firstQueuedAt = firstQueuedAt;
+            this.lastQueuedAt = lastQueuedAt;
+        }
+
+        long getFirstQueuedAt() {
+            return firstQueuedAt;
+        }
+
+        boolean isReady(long now) {
+            return now - lastQueuedAt >= debounceTime || now - firstQueuedAt >= maxDelay;
+        }
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+package com.avairebot.database.controllers;
+
+import com.avairebot.AvaIre;
+import com.avairebot.cache.CacheType;
+import com.avairebot.metrics.Metrics;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Warms up the guild cache when a shard becomes ready, so the guilds don't each have
+ * to load their own guild transformer on their first message after a restart,
+ * the guilds are loaded in chunks using a single query per chunk, and the
+ * chunks are loaded in parallel through the database connection pool.
+ * <p>
+ * Guilds that were active right before the bot was shutdown are loaded first,
+ * followed by the guilds with the most members, since they're the most
+ * likely to send messages shortly after the shard is ready.
+ */
+public class GuildPreloader {
+
+    private static final Logger log = LoggerFactory.getLogger(GuildPreloader.class);
+
+    /**
+     * The file cache key the IDs of the recently active guilds are stored under.
+     */
+    private static final String recentlyActiveCacheKey = "guild.recently-active";
+
+    private final AvaIre avaire;
+    private final int chunkSize;
+    private final int maximumGuildsPerShard;
+    private final ExecutorService preloadService;
+
+    private Set<Long> recentlyActiveGuilds = null;
+
+    /**
+     * Creates a new guild preloader.
+     *
+     * @param avaire                The main AvaIre instance.
+     * @param chunkSize             The max amount of guilds loaded in a single query.
+     * @param maximumGuildsPerShard The max amount of guilds that should be loaded per shard, or {@code 0} to disable preloading.
+     * @param threads               The amount of chunks that can be loaded at the same time.
+     */
+    public GuildPreloader(AvaIre avaire, int chunkSize, int maximumGuildsPerShard, int threads) {
+        this.avaire = avaire;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maximumGuildsPerShard = maximumGuildsPerShard;
+        this.preloadService = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactoryBuilder()
+            .setNameFormat("avaire-guild-preload-%d")
+            .setDaemon(true)
+            .build()
+        );
+    }
+
+    /**
+     * Loads the guilds for the given shard into the guild cache in the background,
+     * guilds that are already cached, like guilds that sent a message while
+     * the shard was connecting, are skipped.
+     *
+     * @param jda The shard the guilds should be loaded for.
+     */
+    public void preload(@Nonnull JDA jda) {
+        if (maximumGuildsPerShard < 1) {
+            return;
+        }
+
+        List<Guild> guilds = prioritize(jda.getGuilds());
+        int shardId = jda.getShardInfo().getShardId();
+
+        log.debug("Preloading {} guilds into the guild cache for shard {}", guilds.size(), shardId);
+
+        for (int i = 0; i < guilds.size(); i += chunkSize) {
+            List<Guild> chunk = guilds.subList(i, Math.min(i + chunkSize, guilds.size()));
+
+            preloadService.execute(() -> preloadChunk(shardId, chunk));
+        }
+    }
+
+    /**
+     * Stores the IDs of the guilds currently in the guild cache, so they can be loaded
+     * first the next time the bot starts up, the guild cache only keeps guilds
+     * that has been used within the last few minutes, so this is the list of
+     * guilds that were active right before the bot was shutdown.
+     */
+    public void saveRecentlyActiveGuilds() {
+        List<Long> guildIds = new ArrayList<>(GuildController.cache.asMap().keySet());
+
+        // Caches the guild IDs for the next three hours, the same as the audio state,
+        // after that the activity is too old to be useful for prioritizing guilds.
+        avaire.getCache().getAdapter(CacheType.FILE).put(
+            recentlyActiveCacheKey, AvaIre.gson.toJson(guildIds), 60 * 60 * 3
+        );
+    }
+
+    private void preloadChunk(int shardId, List<Guild> guilds) {
+        try {
+            Metrics.guildsPreloaded.inc(
+                GuildController.preloadGuildsFromDatabase(avaire, guilds)
+            );
+        } catch (SQLException e) {
+            log.error("Failed to preload {} guilds for shard {}: {}", guilds.size(), shardId, e.getMessage(), e);
+        }
+    }
+
+    private List<Guild> prioritize(List<Guild> guilds) {
+        Set<Long> recentlyActive = getRecentlyActiveGuilds();
+
+        Map<Guild, Long> memberCount = new HashMap<>();
+        for (Guild guild : guilds) {
+            memberCount.put(guild, guild.getMemberCache().size());
+        }
+
+        List<Guild> prioritized = new ArrayList<>(guilds);
+        prioritized.sort(Comparator
+            .comparing((Guild guild) -> !recentlyActive.contains(guild.getIdLong()))
+            .thenComparing(guild -> memberCount.get(guild), Comparator.reverseOrder())
+        );
+
+        return prioritized.size() > maximumGuildsPerShard
+            ? new ArrayList<>(prioritized.subList(0, maximumGuildsPerShard))
+            : prioritized;
+    }
+
+    private synchronized Set<Long> getRecentlyActiveGuilds() {
+        if (recentlyActiveGuilds != null) {
+            return recentlyActiveGuilds;
+        }
+
+        recentlyActiveGuilds = new HashSet<>();
+
+        Object rawGuildIds = avaire.getCache().getAdapter(CacheType.FILE).get(recentlyActiveCacheKey);
+        if (rawGuildIds != null) {
+            try {
+                List<Long> guildIds = AvaIre.gson.fromJson(String.valueOf(rawGuildIds), new TypeToken<List<Long>>() {
+                }.getType());
+
+                if (guildIds != null) {
+                    recentlyActiveGuilds.addAll(guildIds);
+                }
+            } catch (JsonParseException e) {
+                log.warn("Failed to parse the recently active guilds: {}", e.getMessage());
+            }
+        }
+        return recentlyActiveGuilds;
+    }
+}
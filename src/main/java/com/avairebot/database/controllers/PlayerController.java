@@ -24,11 +24,11 @@ package com.avairebot.database.controllers;
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
 import com.avairebot.database.transformers.PlayerTransformer;
-import com.avairebot.level.ExperienceEntity;
 import com.avairebot.utilities.CacheUtil;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import net.dv8tion.jda.core.entities.Guild;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
 import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.entities.User;
 import org.slf4j.Logger;
@@ -37,15 +37,29 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class PlayerController {
 
-    public static final Cache<String, PlayerTransformer> cache = CacheBuilder.newBuilder()
+    public static final Cache<PlayerKey, PlayerTransformer> cache = CacheBuilder.newBuilder()
         .recordStats()
         .expireAfterAccess(210, TimeUnit.SECONDS) // 3½ minute
+        .removalListener((RemovalNotification<PlayerKey, PlayerTransformer> notification) -> {
+            if (notification.getCause() != RemovalCause.REPLACED) {
+                unindex(notification.getKey());
+            }
+        })
         .build();
 
+    /**
+     * The keys of the cached players, indexed by their user and guild IDs, so
+     * all the cached players for a single user or guild can be forgotten
+     * without having to go through every player in the cache.
+     */
+    private static final Map<Long, Set<PlayerKey>> userIndex = new ConcurrentHashMap<>();
+    private static final Map<Long, Set<PlayerKey>> guildIndex = new ConcurrentHashMap<>();
+
     private static final Map<Long, PlayerUpdateReference> playerQueue = new LinkedHashMap<>();
     private static final Logger log = LoggerFactory.getLogger(PlayerController.class);
 
@@ -64,78 +78,92 @@ public class PlayerController {
             return null;
         }
 
-        return (PlayerTransformer) CacheUtil.getUncheckedUnwrapped(cache, asKey(message.getGuild(), user), () -> {
-            log.debug("User cache for " + user.getId() + " was refreshed");
+        PlayerKey key = new PlayerKey(message.getGuild().getIdLong(), user.getIdLong());
 
-            try {
-                PlayerTransformer transformer = new PlayerTransformer(
-                    user.getIdLong(),
-                    message.getGuild().getIdLong(),
-                    avaire.getDatabase()
-                        .newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                        .select(requiredPlayerColumns)
-                        .where("experiences.user_id", user.getId())
-                        .andWhere("experiences.guild_id", message.getGuild().getId())
-                        .get().first()
-                );
+        return (PlayerTransformer) CacheUtil.getUncheckedUnwrapped(cache, key, () -> {
+            PlayerTransformer transformer = loadPlayer(avaire, message, user);
+            if (transformer != null) {
+                index(key);
+            }
+            return transformer;
+        });
+    }
 
-                if (!transformer.hasData()) {
-                    transformer.incrementExperienceBy(100);
-                    transformer.setUsername(user.getName());
-                    transformer.setDiscriminator(user.getDiscriminator());
-                    transformer.setAvatar(user.getAvatarId());
-
-                    avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                        .insert(statement -> {
-                            statement.set("guild_id", message.getGuild().getId())
-                                .set("user_id", user.getId())
-                                .set("username", user.getName(), true)
-                                .set("discriminator", user.getDiscriminator())
-                                .set("avatar", user.getAvatarId())
-                                .set("experience", 100)
-                                .set("global_experience", 100);
-                        });
-
-                    return mergeWithExperienceEntity(avaire, transformer);
-                }
-
-                if (isChanged(user, transformer)) {
-                    transformer.setUsername(user.getName());
-                    transformer.setDiscriminator(user.getDiscriminator());
-                    transformer.setAvatar(user.getAvatarId());
-
-                    updateUserData(user);
-                }
-
-                if (!transformer.isActive()) {
-                    avaire.getDatabase()
-                        .newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                        .where("experiences.user_id", user.getId())
-                        .andWhere("experiences.guild_id", message.getGuild().getId())
-                        .update(statement -> {
-                            statement.set("active", true);
-                        });
-                }
+    private static PlayerTransformer loadPlayer(AvaIre avaire, Message message, User user) {
+        log.debug("User cache for " + user.getId() + " was refreshed");
+
+        try {
+            PlayerTransformer transformer = new PlayerTransformer(
+                user.getIdLong(),
+                message.getGuild().getIdLong(),
+                avaire.getDatabase()
+                    .newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+                    .select(requiredPlayerColumns)
+                    .where("experiences.user_id", user.getId())
+                    .andWhere("experiences.guild_id", message.getGuild().getId())
+                    .get().first()
+            );
+
+            if (!transformer.hasData()) {
+                transformer.incrementExperienceBy(100);
+                transformer.setUsername(user.getName());
+                transformer.setDiscriminator(user.getDiscriminator());
+                transformer.setAvatar(user.getAvatarId());
+
+                avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+                    .insert(statement -> {
+                        statement.set("guild_id", message.getGuild().getId())
+                            .set("user_id", user.getId())
+                            .set("username", user.getName(), true)
+                            .set("discriminator", user.getDiscriminator())
+                            .set("avatar", user.getAvatarId())
+                            .set("experience", 100)
+                            .set("global_experience", 100);
+                    });
+
+                avaire.getLevelManager().getRankIndex().setGuildExperience(
+                    message.getGuild().getIdLong(), user.getIdLong(), 100
+                );
 
                 return mergeWithExperienceEntity(avaire, transformer);
-            } catch (Exception ex) {
-                log.error("Failed to fetch player transformer from the database, error: {}", ex.getMessage(), ex);
+            }
+
+            if (isChanged(user, transformer)) {
+                transformer.setUsername(user.getName());
+                transformer.setDiscriminator(user.getDiscriminator());
+                transformer.setAvatar(user.getAvatarId());
 
-                return null;
+                updateUserData(user);
             }
-        });
+
+            if (!transformer.isActive()) {
+                avaire.getDatabase()
+                    .newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+                    .where("experiences.user_id", user.getId())
+                    .andWhere("experiences.guild_id", message.getGuild().getId())
+                    .update(statement -> {
+                        statement.set("active", true);
+                    });
+
+                avaire.getLevelManager().getRankIndex().setGuildExperience(
+                    message.getGuild().getIdLong(), user.getIdLong(), transformer.getExperience()
+                );
+                GlobalExperienceController.recalculate(avaire, Collections.singletonList(user.getIdLong()));
+            }
+
+            return mergeWithExperienceEntity(avaire, transformer);
+        } catch (Exception ex) {
+            log.error("Failed to fetch player transformer from the database, error: {}", ex.getMessage(), ex);
+
+            return null;
+        }
     }
 
     private static PlayerTransformer mergeWithExperienceEntity(AvaIre avaire, PlayerTransformer transformer) {
-        List<ExperienceEntity> entities = avaire.getLevelManager().getExperienceEntities(transformer);
-        if (entities.isEmpty()) {
-            return transformer;
+        int experience = avaire.getLevelManager().getPendingExperience(transformer);
+        if (experience != 0) {
+            transformer.incrementExperienceBy(experience);
         }
-
-        transformer.incrementExperienceBy(
-            entities.stream().mapToInt(ExperienceEntity::getExperience).sum()
-        );
-
         return transformer;
     }
 
@@ -154,33 +182,109 @@ public class PlayerController {
             || !transformer.getUsernameRaw().startsWith("base64:");
     }
 
-    private static String asKey(@Nonnull Guild guild, @Nonnull User user) {
-        return guild.getId() + ":" + user.getId();
+    /**
+     * Forgets the cached player for the given guild and user IDs.
+     *
+     * @param guildId The ID of the guild the player belongs to.
+     * @param userId  The ID of the user the player belongs to.
+     */
+    public static void forgetCache(long guildId, long userId) {
+        cache.invalidate(new PlayerKey(guildId, userId));
     }
 
+    /**
+     * Forgets all the cached players for the given user ID, in every guild.
+     *
+     * @param userId The ID of the user the players should be forgotten for.
+     */
     public static void forgetCache(long userId) {
-        List<String> toRemove = new ArrayList<>();
-        for (String key : cache.asMap().keySet()) {
-            if (key.endsWith(":" + userId)) {
-                toRemove.add(key);
-            }
+        Set<PlayerKey> keys = userIndex.remove(userId);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    /**
+     * Forgets all the cached players for the given guild ID.
+     *
+     * @param guildId The ID of the guild the players should be forgotten for.
+     */
+    public static void forgetCacheForGuild(long guildId) {
+        Set<PlayerKey> keys = guildIndex.remove(guildId);
+        if (keys != null) {
+            cache.invalidateAll(keys);
         }
+    }
 
-        if (!toRemove.isEmpty()) {
-            cache.invalidateAll(toRemove);
+    private static void index(PlayerKey key) {
+        // The sets are only ever changed inside of compute calls, which are atomic per ID, so a
+        // key can never be added to a set that is being removed from the index at the same time.
+        userIndex.compute(key.userId, (userId, keys) -> add(keys, key));
+        guildIndex.compute(key.guildId, (guildId, keys) -> add(keys, key));
+    }
+
+    private static void unindex(PlayerKey key) {
+        if (key == null) {
+            return;
         }
+
+        userIndex.computeIfPresent(key.userId, (userId, keys) -> remove(keys, key));
+        guildIndex.computeIfPresent(key.guildId, (guildId, keys) -> remove(keys, key));
     }
 
-    public static void forgetCacheForGuild(long guildId) {
-        List<String> toRemove = new ArrayList<>();
-        for (String key : cache.asMap().keySet()) {
-            if (key.startsWith(guildId + ":")) {
-                toRemove.add(key);
+    private static Set<PlayerKey> add(Set<PlayerKey> keys, PlayerKey key) {
+        if (keys == null) {
+            keys = new HashSet<>(4);
+        }
+        keys.add(key);
+        return keys;
+    }
+
+    private static Set<PlayerKey> remove(Set<PlayerKey> keys, PlayerKey key) {
+        keys.remove(key);
+        return keys.isEmpty() ? null : keys;
+    }
+
+    /**
+     * The cache key for a player, made up of the primitive guild and user IDs.
+     */
+    public static final class PlayerKey {
+
+        private final long guildId;
+        private final long userId;
+
+        PlayerKey(long guildId, long userId) {
+            this.guildId = guildId;
+            this.userId = userId;
+        }
+
+        public long getGuildId() {
+            return guildId;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PlayerKey)) {
+                return false;
             }
+
+            PlayerKey key = (PlayerKey) obj;
+
+            return guildId == key.guildId && userId == key.userId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(guildId * 31 + userId);
         }
 
-        if (!toRemove.isEmpty()) {
-            cache.invalidateAll(toRemove);
+        @Override
+        public String toString() {
+            return guildId + ":" + userId;
         }
     }
 
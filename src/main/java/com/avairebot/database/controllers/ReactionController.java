@@ -47,6 +47,11 @@ public class ReactionController {
         .expireAfterAccess(5, TimeUnit.MINUTES)
         .build();
 
+    public static final Cache<Long, ReactionIndex> indexCache = CacheBuilder.newBuilder()
+        .recordStats()
+        .expireAfterAccess(5, TimeUnit.MINUTES)
+        .build();
+
     private static final Logger log = LoggerFactory.getLogger(ReactionController.class);
 
     /**
@@ -85,17 +90,41 @@ public class ReactionController {
         return (Collection) CacheUtil.getUncheckedUnwrapped(cache, guild.getIdLong(), () -> {
             log.debug("Guild Reaction cache for " + guild.getId() + " was refreshed");
 
+            return loadReactions(avaire, guild);
+        });
+    }
+
+    /**
+     * Fetches the reaction index for the given server, the index holds the parsed
+     * reaction role messages keyed by their message IDs, making it a lot cheaper
+     * to look up than the reaction collection, so it should be used by any
+     * events that runs for every reaction or message in the server.
+     *
+     * @param avaire The avaire instance, used to talking to the database.
+     * @param guild  The JDA guild instance for the current guild.
+     * @return The reaction index for the given guild, or an empty index if the guild is null.
+     */
+    @Nonnull
+    @CheckReturnValue
+    public static ReactionIndex fetchReactionIndex(@Nonnull AvaIre avaire, @Nullable Guild guild) {
+        if (guild == null) {
+            return ReactionIndex.EMPTY;
+        }
+
+        return (ReactionIndex) CacheUtil.getUncheckedUnwrapped(indexCache, guild.getIdLong(), () -> {
+            log.debug("Guild Reaction index for " + guild.getId() + " was refreshed");
+
+            Collection reactions = cache.getIfPresent(guild.getIdLong());
+            if (reactions == null) {
+                reactions = loadReactions(avaire, guild);
+            }
+
             try {
-                return avaire.getDatabase()
-                    .newQueryBuilder(Constants.REACTION_ROLES_TABLE_NAME)
-                    .selectAll()
-                    .where("guild_id", guild.getId())
-                    .orderBy("message_id")
-                    .get();
+                return reactions.isEmpty() ? ReactionIndex.EMPTY : new ReactionIndex(reactions);
             } catch (Exception ex) {
-                log.error(ex.getMessage(), ex);
+                log.error("Failed to build the reaction index for {}: {}", guild.getId(), ex.getMessage(), ex);
 
-                return Collection.EMPTY_COLLECTION;
+                return ReactionIndex.EMPTY;
             }
         });
     }
@@ -131,5 +160,21 @@ public class ReactionController {
      */
     public static void forgetCache(long guildId) {
         cache.invalidate(guildId);
+        indexCache.invalidate(guildId);
+    }
+
+    private static Collection loadReactions(@Nonnull AvaIre avaire, @Nonnull Guild guild) {
+        try {
+            return avaire.getDatabase()
+                .newQueryBuilder(Constants.REACTION_ROLES_TABLE_NAME)
+                .selectAll()
+                .where("guild_id", guild.getId())
+                .orderBy("message_id")
+                .get();
+        } catch (Exception ex) {
+            log.error(ex.getMessage(), ex);
+
+            return Collection.EMPTY_COLLECTION;
+        }
     }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.controllers;
+
+import com.avairebot.database.collection.Collection;
+import com.avairebot.database.collection.DataRow;
+import com.avairebot.database.transformers.ReactionTransformer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the reaction role messages for a single guild, the
+ * messages are stored in an open addressing table keyed by the primitive
+ * message ID, and the emotes for each message are sorted by their IDs,
+ * so checking if a reaction belongs to a reaction role message is a
+ * single hash probe, without parsing or boxing anything.
+ * <p>
+ * Changes to the reaction roles should forget the index through the
+ * {@link ReactionController#forgetCache(long) reaction controller},
+ * which will build a new index the next time it's requested.
+ */
+public final class ReactionIndex {
+
+    /**
+     * An empty reaction index, with no reaction role messages.
+     */
+    public static final ReactionIndex EMPTY = new ReactionIndex(Collection.EMPTY_COLLECTION);
+
+    private final long[] messageIds;
+    private final ReactionMessage[] messages;
+    private final int size;
+
+    /**
+     * Creates a new reaction index for the given reaction role rows, if
+     * multiple rows share the same message ID, the first row is used.
+     *
+     * @param collection The reaction role rows that should be indexed.
+     */
+    ReactionIndex(@Nonnull Collection collection) {
+        int capacity = 2;
+        while (capacity < collection.size() * 2) {
+            capacity <<= 1;
+        }
+
+        messageIds = new long[capacity];
+        messages = new ReactionMessage[capacity];
+
+        int size = 0;
+        for (DataRow row : collection) {
+            ReactionMessage message = new ReactionMessage(new ReactionTransformer(row));
+
+            int index = indexOf(message.getMessageId());
+            if (messages[index] == null) {
+                messageIds[index] = message.getMessageId();
+                messages[index] = message;
+                size++;
+            }
+        }
+        this.size = size;
+    }
+
+    /**
+     * Gets the reaction role message with the given message ID.
+     *
+     * @param messageId The ID of the message that should be returned.
+     * @return Possibly-null, the reaction role message with the given ID.
+     */
+    @Nullable
+    public ReactionMessage get(long messageId) {
+        return messages[indexOf(messageId)];
+    }
+
+    /**
+     * Checks if the given message ID belongs to a reaction role message.
+     *
+     * @param messageId The ID of the message that should be checked.
+     * @return {@code True} if the message is a reaction role message, {@code False} otherwise.
+     */
+    public boolean contains(long messageId) {
+        return get(messageId) != null;
+    }
+
+    /**
+     * Gets the ID of the role linked to the given emote on the given message.
+     *
+     * @param messageId The ID of the message the reaction was added to.
+     * @param emoteId   The ID of the emote that was used for the reaction.
+     * @return The ID of the linked role, or {@code -1} if the emote isn't linked to a role on the message.
+     */
+    public long getRoleId(long messageId, long emoteId) {
+        ReactionMessage message = get(messageId);
+
+        return message == null ? -1L : message.getRoleId(emoteId);
+    }
+
+    /**
+     * Gets the amount of reaction role messages in the index.
+     *
+     * @return The amount of reaction role messages in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the index doesn't have any reaction role messages.
+     *
+     * @return {@code True} if the index is empty, {@code False} otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int indexOf(long messageId) {
+        long hash = messageId * 0x9E3779B97F4A7C15L;
+
+        int mask = messageIds.length - 1;
+        int index = (int) (hash ^ (hash >>> 32)) & mask;
+
+        while (messages[index] != null && messageIds[index] != messageId) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * A single parsed reaction role message, with the emote IDs sorted
+     * so the linked role can be found using a binary search.
+     */
+    public static final class ReactionMessage {
+
+        private final long guildId;
+        private final long channelId;
+        private final long messageId;
+        private final long[] emoteIds;
+        private final long[] roleIds;
+
+        ReactionMessage(@Nonnull ReactionTransformer transformer) {
+            guildId = transformer.getGuildId();
+            channelId = transformer.getChannelId();
+            messageId = transformer.getMessageId();
+
+            emoteIds = new long[transformer.getRoles().size()];
+            roleIds = new long[emoteIds.length];
+
+            int index = 0;
+            for (Long emoteId : transformer.getRoles().keySet()) {
+                emoteIds[index++] = emoteId;
+            }
+            Arrays.sort(emoteIds);
+
+            Map<Long, Long> roles = transformer.getRoles();
+            for (int i = 0; i < emoteIds.length; i++) {
+                roleIds[i] = roles.get(emoteIds[i]);
+            }
+        }
+
+        /**
+         * Gets the ID of the guild the reaction message belongs to.
+         *
+         * @return The ID of the guild the reaction message belongs to.
+         */
+        public long getGuildId() {
+            return guildId;
+        }
+
+        /**
+         * Gets the ID of the channel the reaction message belongs to.
+         *
+         * @return The ID of the channel the reaction message belongs to.
+         */
+        public long getChannelId() {
+            return channelId;
+        }
+
+        /**
+         * Gets the ID of the reaction message.
+         *
+         * @return The ID of the reaction message.
+         */
+        public long getMessageId() {
+            return messageId;
+        }
+
+        /**
+         * Gets the ID of the role linked to the given emote.
+         *
+         * @param emoteId The ID of the emote the role should be returned for.
+         * @return The ID of the linked role, or {@code -1} if the emote isn't linked to a role.
+         */
+        public long getRoleId(long emoteId) {
+            int index = Arrays.binarySearch(emoteIds, emoteId);
+
+            return index < 0 ? -1L : roleIds[index];
+        }
+
+        /**
+         * Checks if the given emote is linked to a role on the message.
+         *
+         * @param emoteId The ID of the emote that should be checked.
+         * @return {@code True} if the emote is linked to a role, {@code False} otherwise.
+         */
+        public boolean hasEmote(long emoteId) {
+            return Arrays.binarySearch(emoteIds, emoteId) >= 0;
+        }
+    }
+}
@@ -25,9 +25,10 @@ import com.avairebot.AvaIre;
 import com.avairebot.Constants;
 import com.avairebot.audio.TrackRequestContext;
 import com.avairebot.audio.seracher.SearchProvider;
-import com.avairebot.contracts.database.Database;
 import com.avairebot.database.collection.Collection;
+import com.avairebot.database.query.PreparedQuery;
 import com.avairebot.database.transformers.SearchResultTransformer;
+import com.avairebot.exceptions.InvalidStateException;
 import com.avairebot.language.I18n;
 import com.avairebot.scheduler.ScheduleHandler;
 import com.avairebot.time.Carbon;
@@ -36,7 +37,6 @@ import com.google.common.cache.CacheBuilder;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,14 +44,15 @@ import javax.annotation.Nullable;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.Arrays;
-import java.util.Base64;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class SearchController {
 
     public static final Cache<String, SearchResultTransformer> cache;
+    public static final Cache<String, Boolean> noMatchCache;
     private static final long defaultMaxCacheAge;
 
     private static final Logger log = LoggerFactory.getLogger(SearchController.class);
@@ -72,6 +73,28 @@ public class SearchController {
             )
             .expireAfterAccess(30, TimeUnit.MINUTES)
             .build();
+
+        noMatchCache = CacheBuilder.newBuilder()
+            .recordStats()
+            .maximumSize(AvaIre.getInstance().getConfig()
+                .getInt("audio-cache.maximum-cache-size", 1000)
+            )
+            .expireAfterWrite(Math.max(0, AvaIre.getInstance().getConfig()
+                .getLong("audio-cache.no-match-cache-age", TimeUnit.MINUTES.toSeconds(10))
+            ), TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * Checks if the given track request context recently returned no
+     * matches, in which case the search shouldn't be made again
+     * until the no match cache entry has expired.
+     *
+     * @param context The track request context that should be checked.
+     * @return {@code True} if the request recently returned no matches, {@code False} otherwise.
+     */
+    public static boolean isNoMatchResult(TrackRequestContext context) {
+        return noMatchCache.getIfPresent(context.getFullQueryString()) != null;
     }
 
     /**
@@ -120,6 +143,16 @@ public class SearchController {
                 return null;
             }
 
+            SearchResultTransformer resultTransformer;
+            try {
+                resultTransformer = new SearchResultTransformer(result.first());
+            } catch (InvalidStateException e) {
+                log.warn("Failed to load the cached search result for {} with the {} provider, it will be searched for again: {}",
+                    context.getQuery(), context.getProvider(), e.getMessage()
+                );
+                return null;
+            }
+
             ScheduleHandler.getScheduler().submit(() -> {
                 try {
                     AvaIre.getInstance().getDatabase().queryUpdate(
@@ -130,8 +163,6 @@ public class SearchController {
                 }
             });
 
-            SearchResultTransformer resultTransformer = new SearchResultTransformer(result.first());
-
             cache.put(context.getFullQueryString(), resultTransformer);
 
             log.debug("Search request for {} with the {} provider was loaded from database cache.",
@@ -146,18 +177,24 @@ public class SearchController {
     }
 
     /**
-     * Caches the given audio playlist under the given track context.
+     * Caches the given audio playlist under the given track context, playlists
+     * without any tracks are only stored in the in-memory no match cache.
      *
      * @param context  The context the cache key should be created by.
      * @param playlist The audio playlist that should be saved in the cache.
      */
     public static void cacheSearchResult(TrackRequestContext context, AudioPlaylist playlist) {
+        if (playlist.getTracks().isEmpty()) {
+            noMatchCache.put(context.getFullQueryString(), Boolean.TRUE);
+            return;
+        }
+
         cache.put(context.getFullQueryString(), new SearchResultTransformer(context, playlist));
 
         try {
             final Carbon time = Carbon.now();
             final String insertBatchQuery = I18n.format(
-                "INSERT INTO `{0}` (`provider`, `query`, `result`, `created_at`) " +
+                "INSERT INTO `{0}` (`provider`, `query`, `data`, `created_at`) " +
                     "SELECT * FROM (SELECT ?, ?, ?, ?) AS tmp " +
                     "WHERE NOT EXISTS (" +
                     " SELECT `provider`, `query` FROM `{0}` WHERE `provider` = ? AND `query` = ?" +
@@ -165,25 +202,16 @@ public class SearchController {
                 Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
             );
 
-            try (PreparedStatement statement = AvaIre.getInstance().getDatabase().getConnection().getConnection().prepareStatement(insertBatchQuery)) {
-                String serializedAudioPlaylist = new SearchResultTransformer.SerializableAudioPlaylist(playlist).toString();
-
-                // Sets the search provider
-                statement.setInt(1, context.getProvider().getId());
-                statement.setInt(5, context.getProvider().getId());
-                // Sets the search query
-                statement.setString(2, context.getQuery());
-                statement.setString(6, context.getQuery());
-
-                statement.setString(3, "base64:" + new String(
-                    Base64.getEncoder().encode(serializedAudioPlaylist.getBytes())
-                ));
-                statement.setString(4, time.toString());
-
-                AvaIre.getInstance().getDatabase().queryUpdate(
-                    statement.toString().split(": ")[1]
-                );
-            }
+            AvaIre.getInstance().getDatabase().queryUpdate(new PreparedQuery(insertBatchQuery,
+                // Sets the search provider and query
+                context.getProvider().getId(),
+                context.getQuery(),
+                new SearchResultTransformer.SerializableAudioPlaylist(playlist).toBytes(),
+                time.toString(),
+                // Sets the search provider and query for the "NOT EXISTS" sub query
+                context.getProvider().getId(),
+                context.getQuery()
+            ));
 
             if (!context.getProvider().isSearchable()) {
                 return;
@@ -200,8 +228,6 @@ public class SearchController {
                                 false
                             );
 
-                            String serializedAudioPlaylist = new SearchResultTransformer.SerializableAudioPlaylist(audioPlaylist).toString();
-
                             // Sets the search provider
                             statement.setInt(1, SearchProvider.URL.getId());
                             statement.setInt(5, SearchProvider.URL.getId());
@@ -209,9 +235,7 @@ public class SearchController {
                             statement.setString(2, track.getInfo().uri);
                             statement.setString(6, track.getInfo().uri);
 
-                            statement.setString(3, "base64:" + new String(
-                                Base64.getEncoder().encode(serializedAudioPlaylist.getBytes())
-                            ));
+                            statement.setBytes(3, new SearchResultTransformer.SerializableAudioPlaylist(audioPlaylist).toBytes());
                             statement.setString(4, time.toString());
 
                             statement.addBatch();
@@ -226,61 +250,39 @@ public class SearchController {
         }
     }
 
-    private static String createUpdateLookupQueryFromContext(TrackRequestContext context) throws SQLException {
-        String base = AvaIre.getInstance().getDatabase().newQueryBuilder(Constants.MUSIC_SEARCH_CACHE_TABLE_NAME)
-            .toSQL(Database.QueryType.UPDATE);
-
-        String query = StringUtils.chop(base) +
-            " `last_lookup_at` = ? WHERE `provider` = ? AND `query` = ?;";
-
-        try (PreparedStatement statement = AvaIre.getInstance().getDatabase().getConnection().getConnection().prepareStatement(query)) {
-            statement.setTimestamp(1, new Timestamp(
-                Carbon.now().getTimestamp() * 1000L
-            ));
-            statement.setLong(2, context.getProvider().getId());
-            statement.setString(3, context.getProvider().isSearchable()
+    private static PreparedQuery createUpdateLookupQueryFromContext(TrackRequestContext context) {
+        return new PreparedQuery(
+            I18n.format("UPDATE `{0}` SET `last_lookup_at` = ? WHERE `provider` = ? AND `query` = ?;",
+                Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+            ),
+            new Timestamp(Carbon.now().getTimestamp() * 1000L),
+            context.getProvider().getId(),
+            context.getProvider().isSearchable()
                 ? context.getQuery().toLowerCase().trim()
                 : context.getQuery()
-            );
-
-            String[] parts = statement.toString().split(" ");
-
-            return String.join(" ", Arrays.copyOfRange(
-                parts, 1, parts.length
-            ));
-        }
+        );
     }
 
-    @SuppressWarnings("ConstantConditions")
-    private static String createSearchQueryFromContext(TrackRequestContext context, long maxCacheAgeInMilis) throws SQLException {
-        String base = AvaIre.getInstance().getDatabase().newQueryBuilder(Constants.MUSIC_SEARCH_CACHE_TABLE_NAME)
-            .where("provider", context.getProvider().getId())
-            .toSQL();
-
-        StringBuilder query = new StringBuilder(StringUtils.chop(base))
-            .append(" AND `query` = ?");
+    private static PreparedQuery createSearchQueryFromContext(TrackRequestContext context, long maxCacheAgeInMilis) {
+        StringBuilder query = new StringBuilder(I18n.format(
+            "SELECT * FROM `{0}` WHERE `provider` = ? AND `query` = ?",
+            Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+        ));
+
+        List<Object> bindings = new ArrayList<>();
+        bindings.add(context.getProvider().getId());
+        bindings.add(context.getProvider().isSearchable()
+            ? context.getQuery().toLowerCase().trim()
+            : context.getQuery()
+        );
 
         if (maxCacheAgeInMilis > 0) {
             query.append(" AND `last_lookup_at` > ?");
-        }
-
-        try (PreparedStatement statement = AvaIre.getInstance().getDatabase().getConnection().getConnection().prepareStatement(query.toString())) {
-            statement.setString(1, context.getProvider().isSearchable()
-                ? context.getQuery().toLowerCase().trim()
-                : context.getQuery()
-            );
-
-            if (maxCacheAgeInMilis > 0) {
-                statement.setTimestamp(2, new Timestamp(
-                    (Carbon.now().getTimestamp() * 1000L) - maxCacheAgeInMilis
-                ));
-            }
-
-            String[] parts = statement.toString().split(" ");
-
-            return String.join(" ", Arrays.copyOfRange(
-                parts, 1, parts.length
+            bindings.add(new Timestamp(
+                (Carbon.now().getTimestamp() * 1000L) - maxCacheAgeInMilis
             ));
         }
+
+        return new PreparedQuery(query.append(";").toString(), bindings);
     }
 }
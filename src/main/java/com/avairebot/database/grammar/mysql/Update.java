@@ -85,6 +85,12 @@ public class Update extends UpdateGrammar {
                     continue;
                 }
 
+                if (isParameterized()) {
+                    addPart(" %s = %s, ", formatKey, addBinding(row.get(key)));
+
+                    continue;
+                }
+
                 addPart(String.format("%s = '%s', ", formatKey, value.replaceAll("'", "\'")));
             }
 
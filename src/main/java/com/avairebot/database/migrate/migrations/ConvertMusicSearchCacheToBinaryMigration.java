@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.migrate.migrations;
+
+import com.avairebot.Constants;
+import com.avairebot.contracts.database.migrations.Migration;
+import com.avairebot.database.collection.Collection;
+import com.avairebot.database.collection.DataRow;
+import com.avairebot.database.connections.MySQL;
+import com.avairebot.database.query.PreparedQuery;
+import com.avairebot.database.schema.Schema;
+import com.avairebot.database.transformers.SearchResultTransformer;
+import com.avairebot.exceptions.InvalidStateException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConvertMusicSearchCacheToBinaryMigration implements Migration {
+
+    /**
+     * The amount of cached search results that should be converted per query.
+     */
+    private static final int chunkSize = 500;
+
+    @Override
+    public String created_at() {
+        return "Tue, Nov 19, 2019 6:40 PM";
+    }
+
+    @Override
+    public boolean up(Schema schema) throws SQLException {
+        if (!schema.hasColumn(Constants.MUSIC_SEARCH_CACHE_TABLE_NAME, "data")) {
+            if (schema.getDbm().getConnection() instanceof MySQL) {
+                schema.getDbm().queryUpdate(String.format(
+                    "ALTER TABLE `%s` ADD `data` MEDIUMBLOB NULL DEFAULT NULL AFTER `result`;",
+                    Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+                ));
+            } else {
+                schema.getDbm().queryUpdate(String.format(
+                    "ALTER TABLE `%s` ADD `data` BLOB NULL DEFAULT NULL;",
+                    Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+                ));
+            }
+        }
+
+        // Converts the existing JSON results to the binary format in chunks, walking
+        // through the table by its provider and query, so each chunk can continue
+        // where the last one stopped, without loading the whole table at once.
+        int provider = Integer.MIN_VALUE;
+        String query = "";
+
+        while (true) {
+            Collection rows = schema.getDbm().query(new PreparedQuery(String.format(
+                "SELECT `provider`, `query`, `result` FROM `%s` " +
+                    "WHERE `data` IS NULL AND (`provider` > ? OR (`provider` = ? AND `query` > ?)) " +
+                    "ORDER BY `provider`, `query` LIMIT %s;",
+                Constants.MUSIC_SEARCH_CACHE_TABLE_NAME, chunkSize
+            ), provider, provider, query));
+
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<Object[]> converted = new ArrayList<>();
+            List<Object[]> invalid = new ArrayList<>();
+
+            for (DataRow row : rows) {
+                provider = row.getInt("provider");
+                query = String.valueOf(row.get("query"));
+
+                try {
+                    converted.add(new Object[]{
+                        SearchResultTransformer.SerializableAudioPlaylist.fromJson(row.getString("result")).toBytes(),
+                        provider,
+                        query
+                    });
+                } catch (InvalidStateException e) {
+                    invalid.add(new Object[]{provider, query});
+                }
+            }
+
+            runBatch(schema, String.format(
+                "UPDATE `%s` SET `data` = ?, `result` = NULL WHERE `provider` = ? AND `query` = ?;",
+                Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+            ), converted);
+
+            // Results we're unable to read are just cached searches, so
+            // they're deleted and will be searched for again instead.
+            runBatch(schema, String.format(
+                "DELETE FROM `%s` WHERE `provider` = ? AND `query` = ?;",
+                Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+            ), invalid);
+
+            if (rows.size() < chunkSize) {
+                break;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean down(Schema schema) throws SQLException {
+        if (!schema.hasColumn(Constants.MUSIC_SEARCH_CACHE_TABLE_NAME, "data")) {
+            return true;
+        }
+
+        // The binary results can't be read by the old format, so they're
+        // dropped from the cache and will be searched for again.
+        schema.getDbm().queryUpdate(String.format(
+            "DELETE FROM `%s` WHERE `result` IS NULL;",
+            Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+        ));
+
+        if (schema.getDbm().getConnection() instanceof MySQL) {
+            schema.getDbm().queryUpdate(String.format(
+                "ALTER TABLE `%s` DROP `data`;",
+                Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+            ));
+        }
+
+        return true;
+    }
+
+    private void runBatch(Schema schema, String query, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        schema.getDbm().queryBatch(query, (PreparedStatement statement) -> {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.migrate.migrations;
+
+import com.avairebot.Constants;
+import com.avairebot.contracts.database.migrations.Migration;
+import com.avairebot.database.connections.MySQL;
+import com.avairebot.database.schema.Schema;
+
+import java.sql.SQLException;
+
+public class CreateGlobalExperiencesTableMigration implements Migration {
+
+    @Override
+    public String created_at() {
+        return "Mon, Nov 11, 2019 8:12 PM";
+    }
+
+    @Override
+    public boolean up(Schema schema) throws SQLException {
+        if (schema.hasTable(Constants.GLOBAL_EXPERIENCE_TABLE_NAME)) {
+            return true;
+        }
+
+        if (schema.getDbm().getConnection() instanceof MySQL) {
+            schema.getDbm().queryUpdate(String.format(
+                "CREATE TABLE `%s` (" +
+                    "`user_id` BIGINT UNSIGNED NOT NULL, " +
+                    "`experience` BIGINT NOT NULL DEFAULT '100', " +
+                    "PRIMARY KEY (`user_id`), " +
+                    "KEY `experience` (`experience`)" +
+                    ");",
+                Constants.GLOBAL_EXPERIENCE_TABLE_NAME
+            ));
+        } else {
+            schema.getDbm().queryUpdate(String.format(
+                "CREATE TABLE `%s` (" +
+                    "`user_id` INTEGER NOT NULL PRIMARY KEY, " +
+                    "`experience` INTEGER NOT NULL DEFAULT 100" +
+                    ");",
+                Constants.GLOBAL_EXPERIENCE_TABLE_NAME
+            ));
+
+            schema.getDbm().queryUpdate(String.format(
+                "CREATE INDEX `%s_experience` ON `%s` (`experience`);",
+                Constants.GLOBAL_EXPERIENCE_TABLE_NAME, Constants.GLOBAL_EXPERIENCE_TABLE_NAME
+            ));
+        }
+
+        // Backfills the totals table using the same aggregate the global
+        // leaderboard used to run on every cache miss, so the totals
+        // matches the existing experience records from the start.
+        schema.getDbm().queryUpdate(String.format(
+            "INSERT INTO `%s` (`user_id`, `experience`) " +
+                "SELECT `user_id`, (sum(`global_experience`) - (count(`user_id`) * 100)) + 100 " +
+                "FROM `%s` WHERE `active` = 1 AND `user_id` IS NOT NULL GROUP BY `user_id`;",
+            Constants.GLOBAL_EXPERIENCE_TABLE_NAME, Constants.PLAYER_EXPERIENCE_TABLE_NAME
+        ));
+
+        return true;
+    }
+
+    @Override
+    public boolean down(Schema schema) throws SQLException {
+        return schema.dropIfExists(Constants.GLOBAL_EXPERIENCE_TABLE_NAME);
+    }
+}
@@ -37,7 +37,7 @@ public class CreateMusicPlaylistsTableMigration implements Migration {
 
     @Override
     public boolean up(Schema schema) throws SQLException {
-        boolean isMySQL = schema.getDbm().getConnection().getConnection() instanceof MySQL;
+        boolean isMySQL = schema.getDbm().getConnection() instanceof MySQL;
 
         return schema.createIfNotExists(Constants.MUSIC_PLAYLIST_TABLE_NAME, table -> {
             table.Increments("id");
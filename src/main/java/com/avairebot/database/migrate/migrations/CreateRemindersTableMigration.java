@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.migrate.migrations;
+
+import com.avairebot.Constants;
+import com.avairebot.contracts.database.migrations.Migration;
+import com.avairebot.database.connections.MySQL;
+import com.avairebot.database.schema.Schema;
+
+import java.sql.SQLException;
+
+public class CreateRemindersTableMigration implements Migration {
+
+    @Override
+    public String created_at() {
+        return "Fri, Nov 22, 2019 7:05 PM";
+    }
+
+    @Override
+    public boolean up(Schema schema) throws SQLException {
+        if (schema.hasTable(Constants.REMINDERS_TABLE_NAME)) {
+            return true;
+        }
+
+        schema.createIfNotExists(Constants.REMINDERS_TABLE_NAME, table -> {
+            table.Increments("id");
+            table.Long("user_id").unsigned();
+            table.Long("channel_id").unsigned().nullable();
+            table.Boolean("in_dm");
+            table.Text("message");
+            table.DateTime("expires_at");
+            table.Timestamps();
+        });
+
+        // Reminders are only ever loaded by their expire time, a
+        // few minutes at a time, so the column is indexed to
+        // keep the lookups cheap as the table grows.
+        if (schema.getDbm().getConnection() instanceof MySQL) {
+            schema.getDbm().queryUpdate(String.format(
+                "ALTER TABLE `%s` ADD INDEX `expires_at` (`expires_at`);",
+                Constants.REMINDERS_TABLE_NAME
+            ));
+        } else {
+            schema.getDbm().queryUpdate(String.format(
+                "CREATE INDEX `%s_expires_at` ON `%s` (`expires_at`);",
+                Constants.REMINDERS_TABLE_NAME, Constants.REMINDERS_TABLE_NAME
+            ));
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean down(Schema schema) throws SQLException {
+        return schema.dropIfExists(Constants.REMINDERS_TABLE_NAME);
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.pool;
+
+import com.avairebot.contracts.database.SupplierWithSQL;
+import com.avairebot.metrics.Metrics;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /**
+     * The longest amount of time a borrower will wait on the idle queue before
+     * checking if a new connection can be opened instead, this makes sure
+     * borrowers notice when a broken connection has been discarded.
+     */
+    private static final long maxWaitSlice = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final String name;
+    private final SupplierWithSQL<Connection> factory;
+    private final ConnectionPoolConfig config;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> leased = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger(0);
+    private final ScheduledExecutorService maintenanceService;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new connection pool using the given factory to open new
+     * physical connections whenever the pool needs to grow.
+     *
+     * @param name    The name of the pool, used for logging and thread names.
+     * @param factory The factory used to open new physical connections.
+     * @param config  The pool configuration.
+     */
+    public ConnectionPool(String name, SupplierWithSQL<Connection> factory, ConnectionPoolConfig config) {
+        this.name = name;
+        this.factory = factory;
+        this.config = config;
+
+        this.maintenanceService = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("database-pool-" + name.toLowerCase() + "-%d")
+            .setDaemon(true)
+            .build()
+        );
+    }
+
+    /**
+     * Starts the pool, opening the minimum amount of connections and starting the
+     * maintenance task responsible for validating idle connections, closing
+     * connections that have been idle for too long, and detecting leaks.
+     *
+     * @throws SQLException If the first connection to the database could not be opened.
+     */
+    public void start() throws SQLException {
+        // Opens the first connection outside of the fill loop so that
+        // invalid credentials or unreachable hosts are reported
+        // straight away to whoever is opening the pool.
+        PooledConnection connection = tryCreate();
+        if (connection != null) {
+            idle.offerLast(connection);
+        }
+
+        fillToMinimum();
+
+        maintenanceService.scheduleWithFixedDelay(this::maintain, 5, 5, TimeUnit.SECONDS);
+
+        log.info("Database connection pool \"{}\" started with {} connection(s), [min={}, max={}]",
+            name, totalConnections.get(), config.getMinimumSize(), config.getMaximumSize()
+        );
+    }
+
+    /**
+     * Borrows a connection from the pool, if no idle connections are available and the
+     * pool is at its maximum size, the caller will be blocked until a connection is
+     * returned, or the borrow timeout is reached. The returned connection must
+     * be closed by the caller, which returns it to the pool.
+     *
+     * @return A connection borrowed from the pool.
+     * @throws SQLException If the pool is closed, no connection became available in
+     *                      time, or a new connection could not be opened.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("The database connection pool \"" + name + "\" has been closed.");
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getBorrowTimeout());
+
+        try {
+            while (true) {
+                PooledConnection connection = idle.pollFirst();
+                if (connection == null) {
+                    connection = tryCreate();
+                }
+
+                if (connection == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        Metrics.databasePoolTimeouts.inc();
+
+                        throw new SQLTimeoutException(String.format(
+                            "Timed out after %sms waiting for a connection from the \"%s\" pool, [active=%s, idle=%s, max=%s]",
+                            config.getBorrowTimeout(), name, leased.size(), idle.size(), config.getMaximumSize()
+                        ));
+                    }
+
+                    try {
+                        connection = idle.pollFirst(Math.min(remaining, maxWaitSlice), TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    }
+
+                    if (connection == null) {
+                        continue;
+                    }
+                }
+
+                if (connection.getTimeSinceValidation() > config.getValidationInterval()
+                    && !connection.validate(config.getValidationTimeout())) {
+                    discard(connection);
+                    continue;
+                }
+
+                leased.add(connection);
+                updateGauges();
+
+                return connection.lease(config.isLeakDetectionEnabled());
+            }
+        } finally {
+            Metrics.databasePoolBorrowTime.observe((System.nanoTime() - start) / 1_000_000_000D);
+        }
+    }
+
+    /**
+     * Returns the given connection to the pool, this is called
+     * by the connection proxy when the borrower closes it.
+     *
+     * @param connection The connection that should be returned to the pool.
+     */
+    void release(PooledConnection connection) {
+        if (!leased.remove(connection)) {
+            return;
+        }
+
+        Metrics.databasePoolLeaseTime.observe(connection.getLeaseTime() / 1000D);
+
+        if (closed || !connection.reset()) {
+            discard(connection);
+        } else {
+            // Returned connections are added to the front of the queue so the most recently used
+            // connections are reused first, this lets the connections at the end of the
+            // queue become idle long enough to be closed when the load goes down.
+            idle.offerFirst(connection);
+        }
+
+        updateGauges();
+    }
+
+    /**
+     * Closes the pool and all the idle connections, connections that are currently
+     * borrowed will be closed as soon as they're returned to the pool.
+     */
+    public void close() {
+        closed = true;
+        maintenanceService.shutdownNow();
+
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+
+        updateGauges();
+    }
+
+    /**
+     * Checks if the pool has been closed.
+     *
+     * @return {@code True} if the pool is closed, {@code False} otherwise.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Gets the amount of connections that are currently borrowed from the pool.
+     *
+     * @return The amount of active connections.
+     */
+    public int getActiveConnections() {
+        return leased.size();
+    }
+
+    /**
+     * Gets the amount of connections that are currently idle in the pool.
+     *
+     * @return The amount of idle connections.
+     */
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * Gets the pool configuration.
+     *
+     * @return The pool configuration.
+     */
+    public ConnectionPoolConfig getConfig() {
+        return config;
+    }
+
+    private PooledConnection tryCreate() throws SQLException {
+        while (true) {
+            int total = totalConnections.get();
+            if (total >= config.getMaximumSize()) {
+                return null;
+            }
+
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                break;
+            }
+        }
+
+        try {
+            return new PooledConnection(this, factory.get());
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        connection.closeQuietly();
+        totalConnections.decrementAndGet();
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < config.getMinimumSize()) {
+            try {
+                PooledConnection connection = tryCreate();
+                if (connection == null) {
+                    return;
+                }
+                idle.offerLast(connection);
+            } catch (SQLException e) {
+                log.warn("Failed to open a new connection for the \"{}\" pool: {}", name, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void maintain() {
+        try {
+            if (config.isLeakDetectionEnabled()) {
+                detectLeaks();
+            }
+
+            List<PooledConnection> connections = new ArrayList<>(idle);
+            for (PooledConnection connection : connections) {
+                boolean shouldEvict = connection.getIdleTime() > config.getIdleTimeout()
+                    && totalConnections.get() > config.getMinimumSize();
+
+                if (shouldEvict) {
+                    if (idle.remove(connection)) {
+                        discard(connection);
+                    }
+                    continue;
+                }
+
+                if (connection.getTimeSinceValidation() <= config.getValidationInterval()) {
+                    continue;
+                }
+
+                // The connection is taken out of the queue while it's being validated so
+                // it can't be handed out to a borrower at the same time, if it is no
+                // longer in the queue, it has been borrowed and is therefore in use.
+                if (!idle.remove(connection)) {
+                    continue;
+                }
+
+                if (connection.validate(config.getValidationTimeout())) {
+                    idle.offerLast(connection);
+                } else {
+                    log.debug("Discarding invalid idle connection from the \"{}\" pool", name);
+                    discard(connection);
+                }
+            }
+
+            fillToMinimum();
+            updateGauges();
+        } catch (Exception e) {
+            log.error("An exception was thrown while running maintenance on the \"{}\" pool: {}", name, e.getMessage(), e);
+        }
+    }
+
+    private void detectLeaks() {
+        for (PooledConnection connection : leased) {
+            if (connection.isLeakReported() || connection.getLeaseTime() < config.getLeakDetectionThreshold()) {
+                continue;
+            }
+
+            connection.setLeakReported(true);
+            Metrics.databasePoolLeaks.inc();
+
+            log.warn("Possible connection leak detected in the \"{}\" pool, a connection has been borrowed for {}ms without being returned",
+                name, connection.getLeaseTime(), connection.getLeaseTrace()
+            );
+        }
+    }
+
+    private void updateGauges() {
+        Metrics.databasePoolConnections.labels("active").set(leased.size());
+        Metrics.databasePoolConnections.labels("idle").set(idle.size());
+    }
+}
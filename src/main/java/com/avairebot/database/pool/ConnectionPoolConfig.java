@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.pool;
+
+import com.avairebot.config.Configuration;
+
+public class ConnectionPoolConfig {
+
+    private final int minimumSize;
+    private final int maximumSize;
+    private final long borrowTimeout;
+    private final long validationInterval;
+    private final int validationTimeout;
+    private final long idleTimeout;
+    private final long leakDetectionThreshold;
+
+    /**
+     * Creates a new connection pool config instance.
+     *
+     * @param minimumSize            The minimum amount of connections that should be kept open at all times.
+     * @param maximumSize            The maximum amount of connections the pool can have open at the same time.
+     * @param borrowTimeout          The amount of milliseconds a caller will wait for a connection before timing out.
+     * @param validationInterval     The amount of milliseconds a connection can be idle before it is validated.
+     * @param validationTimeout      The amount of seconds the driver is given to validate a connection.
+     * @param idleTimeout            The amount of milliseconds a connection above the minimum size can be idle before it is closed.
+     * @param leakDetectionThreshold The amount of milliseconds a connection can be borrowed before it is reported as
+     *                               a possible leak, or {@code 0} to disable leak detection entirely.
+     */
+    public ConnectionPoolConfig(int minimumSize, int maximumSize, long borrowTimeout, long validationInterval, int validationTimeout, long idleTimeout, long leakDetectionThreshold) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum pool size must be at least 1");
+        }
+
+        this.minimumSize = Math.max(0, Math.min(minimumSize, maximumSize));
+        this.maximumSize = maximumSize;
+        this.borrowTimeout = Math.max(0L, borrowTimeout);
+        this.validationInterval = Math.max(0L, validationInterval);
+        this.validationTimeout = Math.max(1, validationTimeout);
+        this.idleTimeout = Math.max(0L, idleTimeout);
+        this.leakDetectionThreshold = Math.max(0L, leakDetectionThreshold);
+    }
+
+    /**
+     * Creates a new connection pool config from the "database.pool" section
+     * of the given configuration, using the given sizes as the defaults
+     * if the config doesn't define the pool sizes itself.
+     *
+     * @param config             The configuration that the pool settings should be loaded from.
+     * @param defaultMinimumSize The minimum pool size used if none is set in the config.
+     * @param defaultMaximumSize The maximum pool size used if none is set in the config.
+     * @return The connection pool config created from the given configuration.
+     */
+    public static ConnectionPoolConfig fromConfig(Configuration config, int defaultMinimumSize, int defaultMaximumSize) {
+        return new ConnectionPoolConfig(
+            config.getInt("database.pool.minimum-size", defaultMinimumSize),
+            config.getInt("database.pool.maximum-size", defaultMaximumSize),
+            config.getLong("database.pool.borrow-timeout", 5000L),
+            config.getLong("database.pool.validation-interval", 30000L),
+            config.getInt("database.pool.validation-timeout", 2),
+            config.getLong("database.pool.idle-timeout", 600000L),
+            config.getLong("database.pool.leak-detection-threshold", 30000L)
+        );
+    }
+
+    /**
+     * Creates a copy of the config with the given pool sizes, this is useful for
+     * databases that can't be shared across multiple connections, like
+     * in-memory SQLite databases which only exists per connection.
+     *
+     * @param minimumSize The minimum amount of connections that should be kept open at all times.
+     * @param maximumSize The maximum amount of connections the pool can have open at the same time.
+     * @return The new connection pool config with the given pool sizes.
+     */
+    public ConnectionPoolConfig withSize(int minimumSize, int maximumSize) {
+        return new ConnectionPoolConfig(
+            minimumSize, maximumSize, borrowTimeout, validationInterval,
+            validationTimeout, idleTimeout, leakDetectionThreshold
+        );
+    }
+
+    /**
+     * Gets the minimum amount of connections that should be kept open at all times.
+     *
+     * @return The minimum amount of open connections.
+     */
+    public int getMinimumSize() {
+        return minimumSize;
+    }
+
+    /**
+     * Gets the maximum amount of connections that can be open at the same time.
+     *
+     * @return The maximum amount of open connections.
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Gets the amount of milliseconds a caller should wait for a connection
+     * to become available before the borrow request times out.
+     *
+     * @return The borrow timeout in milliseconds.
+     */
+    public long getBorrowTimeout() {
+        return borrowTimeout;
+    }
+
+    /**
+     * Gets the amount of milliseconds a connection can be idle before
+     * it has to be validated before it is handed out again.
+     *
+     * @return The validation interval in milliseconds.
+     */
+    public long getValidationInterval() {
+        return validationInterval;
+    }
+
+    /**
+     * Gets the amount of seconds the driver is given to validate a connection.
+     *
+     * @return The validation timeout in seconds.
+     */
+    public int getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    /**
+     * Gets the amount of milliseconds a connection above the minimum
+     * pool size can be idle before it is closed by the pool.
+     *
+     * @return The idle timeout in milliseconds.
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Gets the amount of milliseconds a connection can be borrowed before
+     * it's reported as a possible leak, if the threshold is {@code 0}
+     * leak detection is disabled.
+     *
+     * @return The leak detection threshold in milliseconds.
+     */
+    public long getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    /**
+     * Checks if leak detection is enabled for the pool.
+     *
+     * @return {@code True} if leak detection is enabled, {@code False} otherwise.
+     */
+    public boolean isLeakDetectionEnabled() {
+        return leakDetectionThreshold > 0;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class PooledConnection {
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+
+    private volatile long lastUsedAt;
+    private volatile long lastValidatedAt;
+    private volatile long leasedAt;
+    private volatile Throwable leaseTrace;
+    private volatile boolean leakReported;
+
+    /**
+     * Creates a new pooled connection for the given physical connection.
+     *
+     * @param pool       The pool the connection belongs to.
+     * @param connection The physical connection that is being pooled.
+     */
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+
+        this.lastUsedAt = System.currentTimeMillis();
+        this.lastValidatedAt = lastUsedAt;
+    }
+
+    /**
+     * Gets the physical connection that is being pooled.
+     *
+     * @return The physical database connection.
+     */
+    Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Marks the connection as borrowed, and creates a new connection proxy that can be handed out
+     * to the caller, closing the proxy returns the connection to the pool instead of closing
+     * the physical connection, each lease gets its own proxy so that a stale reference
+     * can't return the connection to the pool while it is used by someone else.
+     *
+     * @param trackLeaseTrace Determines if the stack trace of the caller should be stored for leak detection.
+     * @return The connection proxy that should be handed to the caller.
+     */
+    Connection lease(boolean trackLeaseTrace) {
+        leasedAt = System.currentTimeMillis();
+        leaseTrace = trackLeaseTrace ? new Throwable("Connection was borrowed here") : null;
+        leakReported = false;
+
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class[]{Connection.class},
+            new Lease()
+        );
+    }
+
+    /**
+     * Resets the connection state after it has been used, rolling back any
+     * uncommitted transactions and re-enabling auto commits.
+     *
+     * @return {@code True} if the connection can be reused, {@code False} if it is broken.
+     */
+    boolean reset() {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            connection.clearWarnings();
+
+            lastUsedAt = System.currentTimeMillis();
+            leaseTrace = null;
+
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Validates the physical connection using the JDBC driver.
+     *
+     * @param timeout The amount of seconds the driver is given to validate the connection.
+     * @return {@code True} if the connection is still valid, {@code False} otherwise.
+     */
+    boolean validate(int timeout) {
+        try {
+            boolean valid = !connection.isClosed() && connection.isValid(timeout);
+            if (valid) {
+                lastValidatedAt = System.currentTimeMillis();
+            }
+            return valid;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes the physical connection, ignoring any errors thrown by the driver.
+     */
+    void closeQuietly() {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // The connection is being discarded anyway.
+        }
+    }
+
+    /**
+     * Gets the amount of milliseconds since the connection was last used.
+     *
+     * @return The amount of milliseconds the connection has been idle for.
+     */
+    long getIdleTime() {
+        return System.currentTimeMillis() - lastUsedAt;
+    }
+
+    /**
+     * Gets the amount of milliseconds since the connection was last validated.
+     *
+     * @return The amount of milliseconds since the last validation.
+     */
+    long getTimeSinceValidation() {
+        return System.currentTimeMillis() - Math.max(lastUsedAt, lastValidatedAt);
+    }
+
+    /**
+     * Gets the amount of milliseconds the connection has been borrowed for.
+     *
+     * @return The amount of milliseconds since the connection was borrowed.
+     */
+    long getLeaseTime() {
+        return System.currentTimeMillis() - leasedAt;
+    }
+
+    /**
+     * Gets the stack trace of the caller that borrowed the connection, this
+     * is only set if leak detection is enabled for the pool.
+     *
+     * @return The stack trace of the borrower, or {@code null}.
+     */
+    Throwable getLeaseTrace() {
+        return leaseTrace;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+
+    private class Lease implements InvocationHandler {
+
+        private final AtomicBoolean returned = new AtomicBoolean(false);
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+
+                case "isClosed":
+                    return returned.get() || connection.isClosed();
+
+                case "equals":
+                    return proxy == args[0];
+
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+
+                case "toString":
+                    return "PooledConnection[" + connection + "]";
+            }
+
+            if (returned.get()) {
+                throw new SQLException("The connection has already been returned to the pool.");
+            }
+
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ResourceReleasingProxy implements InvocationHandler {
+
+    private final AutoCloseable delegate;
+    private final AutoCloseable[] resources;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private ResourceReleasingProxy(AutoCloseable delegate, AutoCloseable[] resources) {
+        this.delegate = delegate;
+        this.resources = resources;
+    }
+
+    /**
+     * Wraps the given JDBC resource, when the returned resource is closed, the given
+     * resources will be closed as well in the order they were given, this allows
+     * statements and result sets to carry their pooled connection with them,
+     * so the connection is returned to the pool once they're closed.
+     *
+     * @param delegate  The resource that should be wrapped.
+     * @param type      The interface the returned proxy should implement.
+     * @param resources The resources that should be closed together with the delegate.
+     * @param <T>       The type of the resource being wrapped.
+     * @return The wrapped resource.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends AutoCloseable> T wrap(T delegate, Class<? super T> type, AutoCloseable... resources) {
+        return (T) Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class[]{type},
+            new ResourceReleasingProxy(delegate, resources)
+        );
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                if (closed.compareAndSet(false, true)) {
+                    close();
+                }
+                return null;
+
+            case "equals":
+                return proxy == args[0];
+
+            case "hashCode":
+                return System.identityHashCode(proxy);
+        }
+
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void close() throws Exception {
+        Exception exception = null;
+
+        try {
+            delegate.close();
+        } catch (Exception e) {
+            exception = e;
+        }
+
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                if (exception == null) {
+                    exception = e;
+                }
+            }
+        }
+
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.query;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PreparedQuery {
+
+    /**
+     * The SQL query with question marks(?) as placeholders for all the values.
+     */
+    private final String query;
+
+    /**
+     * The list of values that should be bound to the placeholders in
+     * the query, in the same order as they appear in the query.
+     */
+    private final List<Object> bindings;
+
+    /**
+     * Creates a new prepared query with the given SQL query and bindings.
+     *
+     * @param query    The SQL query using question marks(?) as placeholders.
+     * @param bindings The values that should be bound to the placeholders.
+     */
+    public PreparedQuery(String query, List<Object> bindings) {
+        this.query = query;
+        this.bindings = Collections.unmodifiableList(bindings);
+    }
+
+    /**
+     * Creates a new prepared query with the given SQL query and bindings.
+     *
+     * @param query    The SQL query using question marks(?) as placeholders.
+     * @param bindings The values that should be bound to the placeholders.
+     */
+    public PreparedQuery(String query, Object... bindings) {
+        this(query, Arrays.asList(bindings));
+    }
+
+    /**
+     * Gets the SQL query with placeholders for all the values, since the values are not
+     * part of the query, the query can be used as the key for statement caches.
+     *
+     * @return The SQL query with placeholders.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the values that should be bound to the placeholders in the query.
+     *
+     * @return The list of values bound to the query.
+     */
+    public List<Object> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Binds all the values to the given prepared statement, the values are bound using
+     * the setter matching their type, so numbers are sent as numbers, timestamps
+     * as timestamps, and everything else is sent as a string.
+     *
+     * @param statement The prepared statement the values should be bound to.
+     * @throws SQLException if a database access error occurs or this method is called on a
+     *                      closed <code>PreparedStatement</code>
+     */
+    public void bind(PreparedStatement statement) throws SQLException {
+        int index = 1;
+        for (Object value : bindings) {
+            bindValue(statement, index++, value);
+        }
+    }
+
+    private void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.NULL);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            statement.setLong(index, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            statement.setDouble(index, ((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            statement.setBigDecimal(index, (BigDecimal) value);
+        } else if (value instanceof Boolean) {
+            statement.setInt(index, (Boolean) value ? 1 : 0);
+        } else if (value instanceof Timestamp) {
+            statement.setTimestamp(index, (Timestamp) value);
+        } else if (value instanceof byte[]) {
+            statement.setBytes(index, (byte[]) value);
+        } else {
+            statement.setString(index, value.toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return query;
+    }
+}
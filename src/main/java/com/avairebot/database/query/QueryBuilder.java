@@ -757,7 +757,37 @@ public final class QueryBuilder {
     }
 
     /**
-     * Runs the {@link Database#query(String)} method with the generated query.
+     * Creates the grammar instance and builds a parameterized query, using question
+     * marks(?) as placeholders for all the values in the query, if an error
+     * occurs while building the query <code>NULL</code> will be returned.
+     *
+     * @return either (1) the generated prepared query
+     *         or (2) <code>NULL</code> if an error occurred.
+     */
+    public PreparedQuery toPreparedQuery() {
+        return toPreparedQuery(type);
+    }
+
+    /**
+     * Creates the grammar instance and builds a parameterized query using the given query
+     * type, using question marks(?) as placeholders for all the values in the query, if
+     * an error occurs while building the query <code>NULL</code> will be returned.
+     *
+     * @param type The query type that should be generated.
+     * @return either (1) the generated prepared query
+     *         or (2) <code>NULL</code> if an error occurred.
+     */
+    public PreparedQuery toPreparedQuery(QueryType type) {
+        try {
+            return dbm.getConnection().buildPreparedQuery(dbm, this, type);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Runs the {@link Database#query(PreparedQuery)} method with the generated query.
      *
      * @return a <code>Collection</code> object that contains the data produced
      *         by the given query; never <code>null</code>@exception
@@ -768,10 +798,13 @@ public final class QueryBuilder {
      *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
      */
     public Collection get() throws SQLException {
-        String query = toSQL();
+        PreparedQuery query = toPreparedQuery();
+        if (query == null) {
+            throw new SQLException("null query was generated, null can not be used as a valid query");
+        }
 
-        log.debug("QueryBuilder#get() was called with the following SQL query.\nSQL: " + query);
-        MDC.put("query", query);
+        log.debug("QueryBuilder#get() was called with the following SQL query.\nSQL: " + query.getQuery());
+        MDC.put("query", query.getQuery());
 
         // Note: When parsing the result to a collection, we can't use the DBM query method since it auto closes the result,
         // and the collection still needs to communicated with the result set to get meta data so it can build the keysets
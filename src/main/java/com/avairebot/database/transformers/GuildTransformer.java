@@ -25,6 +25,8 @@ import com.avairebot.AvaIre;
 import com.avairebot.audio.DJGuildLevel;
 import com.avairebot.contracts.database.transformers.Transformer;
 import com.avairebot.database.collection.DataRow;
+import com.avairebot.database.collection.IntArrayMap;
+import com.avairebot.database.collection.LongArraySet;
 import com.avairebot.utilities.NumberUtil;
 import com.google.gson.internal.LinkedTreeMap;
 import com.google.gson.reflect.TypeToken;
@@ -34,19 +36,20 @@ import net.dv8tion.jda.core.entities.TextChannel;
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import java.util.*;
+import java.util.function.Function;
 
 public class GuildTransformer extends Transformer {
 
     private static final GuildTypeTransformer partnerTypeTransformer = new PartnerGuildTypeTransformer();
 
-    private final Map<String, String> aliases = new HashMap<>();
-    private final Map<String, String> prefixes = new HashMap<>();
-    private final Map<String, String> selfAssignableRoles = new HashMap<>();
-    private final Map<Integer, String> levelRoles = new HashMap<>();
-    private final Map<String, Map<String, String>> modules = new HashMap<>();
-    private final List<ChannelTransformer> channels = new ArrayList<>();
-    private final Set<Long> levelExemptChannels = new HashSet<>();
-    private final Set<Long> levelExemptRoles = new HashSet<>();
+    private final LazyJson<Map<String, String>> aliases = new LazyJson<>(json -> decodeStringMap(json, true, false));
+    private final LazyJson<Map<String, String>> prefixes = new LazyJson<>(json -> decodeStringMap(json, true, false));
+    private final LazyJson<Map<String, String>> selfAssignableRoles = new LazyJson<>(json -> decodeStringMap(json, false, true));
+    private final LazyJson<IntArrayMap<String>> levelRoles = new LazyJson<>(GuildTransformer::decodeLevelRoles);
+    private final LazyJson<Map<String, Map<String, String>>> modules = new LazyJson<>(GuildTransformer::decodeModules);
+    private final LazyJson<List<ChannelTransformer>> channels = new LazyJson<>(this::decodeChannels);
+    private final LazyJson<LongArraySet> levelExemptChannels = new LazyJson<>(GuildTransformer::decodeLongSet);
+    private final LazyJson<LongArraySet> levelExemptRoles = new LazyJson<>(GuildTransformer::decodeLongSet);
 
     private final GuildTypeTransformer guildType;
     private boolean partner;
@@ -118,109 +121,16 @@ public class GuildTransformer extends Transformer {
                 partner = data.getBoolean("partner", false);
             }
 
-            if (data.getString("aliases", null) != null) {
-                HashMap<String, String> dbAliases = AvaIre.gson.fromJson(
-                    data.getString("aliases"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbAliases.entrySet()) {
-                    aliases.put(item.getKey().toLowerCase(), item.getValue());
-                }
-            }
-
-            if (data.getString("prefixes", null) != null) {
-                HashMap<String, String> dbPrefixes = AvaIre.gson.fromJson(
-                    data.getString("prefixes"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbPrefixes.entrySet()) {
-                    prefixes.put(item.getKey().toLowerCase(), item.getValue());
-                }
-            }
-
-            if (data.getString("claimable_roles", null) != null) {
-                HashMap<String, String> dbSelfAssignableRoles = AvaIre.gson.fromJson(
-                    data.getString("claimable_roles"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbSelfAssignableRoles.entrySet()) {
-                    selfAssignableRoles.put(item.getKey(), item.getValue().toLowerCase());
-                }
-            }
-
-            if (data.getString("level_roles", null) != null) {
-                HashMap<String, String> dbLevelRoles = AvaIre.gson.fromJson(
-                    data.getString("level_roles"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbLevelRoles.entrySet()) {
-                    levelRoles.put(NumberUtil.parseInt(item.getKey(), -1), item.getValue().toLowerCase());
-                }
-            }
-
-            if (data.getString("level_exempt_channels", null) != null) {
-                List<String> dbExemptExperienceChannels = AvaIre.gson.fromJson(
-                    data.getString("level_exempt_channels"),
-                    new TypeToken<List<String>>() {
-                    }.getType());
-
-                for (String channelId : dbExemptExperienceChannels) {
-                    try {
-                        levelExemptChannels.add(
-                            Long.parseLong(channelId)
-                        );
-                    } catch (NumberFormatException ignored) {
-                        //
-                    }
-                }
-            }
-
-            if (data.getString("level_exempt_roles", null) != null) {
-                List<String> dbExemptExperienceChannels = AvaIre.gson.fromJson(
-                    data.getString("level_exempt_roles"),
-                    new TypeToken<List<String>>() {
-                    }.getType());
-
-                for (String channelId : dbExemptExperienceChannels) {
-                    try {
-                        levelExemptRoles.add(
-                            Long.parseLong(channelId)
-                        );
-                    } catch (NumberFormatException ignored) {
-                        //
-                    }
-                }
-            }
-
-            if (data.getString("modules", null) != null) {
-                HashMap<String, Map<String, String>> dbModules = AvaIre.gson.fromJson(
-                    data.getString("modules"),
-                    new TypeToken<HashMap<String, Map<String, String>>>() {
-                    }.getType());
-
-                for (Map.Entry<String, Map<String, String>> item : dbModules.entrySet()) {
-                    modules.put(item.getKey(), item.getValue());
-                }
-            }
-
-            if (data.getString("channels", null) != null) {
-                HashMap<String, Object> dbChannels = AvaIre.gson.fromJson(
-                    data.getString("channels"),
-                    new TypeToken<HashMap<String, Object>>() {
-                    }.getType());
-
-                for (Map.Entry<String, Object> item : dbChannels.entrySet()) {
-                    // noinspection unchecked
-                    LinkedTreeMap<String, Object> value = (LinkedTreeMap<String, Object>) item.getValue();
-                    value.put("id", item.getKey());
-
-                    channels.add(new ChannelTransformer(new DataRow(value), this));
-                }
-            }
+            // The JSON columns are only decoded the first time they're used, so loading
+            // a guild that is only used for its prefix doesn't pay for the rest.
+            aliases.setJson(data.getString("aliases", null));
+            prefixes.setJson(data.getString("prefixes", null));
+            selfAssignableRoles.setJson(data.getString("claimable_roles", null));
+            levelRoles.setJson(data.getString("level_roles", null));
+            levelExemptChannels.setJson(data.getString("level_exempt_channels", null));
+            levelExemptRoles.setJson(data.getString("level_exempt_roles", null));
+            modules.setJson(data.getString("modules", null));
+            channels.setJson(data.getString("channels", null));
         }
 
         guildType = partner ? partnerTypeTransformer : new GuildTypeTransformer(data);
@@ -284,8 +194,8 @@ public class GuildTransformer extends Transformer {
         this.levelChannel = levelChannel;
     }
 
-    public Map<Integer, String> getLevelRoles() {
-        return levelRoles;
+    public IntArrayMap<String> getLevelRoles() {
+        return levelRoles.get();
     }
 
     public double getLevelModifier() {
@@ -296,12 +206,12 @@ public class GuildTransformer extends Transformer {
         this.levelModifier = levelModifier;
     }
 
-    public Set<Long> getLevelExemptChannels() {
-        return levelExemptChannels;
+    public LongArraySet getLevelExemptChannels() {
+        return levelExemptChannels.get();
     }
 
-    public Set<Long> getLevelExemptRoles() {
-        return levelExemptRoles;
+    public LongArraySet getLevelExemptRoles() {
+        return levelExemptRoles.get();
     }
 
     public String getAutorole() {
@@ -361,23 +271,23 @@ public class GuildTransformer extends Transformer {
     }
 
     public Map<String, String> getSelfAssignableRoles() {
-        return selfAssignableRoles;
+        return selfAssignableRoles.get();
     }
 
     public Map<String, String> getPrefixes() {
-        return prefixes;
+        return prefixes.get();
     }
 
     public Map<String, String> getAliases() {
-        return aliases;
+        return aliases.get();
     }
 
     public List<ChannelTransformer> getChannels() {
-        return channels;
+        return channels.get();
     }
 
     public Map<String, Map<String, String>> getCategories() {
-        return modules;
+        return modules.get();
     }
 
     public String getDjRole() {
@@ -418,7 +328,7 @@ public class GuildTransformer extends Transformer {
 
     @CheckReturnValue
     public ChannelTransformer getChannel(String id, boolean createIfDontExists) {
-        for (ChannelTransformer channel : channels) {
+        for (ChannelTransformer channel : getChannels()) {
             if (channel.getId().equals(id)) {
                 return channel;
             }
@@ -444,7 +354,7 @@ public class GuildTransformer extends Transformer {
 
         HashMap<String, Object> data = new HashMap<>();
         data.put("id", channelId);
-        channels.add(new ChannelTransformer(new DataRow(data), this));
+        getChannels().add(new ChannelTransformer(new DataRow(data), this));
 
         return true;
     }
@@ -455,14 +365,131 @@ public class GuildTransformer extends Transformer {
 
     public String channelsToJson() {
         Map<String, Object> objects = new HashMap<>();
-        if (channels.isEmpty()) {
+        if (getChannels().isEmpty()) {
             return null;
         }
 
-        for (ChannelTransformer transformer : channels) {
+        for (ChannelTransformer transformer : getChannels()) {
             objects.put(transformer.getId(), transformer.toMap());
         }
 
         return AvaIre.gson.toJson(objects);
     }
+
+    private static Map<String, String> decodeStringMap(String json, boolean lowercaseKeys, boolean lowercaseValues) {
+        if (json == null) {
+            return new HashMap<>();
+        }
+
+        HashMap<String, String> items = AvaIre.gson.fromJson(json, new TypeToken<HashMap<String, String>>() {
+        }.getType());
+
+        Map<String, String> decoded = new HashMap<>();
+        for (Map.Entry<String, String> item : items.entrySet()) {
+            decoded.put(
+                lowercaseKeys ? item.getKey().toLowerCase() : item.getKey(),
+                lowercaseValues ? item.getValue().toLowerCase() : item.getValue()
+            );
+        }
+        return decoded;
+    }
+
+    private static IntArrayMap<String> decodeLevelRoles(String json) {
+        IntArrayMap<String> decoded = new IntArrayMap<>();
+        if (json == null) {
+            return decoded;
+        }
+
+        HashMap<String, String> items = AvaIre.gson.fromJson(json, new TypeToken<HashMap<String, String>>() {
+        }.getType());
+
+        for (Map.Entry<String, String> item : items.entrySet()) {
+            decoded.put(NumberUtil.parseInt(item.getKey(), -1), item.getValue().toLowerCase());
+        }
+        return decoded;
+    }
+
+    private static LongArraySet decodeLongSet(String json) {
+        if (json == null) {
+            return new LongArraySet();
+        }
+
+        List<String> items = AvaIre.gson.fromJson(json, new TypeToken<List<String>>() {
+        }.getType());
+
+        LongArraySet decoded = new LongArraySet();
+        for (String item : items) {
+            try {
+                decoded.add(Long.parseLong(item));
+            } catch (NumberFormatException ignored) {
+                //
+            }
+        }
+        return decoded;
+    }
+
+    private static Map<String, Map<String, String>> decodeModules(String json) {
+        if (json == null) {
+            return new HashMap<>();
+        }
+
+        return AvaIre.gson.fromJson(json, new TypeToken<HashMap<String, Map<String, String>>>() {
+        }.getType());
+    }
+
+    private List<ChannelTransformer> decodeChannels(String json) {
+        List<ChannelTransformer> decoded = new ArrayList<>();
+        if (json == null) {
+            return decoded;
+        }
+
+        HashMap<String, Object> items = AvaIre.gson.fromJson(json, new TypeToken<HashMap<String, Object>>() {
+        }.getType());
+
+        for (Map.Entry<String, Object> item : items.entrySet()) {
+            // noinspection unchecked
+            LinkedTreeMap<String, Object> value = (LinkedTreeMap<String, Object>) item.getValue();
+            value.put("id", item.getKey());
+
+            decoded.add(new ChannelTransformer(new DataRow(value), this));
+        }
+        return decoded;
+    }
+
+    /**
+     * A value decoded from a JSON column the first time it's used, the raw
+     * JSON is released once it has been decoded, so only one of the
+     * two is ever kept in memory for the cached guild.
+     *
+     * @param <T> The type of value the JSON is decoded into.
+     */
+    private static final class LazyJson<T> {
+
+        private final Function<String, T> decoder;
+        private volatile String json;
+        private volatile T value;
+
+        LazyJson(Function<String, T> decoder) {
+            this.decoder = decoder;
+        }
+
+        void setJson(String json) {
+            this.json = json;
+        }
+
+        T get() {
+            T value = this.value;
+            if (value != null) {
+                return value;
+            }
+
+            synchronized (this) {
+                if (this.value == null) {
+                    this.value = decoder.apply(json);
+                    this.json = null;
+                }
+                return this.value;
+            }
+        }
+    }
 }
@@ -28,10 +28,17 @@ import com.avairebot.audio.seracher.SearchProvider;
 import com.avairebot.contracts.database.transformers.Transformer;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.exceptions.InvalidStateException;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
 
+import java.io.*;
+import java.util.*;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
 public class SearchResultTransformer extends Transformer {
 
     private SearchProvider provider;
@@ -50,13 +57,16 @@ public class SearchResultTransformer extends Transformer {
         if (hasData()) {
             provider = SearchProvider.fromId(data.getInt("provider", -1));
             query = data.getString("query");
-            serializableAudioPlaylist = AvaIre.gson.fromJson(
-                data.getString("result"), new TypeToken<SerializableAudioPlaylist>() {
-                }.getType()
-            );
 
-            if (serializableAudioPlaylist == null) {
-                throw new InvalidStateException("The serializable audio playlist is null, this should not happen for cached results");
+            byte[] binaryResult = data.getBytes("data");
+            if (binaryResult != null) {
+                try {
+                    serializableAudioPlaylist = SerializableAudioPlaylist.fromBytes(binaryResult);
+                } catch (IOException e) {
+                    throw new InvalidStateException("Failed to decode the binary audio playlist for a cached result", e);
+                }
+            } else {
+                serializableAudioPlaylist = SerializableAudioPlaylist.fromJson(data.getString("result"));
             }
         }
     }
@@ -125,6 +135,21 @@ public class SearchResultTransformer extends Transformer {
 
     public static class SerializableAudioPlaylist {
 
+        /**
+         * The version of the binary format, written as the first byte of
+         * the encoded playlist, so the format can be changed later.
+         */
+        private static final byte binaryFormatVersion = 1;
+
+        /**
+         * The minimum size in bytes the encoded playlist must have before
+         * compression is attempted, smaller playlists rarely shrink.
+         */
+        private static final int compressionThreshold = 256;
+
+        private static final int searchResultFlag = 1;
+        private static final int compressedFlag = 1 << 1;
+
         private String name;
         private boolean isSearchResult;
         private byte[] selectedTrack;
@@ -134,7 +159,140 @@ public class SearchResultTransformer extends Transformer {
             this.name = playlist.getName();
             this.isSearchResult = playlist.isSearchResult();
             this.selectedTrack = AudioTrackSerializer.encodeTrack(playlist.getSelectedTrack());
-            this.tracks = AudioTrackSerializer.encodeTracks(playlist.getTracks());
+            this.tracks = AudioTrackSerializer.encodeTracks(getUniqueTracks(playlist.getTracks()));
+        }
+
+        private SerializableAudioPlaylist(String name, boolean isSearchResult, byte[] selectedTrack, byte[][] tracks) {
+            this.name = name;
+            this.isSearchResult = isSearchResult;
+            this.selectedTrack = selectedTrack;
+            this.tracks = tracks;
+        }
+
+        /**
+         * Creates a serializable audio playlist from the legacy JSON format.
+         *
+         * @param json The JSON encoded playlist.
+         * @return The serializable audio playlist.
+         * @throws InvalidStateException If the JSON doesn't hold a playlist.
+         */
+        public static SerializableAudioPlaylist fromJson(String json) {
+            SerializableAudioPlaylist playlist;
+            try {
+                playlist = AvaIre.gson.fromJson(json, new TypeToken<SerializableAudioPlaylist>() {
+                }.getType());
+            } catch (JsonParseException e) {
+                throw new InvalidStateException("Failed to parse the serializable audio playlist", e);
+            }
+
+            if (playlist == null) {
+                throw new InvalidStateException("The serializable audio playlist is null, this should not happen for cached results");
+            }
+            return playlist;
+        }
+
+        /**
+         * Creates a serializable audio playlist from the binary format
+         * created by the {@link #toBytes()} method.
+         *
+         * @param bytes The binary encoded playlist.
+         * @return The serializable audio playlist.
+         * @throws IOException If the bytes are not a valid binary encoded playlist.
+         */
+        public static SerializableAudioPlaylist fromBytes(byte[] bytes) throws IOException {
+            if (bytes.length < 2 || bytes[0] != binaryFormatVersion) {
+                throw new IOException("Unsupported binary audio playlist format");
+            }
+
+            InputStream payload = new ByteArrayInputStream(bytes, 2, bytes.length - 2);
+            if ((bytes[1] & compressedFlag) != 0) {
+                payload = new InflaterInputStream(payload);
+            }
+
+            try (DataInputStream input = new DataInputStream(payload)) {
+                String name = input.readBoolean() ? input.readUTF() : null;
+
+                byte[][] tracks = new byte[input.readInt()][];
+                int selectedIndex = input.readInt();
+
+                for (int i = 0; i < tracks.length; i++) {
+                    tracks[i] = readTrack(input);
+                }
+
+                byte[] selectedTrack = null;
+                if (selectedIndex == tracks.length) {
+                    selectedTrack = readTrack(input);
+                } else if (selectedIndex >= 0) {
+                    selectedTrack = tracks[selectedIndex];
+                }
+
+                return new SerializableAudioPlaylist(
+                    name, (bytes[1] & searchResultFlag) != 0, selectedTrack, tracks
+                );
+            }
+        }
+
+        /**
+         * Encodes the playlist into a compact binary format, the tracks are stored as
+         * the length prefixed bytes encoded by LavaPlayer, the selected track is
+         * stored as an index into the track list if it's part of the list,
+         * and the payload is deflated if that makes it any smaller.
+         *
+         * @return The binary encoded playlist.
+         */
+        public byte[] toBytes() {
+            byte[][] tracks = this.tracks == null ? new byte[0][] : this.tracks;
+
+            int selectedIndex = -1;
+            if (selectedTrack != null) {
+                selectedIndex = tracks.length;
+                for (int i = 0; i < tracks.length; i++) {
+                    if (Arrays.equals(tracks[i], selectedTrack)) {
+                        selectedIndex = i;
+                        break;
+                    }
+                }
+            }
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(body)) {
+                output.writeBoolean(name != null);
+                if (name != null) {
+                    output.writeUTF(name.length() > 1000 ? name.substring(0, 1000) : name);
+                }
+
+                output.writeInt(tracks.length);
+                output.writeInt(selectedIndex);
+
+                for (byte[] track : tracks) {
+                    writeTrack(output, track);
+                }
+
+                if (selectedIndex == tracks.length) {
+                    writeTrack(output, selectedTrack);
+                }
+            } catch (IOException e) {
+                // Will never be thrown since we're writing to a byte array.
+                throw new IllegalStateException(e);
+            }
+
+            int flags = isSearchResult ? searchResultFlag : 0;
+            byte[] payload = body.toByteArray();
+
+            if (payload.length >= compressionThreshold) {
+                byte[] compressed = compress(payload);
+                if (compressed.length < payload.length) {
+                    flags |= compressedFlag;
+                    payload = compressed;
+                }
+            }
+
+            byte[] encoded = new byte[payload.length + 2];
+            encoded[0] = binaryFormatVersion;
+            encoded[1] = (byte) flags;
+            System.arraycopy(payload, 0, encoded, 2, payload.length);
+
+            return encoded;
         }
 
         public String getName() {
@@ -157,5 +315,40 @@ public class SearchResultTransformer extends Transformer {
         public String toString() {
             return AvaIre.gson.toJson(this);
         }
+
+        private static List<AudioTrack> getUniqueTracks(List<AudioTrack> tracks) {
+            Set<String> identifiers = new HashSet<>();
+
+            List<AudioTrack> uniqueTracks = new ArrayList<>(tracks.size());
+            for (AudioTrack track : tracks) {
+                if (identifiers.add(track.getIdentifier())) {
+                    uniqueTracks.add(track);
+                }
+            }
+            return uniqueTracks;
+        }
+
+        private static void writeTrack(DataOutputStream output, byte[] track) throws IOException {
+            output.writeInt(track.length);
+            output.write(track);
+        }
+
+        private static byte[] readTrack(DataInputStream input) throws IOException {
+            byte[] track = new byte[input.readInt()];
+            input.readFully(track);
+
+            return track;
+        }
+
+        private static byte[] compress(byte[] payload) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(payload.length);
+            try (DeflaterOutputStream output = new DeflaterOutputStream(compressed)) {
+                output.write(payload);
+            } catch (IOException e) {
+                // Will never be thrown since we're writing to a byte array.
+                throw new IllegalStateException(e);
+            }
+            return compressed.toByteArray();
+        }
     }
 }
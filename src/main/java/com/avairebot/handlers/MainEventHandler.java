@@ -97,6 +97,7 @@ public class MainEventHandler extends EventHandler {
     @Override
     public void onReady(ReadyEvent event) {
         jdaStateEventAdapter.onConnectToShard(event.getJDA());
+        avaire.getGuildPreloader().preload(event.getJDA());
     }
 
     @Override
@@ -166,6 +167,7 @@ public class MainEventHandler extends EventHandler {
     public void onGuildMemberLeave(GuildMemberLeaveEvent event) {
         if (!avaire.getSettings().isMusicOnlyMode()) {
             memberEvent.onGuildMemberLeave(event);
+            PlayerController.forgetCache(event.getGuild().getIdLong(), event.getUser().getIdLong());
         }
     }
 
@@ -232,6 +234,7 @@ public class MainEventHandler extends EventHandler {
     public void onUserUpdateDiscriminator(UserUpdateDiscriminatorEvent event) {
         if (!avaire.getSettings().isMusicOnlyMode()) {
             PlayerController.updateUserData(event.getUser());
+            PlayerController.forgetCache(event.getUser().getIdLong());
         }
     }
 
@@ -239,6 +242,7 @@ public class MainEventHandler extends EventHandler {
     public void onUserUpdateAvatar(UserUpdateAvatarEvent event) {
         if (!avaire.getSettings().isMusicOnlyMode()) {
             PlayerController.updateUserData(event.getUser());
+            PlayerController.forgetCache(event.getUser().getIdLong());
         }
     }
 
@@ -246,6 +250,7 @@ public class MainEventHandler extends EventHandler {
     public void onUserUpdateName(UserUpdateNameEvent event) {
         if (!avaire.getSettings().isMusicOnlyMode()) {
             PlayerController.updateUserData(event.getUser());
+            PlayerController.forgetCache(event.getUser().getIdLong());
         }
     }
 
@@ -108,16 +108,7 @@ public class ChannelEventAdapter extends EventAdapter {
     }
 
     public void updateChannelData(Guild guild) {
-        try {
-            avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
-                .useAsync(true)
-                .where("id", guild.getId())
-                .update(statement -> {
-                    statement.set("channels_data", GuildController.buildChannelData(guild.getTextChannels()), true);
-                });
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        GuildController.queueMetadataWrite(guild, GuildController.MetadataColumn.CHANNELS);
     }
 
     private void setDatabaseColumnToNull(String guildId, String column) {
@@ -26,13 +26,13 @@ import com.avairebot.AvaIre;
 import com.avairebot.Constants;
 import com.avairebot.commands.CommandContainer;
 import com.avairebot.commands.CommandHandler;
+import com.avairebot.commands.executor.CommandExecutor;
 import com.avairebot.commands.help.HelpCommand;
 import com.avairebot.contracts.handlers.EventAdapter;
-import com.avairebot.database.collection.Collection;
-import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.controllers.GuildController;
 import com.avairebot.database.controllers.PlayerController;
 import com.avairebot.database.controllers.ReactionController;
+import com.avairebot.database.controllers.ReactionIndex;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.transformers.ChannelTransformer;
 import com.avairebot.database.transformers.GuildTransformer;
@@ -43,7 +43,6 @@ import com.avairebot.middleware.MiddlewareStack;
 import com.avairebot.shared.DiscordConstants;
 import com.avairebot.utilities.ArrayUtil;
 import com.avairebot.utilities.RestActionUtil;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import net.dv8tion.jda.core.entities.TextChannel;
 import net.dv8tion.jda.core.entities.User;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
@@ -55,9 +54,6 @@ import java.awt.*;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
@@ -65,12 +61,6 @@ public class MessageEventAdapter extends EventAdapter {
 
     public static final Set<Long> hasReceivedInfoMessageInTheLastMinute = new HashSet<>();
 
-    private static final ExecutorService commandService = Executors.newCachedThreadPool(
-        new ThreadFactoryBuilder()
-            .setNameFormat("avaire-command-thread-%d")
-            .build()
-    );
-
     private static final Logger log = LoggerFactory.getLogger(MessageEventAdapter.class);
     private static final Pattern userRegEX = Pattern.compile("<@(!|)+[0-9]{16,}+>", Pattern.CASE_INSENSITIVE);
     private static final String mentionMessage = String.join("\n", Arrays.asList(
@@ -86,6 +76,8 @@ public class MessageEventAdapter extends EventAdapter {
         "https://discordbots.org/bot/avaire/vote"
     ));
 
+    private final CommandExecutor commandExecutor;
+
     /**
      * Instantiates the event adapter and sets the avaire class instance.
      *
@@ -93,6 +85,18 @@ public class MessageEventAdapter extends EventAdapter {
      */
     public MessageEventAdapter(AvaIre avaire) {
         super(avaire);
+
+        this.commandExecutor = new CommandExecutor(avaire.getConfig());
+    }
+
+    /**
+     * Gets the command executor used to run commands, and load
+     * the database properties for messages that are received.
+     *
+     * @return The command executor.
+     */
+    public CommandExecutor getCommandExecutor() {
+        return commandExecutor;
     }
 
     public void onMessageReceived(MessageReceivedEvent event) {
@@ -108,51 +112,95 @@ public class MessageEventAdapter extends EventAdapter {
             return;
         }
 
-        loadDatabasePropertiesIntoMemory(event).thenAccept(databaseEventHolder -> {
-            if (databaseEventHolder.getGuild() != null && databaseEventHolder.getPlayer() != null) {
-                avaire.getLevelManager().rewardPlayer(event, databaseEventHolder.getGuild(), databaseEventHolder.getPlayer());
+        if (!event.getChannelType().isGuild()) {
+            executeEvent(event, () -> handleMessage(event, loadDatabasePropertiesIntoMemory(event)));
+            return;
+        }
+
+        GuildTransformer guild = GuildController.getCachedGuild(event.getGuild());
+        if (guild == null) {
+            executeEvent(event, () -> handleMessage(event, loadDatabasePropertiesIntoMemory(event)));
+            return;
+        }
+
+        // The guild is already in memory, so we can cheaply check if the message could
+        // be a command, or reward the author experience before we hand the message
+        // off, allowing us to drop most regular chat messages right here.
+        if (!avaire.getLevelManager().canReceiveExperience(event, guild)
+            && !CommandHandler.isPossibleCommand(event.getMessage().getContentRaw(), guild)) {
+            return;
+        }
+
+        executeEvent(event, () -> {
+            if (!guild.isLevels() || event.getAuthor().isBot()) {
+                handleMessage(event, new DatabaseEventHolder(guild, null));
+            } else {
+                handleMessage(event, new DatabaseEventHolder(guild, PlayerController.fetchPlayer(avaire, event.getMessage())));
             }
+        });
+    }
+
+    private void handleMessage(MessageReceivedEvent event, DatabaseEventHolder databaseEventHolder) {
+        if (databaseEventHolder.getGuild() != null && databaseEventHolder.getPlayer() != null) {
+            avaire.getLevelManager().rewardPlayer(event, databaseEventHolder.getGuild(), databaseEventHolder.getPlayer());
+        }
 
-            CommandContainer container = CommandHandler.getCommand(avaire, event.getMessage(), event.getMessage().getContentRaw());
+        CommandContainer container = CommandHandler.getCommand(avaire, event.getMessage(), event.getMessage().getContentRaw());
+        if (container != null && canExecuteCommand(event, container)) {
+            invokeMiddlewareStack(event, new MiddlewareStack(event.getMessage(), container, databaseEventHolder));
+            return;
+        }
+
+        if (isMentionableAction(event)) {
+            container = CommandHandler.getLazyCommand(ArrayUtil.toArguments(event.getMessage().getContentRaw())[1]);
             if (container != null && canExecuteCommand(event, container)) {
-                invokeMiddlewareStack(new MiddlewareStack(event.getMessage(), container, databaseEventHolder));
+                invokeMiddlewareStack(event, new MiddlewareStack(event.getMessage(), container, databaseEventHolder, true));
                 return;
             }
 
-            if (isMentionableAction(event)) {
-                container = CommandHandler.getLazyCommand(ArrayUtil.toArguments(event.getMessage().getContentRaw())[1]);
-                if (container != null && canExecuteCommand(event, container)) {
-                    invokeMiddlewareStack(new MiddlewareStack(event.getMessage(), container, databaseEventHolder, true));
-                    return;
-                }
-
-                if (avaire.getIntelligenceManager().isEnabled()) {
-                    if (isAIEnabledForChannel(event, databaseEventHolder.getGuild())) {
-                        avaire.getIntelligenceManager().handleRequest(
-                            event.getMessage(), databaseEventHolder
-                        );
-                    }
-                    return;
+            if (avaire.getIntelligenceManager().isEnabled()) {
+                if (isAIEnabledForChannel(event, databaseEventHolder.getGuild())) {
+                    avaire.getIntelligenceManager().handleRequest(
+                        event.getMessage(), databaseEventHolder
+                    );
                 }
-            }
-
-            if (isSingleBotMention(event.getMessage().getContentRaw().trim())) {
-                sendTagInformationMessage(event);
                 return;
             }
+        }
 
-            if (!event.getChannelType().isGuild()) {
-                sendInformationMessage(event);
-            }
-        });
+        if (isSingleBotMention(event.getMessage().getContentRaw().trim())) {
+            sendTagInformationMessage(event);
+            return;
+        }
+
+        if (!event.getChannelType().isGuild()) {
+            sendInformationMessage(event);
+        }
     }
 
     private boolean isValidMessage(User author) {
         return !author.isBot() || author.getIdLong() == DiscordConstants.SENITHER_BOT_ID;
     }
 
-    private void invokeMiddlewareStack(MiddlewareStack stack) {
-        commandService.submit(stack::next);
+    private void executeEvent(MessageReceivedEvent event, Runnable task) {
+        if (!commandExecutor.execute(CommandExecutor.EVENTS_POOL, getFairnessKey(event), task)) {
+            log.debug("The events pool is full, dropping message from user(ID: {})", event.getAuthor().getId());
+        }
+    }
+
+    private void invokeMiddlewareStack(MessageReceivedEvent event, MiddlewareStack stack) {
+        if (commandExecutor.execute(stack.getCommandContainer(), getFairnessKey(event), stack::next)) {
+            return;
+        }
+
+        MessageFactory.makeWarning(event.getMessage(), "I'm a bit busy right now, please try again in a few seconds.")
+            .queue(message -> message.delete().queueAfter(15, TimeUnit.SECONDS, null, RestActionUtil.ignore), RestActionUtil.ignore);
+    }
+
+    private long getFairnessKey(MessageReceivedEvent event) {
+        return event.getChannelType().isGuild()
+            ? event.getGuild().getIdLong()
+            : event.getAuthor().getIdLong();
     }
 
     private boolean canExecuteCommand(MessageReceivedEvent event, CommandContainer container) {
@@ -254,33 +302,29 @@ public class MessageEventAdapter extends EventAdapter {
         }
     }
 
-    private CompletableFuture<DatabaseEventHolder> loadDatabasePropertiesIntoMemory(final MessageReceivedEvent event) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (!event.getChannelType().isGuild()) {
-                return new DatabaseEventHolder(null, null);
-            }
+    private DatabaseEventHolder loadDatabasePropertiesIntoMemory(final MessageReceivedEvent event) {
+        if (!event.getChannelType().isGuild()) {
+            return new DatabaseEventHolder(null, null);
+        }
 
-            GuildTransformer guild = GuildController.fetchGuild(avaire, event.getMessage());
+        GuildTransformer guild = GuildController.fetchGuild(avaire, event.getMessage());
 
-            if (guild == null || !guild.isLevels() || event.getAuthor().isBot()) {
-                return new DatabaseEventHolder(guild, null);
-            }
-            return new DatabaseEventHolder(guild, PlayerController.fetchPlayer(avaire, event.getMessage()));
-        });
+        if (guild == null || !guild.isLevels() || event.getAuthor().isBot()) {
+            return new DatabaseEventHolder(guild, null);
+        }
+        return new DatabaseEventHolder(guild, PlayerController.fetchPlayer(avaire, event.getMessage()));
     }
 
     public void onMessageDelete(TextChannel channel, List<String> messageIds) {
-        Collection reactions = ReactionController.fetchReactions(avaire, channel.getGuild());
-        if (reactions == null || reactions.isEmpty()) {
+        ReactionIndex reactions = ReactionController.fetchReactionIndex(avaire, channel.getGuild());
+        if (reactions.isEmpty()) {
             return;
         }
 
         List<String> removedReactionMessageIds = new ArrayList<>();
-        for (DataRow row : reactions) {
-            for (String messageId : messageIds) {
-                if (Objects.equals(row.getString("message_id"), messageId)) {
-                    removedReactionMessageIds.add(messageId);
-                }
+        for (String messageId : messageIds) {
+            if (reactions.contains(Long.parseLong(messageId))) {
+                removedReactionMessageIds.add(messageId);
             }
         }
 
@@ -307,12 +351,7 @@ public class MessageEventAdapter extends EventAdapter {
     }
 
     public void onMessageUpdate(MessageUpdateEvent event) {
-        Collection reactions = ReactionController.fetchReactions(avaire, event.getGuild());
-        if (reactions == null) {
-            return;
-        }
-
-        if (reactions.where("message_id", event.getMessage().getId()).isEmpty()) {
+        if (!ReactionController.fetchReactionIndex(avaire, event.getGuild()).contains(event.getMessageIdLong())) {
             return;
         }
 
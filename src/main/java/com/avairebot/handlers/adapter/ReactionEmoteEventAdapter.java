@@ -41,7 +41,6 @@ import net.dv8tion.jda.core.events.message.react.MessageReactionRemoveEvent;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.sql.SQLException;
-import java.util.List;
 
 public class ReactionEmoteEventAdapter extends EventAdapter {
 
@@ -90,20 +89,23 @@ public class ReactionEmoteEventAdapter extends EventAdapter {
 
     @SuppressWarnings("ConstantConditions")
     public void onMessageReactionAdd(MessageReactionAddEvent event) {
-        ReactionTransformer transformer = getReactionTransformerFromMessageIdAndCheckPermissions(
-            event.getGuild(), event.getMessageId(), event.getReactionEmote().getEmote().getIdLong()
+        Role role = getRoleFromReactionAndCheckPermissions(
+            event.getGuild(), event.getMessageIdLong(), event.getReactionEmote().getEmote().getIdLong()
         );
 
-        if (transformer == null) {
+        if (role == null) {
             return;
         }
 
-        Role role = event.getGuild().getRoleById(transformer.getRoleIdFromEmote(event.getReactionEmote().getEmote()));
-        if (role == null) {
+        if (!event.getGuild().getSelfMember().canInteract(role)) {
             return;
         }
 
-        if (RoleUtil.hasRole(event.getMember(), role) || !event.getGuild().getSelfMember().canInteract(role)) {
+        // Skips the action if the member already has the role, unless there is a pending
+        // action for the role, since the pending action might be removing the role.
+        if (RoleUtil.hasRole(event.getMember(), role) && !DrainReactionRoleQueueTask.hasPendingAction(
+            event.getGuild().getIdLong(), event.getMember().getUser().getIdLong(), role.getIdLong()
+        )) {
             return;
         }
 
@@ -117,20 +119,23 @@ public class ReactionEmoteEventAdapter extends EventAdapter {
 
     @SuppressWarnings("ConstantConditions")
     public void onMessageReactionRemove(MessageReactionRemoveEvent event) {
-        ReactionTransformer transformer = getReactionTransformerFromMessageIdAndCheckPermissions(
-            event.getGuild(), event.getMessageId(), event.getReactionEmote().getEmote().getIdLong()
+        Role role = getRoleFromReactionAndCheckPermissions(
+            event.getGuild(), event.getMessageIdLong(), event.getReactionEmote().getEmote().getIdLong()
         );
 
-        if (transformer == null) {
+        if (role == null) {
             return;
         }
 
-        Role role = event.getGuild().getRoleById(transformer.getRoleIdFromEmote(event.getReactionEmote().getEmote()));
-        if (role == null) {
+        if (!event.getGuild().getSelfMember().canInteract(role)) {
             return;
         }
 
-        if (!RoleUtil.hasRole(event.getMember(), role) || !event.getGuild().getSelfMember().canInteract(role)) {
+        // Skips the action if the member doesn't have the role, unless there is a pending
+        // action for the role, since the pending action might be adding the role.
+        if (!RoleUtil.hasRole(event.getMember(), role) && !DrainReactionRoleQueueTask.hasPendingAction(
+            event.getGuild().getIdLong(), event.getMember().getUser().getIdLong(), role.getIdLong()
+        )) {
             return;
         }
 
@@ -142,34 +147,17 @@ public class ReactionEmoteEventAdapter extends EventAdapter {
         ));
     }
 
-    private ReactionTransformer getReactionTransformerFromMessageIdAndCheckPermissions(@Nonnull Guild guild, @Nonnull String messageId, long emoteId) {
-        if (!hasPermission(guild)) {
-            return null;
-        }
-
-        Collection collection = ReactionController.fetchReactions(avaire, guild);
-        if (collection == null || collection.isEmpty()) {
-            return null;
-        }
-
-        ReactionTransformer transformer = getReactionTransformerFromId(collection, messageId);
-        if (transformer == null || !transformer.getRoles().containsKey(emoteId)) {
+    @Nullable
+    private Role getRoleFromReactionAndCheckPermissions(@Nonnull Guild guild, long messageId, long emoteId) {
+        long roleId = ReactionController.fetchReactionIndex(avaire, guild).getRoleId(messageId, emoteId);
+        if (roleId == -1L || !hasPermission(guild)) {
             return null;
         }
-        return transformer;
+        return guild.getRoleById(roleId);
     }
 
     private boolean hasPermission(Guild guild) {
         return guild.getSelfMember().hasPermission(Permission.ADMINISTRATOR)
             || guild.getSelfMember().hasPermission(Permission.MANAGE_ROLES);
     }
-
-    @Nullable
-    private ReactionTransformer getReactionTransformerFromId(@Nonnull Collection collection, @Nonnull String messageId) {
-        List<DataRow> messages = collection.where("message_id", messageId);
-        if (messages.isEmpty()) {
-            return null;
-        }
-        return new ReactionTransformer(messages.get(0));
-    }
 }
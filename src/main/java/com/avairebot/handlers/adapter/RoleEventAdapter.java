@@ -173,17 +173,7 @@ public class RoleEventAdapter extends EventAdapter {
         }
     }
 
-
     public void updateRoleData(Guild guild) {
-        try {
-            avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
-                .useAsync(true)
-                .where("id", guild.getId())
-                .update(statement -> {
-                    statement.set("roles_data", GuildController.buildRoleData(guild.getRoles()), true);
-                });
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        GuildController.queueMetadataWrite(guild, GuildController.MetadataColumn.ROLES);
     }
 }
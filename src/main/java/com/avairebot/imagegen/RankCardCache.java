@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.imagegen;
+
+import com.avairebot.AvaIre;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import javax.annotation.Nonnull;
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the decoded images and finished renders used by the rank cards, so the
+ * background files and avatars are only decoded and scaled once, and rank
+ * cards that are requested again with the same values can be served
+ * straight from memory without rendering them again.
+ */
+public final class RankCardCache {
+
+    /**
+     * The finished rank card PNGs, keyed by every value that is drawn onto
+     * the card, the cache is bounded by the total size of the images.
+     */
+    public static final Cache<String, byte[]> renders = CacheBuilder.newBuilder()
+        .recordStats()
+        .maximumWeight(32 * 1024 * 1024)
+        .weigher((String key, byte[] value) -> value.length)
+        .expireAfterWrite(10, TimeUnit.MINUTES)
+        .build();
+
+    /**
+     * The decoded avatars scaled to the size used on the rank card, keyed by the
+     * avatar URL, which includes the avatar hash, so changed avatars will
+     * always result in a new cache entry.
+     */
+    public static final Cache<String, BufferedImage> avatars = CacheBuilder.newBuilder()
+        .recordStats()
+        .maximumSize(512)
+        .expireAfterAccess(30, TimeUnit.MINUTES)
+        .build();
+
+    /**
+     * The decoded backgrounds scaled to the size of the rank card, mapped by
+     * their file names, there is only a handful of backgrounds so they're
+     * kept in memory for as long as the bot is running.
+     */
+    private static final Map<String, BufferedImage> backgrounds = new ConcurrentHashMap<>();
+
+    private RankCardCache() {
+        // This class should never be instantiated.
+    }
+
+    /**
+     * Gets the finished rank card for the given key, if the card isn't cached
+     * the loader will be used to render it, concurrent requests for the
+     * same card will wait for the first render to finish.
+     *
+     * @param key    The key that uniquely identifies the rank card.
+     * @param loader The loader used to render the card if it's not cached.
+     * @return The rank card as a PNG image.
+     * @throws IOException Thrown if the loader fails to render the card.
+     */
+    public static byte[] getRender(@Nonnull String key, @Nonnull Callable<byte[]> loader) throws IOException {
+        return get(renders, key, loader);
+    }
+
+    /**
+     * Gets the decoded avatar for the given avatar URL, scaled to the given size.
+     *
+     * @param avatarUrl The URL for the avatar that should be returned.
+     * @param size      The width and height the avatar should be scaled to.
+     * @return The decoded and scaled avatar image.
+     * @throws IOException Thrown if the avatar fails to download or decode.
+     */
+    public static BufferedImage getAvatar(@Nonnull String avatarUrl, int size) throws IOException {
+        return get(avatars, avatarUrl, () -> scale(read(new ByteArrayInputStream(
+            AvaIre.getInstance().getAssetCache().getBytes(avatarUrl)
+        )), size, size));
+    }
+
+    /**
+     * Gets the decoded background image for the given rank
+     * background, scaled to the given width and height.
+     *
+     * @param background The rank background the image should be returned for.
+     * @param width      The width the image should be scaled to.
+     * @param height     The height the image should be scaled to.
+     * @return The decoded and scaled background image.
+     * @throws IOException Thrown if the background image fails to load.
+     */
+    public static BufferedImage getBackground(@Nonnull RankBackground background, int width, int height) throws IOException {
+        BufferedImage image = backgrounds.get(background.getBackgroundFile());
+        if (image != null) {
+            return image;
+        }
+
+        try (FileInputStream stream = new FileInputStream("backgrounds/" + background.getBackgroundFile())) {
+            image = scale(read(stream), width, height);
+        }
+
+        BufferedImage existing = backgrounds.putIfAbsent(background.getBackgroundFile(), image);
+        return existing == null ? image : existing;
+    }
+
+    /**
+     * Invalidates all the cached images and renders.
+     */
+    public static void invalidateAll() {
+        renders.invalidateAll();
+        avatars.invalidateAll();
+        backgrounds.clear();
+    }
+
+    private static <T> T get(Cache<String, T> cache, String key, Callable<T> loader) throws IOException {
+        try {
+            return cache.get(key, loader);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static BufferedImage read(InputStream stream) throws IOException {
+        BufferedImage image = ImageIO.read(stream);
+        if (image == null) {
+            throw new IOException("The image is in an unsupported format");
+        }
+        return image;
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        Image scaledInstance = image.getScaledInstance(width, height, Image.SCALE_SMOOTH);
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.drawImage(scaledInstance, 0, 0, null);
+        graphics.dispose();
+
+        return scaled;
+    }
+}
@@ -22,8 +22,10 @@
 package com.avairebot.imagegen.renders;
 
 import com.avairebot.contracts.imagegen.Renderer;
+import com.avairebot.exceptions.RenderNotReadyYetException;
 import com.avairebot.imagegen.Fonts;
 import com.avairebot.imagegen.RankBackground;
+import com.avairebot.imagegen.RankCardCache;
 import net.dv8tion.jda.core.entities.User;
 
 import javax.annotation.Nonnull;
@@ -31,14 +33,30 @@ import javax.annotation.Nullable;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.FileInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.net.URL;
-import java.net.URLConnection;
 
 @SuppressWarnings("FieldCanBeLocal")
 public class RankBackgroundRender extends Renderer {
 
+    private static final int width = 600;
+    private static final int height = 200;
+
+    private static final Font usernameFont = Fonts.bold.deriveFont(Font.PLAIN, 26F);
+    private static final Font discriminatorFont = Fonts.medium.deriveFont(Font.PLAIN, 17F);
+    private static final Font xpBarFont = Fonts.medium.deriveFont(Font.PLAIN, 20F);
+    private static final Font labelFont = Fonts.medium.deriveFont(Font.PLAIN, 28F);
+    private static final Font valueFont = Fonts.extraBold.deriveFont(Font.PLAIN, 48F);
+    private static final Font experienceLabelFont = Fonts.medium.deriveFont(Font.PLAIN, 26F);
+    private static final Font experienceValueFont = Fonts.regular.deriveFont(Font.PLAIN, 24F);
+
+    /**
+     * The image and output buffers used for rendering rank cards to bytes, each
+     * thread gets its own buffers, since rank cards are only rendered by the
+     * bounded image command pool, this keeps the amount of buffers bounded.
+     */
+    private static final ThreadLocal<RenderBuffer> buffers = ThreadLocal.withInitial(RenderBuffer::new);
+
     private final int xpBarLength = 420;
     private final int startingX = 145;
     private final int startingY = 35;
@@ -185,62 +203,98 @@ public class RankBackgroundRender extends Renderer {
             && percentage > -1;
     }
 
+    @Override
+    public byte[] renderToBytes() throws IOException {
+        if (!canRender()) {
+            throw new RenderNotReadyYetException("One or more required arguments for the renderer have not been setup yet.");
+        }
+
+        return RankCardCache.getRender(getCacheKey(), () -> {
+            RenderBuffer buffer = buffers.get();
+
+            draw(buffer.image);
+
+            buffer.output.reset();
+            ImageIO.write(buffer.image, "png", buffer.output);
+
+            return buffer.output.toByteArray();
+        });
+    }
+
     @Override
     protected BufferedImage handleRender() throws IOException {
-        URL url = new URL(avatarUrl);
-        URLConnection urlConnection = url.openConnection();
-        urlConnection.setRequestProperty("User-Agent", "AvaIre-Discord-Bot");
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
 
-        final String xpBarText = String.format("%s out of %s xp", currentXpInLevel, totalXpInLevel);
+        draw(image);
 
-        BufferedImage backgroundImage = loadAndBuildBackground();
+        return image;
+    }
+
+    /**
+     * Draws the rank card onto the given image, replacing all of its
+     * existing content, so the same image can be drawn onto again.
+     *
+     * @param image The image the rank card should be drawn onto.
+     * @throws IOException Thrown if the background or avatar fails to load.
+     */
+    private void draw(BufferedImage image) throws IOException {
+        final String xpBarText = String.format("%s out of %s xp", currentXpInLevel, totalXpInLevel);
 
         // Creates our graphics and prepares it for use.
-        Graphics2D graphics = backgroundImage.createGraphics();
+        Graphics2D graphics = image.createGraphics();
         graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
-        if (background.getBackgroundColors().getBackgroundCoverColor() != null) {
-            graphics.setColor(background.getBackgroundColors().getBackgroundCoverColor());
-            graphics.fillRect(17, 8, 566, 184);
-        }
+        try {
+            createBackground(graphics);
 
-        // Draws the avatar image on top of the background.
-        graphics.drawImage(resize(ImageIO.read(urlConnection.getInputStream()), 95, 95), 25, 15, null);
+            if (background.getBackgroundColors().getBackgroundCoverColor() != null) {
+                graphics.setColor(background.getBackgroundColors().getBackgroundCoverColor());
+                graphics.fillRect(17, 8, 566, 184);
+            }
 
-        createUserGraphics(graphics);
-        createBackgroundGraphics(graphics, xpBarText);
-        createLevelAndRankGraphics(graphics);
-        createExperienceGraphics(graphics);
+            // Draws the avatar image on top of the background.
+            graphics.drawImage(RankCardCache.getAvatar(avatarUrl, 95), 25, 15, null);
 
-        return backgroundImage;
+            createUserGraphics(graphics);
+            createBackgroundGraphics(graphics, xpBarText);
+            createLevelAndRankGraphics(graphics);
+            createExperienceGraphics(graphics);
+        } finally {
+            graphics.dispose();
+        }
     }
 
-    private BufferedImage loadAndBuildBackground() throws IOException {
+    private void createBackground(Graphics2D graphics) throws IOException {
+        // Replaces the pixels of the image instead of blending with them, since
+        // the image may be a reused buffer holding a previous rank card.
+        graphics.setComposite(AlphaComposite.Src);
+
         if (background.getBackgroundFile() != null) {
-            return resize(
-                ImageIO.read(new FileInputStream("backgrounds/" + background.getBackgroundFile())),
-                200, 600
-            );
+            graphics.drawImage(RankCardCache.getBackground(background, width, height), 0, 0, null);
+        } else {
+            graphics.setColor(background.getBackgroundColors().getBackgroundColor());
+            graphics.fillRect(0, 0, width, height);
         }
 
-        BufferedImage backgroundImage = new BufferedImage(600, 200, BufferedImage.TYPE_INT_ARGB);
-
-        Graphics2D avatarGraphics = backgroundImage.createGraphics();
-        avatarGraphics.setColor(background.getBackgroundColors().getBackgroundColor());
-        avatarGraphics.fillRect(0, 0, 600, 200);
+        graphics.setComposite(AlphaComposite.SrcOver);
+    }
 
-        return backgroundImage;
+    private String getCacheKey() {
+        return String.join("\u0000",
+            String.valueOf(background.getId()), avatarUrl, username, discriminator, rank, level,
+            currentXpInLevel, totalXpInLevel, serverExperience, globalExperience, String.valueOf(percentage)
+        );
     }
 
     private void createUserGraphics(Graphics2D graphics) {
-        graphics.setFont(Fonts.bold.deriveFont(Font.PLAIN, 26F));
+        graphics.setFont(usernameFont);
         graphics.setColor(background.getBackgroundColors().getMainTextColor());
 
         graphics.drawString(username, startingX + 5, startingY);
 
         FontMetrics fontMetrics = graphics.getFontMetrics();
 
-        graphics.setFont(Fonts.medium.deriveFont(Font.PLAIN, 17));
+        graphics.setFont(discriminatorFont);
         graphics.setColor(background.getBackgroundColors().getSecondaryTextColor());
 
         graphics.drawString("#" + discriminator, startingX + 5 + fontMetrics.stringWidth(username), startingY);
@@ -261,10 +315,9 @@ public class RankBackgroundRender extends Renderer {
         // Create the text that should be displayed in the middle of the XP bar
         graphics.setColor(background.getBackgroundColors().getExperienceTextColor());
 
-        Font smallText = Fonts.medium.deriveFont(Font.PLAIN, 20F);
-        graphics.setFont(smallText);
+        graphics.setFont(xpBarFont);
 
-        FontMetrics fontMetrics = graphics.getFontMetrics(smallText);
+        FontMetrics fontMetrics = graphics.getFontMetrics(xpBarFont);
         graphics.drawString(xpBarText, startingX + 5 + ((xpBarLength - fontMetrics.stringWidth(xpBarText)) / 2), startingY + 42);
     }
 
@@ -272,11 +325,11 @@ public class RankBackgroundRender extends Renderer {
         graphics.setColor(background.getBackgroundColors().getMainTextColor());
 
         // Create Level text
-        graphics.setFont(Fonts.medium.deriveFont(Font.PLAIN, 28));
+        graphics.setFont(labelFont);
         graphics.drawString("LEVEL", 35, 140);
 
         FontMetrics infoTextGraphicsFontMetricsLarge = graphics.getFontMetrics();
-        graphics.setFont(Fonts.extraBold.deriveFont(Font.PLAIN, 48));
+        graphics.setFont(valueFont);
 
         FontMetrics infoTextGraphicsFontMetricsSmall = graphics.getFontMetrics();
         graphics.drawString(level, 35 + (
@@ -284,9 +337,9 @@ public class RankBackgroundRender extends Renderer {
         ), 185);
 
         // Create Score Text
-        graphics.setFont(Fonts.medium.deriveFont(Font.PLAIN, 28));
+        graphics.setFont(labelFont);
         graphics.drawString("RANK", 165, 140);
-        graphics.setFont(Fonts.extraBold.deriveFont(Font.PLAIN, 48));
+        graphics.setFont(valueFont);
         graphics.drawString(rank, 165 + (
             (infoTextGraphicsFontMetricsLarge.stringWidth("RANK") - infoTextGraphicsFontMetricsSmall.stringWidth(rank)) / 2
         ), 185);
@@ -295,13 +348,19 @@ public class RankBackgroundRender extends Renderer {
     private void createExperienceGraphics(Graphics2D graphics) {
         graphics.setColor(background.getBackgroundColors().getMainTextColor());
 
-        graphics.setFont(Fonts.medium.deriveFont(Font.PLAIN, 26F));
+        graphics.setFont(experienceLabelFont);
         graphics.drawString("Server XP:", 300, 140);
         graphics.drawString("Global XP:", 300, 180);
 
-        graphics.setFont(Fonts.regular.deriveFont(Font.PLAIN, 24F));
+        graphics.setFont(experienceValueFont);
         graphics.setColor(background.getBackgroundColors().getSecondaryTextColor());
         graphics.drawString(serverExperience, 455, 140);
         graphics.drawString(globalExperience, 455, 180);
     }
+
+    private static final class RenderBuffer {
+
+        private final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream(64 * 1024);
+    }
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates the experience rewarded to players between database syncs, all
+ * the experience given to a player in the same guild is coalesced into a
+ * single delta, so each player only needs a single database update
+ * no matter how much experience they have earned since the last sync.
+ * <p>
+ * Entries are keyed by the primitive guild and user IDs, and stored in a set of
+ * lock striped open addressing tables, so adding experience or looking up the
+ * pending experience for a player is O(1) and doesn't box any of the keys.
+ */
+public class ExperienceAccumulator {
+
+    /**
+     * The amount of stripes the entries are split between, must be a power of two.
+     */
+    private static final int STRIPES = 16;
+
+    /**
+     * The initial capacity of each stripe table, must be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public ExperienceAccumulator() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Adds the given amount of experience to the pending delta for the given
+     * player, the global experience is always incremented by the given
+     * amount, while the local experience is only incremented if
+     * the local experience is not excluded.
+     *
+     * @param guildId      The ID of the guild the experience was rewarded in.
+     * @param userId       The ID of the user the experience was rewarded to.
+     * @param experience   The amount of experience that was rewarded.
+     * @param excludeLocal Determines if the local guild experience should be excluded from the update.
+     */
+    public void add(long guildId, long userId, int experience, boolean excludeLocal) {
+        int hash = hash(guildId, userId);
+
+        stripes[hash & (STRIPES - 1)].add(hash, guildId, userId, experience, excludeLocal ? 0 : experience);
+    }
+
+    /**
+     * Gets the pending local experience for the given player that
+     * has yet to be synced with the database.
+     *
+     * @param guildId The ID of the guild the player belongs to.
+     * @param userId  The ID of the user the player belongs to.
+     * @return The pending local experience for the player, or {@code 0} if there is none.
+     */
+    public int getLocalExperience(long guildId, long userId) {
+        int hash = hash(guildId, userId);
+
+        return stripes[hash & (STRIPES - 1)].getLocalExperience(hash, guildId, userId);
+    }
+
+    /**
+     * Checks if there are any pending experience entries.
+     *
+     * @return {@code True} if there are no pending entries, {@code False} otherwise.
+     */
+    public boolean isEmpty() {
+        for (Stripe stripe : stripes) {
+            if (stripe.size > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the amount of players that currently have pending experience.
+     *
+     * @return The amount of players with pending experience.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * Removes all the pending experience from the accumulator and returns them as
+     * experience entities, experience added while the accumulator is being
+     * drained will either be part of the returned list, or be kept for
+     * the next drain, it will never be lost or returned twice.
+     *
+     * @return A list of all the coalesced experience entities.
+     */
+    public List<ExperienceEntity> drain() {
+        List<ExperienceEntity> entities = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.drainTo(entities);
+        }
+        return entities;
+    }
+
+    private static int hash(long guildId, long userId) {
+        long hash = guildId * 0x9E3779B97F4A7C15L + userId;
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int saturatedAdd(int first, int second) {
+        long sum = (long) first + second;
+        if (sum > Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return sum < Integer.MIN_VALUE ? Integer.MIN_VALUE : (int) sum;
+    }
+
+    private static final class Stripe {
+
+        private boolean[] occupied;
+        private long[] guildIds;
+        private long[] userIds;
+        private int[] experience;
+        private int[] localExperience;
+        private volatile int size;
+
+        Stripe() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        synchronized void add(int hash, long guildId, long userId, int amount, int localAmount) {
+            int index = indexOf(hash, guildId, userId);
+            if (occupied[index]) {
+                experience[index] = saturatedAdd(experience[index], amount);
+                localExperience[index] = saturatedAdd(localExperience[index], localAmount);
+                return;
+            }
+
+            occupied[index] = true;
+            guildIds[index] = guildId;
+            userIds[index] = userId;
+            experience[index] = amount;
+            localExperience[index] = localAmount;
+
+            // Resizes the table once it's three quarters full, keeping the probe sequences short.
+            if (++size * 4 >= occupied.length * 3) {
+                resize();
+            }
+        }
+
+        synchronized int getLocalExperience(int hash, long guildId, long userId) {
+            int index = indexOf(hash, guildId, userId);
+
+            return occupied[index] ? localExperience[index] : 0;
+        }
+
+        void drainTo(List<ExperienceEntity> entities) {
+            boolean[] occupied;
+            long[] guildIds;
+            long[] userIds;
+            int[] experience;
+            int[] localExperience;
+
+            synchronized (this) {
+                if (size == 0) {
+                    return;
+                }
+
+                occupied = this.occupied;
+                guildIds = this.guildIds;
+                userIds = this.userIds;
+                experience = this.experience;
+                localExperience = this.localExperience;
+
+                allocate(INITIAL_CAPACITY);
+                size = 0;
+            }
+
+            for (int i = 0; i < occupied.length; i++) {
+                if (occupied[i]) {
+                    entities.add(new ExperienceEntity(
+                        userIds[i], guildIds[i], experience[i], localExperience[i]
+                    ));
+                }
+            }
+        }
+
+        private int indexOf(int hash, long guildId, long userId) {
+            int mask = occupied.length - 1;
+            int index = (hash >>> 4) & mask;
+
+            while (occupied[index] && (guildIds[index] != guildId || userIds[index] != userId)) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        private void resize() {
+            boolean[] oldOccupied = occupied;
+            long[] oldGuildIds = guildIds;
+            long[] oldUserIds = userIds;
+            int[] oldExperience = experience;
+            int[] oldLocalExperience = localExperience;
+
+            allocate(oldOccupied.length * 2);
+
+            for (int i = 0; i < oldOccupied.length; i++) {
+                if (!oldOccupied[i]) {
+                    continue;
+                }
+
+                int index = indexOf(hash(oldGuildIds[i], oldUserIds[i]), oldGuildIds[i], oldUserIds[i]);
+
+                occupied[index] = true;
+                guildIds[index] = oldGuildIds[i];
+                userIds[index] = oldUserIds[i];
+                experience[index] = oldExperience[i];
+                localExperience[index] = oldLocalExperience[i];
+            }
+        }
+
+        private void allocate(int capacity) {
+            occupied = new boolean[capacity];
+            guildIds = new long[capacity];
+            userIds = new long[capacity];
+            experience = new int[capacity];
+            localExperience = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+package com.avairebot.level;
+
+/**
+ * Keeps track of when players can be rewarded experience again, entries are keyed
+ * by the primitive guild and user IDs, and stored in a set of lock striped open
+ * addressing tables, so checking and starting a cooldown doesn't allocate
+ * anything or box any of the keys, which matters since it happens for
+ * every single message sent in a guild with levels enabled.
+ * <p>
+ * Expired cooldowns are left in the tables until a stripe fills up, at which
+ * point the stripe is rebuilt without them, so the tables only grow if
+ * there are actually that many players on cooldown at the same time.
+ */
+public class ExperienceCooldown {
+
+    /**
+     * The amount of stripes the entries are split between, must be a power of two.
+     */
+    private static final int STRIPES = 16;
+
+    /**
+     * The initial capacity of each stripe table, must be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final long duration;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * Creates a new experience cooldown tracker.
+     *
+     * @param duration The duration of the cooldown in milliseconds.
+     */
+    public ExperienceCooldown(long duration) {
+        this.duration = duration;
+
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Starts the cooldown for the given player if they're not already on
+     * cooldown, this is atomic, so only one caller will ever succeed
+     * in starting the cooldown for a player at the same time.
+     *
+     * @param guildId The ID of the guild the player belongs to.
+     * @param userId  The ID of the user the player belongs to.
+     * @param now     The current unix timestamp in milliseconds.
+     * @return {@code True} if the cooldown was started, {@code False} if the player is already on cooldown.
+     */
+    public boolean tryAcquire(long guildId, long userId, long now) {
+        int hash = hash(guildId, userId);
+
+        return stripes[hash & (STRIPES - 1)].tryAcquire(hash, guildId, userId, now, now + duration);
+    }
+
+    /**
+     * Checks if the given player is currently on cooldown.
+     *
+     * @param guildId The ID of the guild the player belongs to.
+     * @param userId  The ID of the user the player belongs to.
+     * @param now     The current unix timestamp in milliseconds.
+     * @return {@code True} if the player is on cooldown, {@code False} otherwise.
+     */
+    public boolean isOnCooldown(long guildId, long userId, long now) {
+        int hash = hash(guildId, userId);
+
+        return stripes[hash & (STRIPES - 1)].isOnCooldown(hash, guildId, userId, now);
+    }
+
+    /**
+     * Gets the amount of entries currently stored, this
+     * includes cooldowns that has expired but has
+     * not yet been removed from the tables.
+     *
+     * @return The amount of stored cooldown entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    private static int hash(long guildId, long userId) {
+        long hash = guildId * 0x9E3779B97F4A7C15L + userId;
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static final class Stripe {
+
+        private long[] guildIds;
+        private long[] userIds;
+        private long[] expiresAt;
+        private volatile int size;
+
+        Stripe() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        synchronized boolean tryAcquire(int hash, long guildId, long userId, long now, long expires) {
+            int index = indexOf(hash, guildId, userId);
+            if (expiresAt[index] != 0) {
+                if (expiresAt[index] > now) {
+                    return false;
+                }
+
+                expiresAt[index] = expires;
+                return true;
+            }
+
+            guildIds[index] = guildId;
+            userIds[index] = userId;
+            expiresAt[index] = expires;
+
+            // Rebuilds the table once it's three quarters full, keeping the probe sequences short.
+            if (++size * 4 >= expiresAt.length * 3) {
+                rebuild(now);
+            }
+            return true;
+        }
+
+        synchronized boolean isOnCooldown(int hash, long guildId, long userId, long now) {
+            return expiresAt[indexOf(hash, guildId, userId)] > now;
+        }
+
+        private int indexOf(int hash, long guildId, long userId) {
+            int mask = expiresAt.length - 1;
+            int index = (hash >>> 4) & mask;
+
+            // Empty slots are marked by an expire time of zero, since every
+            // stored cooldown expires at some point after the unix epoch.
+            while (expiresAt[index] != 0 && (guildIds[index] != guildId || userIds[index] != userId)) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        private void rebuild(long now) {
+            long[] oldGuildIds = guildIds;
+            long[] oldUserIds = userIds;
+            long[] oldExpiresAt = expiresAt;
+
+            int active = 0;
+            for (long expires : oldExpiresAt) {
+                if (expires > now) {
+                    active++;
+                }
+            }
+
+            // Only grows the table if at least half of it is still on cooldown,
+            // otherwise the expired entries are dropped into a table of
+            // the same size, which frees up the space they used.
+            allocate(active * 2 >= oldExpiresAt.length ? oldExpiresAt.length * 2 : oldExpiresAt.length);
+            size = 0;
+
+            for (int i = 0; i < oldExpiresAt.length; i++) {
+                if (oldExpiresAt[i] <= now) {
+                    continue;
+                }
+
+                int index = indexOf(hash(oldGuildIds[i], oldUserIds[i]), oldGuildIds[i], oldUserIds[i]);
+
+                guildIds[index] = oldGuildIds[i];
+                userIds[index] = oldUserIds[i];
+                expiresAt[index] = oldExpiresAt[i];
+                size++;
+            }
+        }
+
+        private void allocate(int capacity) {
+            guildIds = new long[capacity];
+            userIds = new long[capacity];
+            expiresAt = new long[capacity];
+        }
+    }
+}
@@ -25,18 +25,14 @@ public class ExperienceEntity {
 
     private final long userId;
     private final long guildId;
-    private final boolean excludeLocal;
-    private int experience;
+    private final int experience;
+    private final int localExperience;
 
-    ExperienceEntity(long userId, long guildId, int experience, boolean excludeLocal) {
+    ExperienceEntity(long userId, long guildId, int experience, int localExperience) {
         this.userId = userId;
         this.guildId = guildId;
         this.experience = experience;
-        this.excludeLocal = excludeLocal;
-    }
-
-    ExperienceEntity(long userId, long guildId, int experience) {
-        this(userId, guildId, experience, false);
+        this.localExperience = localExperience;
     }
 
     /**
@@ -58,40 +54,29 @@ public class ExperienceEntity {
     }
 
     /**
-     * The amount of experience the user has in total for the set guild.
+     * The amount of global experience that should be added to the user.
      *
-     * @return The total amount of experience the user has for the set guild.
+     * @return The amount of global experience that should be added to the user.
      */
     public int getExperience() {
         return experience;
     }
 
     /**
-     * Sets the amount of experience that the user should be have after
-     * the experience entity is consumed and synced with the database.
-     *
-     * @param experience The amount of experience the user should have after
-     *                   the entity is synced with the database.
-     */
-    public void setExperience(int experience) {
-        this.experience = experience;
-    }
-
-    /**
-     * Determines if the local server based XP should be excluded from
-     * the update or not, if the user has reached the max amount of
-     * XP, there are no idea is giving them any more XP.
+     * The amount of local server based experience that should be added to the user, if
+     * the user has reached the max amount of XP in the set guild, the local XP will
+     * be excluded from the update, since there is no point in giving them more.
      *
-     * @return Determins if the local server based XP should be excluded or not.
+     * @return The amount of local experience that should be added to the user.
      */
-    public boolean isExcludeLocal() {
-        return excludeLocal;
+    public int getLocalExperience() {
+        return localExperience;
     }
 
     @Override
     public String toString() {
-        return String.format("[userId:%s, guildId:%s, experience:%s]",
-            userId, guildId, experience
+        return String.format("[userId:%s, guildId:%s, experience:%s, localExperience:%s]",
+            userId, guildId, experience, localExperience
         );
     }
 }
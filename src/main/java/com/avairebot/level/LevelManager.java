@@ -31,12 +31,9 @@ import com.avairebot.database.transformers.PlayerTransformer;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.language.I18n;
 import com.avairebot.scheduler.ScheduleHandler;
-import com.avairebot.utilities.CacheUtil;
 import com.avairebot.utilities.NumberUtil;
 import com.avairebot.utilities.RandomUtil;
 import com.avairebot.utilities.RoleUtil;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.core.Permission;
 import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.entities.Role;
@@ -50,32 +47,33 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class LevelManager {
 
     /**
-     * When a user sends a message, they are checked against the cache to see if they
-     * can be rewarded experience again, if they do have an entry in the cache,
-     * their message is ignored for the level manager and no experience will
+     * When a user sends a message, they are checked against the cooldowns to see if they
+     * can be rewarded experience again, if they are still on cooldown, their
+     * message is ignored for the level manager and no experience will
      * be rewarded to them for that message.
      * <p>
-     * The cache will automatically delete keys after they have existed for 60 seconds.
+     * The cooldowns automatically expire 60 seconds after they were started.
      */
-    public static final Cache<Object, Object> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
+    public static final ExperienceCooldown cooldowns = new ExperienceCooldown(TimeUnit.SECONDS.toMillis(60));
 
     /**
-     * The experience queue, users who have been rewarded experience will
-     * be added to the queue, the queue is then consumed once a minute
-     * to sync the database with the user data.
+     * The experience accumulator, users who have been rewarded experience will
+     * have their experience added to the accumulator, the accumulator is then
+     * drained once a minute to sync the database with the user data.
      */
-    private static final List<ExperienceEntity> experienceQueue = new CopyOnWriteArrayList<>();
+    private static final ExperienceAccumulator experienceAccumulator = new ExperienceAccumulator();
+
+    /**
+     * The rank index, used to look up the guild and global ranks of players,
+     * the index is updated every time the experience accumulator is synced.
+     */
+    private static final RankIndex rankIndex = new RankIndex();
 
     /**
      * The experience modifier as an percentage.
@@ -224,22 +222,36 @@ public class LevelManager {
      * @param player The player transformer from the current player database instance.
      */
     public void rewardPlayer(@Nonnull MessageReceivedEvent event, @Nonnull GuildTransformer guild, @Nonnull PlayerTransformer player) {
-        if (guild.getLevelExemptChannels().contains(event.getChannel().getIdLong())) {
+        if (isExempt(event, guild)) {
             return;
         }
 
-        if (!guild.getLevelExemptRoles().isEmpty()) {
-            for (Role role : event.getMember().getRoles()) {
-                if (guild.getLevelExemptRoles().contains(role.getIdLong())) {
-                    return;
-                }
-            }
+        if (cooldowns.tryAcquire(event.getGuild().getIdLong(), event.getAuthor().getIdLong(), System.currentTimeMillis())) {
+            giveExperience(event.getMessage(), event.getMessage().getAuthor(), guild, player);
         }
+    }
 
-        CacheUtil.getUncheckedUnwrapped(cache, asKey(event), () -> {
-            giveExperience(event.getMessage(), event.getMessage().getAuthor(), guild, player);
-            return 0;
-        });
+    /**
+     * Checks if the author of the given message event can currently be rewarded
+     * experience in the guild, the player can be rewarded if levels are
+     * enabled for the guild, the author isn't a bot, the channel and
+     * the authors roles are not exempt, and the author hasn't
+     * been rewarded experience within the last minute.
+     * <p>
+     * This only uses the given guild transformer and in-memory state, so it's
+     * safe to call before the player has been loaded from the database.
+     *
+     * @param event The event that should be checked.
+     * @param guild The guild transformer from the current guild database instance.
+     * @return {@code True} if the player can be rewarded experience, {@code False} otherwise.
+     */
+    public boolean canReceiveExperience(@Nonnull MessageReceivedEvent event, @Nonnull GuildTransformer guild) {
+        if (!guild.isLevels() || event.getAuthor().isBot()) {
+            return false;
+        }
+        return !isExempt(event, guild) && !cooldowns.isOnCooldown(
+            event.getGuild().getIdLong(), event.getAuthor().getIdLong(), System.currentTimeMillis()
+        );
     }
 
     /**
@@ -306,12 +318,12 @@ public class LevelManager {
             player.setExperience(getHardCap());
         }
 
-        experienceQueue.add(new ExperienceEntity(
-            user.getIdLong(),
+        experienceAccumulator.add(
             message.getGuild().getIdLong(),
+            user.getIdLong(),
             amount,
             exclude
-        ));
+        );
 
         if (getLevelFromExperience(guild, player.getExperience() + zxp) > lvl) {
             long newLevel = getLevelFromExperience(guild, player.getExperience() + zxp);
@@ -396,26 +408,33 @@ public class LevelManager {
     }
 
     /**
-     * Gets the experience queue, any user who has received experience and
-     * have yet to be updated in the database are stored in this queue.
+     * Gets the experience accumulator, any user who has received experience
+     * and have yet to be updated in the database are stored in the accumulator.
+     *
+     * @return The experience accumulator.
+     */
+    public ExperienceAccumulator getExperienceAccumulator() {
+        return experienceAccumulator;
+    }
+
+    /**
+     * Gets the rank index, used to look up the guild and global ranks of players.
      *
-     * @return The experience queue.
+     * @return The rank index.
      */
-    public List<ExperienceEntity> getExperienceQueue() {
-        return experienceQueue;
+    public RankIndex getRankIndex() {
+        return rankIndex;
     }
 
     /**
-     * Gets all the experience entities that belongs to the given player
-     * transformer, or an empty list of no entities were found.
+     * Gets the local experience that has been given to the given player
+     * transformer, but have yet to be synced with the database.
      *
-     * @param transformer The transformer that should be matched with the experience eateries.
-     * @return A list of experience entities that belongs to the given player transformer.
+     * @param transformer The transformer that the pending experience should be retrieved for.
+     * @return The pending local experience for the given player transformer.
      */
-    public List<ExperienceEntity> getExperienceEntities(@Nonnull PlayerTransformer transformer) {
-        return experienceQueue.stream()
-            .filter(entity -> entity.getUserId() == transformer.getUserId() && entity.getGuildId() == transformer.getGuildId())
-            .collect(Collectors.toList());
+    public int getPendingExperience(@Nonnull PlayerTransformer transformer) {
+        return experienceAccumulator.getLocalExperience(transformer.getGuildId(), transformer.getUserId());
     }
 
     /**
@@ -456,7 +475,18 @@ public class LevelManager {
         );
     }
 
-    private Object asKey(MessageReceivedEvent event) {
-        return event.getGuild().getId() + ":" + event.getAuthor().getId();
+    private boolean isExempt(MessageReceivedEvent event, GuildTransformer guild) {
+        if (guild.getLevelExemptChannels().contains(event.getChannel().getIdLong())) {
+            return true;
+        }
+
+        if (!guild.getLevelExemptRoles().isEmpty() && event.getMember() != null) {
+            for (Role role : event.getMember().getRoles()) {
+                if (guild.getLevelExemptRoles().contains(role.getIdLong())) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 }
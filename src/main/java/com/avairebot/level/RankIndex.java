@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.AvaIre;
+import com.avairebot.Constants;
+import com.avairebot.database.collection.Collection;
+import com.avairebot.database.collection.DataRow;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory rank index for the guild and global leaderboards, each guild gets
+ * its own {@link RankTree rank tree} that is loaded from the database the first
+ * time a rank is looked up in the guild, after that the tree is kept current
+ * by the experience accumulator syncs, so looking up the rank of a player
+ * is O(log n) and doesn't require any database queries.
+ * <p>
+ * Changes made outside of the experience syncs, like players becoming inactive, are
+ * picked up when the trees are reloaded in the background once an hour, or when a
+ * guild is forgotten through {@link #forgetGuild(long)}.
+ */
+public class RankIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RankIndex.class);
+
+    /**
+     * The key used for the global rank tree.
+     */
+    private static final long GLOBAL = 0L;
+
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder()
+            .setNameFormat("avaire-rank-index")
+            .setDaemon(true)
+            .build()
+    );
+
+    /**
+     * The guild rank trees, mapped by the ID of the guild they belong
+     * to, the cache is weighted by the amount of players in the trees.
+     */
+    private final LoadingCache<Long, RankTree> guilds = CacheBuilder.newBuilder()
+        .recordStats()
+        .maximumWeight(2_500_000)
+        .weigher((Long guildId, RankTree tree) -> tree.size() + 1)
+        .expireAfterAccess(30, TimeUnit.MINUTES)
+        .refreshAfterWrite(1, TimeUnit.HOURS)
+        .build(CacheLoader.asyncReloading(CacheLoader.from(this::loadGuild), reloadExecutor));
+
+    private final LoadingCache<Long, RankTree> global = CacheBuilder.newBuilder()
+        .refreshAfterWrite(6, TimeUnit.HOURS)
+        .build(CacheLoader.asyncReloading(CacheLoader.from(key -> loadGlobal()), reloadExecutor));
+
+    /**
+     * Gets the rank of the given user in the given guild.
+     *
+     * @param guildId The ID of the guild the rank should be returned for.
+     * @param userId  The ID of the user the rank should be returned for.
+     * @return The rank of the user, or {@code 0} if the user is unranked.
+     */
+    public long getGuildRank(long guildId, long userId) {
+        RankTree tree = get(guilds, guildId);
+
+        return tree == null ? 0 : tree.getRank(userId);
+    }
+
+    /**
+     * Gets the global rank of the given user.
+     *
+     * @param userId The ID of the user the rank should be returned for.
+     * @return The global rank of the user, or {@code 0} if the user is unranked.
+     */
+    public long getGlobalRank(long userId) {
+        RankTree tree = get(global, GLOBAL);
+
+        return tree == null ? 0 : tree.getRank(userId);
+    }
+
+    /**
+     * Gets the total global experience for the given user, the total is the combined
+     * experience from all the guilds the user is active in, without the 100
+     * experience every player starts with in each guild after the first.
+     *
+     * @param userId The ID of the user the global experience should be returned for.
+     * @return The global experience of the user, or {@code 100} if the user is unranked.
+     */
+    public long getGlobalExperience(long userId) {
+        RankTree tree = get(global, GLOBAL);
+
+        return tree == null ? 100 : tree.getExperience(userId, 100);
+    }
+
+    /**
+     * Adds the experience from the given experience entity to the rank trees,
+     * trees that haven't been loaded yet are ignored, since they'll
+     * include the experience when they're loaded instead.
+     *
+     * @param entity The experience entity that was synced with the database.
+     */
+    public void increment(ExperienceEntity entity) {
+        RankTree tree = guilds.getIfPresent(entity.getGuildId());
+        if (tree != null) {
+            tree.increment(entity.getUserId(), entity.getLocalExperience(), 100);
+        }
+
+        tree = global.getIfPresent(GLOBAL);
+        if (tree != null) {
+            tree.increment(entity.getUserId(), entity.getExperience(), 100);
+        }
+    }
+
+    /**
+     * Sets the experience for the given user in the given guild, if the
+     * rank tree for the guild hasn't been loaded yet, this does nothing.
+     *
+     * @param guildId    The ID of the guild the experience should be set in.
+     * @param userId     The ID of the user the experience should be set for.
+     * @param experience The experience the user should have in the guild.
+     */
+    public void setGuildExperience(long guildId, long userId, long experience) {
+        RankTree tree = guilds.getIfPresent(guildId);
+        if (tree != null) {
+            tree.set(userId, experience);
+        }
+    }
+
+    /**
+     * Forgets the rank tree for the given guild, causing it to be loaded from the
+     * database again the next time it's used, this should be called when the
+     * experience in the guild is changed outside of the experience syncs.
+     *
+     * @param guildId The ID of the guild the rank tree should be forgotten for.
+     */
+    public void forgetGuild(long guildId) {
+        guilds.invalidate(guildId);
+    }
+
+    /**
+     * Gets the cache holding the guild rank trees.
+     *
+     * @return The cache holding the guild rank trees.
+     */
+    public Cache<Long, ?> getGuildCache() {
+        return guilds;
+    }
+
+    private RankTree get(LoadingCache<Long, RankTree> cache, long key) {
+        try {
+            return cache.get(key);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            log.error("Failed to load the rank index for {}: {}", key == GLOBAL ? "global" : key, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private RankTree loadGuild(long guildId) {
+        try {
+            return build(AvaIre.getInstance().getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+                .select("user_id", "experience")
+                .where("guild_id", guildId)
+                .where("active", 1)
+                .get(), "experience");
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load the rank index for " + guildId + ": " + e.getMessage(), e);
+        }
+    }
+
+    private RankTree loadGlobal() {
+        try {
+            return build(AvaIre.getInstance().getDatabase().newQueryBuilder(Constants.GLOBAL_EXPERIENCE_TABLE_NAME)
+                .select("user_id", "experience")
+                .get(), "experience");
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load the global rank index: " + e.getMessage(), e);
+        }
+    }
+
+    private RankTree build(Collection rows, String column) {
+        RankTree tree = new RankTree(rows.size());
+        for (DataRow row : rows) {
+            tree.set(row.getLong("user_id"), row.getLong(column));
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An order statistic tree of players ordered by their experience, used to look up
+ * the rank of a player in O(log n), the rank of a player is the amount of players
+ * with more experience than them, plus one, so players with the same amount
+ * of experience shares the same rank.
+ * <p>
+ * The tree is implemented as a treap stored in primitive arrays, and players are
+ * mapped to their tree nodes through an open addressing table keyed by the
+ * user ID, so neither the lookups or updates box any of the values.
+ */
+final class RankTree {
+
+    private static final int NIL = 0;
+
+    private long[] experience;
+    private long[] userIds;
+    private int[] left;
+    private int[] right;
+    private int[] sizes;
+    private int[] priorities;
+    private int root = NIL;
+    private int nodes = 0;
+
+    private long[] tableKeys;
+    private int[] tableNodes;
+
+    /**
+     * Creates a new rank tree with room for the given amount of players,
+     * the tree will grow automatically if more players are added.
+     *
+     * @param capacity The initial amount of players the tree should have room for.
+     */
+    RankTree(int capacity) {
+        int size = Math.max(capacity, 16) + 1;
+
+        experience = new long[size];
+        userIds = new long[size];
+        left = new int[size];
+        right = new int[size];
+        sizes = new int[size];
+        priorities = new int[size];
+
+        allocateTable(Integer.highestOneBit(Math.max(capacity, 16) * 2) * 2);
+    }
+
+    /**
+     * Gets the amount of players in the tree.
+     *
+     * @return The amount of players in the tree.
+     */
+    synchronized int size() {
+        return nodes;
+    }
+
+    /**
+     * Gets the rank of the given user.
+     *
+     * @param userId The ID of the user the rank should be returned for.
+     * @return The rank of the user, or {@code 0} if the user is not in the tree.
+     */
+    synchronized long getRank(long userId) {
+        int node = find(userId);
+        if (node == NIL) {
+            return 0;
+        }
+
+        long value = experience[node];
+        long greater = 0;
+
+        for (int current = root; current != NIL; ) {
+            if (experience[current] > value) {
+                greater += sizes[left[current]] + 1;
+                current = right[current];
+            } else {
+                current = left[current];
+            }
+        }
+
+        return greater + 1;
+    }
+
+    /**
+     * Gets the experience for the given user.
+     *
+     * @param userId       The ID of the user the experience should be returned for.
+     * @param defaultValue The value that should be returned if the user is not in the tree.
+     * @return The experience of the user, or the default value if the user is not in the tree.
+     */
+    synchronized long getExperience(long userId, long defaultValue) {
+        int node = find(userId);
+
+        return node == NIL ? defaultValue : experience[node];
+    }
+
+    /**
+     * Sets the experience for the given user, adding the user to the tree if they're not already in it.
+     *
+     * @param userId     The ID of the user the experience should be set for.
+     * @param experience The experience the user should have.
+     */
+    synchronized void set(long userId, long experience) {
+        int node = find(userId);
+        if (node == NIL) {
+            insert(userId, experience);
+        } else {
+            move(node, experience);
+        }
+    }
+
+    /**
+     * Increments the experience for the given user, if the user is not in the tree
+     * they'll be added with the initial experience plus the given amount.
+     *
+     * @param userId            The ID of the user the experience should be incremented for.
+     * @param amount            The amount of experience the user should be incremented by.
+     * @param initialExperience The experience the user should start with if they're not in the tree.
+     */
+    synchronized void increment(long userId, long amount, long initialExperience) {
+        int node = find(userId);
+        if (node == NIL) {
+            insert(userId, initialExperience + amount);
+        } else if (amount != 0) {
+            move(node, experience[node] + amount);
+        }
+    }
+
+    private void insert(long userId, long value) {
+        if (nodes + 1 == experience.length) {
+            grow();
+        }
+
+        int node = ++nodes;
+        experience[node] = value;
+        userIds[node] = userId;
+        priorities[node] = ThreadLocalRandom.current().nextInt();
+        reset(node);
+
+        root = insert(root, node);
+        put(userId, node);
+    }
+
+    private void move(int node, long value) {
+        root = remove(root, node);
+
+        experience[node] = value;
+        reset(node);
+
+        root = insert(root, node);
+    }
+
+    /**
+     * Checks if the first node should be ordered before the second node, nodes are
+     * ordered by their experience in descending order, and then by their user
+     * ID, so every node has a unique position in the tree.
+     */
+    private boolean precedes(int first, int second) {
+        if (experience[first] != experience[second]) {
+            return experience[first] > experience[second];
+        }
+        return userIds[first] < userIds[second];
+    }
+
+    private int insert(int tree, int node) {
+        if (tree == NIL) {
+            return node;
+        }
+
+        if (precedes(node, tree)) {
+            left[tree] = insert(left[tree], node);
+            if (priorities[left[tree]] > priorities[tree]) {
+                tree = rotateRight(tree);
+            }
+        } else {
+            right[tree] = insert(right[tree], node);
+            if (priorities[right[tree]] > priorities[tree]) {
+                tree = rotateLeft(tree);
+            }
+        }
+
+        update(tree);
+        return tree;
+    }
+
+    private int remove(int tree, int node) {
+        if (tree == node) {
+            return merge(left[tree], right[tree]);
+        }
+
+        if (precedes(node, tree)) {
+            left[tree] = remove(left[tree], node);
+        } else {
+            right[tree] = remove(right[tree], node);
+        }
+
+        update(tree);
+        return tree;
+    }
+
+    private int merge(int first, int second) {
+        if (first == NIL) {
+            return second;
+        }
+
+        if (second == NIL) {
+            return first;
+        }
+
+        if (priorities[first] > priorities[second]) {
+            right[first] = merge(right[first], second);
+            update(first);
+            return first;
+        }
+
+        left[second] = merge(first, left[second]);
+        update(second);
+        return second;
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        update(node);
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        update(node);
+        return pivot;
+    }
+
+    private void update(int node) {
+        sizes[node] = sizes[left[node]] + sizes[right[node]] + 1;
+    }
+
+    private void reset(int node) {
+        left[node] = NIL;
+        right[node] = NIL;
+        sizes[node] = 1;
+    }
+
+    private void grow() {
+        int capacity = experience.length * 2;
+
+        experience = Arrays.copyOf(experience, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+    }
+
+    private int find(long userId) {
+        int mask = tableNodes.length - 1;
+        int index = hash(userId) & mask;
+
+        while (tableNodes[index] != NIL) {
+            if (tableKeys[index] == userId) {
+                return tableNodes[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return NIL;
+    }
+
+    private void put(long userId, int node) {
+        // Resizes the table once it's half full, keeping the probe sequences short.
+        if (nodes * 2 >= tableNodes.length) {
+            long[] oldKeys = tableKeys;
+            int[] oldNodes = tableNodes;
+
+            allocateTable(oldNodes.length * 2);
+
+            for (int i = 0; i < oldNodes.length; i++) {
+                if (oldNodes[i] != NIL) {
+                    put(oldKeys[i], oldNodes[i]);
+                }
+            }
+        }
+
+        int mask = tableNodes.length - 1;
+        int index = hash(userId) & mask;
+
+        while (tableNodes[index] != NIL) {
+            index = (index + 1) & mask;
+        }
+
+        tableKeys[index] = userId;
+        tableNodes[index] = node;
+    }
+
+    private void allocateTable(int capacity) {
+        tableKeys = new long[capacity];
+        tableNodes = new int[capacity];
+    }
+
+    private static int hash(long userId) {
+        long hash = userId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -23,19 +23,18 @@ package com.avairebot.metrics;
 
 import ch.qos.logback.classic.LoggerContext;
 import com.avairebot.AvaIre;
-import com.avairebot.blacklist.Ratelimit;
+import com.avairebot.cache.CacheType;
+import com.avairebot.cache.adapters.MemoryAdapter;
 import com.avairebot.commands.Category;
 import com.avairebot.commands.administration.MuteRoleCommand;
 import com.avairebot.commands.utility.GlobalLeaderboardCommand;
 import com.avairebot.commands.utility.LeaderboardCommand;
-import com.avairebot.commands.utility.RankCommand;
 import com.avairebot.contracts.commands.InteractionCommand;
 import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.database.controllers.*;
 import com.avairebot.handlers.adapter.JDAStateEventAdapter;
-import com.avairebot.level.LevelManager;
+import com.avairebot.imagegen.RankCardCache;
 import com.avairebot.metrics.routes.GetMetrics;
-import com.avairebot.middleware.ThrottleMiddleware;
 import com.avairebot.scheduler.jobs.LavalinkGarbageNodeCollectorJob;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
@@ -124,6 +123,12 @@ public class Metrics {
         .labelNames("type")
         .register();
 
+    public static final Counter searchLoads = Counter.build() // Executed provider searches vs coalesced identical searches
+        .name("avaire_music_search_loads_total")
+        .help("Total search loads, either executed against a provider or coalesced into an in-flight search")
+        .labelNames("type")
+        .register();
+
     public static final Counter tracksLoaded = Counter.build()
         .name("avaire_music_tracks_loaded_total")
         .help("Total tracks loaded by the audio loader")
@@ -147,6 +152,44 @@ public class Metrics {
         .labelNames("class") // use the simple name of the command class
         .register();
 
+    public static final Counter throttleRejections = Counter.build()
+        .name("avaire_throttle_rejections_total")
+        .help("Total commands rejected by the throttle middleware, by command class and throttle type")
+        .labelNames("class", "type")
+        .register();
+
+    public static final Gauge throttleBuckets = Gauge.build()
+        .name("avaire_throttle_buckets")
+        .help("The amount of non-full throttle buckets currently being tracked, updated every garbage collection run")
+        .labelNames("type")
+        .register();
+
+    public static final Gauge commandExecutorQueueDepth = Gauge.build()
+        .name("avaire_command_executor_queue_depth")
+        .help("The amount of tasks waiting to be executed in each command pool")
+        .labelNames("pool")
+        .register();
+
+    public static final Histogram commandExecutorWaitTime = Histogram.build()
+        .name("avaire_command_executor_wait_duration_seconds")
+        .help("Time tasks spent waiting in the queue of each command pool before being executed")
+        .labelNames("pool")
+        .buckets(0.001, 0.005, 0.01, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10)
+        .register();
+
+    public static final Histogram commandExecutorRunTime = Histogram.build()
+        .name("avaire_command_executor_run_duration_seconds")
+        .help("Time tasks spent running in each command pool")
+        .labelNames("pool")
+        .buckets(0.001, 0.005, 0.01, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30)
+        .register();
+
+    public static final Counter commandExecutorRejected = Counter.build()
+        .name("avaire_command_executor_rejected_total")
+        .help("Total tasks rejected by each command pool because the pool, or the guild queue was full")
+        .labelNames("pool")
+        .register();
+
     public static final Counter commandsReceived = Counter.build()
         .name("avaire_commands_received_total")
         .help("Total received commands. Some of these might get ratelimited.")
@@ -204,6 +247,119 @@ public class Metrics {
         .labelNames("type")
         .register();
 
+    public static final Gauge databasePoolConnections = Gauge.build()
+        .name("avaire_database_pool_connections")
+        .help("The amount of active and idle connections in the database connection pool")
+        .labelNames("state")
+        .register();
+
+    public static final Histogram databasePoolBorrowTime = Histogram.build()
+        .name("avaire_database_pool_borrow_duration_seconds")
+        .help("Time spent waiting for a connection from the database connection pool")
+        .buckets(0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5)
+        .register();
+
+    public static final Histogram databasePoolLeaseTime = Histogram.build()
+        .name("avaire_database_pool_lease_duration_seconds")
+        .help("Time a connection was borrowed from the database connection pool before it was returned")
+        .register();
+
+    public static final Counter databasePoolTimeouts = Counter.build()
+        .name("avaire_database_pool_timeouts_total")
+        .help("Total borrow requests that timed out waiting for a database connection")
+        .register();
+
+    public static final Counter databasePoolLeaks = Counter.build()
+        .name("avaire_database_pool_leaks_total")
+        .help("Total connections that were borrowed for longer than the leak detection threshold")
+        .register();
+
+    // Outbound HTTP requests
+
+    public static final Histogram httpRequestDuration = Histogram.build()
+        .name("avaire_http_request_duration_seconds")
+        .help("Time spent on outbound HTTP requests by host, including cached responses")
+        .labelNames("host")
+        .buckets(0.01, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 15)
+        .register();
+
+    public static final Counter httpResponses = Counter.build()
+        .name("avaire_http_responses_total")
+        .help("Total outbound HTTP responses by host and status code class")
+        .labelNames("host", "status")
+        .register();
+
+    public static final Counter httpRequestErrors = Counter.build()
+        .name("avaire_http_request_errors_total")
+        .help("Total outbound HTTP requests that failed without a response by host and exception type")
+        .labelNames("host", "type")
+        .register();
+
+    public static final Counter httpCacheResults = Counter.build()
+        .name("avaire_http_cache_results_total")
+        .help("Total outbound HTTP responses by how they were served from the response cache")
+        .labelNames("result")
+        .register();
+
+    // Asset cache
+
+    public static final Counter assetCacheResults = Counter.build()
+        .name("avaire_asset_cache_results_total")
+        .help("Total asset cache lookups by result, and the amount of evicted assets")
+        .labelNames("result")
+        .register();
+
+    public static final Gauge assetCacheBytes = Gauge.build()
+        .name("avaire_asset_cache_bytes")
+        .help("The total size of the assets stored on disk by the asset cache")
+        .register();
+
+    // Guild metadata writes
+
+    public static final Gauge guildMetadataPendingWrites = Gauge.build()
+        .name("avaire_guild_metadata_pending_writes")
+        .help("The amount of guild metadata writes waiting to be flushed to the database")
+        .labelNames("column")
+        .register();
+
+    public static final Counter guildMetadataWrites = Counter.build()
+        .name("avaire_guild_metadata_writes_total")
+        .help("Total guild metadata writes flushed to the database")
+        .labelNames("column")
+        .register();
+
+    public static final Counter guildMetadataCoalesced = Counter.build()
+        .name("avaire_guild_metadata_coalesced_total")
+        .help("Total guild metadata changes merged into an already pending write")
+        .labelNames("column")
+        .register();
+
+    // Guild preloading
+
+    public static final Counter guildsPreloaded = Counter.build()
+        .name("avaire_guilds_preloaded_total")
+        .help("Total guilds loaded into the guild cache when their shard became ready")
+        .register();
+
+    // Reminders
+
+    public static final Gauge remindersScheduled = Gauge.build()
+        .name("avaire_reminders_scheduled")
+        .help("The amount of reminders due within the loaded window that are held in memory")
+        .register();
+
+    public static final Counter remindersSent = Counter.build()
+        .name("avaire_reminders_sent_total")
+        .help("Total reminders sent to users")
+        .register();
+
+    // Mutes
+
+    public static final Gauge mutesScheduled = Gauge.build()
+        .name("avaire_mutes_scheduled")
+        .help("The amount of temporary mutes waiting to be automatically unmuted")
+        .register();
+
     // Vote statistics
 
     public static final Counter dblVotes = Counter.build()
@@ -252,24 +408,26 @@ public class Metrics {
         Metrics.initializeEventMetrics();
 
         CacheMetricsCollector cacheMetrics = new CacheMetricsCollector().register();
-        cacheMetrics.addCache("levels", LevelManager.cache);
         cacheMetrics.addCache("guilds", GuildController.cache);
         cacheMetrics.addCache("players", PlayerController.cache);
         cacheMetrics.addCache("purchases", PurchaseController.cache);
         cacheMetrics.addCache("playlists", PlaylistController.cache);
         cacheMetrics.addCache("categoryPrefixes", Category.cache);
         cacheMetrics.addCache("reaction-roles", ReactionController.cache);
-        cacheMetrics.addCache("throttleCommands", ThrottleMiddleware.cache);
+        cacheMetrics.addCache("reaction-role-index", ReactionController.indexCache);
         cacheMetrics.addCache("middlewareThrottleMessages", Middleware.messageCache);
         cacheMetrics.addCache("autorole", JDAStateEventAdapter.cache);
         cacheMetrics.addCache("muterole", MuteRoleCommand.cache);
-        cacheMetrics.addCache("rankScores", RankCommand.cache);
+        cacheMetrics.addCache("rank-index", avaire.getLevelManager().getRankIndex().getGuildCache());
         cacheMetrics.addCache("leaderboard", LeaderboardCommand.cache);
         cacheMetrics.addCache("global-leaderboard", GlobalLeaderboardCommand.cache);
         cacheMetrics.addCache("interaction-lottery", InteractionCommand.cache);
-        cacheMetrics.addCache("blacklist-ratelimit", Ratelimit.cache);
         cacheMetrics.addCache("lavalink-destroy-cleanup", LavalinkGarbageNodeCollectorJob.cache);
         cacheMetrics.addCache("music-search-results", SearchController.cache);
+        cacheMetrics.addCache("music-search-no-matches", SearchController.noMatchCache);
+        cacheMetrics.addCache("rank-card-renders", RankCardCache.renders);
+        cacheMetrics.addCache("rank-card-avatars", RankCardCache.avatars);
+        cacheMetrics.addCache("memory-adapter", ((MemoryAdapter) avaire.getCache().getAdapter(CacheType.MEMORY)).getCache());
 
         if (!avaire.getConfig().getBoolean("web-servlet.metrics",
             avaire.getConfig().getBoolean("metrics.enabled", true)
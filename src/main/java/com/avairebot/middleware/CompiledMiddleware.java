@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.middleware;
+
+import com.avairebot.contracts.middleware.Middleware;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A middleware definition that has been resolved and compiled ahead of time, the
+ * compiled middleware holds the middleware instance, the raw arguments given
+ * to the middleware, and the pre-parsed arguments returned by the
+ * {@link Middleware#compile(String[]) middleware compile} method.
+ */
+public final class CompiledMiddleware {
+
+    private static final String[] EMPTY_ARGUMENTS = new String[0];
+
+    private final Middleware middleware;
+    private final String[] arguments;
+    private final Object compiled;
+
+    private CompiledMiddleware(Middleware middleware, String[] arguments, Object compiled) {
+        this.middleware = middleware;
+        this.arguments = arguments;
+        this.compiled = compiled;
+    }
+
+    /**
+     * Compiles the given middleware with the given arguments.
+     *
+     * @param middleware The middleware that should be compiled.
+     * @param arguments  The arguments that should be given to the middleware.
+     * @return The compiled middleware.
+     * @throws IllegalArgumentException If the arguments are not valid for the given middleware.
+     */
+    public static CompiledMiddleware compile(@Nonnull Middleware middleware, @Nonnull String[] arguments) {
+        return new CompiledMiddleware(middleware, arguments, middleware.compile(arguments));
+    }
+
+    /**
+     * Compiles the given middleware definition, the definition should be the name
+     * of a registered middleware, optionally followed by a colon and a comma
+     * separated list of arguments, for example {@code "throttle:user,2,5"}.
+     *
+     * @param definition The middleware definition that should be compiled.
+     * @return The compiled middleware.
+     * @throws IllegalArgumentException If the middleware doesn't exist, or the arguments are invalid.
+     */
+    public static CompiledMiddleware compile(@Nonnull String definition) {
+        String[] split = definition.split(":", 2);
+
+        Middleware middleware = MiddlewareHandler.getMiddleware(split[0]);
+        if (middleware == null) {
+            throw new IllegalArgumentException("Middleware reference may not be null, " + split[0] + " is not a valid middleware!");
+        }
+
+        try {
+            return compile(middleware, split.length == 1 ? EMPTY_ARGUMENTS : split[1].split(","));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid middleware definition \"%s\": %s", definition, e.getMessage()
+            ), e);
+        }
+    }
+
+    /**
+     * Gets the middleware instance.
+     *
+     * @return The middleware instance.
+     */
+    public Middleware getMiddleware() {
+        return middleware;
+    }
+
+    /**
+     * Gets the raw arguments given to the middleware.
+     *
+     * @return The raw arguments given to the middleware.
+     */
+    public String[] getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Gets the compiled arguments for the middleware as the given type.
+     *
+     * @param type The type the compiled arguments should be cast to.
+     * @param <T>  The type of the compiled arguments.
+     * @return Possibly-null, the compiled arguments, or null if the middleware doesn't compile its arguments.
+     */
+    @Nullable
+    public <T> T getCompiled(@Nonnull Class<T> type) {
+        return type.cast(compiled);
+    }
+}
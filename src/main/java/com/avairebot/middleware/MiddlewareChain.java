@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.middleware;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * An immutable chain of compiled middlewares for a command, the chain is compiled
+ * once when the command is registered, so invalid middleware definitions are
+ * caught during startup, and running the middleware stack for a command
+ * doesn't need to parse or resolve any of the middlewares again.
+ */
+public final class MiddlewareChain {
+
+    private final CompiledMiddleware[] middlewares;
+
+    private MiddlewareChain(CompiledMiddleware[] middlewares) {
+        this.middlewares = middlewares;
+    }
+
+    /**
+     * Compiles the given middleware definitions into a middleware chain,
+     * the middlewares will be invoked in the order they're given.
+     *
+     * @param definitions The middleware definitions that should be compiled.
+     * @return The compiled middleware chain.
+     * @throws IllegalArgumentException If any of the middleware definitions are invalid.
+     */
+    public static MiddlewareChain compile(@Nonnull List<String> definitions) {
+        CompiledMiddleware[] middlewares = new CompiledMiddleware[definitions.size()];
+        for (int i = 0; i < middlewares.length; i++) {
+            middlewares[i] = CompiledMiddleware.compile(definitions.get(i));
+        }
+        return new MiddlewareChain(middlewares);
+    }
+
+    /**
+     * Gets the compiled middleware at the given index.
+     *
+     * @param index The index of the middleware.
+     * @return The compiled middleware at the given index.
+     */
+    public CompiledMiddleware get(int index) {
+        return middlewares[index];
+    }
+
+    /**
+     * Gets the amount of middlewares in the chain.
+     *
+     * @return The amount of middlewares in the chain.
+     */
+    public int size() {
+        return middlewares.length;
+    }
+}
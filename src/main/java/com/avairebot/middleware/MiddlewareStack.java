@@ -24,7 +24,6 @@ package com.avairebot.middleware;
 import com.avairebot.AvaIre;
 import com.avairebot.commands.CommandContainer;
 import com.avairebot.contracts.commands.Command;
-import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.handlers.DatabaseEventHolder;
 import com.avairebot.metrics.Metrics;
 import com.avairebot.middleware.global.IncrementMetricsForCommand;
@@ -32,37 +31,38 @@ import com.avairebot.middleware.global.IsCategoryEnabled;
 import com.avairebot.middleware.global.ProcessCommand;
 import net.dv8tion.jda.core.entities.Message;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.ListIterator;
-
 public class MiddlewareStack {
 
-    private static ProcessCommand processCommand;
-    private static IsCategoryEnabled isCategoryEnabled;
-    private static IncrementMetricsForCommand incrementMetricsForCommand;
+    private static CompiledMiddleware processCommand;
+    private static CompiledMiddleware isCategoryEnabled;
+    private static CompiledMiddleware incrementMetricsForCommand;
 
     private final Message message;
     private final CommandContainer command;
-    private final List<MiddlewareContainer> middlewares = new ArrayList<>();
+    private final MiddlewareChain chain;
     private final DatabaseEventHolder databaseEventHolder;
     private final boolean mentionableCommand;
 
-    private int index = -1;
+    /**
+     * The cursor for the next middleware that should be invoked, the global
+     * middlewares wraps around the commands middleware chain, so the
+     * cursor goes through the following stages:
+     * <ul>
+     * <li>{@code 0} - Increment metrics for command</li>
+     * <li>{@code 1} - Is category enabled</li>
+     * <li>{@code 2...n+1} - The command middleware chain</li>
+     * <li>{@code n+2} - Process command</li>
+     * </ul>
+     */
+    private int cursor = 0;
 
     public MiddlewareStack(Message message, CommandContainer command, DatabaseEventHolder databaseEventHolder, boolean mentionableCommand) {
         this.message = message;
         this.command = command;
+        this.chain = command.getMiddlewareChain();
         this.mentionableCommand = mentionableCommand;
         this.databaseEventHolder = databaseEventHolder;
 
-        middlewares.add(new MiddlewareContainer(processCommand));
-
-        buildMiddlewareStack();
-
-        middlewares.add(new MiddlewareContainer(isCategoryEnabled));
-        middlewares.add(new MiddlewareContainer(incrementMetricsForCommand));
-
         Metrics.commandAttempts.labels(command.getClass().getSimpleName()).inc();
     }
 
@@ -76,36 +76,9 @@ public class MiddlewareStack {
      * @param avaire The AvaIre application instance.
      */
     static void buildGlobalMiddlewares(AvaIre avaire) {
-        processCommand = new ProcessCommand(avaire);
-        isCategoryEnabled = new IsCategoryEnabled(avaire);
-        incrementMetricsForCommand = new IncrementMetricsForCommand(avaire);
-    }
-
-    /**
-     * Builds the middleware stack from the commands {@link Command#getMiddleware() getMiddleware()} method.
-     */
-    private void buildMiddlewareStack() {
-        List<String> middleware = command.getMiddleware();
-        if (middleware.isEmpty()) {
-            return;
-        }
-
-        ListIterator middlewareIterator = middleware.listIterator(middleware.size());
-        while (middlewareIterator.hasPrevious()) {
-            String previous = (String) middlewareIterator.previous();
-            String[] split = previous.split(":");
-
-            Middleware middlewareReference = MiddlewareHandler.getMiddleware(split[0]);
-            if (middlewareReference == null) {
-                continue;
-            }
-
-            if (split.length == 1) {
-                middlewares.add(new MiddlewareContainer(middlewareReference));
-                continue;
-            }
-            middlewares.add(new MiddlewareContainer(middlewareReference, split[1].split(",")));
-        }
+        processCommand = CompiledMiddleware.compile(new ProcessCommand(avaire), new String[0]);
+        isCategoryEnabled = CompiledMiddleware.compile(new IsCategoryEnabled(avaire), new String[0]);
+        incrementMetricsForCommand = CompiledMiddleware.compile(new IncrementMetricsForCommand(avaire), new String[0]);
     }
 
     /**
@@ -116,15 +89,26 @@ public class MiddlewareStack {
      * @return <code>True</code> if the next middleware in the stack executed successfully, <code>False</code> otherwise.
      */
     public boolean next() {
-        if (index == -1) {
-            index = middlewares.size();
+        CompiledMiddleware middleware = nextMiddleware(cursor++);
+
+        return middleware
+            .getMiddleware()
+            .handle(message, this, middleware);
+    }
+
+    private CompiledMiddleware nextMiddleware(int position) {
+        if (position == 0) {
+            return incrementMetricsForCommand;
         }
 
-        MiddlewareContainer middlewareContainer = middlewares.get(--index);
+        if (position == 1) {
+            return isCategoryEnabled;
+        }
 
-        return middlewareContainer
-            .getMiddleware()
-            .handle(message, this, middlewareContainer.getArguments());
+        if (position - 2 < chain.size()) {
+            return chain.get(position - 2);
+        }
+        return processCommand;
     }
 
     /**
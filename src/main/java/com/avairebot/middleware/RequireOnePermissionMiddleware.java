@@ -27,6 +27,7 @@ import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.middleware.permission.PermissionCheck;
 import com.avairebot.middleware.permission.PermissionCommon;
+import com.avairebot.middleware.permission.PermissionRequirement;
 import com.avairebot.middleware.permission.PermissionType;
 import com.avairebot.permissions.Permissions;
 import com.avairebot.utilities.RestActionUtil;
@@ -62,20 +63,32 @@ public class RequireOnePermissionMiddleware extends Middleware {
         );
     }
 
+    @Override
+    public Object compile(@Nonnull String[] arguments) {
+        return PermissionRequirement.parse(arguments);
+    }
+
     @Override
     public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args) {
-        if (!message.getChannelType().isGuild()) {
+        CompiledMiddleware middleware;
+        try {
+            middleware = CompiledMiddleware.compile(this, args);
+        } catch (IllegalArgumentException e) {
+            AvaIre.getLogger().warn(String.format(
+                "\"%s\" is parsing invalid arguments to the require middleware: %s", stack.getCommand().getName(), e.getMessage()
+            ));
             return stack.next();
         }
+        return handle(message, stack, middleware);
+    }
 
-        if (args.length < 2) {
-            AvaIre.getLogger().warn(String.format(
-                "\"%s\" is parsing invalid amount of arguments to the require middleware, 2 arguments are required.", stack.getCommand()
-            ));
+    @Override
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, @Nonnull CompiledMiddleware middleware) {
+        if (!message.getChannelType().isGuild()) {
             return stack.next();
         }
 
-        PermissionCheck permissionCheck = new PermissionCheck(message, args);
+        PermissionCheck permissionCheck = new PermissionCheck(message, middleware.getCompiled(PermissionRequirement.class));
         if (!permissionCheck.check(stack)) {
             return false;
         }
@@ -24,27 +24,43 @@ package com.avairebot.middleware;
 import com.avairebot.AvaIre;
 import com.avairebot.commands.CommandMessage;
 import com.avairebot.contracts.commands.CacheFingerprint;
+import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.contracts.middleware.ThrottleMessage;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.metrics.Metrics;
+import com.avairebot.throttle.ThrottleBuckets;
+import com.avairebot.throttle.TokenBucket;
 import com.avairebot.time.Carbon;
-import com.avairebot.utilities.CacheUtil;
-import com.avairebot.utilities.NumberUtil;
 import com.avairebot.utilities.RestActionUtil;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.core.entities.Message;
 
 import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ThrottleMiddleware extends Middleware {
 
-    public static final Cache<String, ThrottleEntity> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
+    /**
+     * The throttle buckets for all the commands, the buckets are keyed by the ID of the
+     * guild, the ID of the user or channel, and the command fingerprint and the type
+     * of throttle, see {@link ThrottleType#getKeyFirst(Message)} for more info.
+     */
+    public static final ThrottleBuckets buckets = new ThrottleBuckets();
+
+    /**
+     * The command fingerprint IDs, mapped by the command class they belong to.
+     */
+    private static final Map<Class<?>, Integer> commandFingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * The fingerprint IDs, mapped by their fingerprint names, commands with the same
+     * {@link CacheFingerprint cache fingerprint} will share the same fingerprint ID.
+     */
+    private static final Map<String, Integer> fingerprints = new ConcurrentHashMap<>();
+    private static final AtomicInteger fingerprintSequence = new AtomicInteger();
 
     public ThrottleMiddleware(AvaIre avaire) {
         super(avaire);
@@ -57,56 +73,82 @@ public class ThrottleMiddleware extends Middleware {
         );
     }
 
+    @Override
+    public Object compile(@Nonnull String[] arguments) {
+        if (arguments.length < 3) {
+            throw new IllegalArgumentException("3 arguments are required for the throttle middleware");
+        }
+
+        ThrottleLimit limit = new ThrottleLimit(
+            ThrottleType.fromName(arguments[0]),
+            Integer.parseInt(arguments[1]),
+            Integer.parseInt(arguments[2])
+        );
+
+        if (limit.getMaxAttempts() < 1 || limit.getDecaySeconds() < 1) {
+            throw new IllegalArgumentException("The throttle attempts and decay time must be at least 1");
+        }
+        return limit;
+    }
+
     @Override
     public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args) {
-        if (args.length < 3) {
+        CompiledMiddleware middleware;
+        try {
+            middleware = CompiledMiddleware.compile(this, args);
+        } catch (IllegalArgumentException e) {
             AvaIre.getLogger().warn(String.format(
-                "\"%s\" is parsing invalid amount of arguments to the throttle middleware, 3 arguments are required.", stack.getCommand()
+                "\"%s\" is parsing invalid arguments to the throttle middleware: %s", stack.getCommand().getName(), e.getMessage()
             ));
             return stack.next();
         }
+        return handle(message, stack, middleware);
+    }
 
-        ThrottleType type = ThrottleType.fromName(args[0]);
-
-        try {
-            int maxAttempts = NumberUtil.parseInt(args[1], 2);
-            int decaySeconds = NumberUtil.parseInt(args[2], 5);
-
-            String fingerprint = type.generateCacheString(message, stack);
-
-            ThrottleEntity entity = getEntityFromCache(fingerprint, maxAttempts, decaySeconds);
-            if (entity.getHits() >= maxAttempts) {
-                Carbon expires = type.equals(ThrottleType.USER)
-                    ? avaire.getBlacklist().getRatelimit().hit(type, message.getAuthor().getIdLong())
-                    : avaire.getBlacklist().getRatelimit().hit(type, message.getGuild().getIdLong());
-
-                if (expires != null) {
-                    avaire.getBlacklist().getRatelimit().sendBlacklistMessage(
-                        type.equals(ThrottleType.USER) ? message.getAuthor() : message.getChannel(), expires
-                    );
-                    return false;
-                }
+    @Override
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, @Nonnull CompiledMiddleware middleware) {
+        ThrottleLimit limit = middleware.getCompiled(ThrottleLimit.class);
+        ThrottleType type = limit.getType().resolve(message);
+
+        TokenBucket bucket = buckets.get(
+            type.getKeyFirst(message),
+            type.getKeySecond(message),
+            (getFingerprint(stack.getCommand()) << 2) | type.ordinal(),
+            limit.getMaxAttempts(),
+            limit.getDecaySeconds() * 1000L
+        );
 
-                return cancelCommandThrottleRequest(message, stack, entity);
+        long now = System.currentTimeMillis();
+        if (!bucket.tryAcquire(now)) {
+            Carbon expires = avaire.getBlacklist().getRatelimit().hit(type, type.equals(ThrottleType.USER)
+                ? message.getAuthor().getIdLong()
+                : message.getGuild().getIdLong()
+            );
+
+            if (expires != null) {
+                avaire.getBlacklist().getRatelimit().sendBlacklistMessage(
+                    type.equals(ThrottleType.USER) ? message.getAuthor() : message.getChannel(), expires
+                );
+                return false;
             }
 
-            boolean response = stack.next();
+            return cancelCommandThrottleRequest(message, stack, type, bucket.getRetryAfter(now));
+        }
 
-            if (response) {
-                entity.incrementHit();
-            }
+        boolean response = stack.next();
 
-            return response;
-        } catch (NumberFormatException e) {
-            AvaIre.getLogger().warn(String.format(
-                "Invalid integers given to throttle command by \"%s\", args: (%s, %s)", stack.getCommand().getName(), args[1], args[2]
-            ));
+        // Only successful commands counts towards the throttle limit,
+        // so we'll give the token back if the command failed.
+        if (!response) {
+            bucket.release();
         }
-        return false;
+
+        return response;
     }
 
-    private boolean cancelCommandThrottleRequest(Message message, MiddlewareStack stack, ThrottleEntity entity) {
+    private boolean cancelCommandThrottleRequest(Message message, MiddlewareStack stack, ThrottleType type, long retryAfter) {
         Metrics.commandsRatelimited.labels(stack.getCommand().getClass().getSimpleName()).inc();
+        Metrics.throttleRejections.labels(stack.getCommand().getClass().getSimpleName(), type.getName()).inc();
 
         return runMessageCheck(message, () -> {
             String throttleMessage = "Too many `:command` attempts. Please try again in **:time** seconds.";
@@ -122,7 +164,7 @@ public class ThrottleMiddleware extends Middleware {
 
             MessageFactory.makeWarning(message, throttleMessage)
                 .set("command", stack.getCommand().getName())
-                .set("time", ((entity.getTime() - System.currentTimeMillis()) / 1000) + 1)
+                .set("time", (retryAfter / 1000) + 1)
                 .set("prefix", stack.getCommand().generateCommandPrefix(message))
                 .queue(newMessage -> newMessage.delete().queueAfter(45, TimeUnit.SECONDS, null, RestActionUtil.ignore));
 
@@ -130,31 +172,40 @@ public class ThrottleMiddleware extends Middleware {
         });
     }
 
-    private ThrottleEntity getEntityFromCache(String fingerprint, int maxAttempts, int decaySeconds) {
-        ThrottleEntity entity = (ThrottleEntity) CacheUtil.getUncheckedUnwrapped(cache, fingerprint,
-            () -> new ThrottleEntity(maxAttempts, decaySeconds)
-        );
-
-        if (entity.hasExpired()) {
-            cache.invalidate(fingerprint);
-            return getEntityFromCache(fingerprint, maxAttempts, decaySeconds);
+    /**
+     * Gets the fingerprint ID for the given command, the fingerprint is resolved from the
+     * {@link CacheFingerprint cache fingerprint} annotation, or the command name if the
+     * command doesn't have the annotation, the ID is cached for every command class.
+     *
+     * @param command The command the fingerprint ID should be returned for.
+     * @return The fingerprint ID for the given command.
+     */
+    private static int getFingerprint(Command command) {
+        Integer fingerprint = commandFingerprints.get(command.getClass());
+        if (fingerprint != null) {
+            return fingerprint;
         }
 
-        return entity;
+        return commandFingerprints.computeIfAbsent(command.getClass(), clazz -> {
+            CacheFingerprint annotation = clazz.getAnnotation(CacheFingerprint.class);
+
+            String name = annotation == null || annotation.name().length() == 0
+                ? command.getName() : annotation.name();
+
+            return fingerprints.computeIfAbsent(name, key -> fingerprintSequence.getAndIncrement());
+        });
     }
 
     public enum ThrottleType {
 
-        USER("user", "throttle.user.%s.%s.%s"),
-        CHANNEL("channel", "throttle.channel.%s.%s.%s"),
-        GUILD("guild", "throttle.guild.%s.%s");
+        USER("user"),
+        CHANNEL("channel"),
+        GUILD("guild");
 
         private final String name;
-        private final String cache;
 
-        ThrottleType(String name, String cache) {
+        ThrottleType(String name) {
             this.name = name;
-            this.cache = cache;
         }
 
         public static ThrottleType fromName(String name) {
@@ -170,77 +221,78 @@ public class ThrottleMiddleware extends Middleware {
             return name;
         }
 
-        public String generateCacheString(Message message, MiddlewareStack stack) {
+        /**
+         * Resolves the throttle type that should be used for the given message, messages
+         * that are not sent in a guild will always be throttled per user.
+         *
+         * @param message The message that should be throttled.
+         * @return The throttle type that should be used for the given message.
+         */
+        public ThrottleType resolve(Message message) {
             if (!this.equals(ThrottleType.USER) && message.getGuild() == null) {
-                return USER.generateCacheString(message, stack);
+                return USER;
             }
+            return this;
+        }
 
-            String cacheFingerprint = generateCacheFingerprint(stack);
+        /**
+         * Gets the first part of the throttle key, this is always the ID of
+         * the guild, or {@code 0} if the message was sent in a DM.
+         *
+         * @param message The message that should be throttled.
+         * @return The first part of the throttle key.
+         */
+        public long getKeyFirst(Message message) {
+            return message.getGuild() == null ? 0L : message.getGuild().getIdLong();
+        }
 
+        /**
+         * Gets the second part of the throttle key, this is the ID of the user for user
+         * throttles, the ID of the channel for channel throttles, or {@code 0}.
+         *
+         * @param message The message that should be throttled.
+         * @return The second part of the throttle key.
+         */
+        public long getKeySecond(Message message) {
             switch (this) {
                 case USER:
-                    return String.format(cache,
-                        message.getGuild() == null ? "private" : message.getGuild().getId(),
-                        message.getAuthor().getId(),
-                        cacheFingerprint);
+                    return message.getAuthor().getIdLong();
 
                 case CHANNEL:
-                    return String.format(cache,
-                        message.getGuild().getId(),
-                        message.getChannel().getId(),
-                        cacheFingerprint);
-
-                case GUILD:
-                    return String.format(cache,
-                        message.getGuild().getId(),
-                        cacheFingerprint);
+                    return message.getChannel().getIdLong();
 
                 default:
-                    return ThrottleType.USER.generateCacheString(message, stack);
+                    return 0L;
             }
         }
-
-        private String generateCacheFingerprint(MiddlewareStack stack) {
-            CacheFingerprint annotation = stack.getCommand().getClass().getAnnotation(CacheFingerprint.class);
-
-            if (annotation == null || annotation.name().length() == 0) {
-                return stack.getCommand().getName();
-            }
-
-            return annotation.name();
-        }
     }
 
-    private static class ThrottleEntity {
+    /**
+     * The compiled throttle middleware arguments, holding the
+     * type of throttle and the parsed throttle limits.
+     */
+    public static final class ThrottleLimit {
 
+        private final ThrottleType type;
         private final int maxAttempts;
-        private final long time;
-        private int hit;
+        private final int decaySeconds;
 
-        ThrottleEntity(int maxAttempts, int decaySeconds) {
-            this.time = System.currentTimeMillis() + (decaySeconds * 1000);
+        ThrottleLimit(ThrottleType type, int maxAttempts, int decaySeconds) {
+            this.type = type;
             this.maxAttempts = maxAttempts;
-            this.hit = 0;
+            this.decaySeconds = decaySeconds;
         }
 
-        public int getHits() {
-            return hit;
-        }
-
-        public void incrementHit() {
-            hit++;
+        public ThrottleType getType() {
+            return type;
         }
 
         public int getMaxAttempts() {
             return maxAttempts;
         }
 
-        public long getTime() {
-            return time;
-        }
-
-        public boolean hasExpired() {
-            return System.currentTimeMillis() > time;
+        public int getDecaySeconds() {
+            return decaySeconds;
         }
     }
 }
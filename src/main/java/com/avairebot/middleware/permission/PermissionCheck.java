@@ -29,7 +29,6 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 public class PermissionCheck {
@@ -42,6 +41,12 @@ public class PermissionCheck {
      */
     private final String[] args;
 
+    /**
+     * The pre-parsed permissions that should be checked, or {@code NULL}
+     * if the permissions should be parsed from the arguments.
+     */
+    private final Permissions[] permissions;
+
     /**
      * Determines if the user has the Administrator permissions,
      * if they do have that we can skip some checks.
@@ -85,10 +90,26 @@ public class PermissionCheck {
      * @param args    The arguments parsed to the middleware.
      */
     public PermissionCheck(@Nonnull Message message, String[] args) {
+        this(message, PermissionType.fromName(args[0]), args, null);
+    }
+
+    /**
+     * Creates a new permission check instance for the current message
+     * using the given pre-parsed permission requirement.
+     *
+     * @param message     The message that invoked the middleware stack.
+     * @param requirement The permission requirement that should be checked.
+     */
+    public PermissionCheck(@Nonnull Message message, @Nonnull PermissionRequirement requirement) {
+        this(message, requirement.getType(), null, requirement.getPermissions());
+    }
+
+    private PermissionCheck(Message message, PermissionType type, String[] args, Permissions[] permissions) {
         this.isUserAdmin = message.getMember().hasPermission(Permissions.ADMINISTRATOR.getPermission());
-        this.type = PermissionType.fromName(args[0]);
+        this.type = type;
         this.message = message;
         this.args = args;
+        this.permissions = permissions;
 
         if (isUserAdmin) {
             userHasAtleastOne = true;
@@ -102,15 +123,19 @@ public class PermissionCheck {
      * @return <code>True</code> if the check ran successfully, <code>False</code> if an invalid permission node was given.
      */
     public boolean check(@Nonnull MiddlewareStack stack) {
-        String[] permissions = Arrays.copyOfRange(args, 1, args.length);
-
-        for (String permissionNode : permissions) {
-            Permissions permission = Permissions.fromNode(permissionNode);
-            if (permission == null) {
-                log.warn(String.format("Invalid permission node given for the \"%s\" command: %s", stack.getCommand().getName(), permissionNode));
-                return false;
+        Permissions[] permissions = this.permissions;
+        if (permissions == null) {
+            permissions = new Permissions[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                permissions[i - 1] = Permissions.fromNode(args[i]);
+                if (permissions[i - 1] == null) {
+                    log.warn(String.format("Invalid permission node given for the \"%s\" command: %s", stack.getCommand().getName(), args[i]));
+                    return false;
+                }
             }
+        }
 
+        for (Permissions permission : permissions) {
             if (!isUserAdmin && type.isCheckUser() && !message.getMember().hasPermission(permission.getPermission())) {
                 missingUserPermissions.add(permission);
             }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.middleware.permission;
+
+import com.avairebot.permissions.Permissions;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The compiled arguments for the permission middlewares, holding the
+ * permission type, and the permissions that should be checked.
+ */
+public final class PermissionRequirement {
+
+    private final PermissionType type;
+    private final Permissions[] permissions;
+
+    private PermissionRequirement(PermissionType type, Permissions[] permissions) {
+        this.type = type;
+        this.permissions = permissions;
+    }
+
+    /**
+     * Parses the given permission middleware arguments, the first argument should be the
+     * {@link PermissionType permission type}, followed by the permission nodes.
+     *
+     * @param arguments The arguments given to the permission middleware.
+     * @return The parsed permission requirement.
+     * @throws IllegalArgumentException If less than two arguments are given, or an invalid permission node is given.
+     */
+    public static PermissionRequirement parse(@Nonnull String[] arguments) {
+        if (arguments.length < 2) {
+            throw new IllegalArgumentException("2 arguments are required for the permission middlewares");
+        }
+
+        Permissions[] permissions = new Permissions[arguments.length - 1];
+        for (int i = 1; i < arguments.length; i++) {
+            Permissions permission = Permissions.fromNode(arguments[i]);
+            if (permission == null) {
+                throw new IllegalArgumentException("Invalid permission node given: " + arguments[i]);
+            }
+            permissions[i - 1] = permission;
+        }
+
+        return new PermissionRequirement(PermissionType.fromName(arguments[0]), permissions);
+    }
+
+    /**
+     * Gets the type of the permission check.
+     *
+     * @return The type of the permission check.
+     */
+    public PermissionType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the permissions that should be checked.
+     *
+     * @return The permissions that should be checked.
+     */
+    public Permissions[] getPermissions() {
+        return permissions;
+    }
+}
@@ -25,7 +25,7 @@ import com.avairebot.time.Carbon;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.concurrent.ScheduledFuture;
+import java.util.Objects;
 
 @SuppressWarnings("WeakerAccess")
 public class MuteContainer {
@@ -33,7 +33,6 @@ public class MuteContainer {
     private final long guildId;
     private final long userId;
     private final Carbon expiresAt;
-    private ScheduledFuture<?> schedule;
 
     /**
      * Creates a mute container using the given guild ID, user ID, and expiration time.
@@ -47,7 +46,6 @@ public class MuteContainer {
         this.guildId = guildId;
         this.userId = userId;
         this.expiresAt = expiresAt;
-        this.schedule = null;
     }
 
     /**
@@ -80,38 +78,14 @@ public class MuteContainer {
     }
 
     /**
-     * Gets the future scheduled task for the mute, this task is used
-     * to automatically unmute a user if there is 5 minutes or less
-     * left of their temporary mute.
-     * <p>
-     * If this value is {@code NULL} the automatic mute task haven't
-     * yet been started for the mute container.
+     * Gets the unix timestamp in milliseconds for when the mute
+     * should automatically expire, or {@code -1} if the
+     * mute is permanent.
      *
-     * @return The future scheduled task used to auto unmute the container, or {@code NULL}.
+     * @return The unix timestamp in milliseconds the mute expires at, or {@code -1}.
      */
-    @Nullable
-    public ScheduledFuture<?> getSchedule() {
-        return schedule;
-    }
-
-    /**
-     * Sets the future scheduled task that should automatically unmute the container.
-     *
-     * @param schedule The future task used to unmute the container.
-     */
-    public void setSchedule(@Nonnull ScheduledFuture<?> schedule) {
-        this.schedule = schedule;
-    }
-
-    /**
-     * Cancels the future scheduled task used to automatically
-     * unmute the container if one has been started.
-     */
-    public void cancelSchedule() {
-        if (schedule != null) {
-            schedule.cancel(false);
-            schedule = null;
-        }
+    public long getExpiresAtMillis() {
+        return expiresAt == null ? -1L : expiresAt.getTimestamp() * 1000L;
     }
 
     /**
@@ -153,6 +127,11 @@ public class MuteContainer {
         return obj != null && obj instanceof MuteContainer && isSame((MuteContainer) obj);
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(getGuildId(), getUserId());
+    }
+
     @Override
     public String toString() {
         return String.format("MuteContainer={guildId=%s, userId=%s, expiresAt=%s}",
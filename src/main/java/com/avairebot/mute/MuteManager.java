@@ -23,24 +23,53 @@ package com.avairebot.mute;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.TimerWheel;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.language.I18n;
+import com.avairebot.metrics.Metrics;
 import com.avairebot.modlog.ModlogType;
 import com.avairebot.time.Carbon;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class MuteManager {
 
     private final Logger log = LoggerFactory.getLogger(MuteManager.class);
-    private final HashMap<Long, HashSet<MuteContainer>> mutes = new HashMap<>();
+
+    /**
+     * The mutes currently stored in memory, keyed by the guild ID, and
+     * then by the user ID, since a user can only have one mute per guild.
+     */
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Long, MuteContainer>> mutes = new ConcurrentHashMap<>();
+
+    /**
+     * The expire index for temporary mutes, the wheel only has to look at the
+     * slots for the seconds that has passed since it was last advanced,
+     * so draining expired mutes doesn't have to go through every mute.
+     */
+    private final TimerWheel<MuteContainer> expirations = new TimerWheel<>(1024, 1000L);
+
+    /**
+     * Temporary mutes that had already expired when they were registered, the timer
+     * wheel won't expire items for ticks that has already passed, so these are
+     * kept separately and returned by the next drain instead.
+     */
+    private final Queue<MuteContainer> overdue = new ConcurrentLinkedQueue<>();
 
     private final AvaIre avaire;
 
@@ -77,10 +106,6 @@ public class MuteManager {
      *                      to be removed before the new mute is registered.
      */
     public void registerMute(String caseId, long guildId, long userId, @Nullable Carbon expiresAt) throws SQLException {
-        if (!mutes.containsKey(guildId)) {
-            mutes.put(guildId, new HashSet<>());
-        }
-
         if (isMuted(guildId, userId)) {
             unregisterMute(guildId, userId);
         }
@@ -92,7 +117,7 @@ public class MuteManager {
                 statement.set("expires_in", expiresAt);
             });
 
-        mutes.get(guildId).add(new MuteContainer(guildId, userId, expiresAt));
+        track(new MuteContainer(guildId, userId, expiresAt));
     }
 
     /**
@@ -103,29 +128,67 @@ public class MuteManager {
      * @throws SQLException If the unmute fails to delete the mute record from the database.
      */
     public void unregisterMute(long guildId, long userId) throws SQLException {
-        if (!mutes.containsKey(guildId)) {
+        Map<Long, MuteContainer> guildMutes = mutes.get(guildId);
+        if (guildMutes == null) {
             return;
         }
 
-        final boolean[] removedEntities = {false};
-        synchronized (mutes) {
-            mutes.get(guildId).removeIf(next -> {
-                if (!next.isSame(guildId, userId)) {
-                    return false;
-                }
+        MuteContainer container = guildMutes.remove(userId);
+        if (container == null) {
+            return;
+        }
 
-                if (next.getSchedule() != null) {
-                    next.cancelSchedule();
-                }
+        untrack(container);
+        cleanupMutes(guildId, Collections.singleton(userId));
+    }
 
-                removedEntities[0] = true;
-                return true;
-            });
+    /**
+     * Unregisters all the given mutes from the database for the given guild, the
+     * mutes are deleted in a single batch, this should be used for mutes
+     * returned by {@link #drainExpiredMutes()}, since they have
+     * already been removed from memory.
+     *
+     * @param guildId    The ID of the guild the mutes was registered to.
+     * @param containers The mutes that should be deleted from the database.
+     * @throws SQLException If the mute records fails to be deleted from the database.
+     */
+    public void unregisterExpiredMutes(long guildId, @Nonnull List<MuteContainer> containers) throws SQLException {
+        if (containers.isEmpty()) {
+            return;
         }
 
-        if (removedEntities[0]) {
-            cleanupMutes(guildId, userId);
+        Set<Long> userIds = new HashSet<>();
+        for (MuteContainer container : containers) {
+            userIds.add(container.getUserId());
         }
+
+        cleanupMutes(guildId, userIds);
+    }
+
+    /**
+     * Removes every temporary mute that has expired from memory, and returns them grouped
+     * by the ID of the guild they belong to, so each guild can be unmuted in one go,
+     * the returned mutes must still be removed from the database using the
+     * {@link #unregisterExpiredMutes(long, List)} method.
+     * <p>
+     * Only the mutes that are actually due are looked at, so calling this every
+     * second is cheap no matter how many mutes are currently registered.
+     *
+     * @return The expired mutes, grouped by their guild IDs.
+     */
+    public Map<Long, List<MuteContainer>> drainExpiredMutes() {
+        Map<Long, List<MuteContainer>> expired = new HashMap<>();
+
+        MuteContainer container;
+        while ((container = overdue.poll()) != null) {
+            expire(container, expired);
+        }
+
+        expirations.advance(System.currentTimeMillis(), item -> expire(item, expired));
+
+        Metrics.mutesScheduled.set(expirations.size());
+
+        return expired;
     }
 
     /**
@@ -138,16 +201,9 @@ public class MuteManager {
      *         with the given guild ID, {@code False} otherwise.
      */
     public boolean isMuted(long guildId, long userId) {
-        if (!mutes.containsKey(guildId)) {
-            return false;
-        }
+        Map<Long, MuteContainer> guildMutes = mutes.get(guildId);
 
-        for (MuteContainer container : mutes.get(guildId)) {
-            if (container.isSame(guildId, userId)) {
-                return true;
-            }
-        }
-        return false;
+        return guildMutes != null && guildMutes.containsKey(userId);
     }
 
     /**
@@ -158,21 +214,58 @@ public class MuteManager {
      */
     public int getTotalAmountOfMutes() {
         int totalMutes = 0;
-        for (Map.Entry<Long, HashSet<MuteContainer>> entry : mutes.entrySet()) {
-            totalMutes += entry.getValue().size();
+        for (Map<Long, MuteContainer> guildMutes : mutes.values()) {
+            totalMutes += guildMutes.size();
         }
         return totalMutes;
     }
 
     /**
-     * Gets the map of mutes currently stored, where the key is the guild ID for
-     * the mutes, and the value is a set of mute containers, which holds
-     * the information about each individual mute.
+     * Gets the amount of temporary mutes that are currently
+     * waiting to be automatically unmuted.
      *
-     * @return The complete map of mutes currently stored.
+     * @return The amount of temporary mutes waiting to expire.
      */
-    public HashMap<Long, HashSet<MuteContainer>> getMutes() {
-        return mutes;
+    public int getScheduledMutes() {
+        return expirations.size() + overdue.size();
+    }
+
+    private void track(MuteContainer container) {
+        MuteContainer previous = mutes.computeIfAbsent(container.getGuildId(), guildId -> new ConcurrentHashMap<>())
+            .put(container.getUserId(), container);
+
+        if (previous != null) {
+            untrack(previous);
+        }
+
+        if (container.isPermanent()) {
+            return;
+        }
+
+        if (container.getExpiresAtMillis() <= System.currentTimeMillis()) {
+            overdue.add(container);
+        } else {
+            expirations.schedule(container, container.getExpiresAtMillis());
+        }
+
+        Metrics.mutesScheduled.set(expirations.size());
+    }
+
+    private void untrack(MuteContainer container) {
+        if (!container.isPermanent()) {
+            expirations.cancel(container, container.getExpiresAtMillis());
+            overdue.remove(container);
+        }
+    }
+
+    private void expire(MuteContainer container, Map<Long, List<MuteContainer>> expired) {
+        Map<Long, MuteContainer> guildMutes = mutes.get(container.getGuildId());
+
+        // Only mutes that are still registered are expired, if the user was unmuted, or
+        // muted again, in the meantime, the container will have been replaced.
+        if (guildMutes != null && guildMutes.remove(container.getUserId(), container)) {
+            expired.computeIfAbsent(container.getGuildId(), guildId -> new ArrayList<>()).add(container);
+        }
     }
 
     private void syncWithDatabase() {
@@ -185,13 +278,7 @@ public class MuteManager {
         try {
             int size = getTotalAmountOfMutes();
             for (DataRow row : avaire.getDatabase().query(query)) {
-                long guildId = row.getLong("guild_id");
-
-                if (!mutes.containsKey(guildId)) {
-                    mutes.put(guildId, new HashSet<>());
-                }
-
-                mutes.get(guildId).add(new MuteContainer(
+                track(new MuteContainer(
                     row.getLong("guild_id"),
                     row.getLong("target_id"),
                     row.getTimestamp("expires_in")
@@ -206,7 +293,7 @@ public class MuteManager {
         }
     }
 
-    private void cleanupMutes(long guildId, long userId) throws SQLException {
+    private void cleanupMutes(long guildId, Set<Long> userIds) throws SQLException {
         Collection collection = avaire.getDatabase().newQueryBuilder(Constants.MUTE_TABLE_NAME)
             .select(Constants.MUTE_TABLE_NAME + ".modlog_id as id")
             .innerJoin(
@@ -215,7 +302,11 @@ public class MuteManager {
                 Constants.LOG_TABLE_NAME + ".modlogCase"
             )
             .where(Constants.LOG_TABLE_NAME + ".guild_id", guildId)
-            .andWhere(Constants.LOG_TABLE_NAME + ".target_id", userId)
+            .andWhere(builder -> {
+                for (Long userId : userIds) {
+                    builder.orWhere(Constants.LOG_TABLE_NAME + ".target_id", userId);
+                }
+            })
             .andWhere(Constants.MUTE_TABLE_NAME + ".guild_id", guildId)
             .andWhere(builder -> builder
                 .where(Constants.LOG_TABLE_NAME + ".type", ModlogType.MUTE.getId())
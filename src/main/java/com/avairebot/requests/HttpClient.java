@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.requests;
+
+import com.avairebot.Constants;
+import com.avairebot.metrics.Metrics;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import okhttp3.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the shared HTTP client used for all outbound requests, sharing a single client
+ * allows connections to be pooled and kept alive between requests, and limits how
+ * many requests can be made to the same host at once, so a single slow upstream
+ * can't use up all the connections for the rest of the hosts.
+ * <p>
+ * Responses are cached on disk respecting the Cache-Control and ETag headers sent
+ * by the upstream, and the latency, status codes, errors, and cache results
+ * for every host is exported through the {@link Metrics metrics}.
+ */
+public final class HttpClient {
+
+    /**
+     * The max amount of requests that can be running at the same time.
+     */
+    private static final int maxRequests = 64;
+
+    /**
+     * The max amount of requests that can be running for a single host at the same time.
+     */
+    private static final int maxRequestsPerHost = 5;
+
+    /**
+     * The max size of the HTTP response cache in bytes.
+     */
+    private static final long cacheSize = 25L * 1024L * 1024L;
+
+    private HttpClient() {
+        //
+    }
+
+    /**
+     * Gets the shared HTTP client instance.
+     *
+     * @return The shared HTTP client instance.
+     */
+    public static OkHttpClient getClient() {
+        return HttpClientHolder.client;
+    }
+
+    private static OkHttpClient createClient() {
+        // The dispatcher never runs more than the max amount of requests at the same time,
+        // so the executor will never create more threads than that, idle threads are
+        // killed off after a minute so we're not holding on to them forever.
+        Dispatcher dispatcher = new Dispatcher(new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("avaire-http-%d")
+                .setDaemon(true)
+                .build()
+        ));
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        return new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
+            .connectionPool(new ConnectionPool(16, 5, TimeUnit.MINUTES))
+            .cache(new Cache(new File(Constants.STORAGE_PATH, "http-cache"), cacheSize))
+            .connectTimeout(10, TimeUnit.SECONDS)
+            .readTimeout(15, TimeUnit.SECONDS)
+            .writeTimeout(15, TimeUnit.SECONDS)
+            .addInterceptor(HttpClient::interceptMetrics)
+            .build();
+    }
+
+    private static Response interceptMetrics(Interceptor.Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        long start = System.nanoTime();
+
+        try {
+            Response response = chain.proceed(chain.request());
+
+            Metrics.httpRequestDuration.labels(host).observe(
+                (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1)
+            );
+            Metrics.httpResponses.labels(host, (response.code() / 100) + "xx").inc();
+
+            if (response.networkResponse() == null) {
+                Metrics.httpCacheResults.labels("hit").inc();
+            } else if (response.cacheResponse() != null) {
+                Metrics.httpCacheResults.labels("conditional-hit").inc();
+            } else {
+                Metrics.httpCacheResults.labels("miss").inc();
+            }
+
+            return response;
+        } catch (IOException e) {
+            Metrics.httpRequestErrors.labels(host, e.getClass().getSimpleName()).inc();
+            throw e;
+        }
+    }
+
+    private static class HttpClientHolder {
+        private static final OkHttpClient client = createClient();
+    }
+}
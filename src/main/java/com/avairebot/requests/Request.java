@@ -22,10 +22,14 @@
 package com.avairebot.requests;
 
 import com.avairebot.contracts.async.Future;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nonnull;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -43,7 +47,6 @@ public class Request extends Future {
     private final RequestType type;
 
     private final OkHttpClient client;
-    private final okhttp3.Request.Builder builder;
 
     private final Map<String, Object> parameters = new HashMap<>();
     private final Map<String, String> headers = new HashMap<>();
@@ -56,8 +59,7 @@ public class Request extends Future {
         this.url = url;
         this.type = type;
 
-        client = new OkHttpClient();
-        builder = new okhttp3.Request.Builder();
+        client = HttpClient.getClient();
         headers.put("User-Agent", "Mozilla/5.0");
     }
 
@@ -71,26 +73,58 @@ public class Request extends Future {
         return this;
     }
 
-    protected void handle(Consumer success, Consumer<Throwable> failure) {
+    @Override
+    protected void submit(Consumer success, Consumer<Throwable> failure) {
+        okhttp3.Request request;
         try {
-            builder.url(buildUrl());
+            request = buildRequest();
+        } catch (MalformedURLException ex) {
+            failure.accept(ex);
+            return;
+        }
 
-            for (Map.Entry<String, String> entry : headers.entrySet()) {
-                builder.addHeader(entry.getKey(), entry.getValue());
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@Nonnull Call call, @Nonnull IOException ex) {
+                failure.accept(ex);
             }
 
-            switch (type) {
-                case GET:
-                    builder.get();
-                    break;
+            @Override
+            public void onResponse(@Nonnull Call call, @Nonnull okhttp3.Response response) {
+                try (okhttp3.Response ignored = response) {
+                    success.accept(new Response(response));
+                } catch (Exception ex) {
+                    failure.accept(ex);
+                }
             }
+        });
+    }
 
-            success.accept(new Response(client.newCall(builder.build()).execute()));
+    protected void handle(Consumer success, Consumer<Throwable> failure) {
+        try (okhttp3.Response response = client.newCall(buildRequest()).execute()) {
+            success.accept(new Response(response));
         } catch (Exception ex) {
             failure.accept(ex);
         }
     }
 
+    private okhttp3.Request buildRequest() throws MalformedURLException {
+        okhttp3.Request.Builder builder = new okhttp3.Request.Builder()
+            .url(buildUrl());
+
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            builder.addHeader(entry.getKey(), entry.getValue());
+        }
+
+        switch (type) {
+            case GET:
+                builder.get();
+                break;
+        }
+
+        return builder.build();
+    }
+
     private URL buildUrl() throws MalformedURLException {
         String builtUrl = url + (url.contains("?") ? "" : '?') + buildUrlParameters();
 
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.scheduler;
+
+import com.avairebot.AvaIre;
+import com.avairebot.Constants;
+import com.avairebot.cache.TimerWheel;
+import com.avairebot.database.collection.Collection;
+import com.avairebot.database.collection.DataRow;
+import com.avairebot.database.query.QueryBuilder;
+import com.avairebot.metrics.Metrics;
+import com.avairebot.time.Carbon;
+import com.avairebot.utilities.RestActionUtil;
+import net.dv8tion.jda.core.EmbedBuilder;
+import net.dv8tion.jda.core.MessageBuilder;
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.entities.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules reminders from the reminders table, the database acts as the outer level of
+ * a hierarchical timing wheel, holding every reminder, while only the reminders that
+ * are due within the next load window are kept in memory, in a timer wheel with one
+ * second ticks. Once the loaded window is halfway used up, the next window is
+ * loaded from the database, so memory use only grows with the amount of
+ * near-term reminders, and reminders survives restarts.
+ * <p>
+ * Reminders that expired while the bot was offline are loaded as part
+ * of the first window, and are sent as soon as the bot is ready.
+ */
+public class ReminderScheduler {
+
+    /**
+     * The amount of seconds worth of reminders loaded into memory at a time, the
+     * window must be shorter than a full rotation of the timer wheel.
+     */
+    private static final int loadWindow = (int) TimeUnit.MINUTES.toSeconds(10);
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    private final TimerWheel<Reminder> wheel = new TimerWheel<>(1024, 1000L);
+    private final AvaIre avaire;
+
+    @Nullable
+    private volatile Carbon loadedUntil = null;
+
+    /**
+     * Creates a new reminder scheduler for the given AvaIre instance.
+     *
+     * @param avaire The main AvaIre instance.
+     */
+    public ReminderScheduler(AvaIre avaire) {
+        this.avaire = avaire;
+    }
+
+    /**
+     * Creates a new reminder, storing it in the database so it survives restarts,
+     * if the reminder is due within the currently loaded window, it will be
+     * scheduled in memory right away as well.
+     *
+     * @param userId    The ID of the user that should be reminded.
+     * @param channelId The ID of the channel the reminder was created in.
+     * @param inDM      Determines if the reminder should be sent in a DM, or in the channel.
+     * @param message   The message the user should be reminded about.
+     * @param seconds   The amount of seconds until the user should be reminded.
+     * @throws SQLException If the reminder fails to be stored in the database.
+     */
+    public void createReminder(long userId, long channelId, boolean inDM, @Nonnull String message, int seconds) throws SQLException {
+        Carbon createdAt = Carbon.now();
+        Carbon expiresAt = createdAt.copy().addSeconds(seconds);
+
+        Collection keys = avaire.getDatabase().newQueryBuilder(Constants.REMINDERS_TABLE_NAME)
+            .insert(statement -> {
+                statement.set("user_id", userId);
+                statement.set("channel_id", channelId);
+                statement.set("in_dm", inDM);
+                statement.set("message", message, true);
+                statement.set("expires_at", expiresAt);
+                statement.set("created_at", createdAt);
+                statement.set("updated_at", createdAt);
+            });
+
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        Reminder reminder = new Reminder(
+            keys.first().getLong("id"), userId, channelId, inDM, message, createdAt, expiresAt
+        );
+
+        // Synchronized with the window loading, so the reminder is either picked
+        // up by a window that is currently being loaded, or scheduled here.
+        synchronized (this) {
+            Carbon loadedUntil = this.loadedUntil;
+            if (loadedUntil != null && reminder.getExpiresAt() <= loadedUntil.getTimestamp()) {
+                wheel.schedule(reminder, reminder.getExpiresAt() * 1000L);
+            }
+        }
+
+        Metrics.remindersScheduled.set(wheel.size());
+    }
+
+    /**
+     * Sends every reminder that is due, and loads the next window of
+     * reminders from the database once the current window is
+     * halfway used up, this should be called every second.
+     */
+    public void drain() {
+        List<Reminder> expired = new ArrayList<>();
+
+        Carbon loadedUntil = this.loadedUntil;
+        if (loadedUntil == null || Carbon.now().addSeconds(loadWindow / 2).gt(loadedUntil)) {
+            loadNextWindow(expired);
+        }
+
+        wheel.advance(System.currentTimeMillis(), expired::add);
+
+        Metrics.remindersScheduled.set(wheel.size());
+
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        for (Reminder reminder : expired) {
+            sendReminder(reminder);
+        }
+
+        try {
+            avaire.getDatabase().queryBatch(String.format(
+                "DELETE FROM `%s` WHERE `id` = ?;", Constants.REMINDERS_TABLE_NAME
+            ), statement -> {
+                for (Reminder reminder : expired) {
+                    statement.setLong(1, reminder.getId());
+                    statement.addBatch();
+                }
+            });
+        } catch (SQLException e) {
+            log.error("Failed to delete {} sent reminders from the database: {}", expired.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the amount of reminders currently loaded into memory.
+     *
+     * @return The amount of reminders currently loaded into memory.
+     */
+    public int getScheduledReminders() {
+        return wheel.size();
+    }
+
+    private synchronized void loadNextWindow(List<Reminder> expired) {
+        Carbon windowEnd = Carbon.now().addSeconds(loadWindow);
+
+        try {
+            QueryBuilder query = avaire.getDatabase().newQueryBuilder(Constants.REMINDERS_TABLE_NAME)
+                .where("expires_at", "<=", windowEnd);
+
+            if (loadedUntil != null) {
+                query.andWhere("expires_at", ">", loadedUntil);
+            }
+
+            long now = System.currentTimeMillis();
+            for (DataRow row : query.get()) {
+                Reminder reminder = new Reminder(row);
+
+                // Reminders that are already due are sent right away, since the
+                // timer wheel only expires items on ticks that hasn't passed.
+                if (reminder.getExpiresAt() * 1000L <= now) {
+                    expired.add(reminder);
+                } else {
+                    wheel.schedule(reminder, reminder.getExpiresAt() * 1000L);
+                }
+            }
+
+            loadedUntil = windowEnd;
+        } catch (SQLException e) {
+            log.error("Failed to load the next window of reminders: {}", e.getMessage(), e);
+        }
+    }
+
+    private void sendReminder(Reminder reminder) {
+        Message message = new MessageBuilder()
+            .setContent(String.format("<@%s>, %s you asked to be reminded about:",
+                reminder.getUserId(), reminder.getCreatedAt().diffForHumans()
+            ))
+            .setEmbed(new EmbedBuilder()
+                .setDescription(reminder.getMessage())
+                .build()
+            ).build();
+
+        TextChannel channel = avaire.getShardManager().getTextChannelById(reminder.getChannelId());
+        User user = avaire.getShardManager().getUserById(reminder.getUserId());
+
+        Metrics.remindersSent.inc();
+
+        if (reminder.isInDM() || channel == null || !channel.canTalk()) {
+            sendReminderToUser(user, channel, message);
+        } else {
+            channel.sendMessage(message).queue(null, throwable -> {
+                sendReminderToUser(user, null, message);
+            });
+        }
+    }
+
+    private void sendReminderToUser(@Nullable User user, @Nullable TextChannel fallback, Message message) {
+        if (user == null) {
+            sendReminderToChannel(fallback, message);
+            return;
+        }
+
+        user.openPrivateChannel().queue(privateChannel -> {
+            privateChannel.sendMessage(message).queue(null, throwable -> {
+                sendReminderToChannel(fallback, message);
+            });
+        }, throwable -> sendReminderToChannel(fallback, message));
+    }
+
+    private void sendReminderToChannel(@Nullable TextChannel channel, Message message) {
+        if (channel != null && channel.canTalk()) {
+            channel.sendMessage(message).queue(null, RestActionUtil.ignore);
+        }
+    }
+
+    /**
+     * A single reminder, reminders are compared by their database ID, so
+     * scheduling the same reminder twice will only track it once.
+     */
+    private static final class Reminder {
+
+        private final long id;
+        private final long userId;
+        private final long channelId;
+        private final boolean inDM;
+        private final String message;
+        private final Carbon createdAt;
+        private final long expiresAt;
+
+        Reminder(long id, long userId, long channelId, boolean inDM, String message, Carbon createdAt, Carbon expiresAt) {
+            this.id = id;
+            this.userId = userId;
+            this.channelId = channelId;
+            this.inDM = inDM;
+            this.message = message;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt.getTimestamp();
+        }
+
+        Reminder(DataRow row) {
+            this(
+                row.getLong("id"),
+                row.getLong("user_id"),
+                row.getLong("channel_id"),
+                row.getBoolean("in_dm"),
+                row.getString("message"),
+                row.getTimestamp("created_at", Carbon.now()),
+                row.getTimestamp("expires_at", Carbon.now())
+            );
+        }
+
+        long getId() {
+            return id;
+        }
+
+        long getUserId() {
+            return userId;
+        }
+
+        long getChannelId() {
+            return channelId;
+        }
+
+        boolean isInDM() {
+            return inDM;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        Carbon getCreatedAt() {
+            return createdAt;
+        }
+
+        long getExpiresAt() {
+            return expiresAt;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Reminder && ((Reminder) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+    }
+}
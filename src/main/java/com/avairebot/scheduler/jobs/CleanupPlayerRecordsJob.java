@@ -26,14 +26,14 @@ import com.avairebot.Constants;
 import com.avairebot.contracts.scheduler.Job;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
+import com.avairebot.database.controllers.GlobalExperienceController;
 import net.dv8tion.jda.core.entities.Guild;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -77,6 +77,19 @@ public class CleanupPlayerRecordsJob extends Job {
                 }
             });
 
+            Set<Long> userIds = new LinkedHashSet<>();
+            for (InactiveUser entity : inactiveUsers) {
+                avaire.getLevelManager().getRankIndex().forgetGuild(Long.parseLong(entity.guildId));
+                userIds.add(Long.parseLong(entity.userId));
+            }
+
+            // Recalculates the global experience totals for the deactivated users, since
+            // their experience in the guilds they have left no longer counts globally.
+            List<Long> users = new ArrayList<>(userIds);
+            for (int offset = 0; offset < users.size(); offset += 500) {
+                GlobalExperienceController.recalculate(avaire, users.subList(offset, Math.min(offset + 500, users.size())));
+            }
+
             log.debug("Finished \"Player Cleanup\" job, updated {} records in the process", inactiveUsers.size());
         } catch (SQLException e) {
             log.error("An SQL exception was thrown while updating player experience: ", e);
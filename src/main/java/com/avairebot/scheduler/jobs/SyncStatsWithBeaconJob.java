@@ -24,6 +24,7 @@ package com.avairebot.scheduler.jobs;
 import com.avairebot.AppInfo;
 import com.avairebot.AvaIre;
 import com.avairebot.contracts.scheduler.Job;
+import com.avairebot.requests.HttpClient;
 import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.entities.SelfUser;
 import okhttp3.*;
@@ -40,7 +41,7 @@ public class SyncStatsWithBeaconJob extends Job {
     private static final MediaType json = MediaType.parse("application/json; charset=utf-8");
     private static final Logger log = LoggerFactory.getLogger(SyncStatsWithBeaconJob.class);
 
-    private final OkHttpClient client = new OkHttpClient();
+    private final OkHttpClient client = HttpClient.getClient();
 
     public SyncStatsWithBeaconJob(AvaIre avaire) {
         super(avaire, 5, 180, TimeUnit.MINUTES);
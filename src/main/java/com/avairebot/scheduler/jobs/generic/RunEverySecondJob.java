@@ -24,9 +24,12 @@ package com.avairebot.scheduler.jobs.generic;
 import com.avairebot.AvaIre;
 import com.avairebot.contracts.scheduler.Job;
 import com.avairebot.scheduler.tasks.ApplicationShutdownTask;
+import com.avairebot.scheduler.tasks.DrainMuteQueueTask;
 import com.avairebot.scheduler.tasks.DrainReactionRoleQueueTask;
+import com.avairebot.scheduler.tasks.DrainReminderQueueTask;
 import com.avairebot.scheduler.tasks.DrainVoteQueueTask;
 import com.avairebot.scheduler.tasks.DrainWeatherQueueTask;
+import com.avairebot.scheduler.tasks.SyncGuildMetadataWithDatabaseTask;
 
 import java.util.concurrent.TimeUnit;
 
@@ -36,6 +39,9 @@ public class RunEverySecondJob extends Job {
     private final ApplicationShutdownTask shutdownTask = new ApplicationShutdownTask();
     private final DrainWeatherQueueTask drainWeatherQueueTask = new DrainWeatherQueueTask();
     private final DrainReactionRoleQueueTask reactionRoleQueueTask = new DrainReactionRoleQueueTask();
+    private final DrainReminderQueueTask reminderQueueTask = new DrainReminderQueueTask();
+    private final DrainMuteQueueTask drainMuteQueueTask = new DrainMuteQueueTask();
+    private final SyncGuildMetadataWithDatabaseTask syncGuildMetadataTask = new SyncGuildMetadataWithDatabaseTask();
 
     public RunEverySecondJob(AvaIre avaire) {
         super(avaire, 0, 1, TimeUnit.SECONDS);
@@ -43,6 +49,6 @@ public class RunEverySecondJob extends Job {
 
     @Override
     public void run() {
-        handleTask(emptyVoteQueueTask, shutdownTask, drainWeatherQueueTask, reactionRoleQueueTask);
+        handleTask(emptyVoteQueueTask, shutdownTask, drainWeatherQueueTask, reactionRoleQueueTask, reminderQueueTask, drainMuteQueueTask, syncGuildMetadataTask);
     }
 }
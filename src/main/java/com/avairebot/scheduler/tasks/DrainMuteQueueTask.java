@@ -30,8 +30,6 @@ import com.avairebot.modlog.Modlog;
 import com.avairebot.modlog.ModlogAction;
 import com.avairebot.modlog.ModlogType;
 import com.avairebot.mute.MuteContainer;
-import com.avairebot.scheduler.ScheduleHandler;
-import com.avairebot.time.Carbon;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.entities.Role;
@@ -39,7 +37,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -49,69 +47,46 @@ public class DrainMuteQueueTask implements Task {
 
     @Override
     public void handle(AvaIre avaire) {
-        if (avaire.getMuteManger() == null || avaire.getMuteManger().getMutes().isEmpty()) {
+        // Waits until all the shards are ready, so mutes for guilds that
+        // can't be found can safely be treated as guilds we have left.
+        if (avaire.getMuteManger() == null || !avaire.areWeReadyYet()) {
             return;
         }
 
-        for (Map.Entry<Long, HashSet<MuteContainer>> entry : avaire.getMuteManger().getMutes().entrySet()) {
-            for (MuteContainer container : entry.getValue()) {
-                if (container.isPermanent() || container.getSchedule() != null) {
-                    continue;
-                }
-
-                Carbon expires = container.getExpiresAt();
-                //noinspection ConstantConditions
-                if (expires.copy().subMinutes(5).isPast()) {
-                    long differenceInSeconds = expires.getTimestamp() - getCurrentTimestamp();
-                    if (differenceInSeconds < 1) {
-                        differenceInSeconds = 1;
-                    }
-
-                    log.debug("Unmute task started for guildId:{}, userId:{}, time:{}",
-                        container.getGuildId(), container.getUserId(), differenceInSeconds
-                    );
-
-                    container.setSchedule(ScheduleHandler.getScheduler().schedule(
-                        () -> handleAutomaticUnmute(avaire, container),
-                        differenceInSeconds,
-                        TimeUnit.SECONDS
-                    ));
-                }
+        Map<Long, List<MuteContainer>> expired = avaire.getMuteManger().drainExpiredMutes();
+        for (Map.Entry<Long, List<MuteContainer>> entry : expired.entrySet()) {
+            try {
+                handleAutomaticUnmutes(avaire, entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                log.error("Something went wrong in the auto unmute for guildId:{}: {}", entry.getKey(), e.getMessage(), e);
             }
         }
     }
 
-    private long getCurrentTimestamp() {
-        return System.currentTimeMillis() / 1000L;
-    }
+    private void handleAutomaticUnmutes(AvaIre avaire, long guildId, List<MuteContainer> containers) {
+        log.debug("Unmuting {} expired mutes for guildId:{}", containers.size(), guildId);
 
-    private void handleAutomaticUnmute(AvaIre avaire, MuteContainer container) {
-        try {
-            Guild guild = avaire.getShardManager().getGuildById(container.getGuildId());
-            if (guild == null) {
-                if (avaire.areWeReadyYet()) {
-                    unregisterDatabaseRecord(avaire, container);
-                }
-
-                container.cancelSchedule();
-                return;
-            }
+        unregisterDatabaseRecords(avaire, guildId, containers);
 
-            unregisterDatabaseRecord(avaire, container);
+        Guild guild = avaire.getShardManager().getGuildById(guildId);
+        if (guild == null) {
+            return;
+        }
 
-            Member member = guild.getMemberById(container.getUserId());
-            if (member == null) {
-                return;
-            }
+        GuildTransformer transformer = GuildController.fetchGuild(avaire, guild);
+        if (transformer == null || transformer.getMuteRole() == null) {
+            return;
+        }
 
-            GuildTransformer transformer = GuildController.fetchGuild(avaire, guild);
-            if (transformer == null || transformer.getMuteRole() == null) {
-                return;
-            }
+        Role muteRole = guild.getRoleById(transformer.getMuteRole());
+        if (muteRole == null) {
+            return;
+        }
 
-            Role muteRole = guild.getRoleById(transformer.getMuteRole());
-            if (muteRole == null) {
-                return;
+        for (MuteContainer container : containers) {
+            Member member = guild.getMemberById(container.getUserId());
+            if (member == null) {
+                continue;
             }
 
             guild.getController().removeSingleRoleFromMember(
@@ -133,17 +108,15 @@ public class DrainMuteQueueTask implements Task {
                     container.getUserId(), container.getGuildId(), throwable.getMessage(), throwable
                 );
             });
-        } catch (Exception e) {
-            log.error("Something went wrong in the auto unmute: {}", e.getMessage(), e);
         }
     }
 
-    private void unregisterDatabaseRecord(AvaIre avaire, MuteContainer container) {
+    private void unregisterDatabaseRecords(AvaIre avaire, long guildId, List<MuteContainer> containers) {
         try {
-            avaire.getMuteManger().unregisterMute(container.getGuildId(), container.getUserId());
+            avaire.getMuteManger().unregisterExpiredMutes(guildId, containers);
         } catch (SQLException e) {
-            log.error("Failed to unregister mute for guildId:{}, userId:{}",
-                container.getGuildId(), container.getUserId(), e
+            log.error("Failed to unregister {} expired mutes for guildId:{}",
+                containers.size(), guildId, e
             );
         }
     }
@@ -27,51 +27,73 @@ import com.avairebot.utilities.RoleUtil;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.entities.Role;
-import org.jetbrains.annotations.NotNull;
 
-import java.util.concurrent.DelayQueue;
-import java.util.concurrent.Delayed;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DrainReactionRoleQueueTask implements Task {
 
-    private static final DelayQueue<ReactionActionEntity> queue = new DelayQueue<>();
-    private static long lastCheck = -1;
+    /**
+     * The max amount of reaction actions that should be sent to Discord per guild every time
+     * the task runs, their ratelimit for changing member roles is per guild, so
+     * the queues for each guild are drained independently of each other.
+     */
+    private static final int actionsPerGuild = 2;
+
+    /**
+     * The pending reaction actions, mapped by the ID of the guild they belong to.
+     */
+    private static final Map<Long, GuildActionQueue> queues = new ConcurrentHashMap<>();
 
     /**
-     * Queues the given reaction action entity, adding or
-     * removing the role for the user in the entity.
+     * Queues the given reaction action entity, adding or removing the role for the user
+     * in the entity, if there is already a pending action for the same user and role
+     * the pending action is replaced, so only the latest action is sent to Discord.
      *
      * @param entity The reaction action entity that should be added to the queue.
      */
     public static void queueReactionActionEntity(ReactionActionEntity entity) {
-        if (queue.contains(entity)) {
-            queue.remove(entity);
-        }
+        queues.compute(entity.guildId, (guildId, queue) -> {
+            if (queue == null) {
+                queue = new GuildActionQueue();
+            }
+            queue.add(entity);
+            return queue;
+        });
+    }
 
-        long diff = 0;
-        if (lastCheck > System.currentTimeMillis()) {
-            diff = lastCheck - System.currentTimeMillis();
-            entity.setDuration(diff + ReactionActionEntity.defaultDuration);
-        }
-        lastCheck = System.currentTimeMillis() + diff + ReactionActionEntity.defaultDuration;
+    /**
+     * Checks if there is a pending reaction action for the given user and role.
+     *
+     * @param guildId The ID of the guild the action belongs to.
+     * @param userId  The ID of the user the action belongs to.
+     * @param roleId  The ID of the role the action belongs to.
+     * @return {@code True} if there is a pending action for the user and role, {@code False} otherwise.
+     */
+    public static boolean hasPendingAction(long guildId, long userId, long roleId) {
+        GuildActionQueue queue = queues.get(guildId);
 
-        queue.put(entity);
+        return queue != null && queue.contains(new ReactionActionEntity(guildId, userId, roleId, ReactionActionType.ADD));
     }
 
     @Override
     public void handle(AvaIre avaire) {
-        if (queue.isEmpty()) {
+        if (queues.isEmpty()) {
             return;
         }
 
-        for (int i = 0; i < 3; i++) {
-            ReactionActionEntity entity = queue.poll();
-            if (entity == null) {
-                return;
+        for (Map.Entry<Long, GuildActionQueue> entry : queues.entrySet()) {
+            for (ReactionActionEntity entity : entry.getValue().poll(actionsPerGuild)) {
+                run(avaire, entity);
             }
 
-            run(avaire, entity);
+            // Removes the guild queue if it's empty, this is done through compute so
+            // actions queued while we're checking the queue will never be lost.
+            queues.computeIfPresent(entry.getKey(), (guildId, queue) -> queue.isEmpty() ? null : queue);
         }
     }
 
@@ -115,20 +137,12 @@ public class DrainReactionRoleQueueTask implements Task {
         ADD, REMOVE
     }
 
-    public static class ReactionActionEntity implements Delayed {
-
-        /**
-         * The default time in milliseconds that should be between reaction checks
-         * that are sent to the Discords API, their ratelimit allows one request
-         * a second, per server, or sixty requests every minute.
-         */
-        static final long defaultDuration = 500;
+    public static class ReactionActionEntity {
 
         private final long guildId;
         private final long userId;
         private final long roleId;
         private final ReactionActionType type;
-        private long duration;
 
         public ReactionActionEntity(long guildId, long userId, long roleId, ReactionActionType type) {
             this.guildId = guildId;
@@ -137,17 +151,6 @@ public class DrainReactionRoleQueueTask implements Task {
             this.type = type;
         }
 
-        /**
-         * Sets the duration in milliseconds for when the reaction entity can be consumed
-         * by the {@link DrainReactionRoleQueueTask drain reaction queue task}, the duration
-         * will be added to the current time in milliseconds.
-         *
-         * @param duration The time in milliseconds before the vote entity can be consumed.
-         */
-        public void setDuration(long duration) {
-            this.duration = System.currentTimeMillis() + duration;
-        }
-
         @Override
         public boolean equals(Object obj) {
             return obj instanceof ReactionActionEntity
@@ -156,18 +159,47 @@ public class DrainReactionRoleQueueTask implements Task {
         }
 
         @Override
-        public long getDelay(@NotNull TimeUnit unit) {
-            return unit.convert(duration - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        public int hashCode() {
+            return Long.hashCode(userId * 31 + roleId);
         }
 
         @Override
-        public int compareTo(@NotNull Delayed obj) {
-            return (int) (this.duration - ((ReactionActionEntity) obj).duration);
+        public String toString() {
+            return "ReactionActionEntity [guildId=" + guildId + ", userId=" + userId + ", roleId=" + roleId + ", type=" + type.name() + "]";
         }
+    }
 
-        @Override
-        public String toString() {
-            return "ReactionActionEntity [duration=" + duration + ", userId=" + userId + ", roleId=" + roleId + ", type=" + type.name() + "]";
+    /**
+     * The pending reaction actions for a single guild, the actions are indexed
+     * by their user and role, and kept in the order they were first queued.
+     */
+    private static class GuildActionQueue {
+
+        private final LinkedHashMap<ReactionActionEntity, ReactionActionEntity> actions = new LinkedHashMap<>();
+
+        synchronized void add(ReactionActionEntity entity) {
+            // Replacing the value of an existing key keeps the original position in the
+            // queue, so merging an action doesn't push it to the back of the queue.
+            actions.put(entity, entity);
+        }
+
+        synchronized boolean contains(ReactionActionEntity entity) {
+            return actions.containsKey(entity);
+        }
+
+        synchronized boolean isEmpty() {
+            return actions.isEmpty();
+        }
+
+        synchronized List<ReactionActionEntity> poll(int amount) {
+            List<ReactionActionEntity> entities = new ArrayList<>(Math.min(amount, actions.size()));
+
+            Iterator<ReactionActionEntity> iterator = actions.values().iterator();
+            while (iterator.hasNext() && entities.size() < amount) {
+                entities.add(iterator.next());
+                iterator.remove();
+            }
+            return entities;
         }
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018.
+ * Copyright (c) 2019.
  *
  * This file is part of AvaIre.
  *
@@ -19,30 +19,21 @@
  *
  */
 
-package com.avairebot.middleware;
+package com.avairebot.scheduler.tasks;
 
-import com.avairebot.contracts.middleware.Middleware;
+import com.avairebot.AvaIre;
+import com.avairebot.contracts.scheduler.Task;
 
-class MiddlewareContainer {
+public class DrainReminderQueueTask implements Task {
 
-    private final Middleware middleware;
-    private final String[] arguments;
+    @Override
+    public void handle(AvaIre avaire) {
+        // Waits until all the shards are ready, so the channels
+        // and users the reminders are sent to can be found.
+        if (avaire.getReminderScheduler() == null || !avaire.areWeReadyYet()) {
+            return;
+        }
 
-    MiddlewareContainer(Middleware middleware) {
-        this.middleware = middleware;
-        this.arguments = new String[0];
-    }
-
-    MiddlewareContainer(Middleware middleware, String[] arguments) {
-        this.middleware = middleware;
-        this.arguments = arguments;
-    }
-
-    Middleware getMiddleware() {
-        return middleware;
-    }
-
-    String[] getArguments() {
-        return arguments;
+        avaire.getReminderScheduler().drain();
     }
 }
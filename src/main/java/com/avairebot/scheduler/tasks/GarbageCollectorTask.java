@@ -34,6 +34,8 @@ import com.avairebot.contracts.commands.InteractionCommand;
 import com.avairebot.contracts.scheduler.Task;
 import com.avairebot.handlers.adapter.JDAStateEventAdapter;
 import com.avairebot.handlers.adapter.MessageEventAdapter;
+import com.avairebot.metrics.Metrics;
+import com.avairebot.middleware.ThrottleMiddleware;
 import com.avairebot.scheduler.jobs.LavalinkGarbageNodeCollectorJob;
 import lavalink.client.io.Link;
 import lavalink.client.io.jda.JdaLink;
@@ -49,10 +51,9 @@ public class GarbageCollectorTask implements Task {
         // the list, allowing users to get the DM info message again.
         MessageEventAdapter.hasReceivedInfoMessageInTheLastMinute.clear();
 
-        // Remove cache entries from the memory cache adapter
-        // if the keys are still stored by has expired.
-        MemoryAdapter adapter = (MemoryAdapter) avaire.getCache().getAdapter(CacheType.MEMORY);
-        adapter.getCacheKeys().removeIf(key -> !adapter.has(key));
+        // Expires any memory cache entries that have reached their expire
+        // time but haven't been looked up or written to since then.
+        ((MemoryAdapter) avaire.getCache().getAdapter(CacheType.MEMORY)).cleanUp();
 
         // Clean music managers and audio sessions by removing
         // them if they have expired or are unused.
@@ -142,9 +143,12 @@ public class GarbageCollectorTask implements Task {
      */
     private void cleanupCache() {
         // blacklist-ratelimit
-        synchronized (Ratelimit.cache) {
-            Ratelimit.cache.cleanUp();
-        }
+        Ratelimit.buckets.cleanUp();
+        Metrics.throttleBuckets.labels("blacklist-ratelimit").set(Ratelimit.buckets.size());
+
+        // throttle-commands
+        ThrottleMiddleware.buckets.cleanUp();
+        Metrics.throttleBuckets.labels("throttle-commands").set(ThrottleMiddleware.buckets.size());
 
         // interaction-lottery
         synchronized (InteractionCommand.cache) {
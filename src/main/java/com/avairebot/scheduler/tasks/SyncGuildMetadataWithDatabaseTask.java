@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.scheduler.tasks;
+
+import com.avairebot.AvaIre;
+import com.avairebot.Constants;
+import com.avairebot.contracts.scheduler.Task;
+import com.avairebot.database.controllers.GuildController;
+import com.avairebot.database.controllers.GuildController.MetadataColumn;
+import com.avairebot.metrics.Metrics;
+import net.dv8tion.jda.core.entities.Guild;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SyncGuildMetadataWithDatabaseTask implements Task {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncGuildMetadataWithDatabaseTask.class);
+
+    @Override
+    public void handle(AvaIre avaire) {
+        flush(avaire, false);
+    }
+
+    /**
+     * Flushes the pending guild metadata writes to the database, each metadata column
+     * is written using a single batch statement, with the metadata values being
+     * built from the current state of the guilds.
+     *
+     * @param avaire The AvaIre application instance.
+     * @param force  Determines if all pending writes should be flushed, or only the ones that are ready.
+     */
+    public void flush(AvaIre avaire, boolean force) {
+        if (avaire.getShardManager() == null) {
+            return;
+        }
+
+        for (MetadataColumn column : MetadataColumn.values()) {
+            List<Long> guildIds = GuildController.drainMetadataWrites(column, force);
+            if (guildIds.isEmpty()) {
+                continue;
+            }
+
+            Map<String, String> values = new LinkedHashMap<>();
+            for (Long guildId : guildIds) {
+                Guild guild = avaire.getShardManager().getGuildById(guildId);
+                if (guild != null) {
+                    values.put(guild.getId(), "base64:" + new String(
+                        Base64.getEncoder().encode(column.build(guild).getBytes())
+                    ));
+                }
+            }
+
+            if (values.isEmpty()) {
+                continue;
+            }
+
+            String query = String.format("UPDATE `%s` SET `%s` = ? WHERE `id` = ?",
+                Constants.GUILD_TABLE_NAME, column.getName()
+            );
+
+            try {
+                avaire.getDatabase().queryBatch(query, statement -> {
+                    for (Map.Entry<String, String> entry : values.entrySet()) {
+                        statement.setString(1, entry.getValue());
+                        statement.setString(2, entry.getKey());
+                        statement.addBatch();
+                    }
+                });
+
+                Metrics.guildMetadataWrites.labels(column.getName()).inc(values.size());
+            } catch (SQLException e) {
+                log.error("An SQL exception was thrown while updating the {} guild metadata: ", column.getName(), e);
+            }
+        }
+    }
+}
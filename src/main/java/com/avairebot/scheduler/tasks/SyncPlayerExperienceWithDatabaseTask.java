@@ -24,6 +24,8 @@ package com.avairebot.scheduler.tasks;
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
 import com.avairebot.contracts.scheduler.Task;
+import com.avairebot.database.controllers.GlobalExperienceController;
+import com.avairebot.database.query.PreparedQuery;
 import com.avairebot.level.ExperienceEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,39 +38,79 @@ public class SyncPlayerExperienceWithDatabaseTask implements Task {
 
     private static final Logger log = LoggerFactory.getLogger(SyncPlayerExperienceWithDatabaseTask.class);
 
+    /**
+     * The max amount of players that should be updated in a single query.
+     */
+    private static final int BATCH_SIZE = 250;
+
     @Override
     public void handle(AvaIre avaire) {
-        if (avaire.getLevelManager().getExperienceQueue().isEmpty()) {
+        if (avaire.getLevelManager().getExperienceAccumulator().isEmpty()) {
             return;
         }
 
-        List<ExperienceEntity> experienceQueue;
-        synchronized (avaire.getLevelManager().getExperienceQueue()) {
-            experienceQueue = new ArrayList<>(avaire.getLevelManager().getExperienceQueue());
-            avaire.getLevelManager().getExperienceQueue().clear();
-        }
+        List<ExperienceEntity> entities = avaire.getLevelManager().getExperienceAccumulator().drain();
+
+        log.debug("Starting \"Player Experience\" update task for {} records", entities.size());
+
+        for (int offset = 0; offset < entities.size(); offset += BATCH_SIZE) {
+            List<ExperienceEntity> batch = entities.subList(offset, Math.min(offset + BATCH_SIZE, entities.size()));
 
-        try {
-            String query = String.format(
-                "UPDATE `%s` SET `experience` = ? + `experience`, `global_experience` = ? + `global_experience` WHERE `user_id` = ? AND `guild_id` = ?",
-                Constants.PLAYER_EXPERIENCE_TABLE_NAME
-            );
-
-            log.debug("Starting \"Player Experience\" update task with query: " + query);
-
-            avaire.getDatabase().queryBatch(query, statement -> {
-                for (ExperienceEntity entity : experienceQueue) {
-                    statement.setInt(1, entity.isExcludeLocal() ? 0 : entity.getExperience());
-                    statement.setInt(2, entity.getExperience());
-                    statement.setString(3, String.valueOf(entity.getUserId()));
-                    statement.setString(4, String.valueOf(entity.getGuildId()));
-                    statement.addBatch();
+            try {
+                avaire.getDatabase().queryUpdate(buildUpdateQuery(batch));
+                GlobalExperienceController.incrementExperience(avaire, batch);
+
+                for (ExperienceEntity entity : batch) {
+                    avaire.getLevelManager().getRankIndex().increment(entity);
                 }
-            });
+            } catch (SQLException e) {
+                log.error("An SQL exception was thrown while updating player experience: ", e);
+            }
+        }
+
+        log.debug("Finished \"Player Experience\" task, updated {} records in the process", entities.size());
+    }
+
+    /**
+     * Builds a single update query for all the given experience entities, each player
+     * is matched using a case expression, so the local and global experience can
+     * be incremented by different amounts for every player in the same query.
+     *
+     * @param batch The experience entities that should be updated.
+     * @return The prepared update query for the given experience entities.
+     */
+    private PreparedQuery buildUpdateQuery(List<ExperienceEntity> batch) {
+        List<Object> bindings = new ArrayList<>(batch.size() * 8);
+
+        StringBuilder experience = new StringBuilder("CASE");
+        for (ExperienceEntity entity : batch) {
+            experience.append(" WHEN `user_id` = ? AND `guild_id` = ? THEN ?");
+            bindings.add(entity.getUserId());
+            bindings.add(entity.getGuildId());
+            bindings.add(entity.getLocalExperience());
+        }
 
-            log.debug("Finished \"Player Experience\" task, updated {} records in the process", experienceQueue.size());
-        } catch (SQLException e) {
-            log.error("An SQL exception was thrown while updating player experience: ", e);
+        StringBuilder globalExperience = new StringBuilder("CASE");
+        for (ExperienceEntity entity : batch) {
+            globalExperience.append(" WHEN `user_id` = ? AND `guild_id` = ? THEN ?");
+            bindings.add(entity.getUserId());
+            bindings.add(entity.getGuildId());
+            bindings.add(entity.getExperience());
         }
+
+        StringBuilder where = new StringBuilder();
+        for (ExperienceEntity entity : batch) {
+            if (where.length() > 0) {
+                where.append(" OR ");
+            }
+            where.append("(`user_id` = ? AND `guild_id` = ?)");
+            bindings.add(entity.getUserId());
+            bindings.add(entity.getGuildId());
+        }
+
+        return new PreparedQuery(String.format(
+            "UPDATE `%s` SET `experience` = `experience` + %s ELSE 0 END, `global_experience` = `global_experience` + %s ELSE 0 END WHERE %s",
+            Constants.PLAYER_EXPERIENCE_TABLE_NAME, experience, globalExperience, where
+        ), bindings);
     }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.throttle;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A concurrent table of {@link TokenBucket token buckets}, keyed by a composite
+ * primitive key made up of two longs and an int, so looking up a bucket
+ * doesn't need to build a string, or box any of the key parts.
+ * <p>
+ * The table is split into lock striped open addressing tables, the stripe lock is
+ * only held while the bucket is looked up, the bucket itself is lock-free.
+ * Buckets are expired lazily, full buckets are identical to new buckets, so
+ * they're dropped whenever a stripe runs out of space, or when the
+ * table is {@link #cleanUp() cleaned up}.
+ */
+public final class ThrottleBuckets {
+
+    /**
+     * The amount of stripes the buckets are split between, must be a power of two.
+     */
+    private static final int STRIPES = 32;
+
+    /**
+     * The initial capacity of each stripe table, must be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public ThrottleBuckets() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Gets the token bucket for the given key, if no bucket exists for the key,
+     * a new bucket will be created using the given tokens and period.
+     *
+     * @param first  The first part of the key.
+     * @param second The second part of the key.
+     * @param third  The third part of the key.
+     * @param tokens The max amount of tokens used if a new bucket is created.
+     * @param period The refill period in milliseconds used if a new bucket is created.
+     * @return The token bucket for the given key.
+     */
+    @Nonnull
+    public TokenBucket get(long first, long second, int third, int tokens, long period) {
+        int hash = hash(first, second, third);
+
+        return stripes[hash & (STRIPES - 1)].get(hash, first, second, third, tokens, period);
+    }
+
+    /**
+     * Gets the amount of buckets currently stored in the table.
+     *
+     * @return The amount of buckets currently stored in the table.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * Removes all the full buckets from the table.
+     */
+    public void cleanUp() {
+        long now = System.currentTimeMillis();
+        for (Stripe stripe : stripes) {
+            stripe.cleanUp(now);
+        }
+    }
+
+    private static int hash(long first, long second, int third) {
+        long hash = (first * 0x9E3779B97F4A7C15L + second) * 0x9E3779B97F4A7C15L + third;
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static final class Stripe {
+
+        private long[] firsts;
+        private long[] seconds;
+        private int[] thirds;
+        private TokenBucket[] buckets;
+        private volatile int size;
+
+        Stripe() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        synchronized TokenBucket get(int hash, long first, long second, int third, int tokens, long period) {
+            int index = indexOf(hash, first, second, third);
+            if (buckets[index] != null) {
+                return buckets[index];
+            }
+
+            // Once the table is three quarters full we rebuild it without the full buckets,
+            // growing the table if it's still more than half full afterwards.
+            if ((size + 1) * 4 >= buckets.length * 3) {
+                rebuild(System.currentTimeMillis());
+                index = indexOf(hash, first, second, third);
+            }
+
+            TokenBucket bucket = new TokenBucket(tokens, period);
+
+            firsts[index] = first;
+            seconds[index] = second;
+            thirds[index] = third;
+            buckets[index] = bucket;
+            size++;
+
+            return bucket;
+        }
+
+        synchronized void cleanUp(long now) {
+            if (size > 0) {
+                rebuild(now);
+            }
+        }
+
+        private int indexOf(int hash, long first, long second, int third) {
+            int mask = buckets.length - 1;
+            int index = (hash >>> 5) & mask;
+
+            while (buckets[index] != null && (firsts[index] != first || seconds[index] != second || thirds[index] != third)) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        private void rebuild(long now) {
+            long[] oldFirsts = firsts;
+            long[] oldSeconds = seconds;
+            int[] oldThirds = thirds;
+            TokenBucket[] oldBuckets = buckets;
+
+            int remaining = 0;
+            for (TokenBucket bucket : oldBuckets) {
+                if (bucket != null && !bucket.isFull(now)) {
+                    remaining++;
+                }
+            }
+
+            int capacity = INITIAL_CAPACITY;
+            while (remaining * 2 >= capacity) {
+                capacity *= 2;
+            }
+
+            allocate(capacity);
+
+            for (int i = 0; i < oldBuckets.length; i++) {
+                if (oldBuckets[i] == null || oldBuckets[i].isFull(now)) {
+                    continue;
+                }
+
+                int index = indexOf(hash(oldFirsts[i], oldSeconds[i], oldThirds[i]), oldFirsts[i], oldSeconds[i], oldThirds[i]);
+
+                firsts[index] = oldFirsts[i];
+                seconds[index] = oldSeconds[i];
+                thirds[index] = oldThirds[i];
+                buckets[index] = oldBuckets[i];
+            }
+
+            size = remaining;
+        }
+
+        private void allocate(int capacity) {
+            firsts = new long[capacity];
+            seconds = new long[capacity];
+            thirds = new int[capacity];
+            buckets = new TokenBucket[capacity];
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.throttle;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A lock-free token bucket, implemented using the generic cell rate algorithm, the
+ * entire state of the bucket is a single theoretical arrival time, so taking
+ * or returning a token is a single compare-and-set on a long.
+ * <p>
+ * The bucket allows bursts of up to the max amount of tokens, after which a new
+ * token is made available every {@code period / tokens} milliseconds.
+ */
+public final class TokenBucket {
+
+    private static final AtomicLongFieldUpdater<TokenBucket> arrivalTimeUpdater =
+        AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "arrivalTime");
+
+    /**
+     * The time in milliseconds it takes for a single token to be refilled.
+     */
+    private final long interval;
+
+    /**
+     * The time in milliseconds the theoretical arrival time can be ahead
+     * of the current time, before tokens are no longer handed out.
+     */
+    private final long tolerance;
+
+    /**
+     * The theoretical arrival time of the next request, if this is in the
+     * past, the bucket is full, and can be safely thrown away.
+     */
+    private volatile long arrivalTime = 0L;
+
+    /**
+     * Creates a new token bucket with the given amount of tokens, that
+     * are refilled over the given period of time in milliseconds.
+     *
+     * @param tokens The max amount of tokens the bucket should hold.
+     * @param period The period in milliseconds it takes to refill all the tokens.
+     */
+    public TokenBucket(int tokens, long period) {
+        this.interval = Math.max(1L, period / Math.max(1, tokens));
+        this.tolerance = tokens < 1 ? -1L : interval * (tokens - 1);
+    }
+
+    /**
+     * Tries to take a token from the bucket.
+     *
+     * @param now The current time in milliseconds.
+     * @return {@code True} if a token was taken, {@code False} if the bucket is empty.
+     */
+    public boolean tryAcquire(long now) {
+        while (true) {
+            long current = arrivalTime;
+            long base = Math.max(current, now);
+
+            if (base - now > tolerance) {
+                return false;
+            }
+
+            if (arrivalTimeUpdater.compareAndSet(this, current, base + interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a previously taken token to the bucket.
+     */
+    public void release() {
+        arrivalTimeUpdater.addAndGet(this, -interval);
+    }
+
+    /**
+     * Refills the bucket if the bucket is still in the given state, this is used
+     * to make sure only a single thread acts on the bucket being exhausted.
+     *
+     * @param arrivalTime The arrival time the bucket is expected to have.
+     * @param now         The current time in milliseconds.
+     * @return {@code True} if the bucket was reset by this call, {@code False} otherwise.
+     */
+    public boolean reset(long arrivalTime, long now) {
+        return arrivalTimeUpdater.compareAndSet(this, arrivalTime, now);
+    }
+
+    /**
+     * Gets the current theoretical arrival time for the bucket.
+     *
+     * @return The current theoretical arrival time for the bucket.
+     */
+    public long getArrivalTime() {
+        return arrivalTime;
+    }
+
+    /**
+     * Gets the time in milliseconds until the next token is available.
+     *
+     * @param now The current time in milliseconds.
+     * @return The time in milliseconds until the next token is available, or {@code 0}.
+     */
+    public long getRetryAfter(long now) {
+        return Math.max(0L, arrivalTime - tolerance - now);
+    }
+
+    /**
+     * Checks if the bucket is full, full buckets are identical
+     * to new buckets, so they can be safely thrown away.
+     *
+     * @param now The current time in milliseconds.
+     * @return {@code True} if the bucket is full, {@code False} otherwise.
+     */
+    public boolean isFull(long now) {
+        return arrivalTime <= now;
+    }
+}
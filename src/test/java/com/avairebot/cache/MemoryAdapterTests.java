@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache;
+
+import com.avairebot.BaseTest;
+import com.avairebot.cache.adapters.MemoryAdapter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryAdapterTests extends BaseTest {
+
+    private MemoryAdapter adapter;
+
+    @Before
+    public void setUp() {
+        adapter = new MemoryAdapter();
+    }
+
+    @Test
+    public void testStoredItemsCanBeRetrieved() {
+        adapter.put("test", "value", 60);
+        adapter.forever("forever", 42);
+
+        assertTrue(adapter.has("test"));
+        assertEquals("value", adapter.get("test"));
+        assertEquals(42, adapter.get("forever"));
+        assertFalse(adapter.has("missing"));
+    }
+
+    @Test
+    public void testExpiredItemsAreNotReturned() {
+        adapter.put("expired", "value", 0);
+
+        assertFalse(adapter.has("expired"));
+        assertNull(adapter.get("expired"));
+    }
+
+    @Test
+    public void testRememberOnlyCallsTheClosureOnceForConcurrentMisses() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    latch.await();
+                    return adapter.remember("remember", 60, () -> {
+                        calls.incrementAndGet();
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException ignored) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "value";
+                    });
+                }));
+            }
+
+            latch.countDown();
+            for (Future<Object> future : futures) {
+                assertEquals("value", future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testForgetRemovesTheItem() {
+        adapter.put("test", "value", 60);
+
+        assertNotNull(adapter.forget("test"));
+        assertFalse(adapter.has("test"));
+    }
+}
@@ -23,10 +23,14 @@ package com.avairebot.database;
 
 import com.avairebot.BaseTest;
 import com.avairebot.database.fakes.FakeDatabaseManager;
+import com.avairebot.database.query.PreparedQuery;
 import com.avairebot.database.query.QueryBuilder;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class QueryBuilderTests extends BaseTest {
@@ -96,6 +100,23 @@ public class QueryBuilderTests extends BaseTest {
         );
     }
 
+    @Test
+    public void testPreparedQueryUsesPlaceholdersForValues() {
+        PreparedQuery query = makeQuery().where("something", "something else")
+            .andWhere("permission_level", ">", 9001)
+            .toPreparedQuery();
+
+        assertEquals("SELECT * FROM `test` WHERE `something` = ? AND `permission_level` > ?;", query.getQuery());
+        assertEquals(Arrays.asList("something else", 9001), query.getBindings());
+    }
+
+    @Test
+    public void testPreparedQueryBindsNumericStringsAsNumbers() {
+        PreparedQuery query = makeQuery().where("id", "284083636368834561").toPreparedQuery();
+
+        assertEquals(Collections.singletonList(284083636368834561L), query.getBindings());
+    }
+
     private QueryBuilder makeQuery() {
         return dbm.newQueryBuilder("test");
     }
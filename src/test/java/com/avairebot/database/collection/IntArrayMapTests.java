@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+package com.avairebot.database.collection;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntArrayMapTests extends BaseTest {
+
+    @Test
+    public void testPuttingAndGettingValues() {
+        IntArrayMap<String> map = new IntArrayMap<>();
+
+        assertNull(map.put(10, "ten"));
+        assertNull(map.put(5, "five"));
+        assertEquals("five", map.put(5, "FIVE"));
+
+        assertEquals(2, map.size());
+        assertEquals("FIVE", map.get(5));
+        assertEquals("ten", map.get(Integer.valueOf(10)));
+        assertNull(map.get(7));
+        assertNull(map.get("10"));
+        assertTrue(map.containsKey(10));
+        assertTrue(map.containsValue("ten"));
+    }
+
+    @Test
+    public void testEntriesAreIteratedInKeyOrder() {
+        IntArrayMap<String> map = new IntArrayMap<>();
+        for (int level : new int[]{50, 5, 25, 100, 1}) {
+            map.put(level, "role-" + level);
+        }
+
+        assertEquals(Arrays.asList(1, 5, 25, 50, 100), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testRemovingValues() {
+        IntArrayMap<String> map = new IntArrayMap<>();
+        map.put(1, "one");
+        map.put(2, "two");
+        map.put(3, "three");
+
+        assertEquals("two", map.remove(2));
+        assertNull(map.remove(2));
+        assertEquals("three", map.remove(Integer.valueOf(3)));
+
+        map.entrySet().removeIf(entry -> entry.getKey() == 1);
+
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testMapEqualsOtherMapsWithTheSameEntries() {
+        IntArrayMap<String> map = new IntArrayMap<>();
+        map.put(3, "three");
+        map.put(1, "one");
+
+        Map<Integer, String> other = new HashMap<>();
+        other.put(1, "one");
+        other.put(3, "three");
+
+        assertEquals(other, map);
+        assertEquals(map, other);
+        assertEquals(other.hashCode(), map.hashCode());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+package com.avairebot.database.collection;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongArraySetTests extends BaseTest {
+
+    @Test
+    public void testValuesAreSortedAndDeduplicated() {
+        LongArraySet set = new LongArraySet(new long[]{284083636368834561L, 5L, 284083636368834561L, -3L});
+
+        assertEquals(3, set.size());
+        assertArrayEquals(new long[]{-3L, 5L, 284083636368834561L}, set.toLongArray());
+    }
+
+    @Test
+    public void testAddingAndRemovingValues() {
+        LongArraySet set = new LongArraySet();
+
+        for (long value = 100; value > 0; value--) {
+            assertTrue(set.add(value));
+        }
+
+        assertFalse(set.add(50L));
+        assertEquals(100, set.size());
+        assertTrue(set.contains(50L));
+        assertTrue(set.contains(Long.valueOf(50L)));
+
+        assertTrue(set.remove(50L));
+        assertFalse(set.remove(50L));
+        assertFalse(set.contains(50L));
+        assertEquals(99, set.size());
+    }
+
+    @Test
+    public void testIteratorRemovesValues() {
+        LongArraySet set = new LongArraySet(new long[]{1L, 2L, 3L, 4L});
+
+        Iterator<Long> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+
+        assertArrayEquals(new long[]{1L, 3L}, set.toLongArray());
+    }
+
+    @Test
+    public void testSetEqualsOtherSetsWithTheSameValues() {
+        LongArraySet set = new LongArraySet(new long[]{1L, 2L, 3L});
+
+        assertEquals(new HashSet<>(Arrays.asList(3L, 2L, 1L)), set);
+        assertEquals(set, new HashSet<>(Arrays.asList(3L, 2L, 1L)));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.controllers;
+
+import com.avairebot.BaseTest;
+import com.avairebot.database.collection.Collection;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReactionIndexTests extends BaseTest {
+
+    @Test
+    public void testRolesAreResolvedFromMessageAndEmote() {
+        ReactionIndex index = new ReactionIndex(makeCollection(
+            makeRow(1000L, "{\"10\":100,\"11\":101}"),
+            makeRow(2000L, "{\"12\":102}")
+        ));
+
+        assertEquals(2, index.size());
+        assertEquals(100L, index.getRoleId(1000L, 10L));
+        assertEquals(101L, index.getRoleId(1000L, 11L));
+        assertEquals(102L, index.getRoleId(2000L, 12L));
+        assertEquals(-1L, index.getRoleId(1000L, 12L));
+        assertEquals(-1L, index.getRoleId(3000L, 10L));
+    }
+
+    @Test
+    public void testUnknownMessagesAreRejected() {
+        ReactionIndex index = new ReactionIndex(makeCollection(makeRow(1000L, "{\"10\":100}")));
+
+        assertTrue(index.contains(1000L));
+        assertFalse(index.contains(1001L));
+        assertNull(index.get(1001L));
+        assertFalse(ReactionIndex.EMPTY.contains(1000L));
+        assertTrue(ReactionIndex.EMPTY.isEmpty());
+    }
+
+    @Test
+    public void testLargeIndexResolvesEveryMessage() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (long messageId = 1; messageId <= 500; messageId++) {
+            rows.add(makeRow(messageId << 22, "{\"" + messageId + "\":" + (messageId + 1) + "}"));
+        }
+
+        ReactionIndex index = new ReactionIndex(new Collection(rows));
+
+        assertEquals(500, index.size());
+        for (long messageId = 1; messageId <= 500; messageId++) {
+            assertEquals(messageId + 1, index.getRoleId(messageId << 22, messageId));
+            assertFalse(index.get(messageId << 22).hasEmote(messageId + 1));
+        }
+    }
+
+    @SafeVarargs
+    private final Collection makeCollection(Map<String, Object>... rows) {
+        return new Collection(Arrays.asList(rows));
+    }
+
+    private Map<String, Object> makeRow(long messageId, String roles) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("guild_id", "1");
+        row.put("channel_id", "2");
+        row.put("message_id", String.valueOf(messageId));
+        row.put("roles", roles);
+        return row;
+    }
+}
@@ -23,6 +23,7 @@ package com.avairebot.database.fakes;
 
 import com.avairebot.contracts.database.StatementInterface;
 import com.avairebot.contracts.database.connections.FilenameDatabase;
+import com.avairebot.contracts.database.grammar.TableGrammar;
 import com.avairebot.database.DatabaseManager;
 import com.avairebot.database.grammar.mysql.Create;
 import com.avairebot.database.grammar.mysql.Delete;
@@ -65,6 +66,20 @@ public class FakeMySQLConnection extends FilenameDatabase {
         return null;
     }
 
+    @Override
+    protected TableGrammar createGrammar(QueryType type) {
+        switch (type) {
+            case INSERT:
+                return new Insert();
+            case UPDATE:
+                return new Update();
+            case DELETE:
+                return new Delete();
+            default:
+                return new Select();
+        }
+    }
+
     @Override
     public boolean hasTable(String table) {
         return false;
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.pool;
+
+import com.avairebot.BaseTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTests extends BaseTest {
+
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        Class.forName("org.sqlite.JDBC");
+
+        pool = new ConnectionPool("test", () -> DriverManager.getConnection("jdbc:sqlite::memory:"),
+            new ConnectionPoolConfig(1, 2, 100, 30000, 1, 600000, 0)
+        );
+        pool.start();
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void testPoolOpensTheMinimumAmountOfConnections() {
+        assertEquals(1, pool.getIdleConnections());
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    public void testClosingBorrowedConnectionReturnsItToThePool() throws SQLException {
+        Connection connection = pool.borrow();
+        assertEquals(1, pool.getActiveConnections());
+        assertEquals(0, pool.getIdleConnections());
+
+        connection.close();
+        assertTrue(connection.isClosed());
+        assertEquals(0, pool.getActiveConnections());
+        assertEquals(1, pool.getIdleConnections());
+    }
+
+    @Test
+    public void testClosingConnectionTwiceOnlyReturnsItOnce() throws SQLException {
+        Connection connection = pool.borrow();
+
+        connection.close();
+        connection.close();
+
+        assertEquals(1, pool.getIdleConnections());
+    }
+
+    @Test
+    public void testReturnedConnectionsCanNotBeUsed() throws SQLException {
+        Connection connection = pool.borrow();
+        connection.close();
+
+        assertThrows(SQLException.class, connection::createStatement);
+    }
+
+    @Test
+    public void testBorrowingTimesOutWhenThePoolIsExhausted() throws SQLException {
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+
+        assertThrows(SQLTimeoutException.class, pool::borrow);
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testAutoCommitIsRestoredWhenConnectionIsReturned() throws SQLException {
+        Connection connection = pool.borrow();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        try (Connection reused = pool.borrow()) {
+            assertTrue(reused.getAutoCommit());
+        }
+    }
+}
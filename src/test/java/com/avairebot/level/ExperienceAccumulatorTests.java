@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExperienceAccumulatorTests extends BaseTest {
+
+    @Test
+    public void testExperienceIsCoalescedPerPlayer() {
+        ExperienceAccumulator accumulator = new ExperienceAccumulator();
+
+        accumulator.add(1L, 10L, 12, false);
+        accumulator.add(1L, 10L, 15, false);
+        accumulator.add(2L, 10L, 11, false);
+
+        assertEquals(2, accumulator.size());
+        assertEquals(27, accumulator.getLocalExperience(1L, 10L));
+        assertEquals(11, accumulator.getLocalExperience(2L, 10L));
+        assertEquals(0, accumulator.getLocalExperience(3L, 10L));
+    }
+
+    @Test
+    public void testExcludedLocalExperienceIsOnlyAddedGlobally() {
+        ExperienceAccumulator accumulator = new ExperienceAccumulator();
+
+        accumulator.add(1L, 10L, 12, false);
+        accumulator.add(1L, 10L, 15, true);
+
+        List<ExperienceEntity> entities = accumulator.drain();
+
+        assertEquals(1, entities.size());
+        assertEquals(27, entities.get(0).getExperience());
+        assertEquals(12, entities.get(0).getLocalExperience());
+    }
+
+    @Test
+    public void testDrainingEmptiesTheAccumulator() {
+        ExperienceAccumulator accumulator = new ExperienceAccumulator();
+
+        for (long userId = 1; userId <= 1000; userId++) {
+            accumulator.add(284083636368834561L, userId, 10, false);
+        }
+
+        assertEquals(1000, accumulator.size());
+        assertEquals(1000, accumulator.drain().size());
+        assertTrue(accumulator.isEmpty());
+        assertEquals(0, accumulator.getLocalExperience(284083636368834561L, 500L));
+    }
+}
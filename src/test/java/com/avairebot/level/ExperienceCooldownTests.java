@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+package com.avairebot.level;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExperienceCooldownTests extends BaseTest {
+
+    @Test
+    public void testCooldownCanOnlyBeAcquiredOnce() {
+        ExperienceCooldown cooldown = new ExperienceCooldown(60000L);
+
+        assertTrue(cooldown.tryAcquire(1L, 10L, 1000L));
+        assertFalse(cooldown.tryAcquire(1L, 10L, 2000L));
+        assertTrue(cooldown.isOnCooldown(1L, 10L, 2000L));
+
+        assertFalse(cooldown.isOnCooldown(2L, 10L, 2000L));
+        assertTrue(cooldown.tryAcquire(2L, 10L, 2000L));
+    }
+
+    @Test
+    public void testCooldownExpiresAfterTheDuration() {
+        ExperienceCooldown cooldown = new ExperienceCooldown(60000L);
+
+        assertTrue(cooldown.tryAcquire(1L, 10L, 1000L));
+        assertTrue(cooldown.isOnCooldown(1L, 10L, 60999L));
+        assertFalse(cooldown.isOnCooldown(1L, 10L, 61000L));
+        assertTrue(cooldown.tryAcquire(1L, 10L, 61000L));
+    }
+
+    @Test
+    public void testExpiredCooldownsAreDroppedWhenTheTablesFillUp() {
+        ExperienceCooldown cooldown = new ExperienceCooldown(60000L);
+
+        for (long userId = 1; userId <= 5000; userId++) {
+            assertTrue(cooldown.tryAcquire(284083636368834561L, userId, 1000L));
+        }
+        assertEquals(5000, cooldown.size());
+
+        for (long userId = 5001; userId <= 10000; userId++) {
+            assertTrue(cooldown.tryAcquire(284083636368834561L, userId, 100000L));
+        }
+
+        assertTrue(cooldown.size() < 10000);
+        assertFalse(cooldown.isOnCooldown(284083636368834561L, 2500L, 100000L));
+        assertTrue(cooldown.isOnCooldown(284083636368834561L, 7500L, 100000L));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RankTreeTests extends BaseTest {
+
+    @Test
+    public void testPlayersAreRankedByExperience() {
+        RankTree tree = new RankTree(0);
+
+        tree.set(1L, 500L);
+        tree.set(2L, 1500L);
+        tree.set(3L, 1000L);
+
+        assertEquals(3, tree.size());
+        assertEquals(1, tree.getRank(2L));
+        assertEquals(2, tree.getRank(3L));
+        assertEquals(3, tree.getRank(1L));
+        assertEquals(0, tree.getRank(4L));
+    }
+
+    @Test
+    public void testPlayersWithTheSameExperienceShareTheirRank() {
+        RankTree tree = new RankTree(0);
+
+        tree.set(1L, 100L);
+        tree.set(2L, 200L);
+        tree.set(3L, 200L);
+
+        assertEquals(1, tree.getRank(2L));
+        assertEquals(1, tree.getRank(3L));
+        assertEquals(3, tree.getRank(1L));
+    }
+
+    @Test
+    public void testIncrementingExperienceMovesThePlayer() {
+        RankTree tree = new RankTree(0);
+
+        tree.set(1L, 100L);
+        tree.set(2L, 200L);
+        tree.increment(1L, 150, 100);
+        tree.increment(3L, 25, 100);
+
+        assertEquals(3, tree.size());
+        assertEquals(250, tree.getExperience(1L, 0));
+        assertEquals(125, tree.getExperience(3L, 0));
+        assertEquals(1, tree.getRank(1L));
+        assertEquals(2, tree.getRank(2L));
+        assertEquals(3, tree.getRank(3L));
+    }
+
+    @Test
+    public void testRanksMatchASortedListAfterManyUpdates() {
+        RankTree tree = new RankTree(0);
+        Random random = new Random(1337);
+        long[] experience = new long[5000];
+
+        for (int i = 0; i < 50000; i++) {
+            int userId = random.nextInt(experience.length);
+            int amount = random.nextInt(20);
+
+            experience[userId] += amount;
+            tree.increment(userId + 1, amount, 0);
+        }
+
+        for (int userId = 0; userId < experience.length; userId += 97) {
+            long greater = 0;
+            for (long other : experience) {
+                if (other > experience[userId]) {
+                    greater++;
+                }
+            }
+
+            if (tree.getExperience(userId + 1, -1) != -1) {
+                assertEquals(greater + 1, tree.getRank(userId + 1));
+            }
+        }
+    }
+}